@@ -34,6 +34,7 @@ import javax.ws.rs.QueryParam;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import org.apache.pinot.broker.api.RequestStatistics;
 import org.apache.pinot.broker.requesthandler.BrokerRequestHandler;
 import org.apache.pinot.common.metrics.BrokerMeter;
@@ -64,7 +65,7 @@ public class PinotClientRequest {
   @Path("query")
   @ApiOperation(value = "Querying pinot")
   @ApiResponses(value = {@ApiResponse(code = 200, message = "Query response"), @ApiResponse(code = 500, message = "Internal Server Error")})
-  public String processQueryGet(
+  public StreamingOutput processQueryGet(
       // Query param "bql" is for backward compatibility
       @ApiParam(value = "Query", required = true) @QueryParam("bql") String query,
       @ApiParam(value = "Trace enabled") @QueryParam(TRACE) String traceEnabled,
@@ -79,7 +80,7 @@ public class PinotClientRequest {
         requestJson.put(DEBUG_OPTIONS, debugOptions);
       }
       BrokerResponse brokerResponse = requestHandler.handleRequest(requestJson, null, new RequestStatistics());
-      return brokerResponse.toJsonString();
+      return getResponseOutput(brokerResponse, BrokerMeter.UNCAUGHT_GET_EXCEPTIONS);
     } catch (Exception e) {
       LOGGER.error("Caught exception while processing GET request", e);
       brokerMetrics.addMeteredGlobalValue(BrokerMeter.UNCAUGHT_GET_EXCEPTIONS, 1L);
@@ -92,15 +93,31 @@ public class PinotClientRequest {
   @Path("query")
   @ApiOperation(value = "Querying pinot")
   @ApiResponses(value = {@ApiResponse(code = 200, message = "Query response"), @ApiResponse(code = 500, message = "Internal Server Error")})
-  public String processQueryPost(String query) {
+  public StreamingOutput processQueryPost(String query) {
     try {
       JsonNode requestJson = JsonUtils.stringToJsonNode(query);
       BrokerResponse brokerResponse = requestHandler.handleRequest(requestJson, null, new RequestStatistics());
-      return brokerResponse.toJsonString();
+      return getResponseOutput(brokerResponse, BrokerMeter.UNCAUGHT_POST_EXCEPTIONS);
     } catch (Exception e) {
       LOGGER.error("Caught exception while processing POST request", e);
       brokerMetrics.addMeteredGlobalValue(BrokerMeter.UNCAUGHT_POST_EXCEPTIONS, 1L);
       throw new WebApplicationException(e, Response.Status.INTERNAL_SERVER_ERROR);
     }
   }
+
+  /**
+   * Returns the output that writes the broker response JSON directly into the HTTP response stream, so that the whole
+   * response String is never materialized.
+   */
+  private StreamingOutput getResponseOutput(BrokerResponse brokerResponse, BrokerMeter exceptionMeter) {
+    return outputStream -> {
+      try {
+        brokerResponse.toOutputStream(outputStream);
+      } catch (Exception e) {
+        LOGGER.error("Caught exception while writing the broker response", e);
+        brokerMetrics.addMeteredGlobalValue(exceptionMeter, 1L);
+        throw new WebApplicationException(e, Response.Status.INTERNAL_SERVER_ERROR);
+      }
+    };
+  }
 }
@@ -46,6 +46,7 @@ import org.apache.pinot.broker.broker.BrokerServerBuilder;
 import org.apache.pinot.broker.queryquota.HelixExternalViewBasedQueryQuotaManager;
 import org.apache.pinot.broker.requesthandler.BrokerRequestHandler;
 import org.apache.pinot.broker.requesthandler.ConnectionPoolBrokerRequestHandler;
+import org.apache.pinot.broker.requesthandler.SingleConnectionBrokerRequestHandler;
 import org.apache.pinot.broker.routing.HelixExternalViewBasedRouting;
 import org.apache.pinot.common.Utils;
 import org.apache.pinot.common.config.TagNameUtils;
@@ -172,7 +173,9 @@ public class HelixBrokerStarter {
     _helixExternalViewBasedRouting =
         new HelixExternalViewBasedRouting(_brokerConf.subset(Broker.ROUTING_TABLE_CONFIG_PREFIX));
     _helixExternalViewBasedRouting.init(_spectatorHelixManager);
-    _helixExternalViewBasedQueryQuotaManager = new HelixExternalViewBasedQueryQuotaManager();
+    _helixExternalViewBasedQueryQuotaManager = new HelixExternalViewBasedQueryQuotaManager(
+        _brokerConf.getDouble(Broker.CONFIG_OF_BROKER_QUERY_QUOTA_MAX_BURST_SECONDS,
+            Broker.DEFAULT_BROKER_QUERY_QUOTA_MAX_BURST_SECONDS));
     _helixExternalViewBasedQueryQuotaManager.init(_spectatorHelixManager);
     _brokerServerBuilder = new BrokerServerBuilder(_brokerConf, _helixExternalViewBasedRouting,
         _helixExternalViewBasedRouting.getTimeBoundaryService(), _helixExternalViewBasedQueryQuotaManager);
@@ -184,6 +187,10 @@ public class HelixBrokerStarter {
     }
     BrokerMetrics brokerMetrics = _brokerServerBuilder.getBrokerMetrics();
     _helixExternalViewBasedRouting.setBrokerMetrics(brokerMetrics);
+    if (brokerRequestHandler instanceof SingleConnectionBrokerRequestHandler) {
+      _helixExternalViewBasedRouting.setServerStatsTracker(
+          ((SingleConnectionBrokerRequestHandler) brokerRequestHandler).getServerStatsTracker());
+    }
     _helixExternalViewBasedQueryQuotaManager.setBrokerMetrics(brokerMetrics);
     _brokerServerBuilder.start();
 
@@ -21,7 +21,6 @@ package org.apache.pinot.broker.queryquota;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
-import com.google.common.util.concurrent.RateLimiter;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -52,10 +51,21 @@ public class HelixExternalViewBasedQueryQuotaManager implements ClusterChangeHan
 
   private final AtomicInteger _lastKnownBrokerResourceVersion = new AtomicInteger(-1);
   private final Map<String, QueryQuotaConfig> _rateLimiterMap = new ConcurrentHashMap<>();
+  // Max number of seconds of unused quota that can be stored to serve a burst of queries
+  private final double _maxBurstSeconds;
 
   private HelixManager _helixManager;
   private BrokerMetrics _brokerMetrics;
 
+  public HelixExternalViewBasedQueryQuotaManager() {
+    this(TokenBucketRateLimiter.DEFAULT_MAX_BURST_SECONDS);
+  }
+
+  public HelixExternalViewBasedQueryQuotaManager(double maxBurstSeconds) {
+    Preconditions.checkArgument(maxBurstSeconds >= 0, "Max burst seconds must be non-negative");
+    _maxBurstSeconds = maxBurstSeconds;
+  }
+
   @Override
   public void init(HelixManager helixManager) {
     Preconditions.checkState(_helixManager == null, "HelixExternalViewBasedQueryQuotaManager is already initialized");
@@ -182,7 +192,8 @@ public class HelixExternalViewBasedQueryQuotaManager implements ClusterChangeHan
 
     double perBrokerRate = overallRate / onlineCount;
     QueryQuotaConfig queryQuotaConfig =
-        new QueryQuotaConfig(RateLimiter.create(perBrokerRate), new HitCounter(TIME_RANGE_IN_SECOND));
+        new QueryQuotaConfig(new TokenBucketRateLimiter(perBrokerRate, _maxBurstSeconds),
+            new HitCounter(TIME_RANGE_IN_SECOND));
     _rateLimiterMap.put(tableNameWithType, queryQuotaConfig);
     LOGGER.info(
         "Rate limiter for table: {} has been initialized. Overall rate: {}. Per-broker rate: {}. Number of online broker instances: {}",
@@ -235,7 +246,7 @@ public class HelixExternalViewBasedQueryQuotaManager implements ClusterChangeHan
     // Use hit counter to count the number of hits.
     queryQuotaConfig.getHitCounter().hit();
 
-    RateLimiter rateLimiter = queryQuotaConfig.getRateLimiter();
+    TokenBucketRateLimiter rateLimiter = queryQuotaConfig.getRateLimiter();
     double perBrokerRate = rateLimiter.getRate();
 
     // Emit the qps capacity utilization rate.
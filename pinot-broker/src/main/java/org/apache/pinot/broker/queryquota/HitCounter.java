@@ -19,7 +19,6 @@
 package org.apache.pinot.broker.queryquota;
 
 import com.google.common.annotations.VisibleForTesting;
-import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.concurrent.atomic.AtomicLongArray;
 
 
@@ -28,17 +27,25 @@ import java.util.concurrent.atomic.AtomicLongArray;
  * In order to save the space and time, we store the number of hits over the last 100 time buckets. When the method hit
  * gets called, we put the timestamp to the specified bucket. When the method getHitCount gets called, we sum all the number
  * of hits within the last 100 time buckets.
+ * <p>The start time (lower 32 bits of the number of time units) and the hit count of each bucket are packed into a
+ * single long (upper and lower 32 bits), so that the bucket can be rotated with CAS without acquiring any lock.
+ * <p>Similar to {@link java.util.concurrent.atomic.LongAdder}, the buckets are striped by thread so that the concurrent
+ * hits within the same time bucket do not contend on the same CAS. Each stripe has its own set of buckets (laid out
+ * contiguously so that the stripes do not share cache lines), and the hit count is the sum over all the stripes.
  */
 public class HitCounter {
   private static int BUCKET_COUNT = 100;
+  private static final int MAX_NUM_STRIPES = 8;
+  // Power of 2 so that the stripe can be picked with a mask
+  private static final int NUM_STRIPES =
+      Math.min(MAX_NUM_STRIPES, Integer.highestOneBit(Math.max(Runtime.getRuntime().availableProcessors(), 1)));
+
   private final int _timeBucketWidthMs;
-  private final AtomicLongArray _bucketStartTime;
-  private final AtomicIntegerArray _bucketHitCount;
+  private final AtomicLongArray _buckets;
 
   public HitCounter(int timeRangeInSeconds) {
     _timeBucketWidthMs = timeRangeInSeconds * 1000 / BUCKET_COUNT;
-    _bucketStartTime = new AtomicLongArray(BUCKET_COUNT);
-    _bucketHitCount = new AtomicIntegerArray(BUCKET_COUNT);
+    _buckets = new AtomicLongArray(NUM_STRIPES * BUCKET_COUNT);
   }
 
   /**
@@ -51,17 +58,19 @@ public class HitCounter {
   @VisibleForTesting
   void hit(long timestamp) {
     long numTimeUnits = timestamp / _timeBucketWidthMs;
-    int index = (int) (numTimeUnits % BUCKET_COUNT);
-    if (_bucketStartTime.get(index) == numTimeUnits) {
-      _bucketHitCount.incrementAndGet(index);
-    } else {
-      synchronized (_bucketStartTime) {
-        if (_bucketStartTime.get(index) != numTimeUnits) {
-          _bucketHitCount.set(index, 1);
-          _bucketStartTime.set(index, numTimeUnits);
-        } else {
-          _bucketHitCount.incrementAndGet(index);
-        }
+    int stripe = (int) Thread.currentThread().getId() & (NUM_STRIPES - 1);
+    int index = stripe * BUCKET_COUNT + (int) (numTimeUnits % BUCKET_COUNT);
+    int bucketStartTime = (int) numTimeUnits;
+    while (true) {
+      long bucket = _buckets.get(index);
+      long newBucket;
+      if (getBucketStartTime(bucket) == bucketStartTime) {
+        newBucket = bucket + 1;
+      } else {
+        newBucket = ((long) bucketStartTime << 32) | 1L;
+      }
+      if (_buckets.compareAndSet(index, bucket, newBucket)) {
+        return;
       }
     }
   }
@@ -75,13 +84,25 @@ public class HitCounter {
 
   @VisibleForTesting
   int getHitCount(long timestamp) {
-    long numTimeUnits = timestamp / _timeBucketWidthMs;
+    int numTimeUnits = (int) (timestamp / _timeBucketWidthMs);
     int count = 0;
-    for (int i = 0; i < BUCKET_COUNT; i++) {
-      if (numTimeUnits - _bucketStartTime.get(i) < BUCKET_COUNT) {
-        count += _bucketHitCount.get(i);
+    int numBuckets = _buckets.length();
+    for (int i = 0; i < numBuckets; i++) {
+      long bucket = _buckets.get(i);
+      // NOTE: use integer subtraction to handle the overflow of the lower 32 bits of the number of time units
+      int numTimeUnitsSinceBucketStart = numTimeUnits - getBucketStartTime(bucket);
+      if (numTimeUnitsSinceBucketStart >= 0 && numTimeUnitsSinceBucketStart < BUCKET_COUNT) {
+        count += getBucketHitCount(bucket);
       }
     }
     return count;
   }
+
+  private static int getBucketStartTime(long bucket) {
+    return (int) (bucket >>> 32);
+  }
+
+  private static int getBucketHitCount(long bucket) {
+    return (int) bucket;
+  }
 }
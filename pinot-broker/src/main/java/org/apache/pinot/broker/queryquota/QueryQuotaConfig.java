@@ -18,21 +18,20 @@
  */
 package org.apache.pinot.broker.queryquota;
 
-import com.google.common.util.concurrent.RateLimiter;
 import javax.annotation.Nonnull;
 
 
 public class QueryQuotaConfig {
 
-  private RateLimiter _rateLimiter;
+  private TokenBucketRateLimiter _rateLimiter;
   private HitCounter _hitCounter;
 
-  public QueryQuotaConfig(@Nonnull RateLimiter rateLimiter, @Nonnull HitCounter hitCounter) {
+  public QueryQuotaConfig(@Nonnull TokenBucketRateLimiter rateLimiter, @Nonnull HitCounter hitCounter) {
     _rateLimiter = rateLimiter;
     _hitCounter = hitCounter;
   }
 
-  public RateLimiter getRateLimiter() {
+  public TokenBucketRateLimiter getRateLimiter() {
     return _rateLimiter;
   }
 
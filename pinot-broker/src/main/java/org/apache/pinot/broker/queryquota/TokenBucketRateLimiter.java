@@ -0,0 +1,103 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.queryquota;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Lock-free token bucket rate limiter used for the query quota, as a replacement of the Guava {@code RateLimiter} which
+ * acquires a lock for each permit.
+ * <p>The token bucket is tracked with a single timestamp (the time when the next token is available), which is updated
+ * with CAS, so no lock is needed to refill the bucket. The idle time is accumulated as stored tokens up to
+ * {@code maxBurstSeconds} worth of tokens, which allows a burst of queries after the bucket is idle (same as the Guava
+ * {@code SmoothBursty} rate limiter).
+ */
+public class TokenBucketRateLimiter {
+  public static final double DEFAULT_MAX_BURST_SECONDS = 1.0;
+
+  private final double _maxBurstSeconds;
+  // Time (in nanoseconds) when the next token is available, which can be up to max burst behind the current time when
+  // there are stored tokens
+  private final AtomicLong _nextFreeTokenNanos;
+
+  private volatile double _rate;
+  private volatile long _tokenIntervalNanos;
+  private volatile long _maxBurstNanos;
+
+  public TokenBucketRateLimiter(double rate) {
+    this(rate, DEFAULT_MAX_BURST_SECONDS);
+  }
+
+  public TokenBucketRateLimiter(double rate, double maxBurstSeconds) {
+    Preconditions.checkArgument(maxBurstSeconds >= 0, "Max burst seconds must be non-negative");
+    _maxBurstSeconds = maxBurstSeconds;
+    _nextFreeTokenNanos = new AtomicLong(System.nanoTime());
+    setRate(rate);
+  }
+
+  /**
+   * Returns the number of tokens per second.
+   */
+  public double getRate() {
+    return _rate;
+  }
+
+  /**
+   * Updates the number of tokens per second. The stored tokens are not changed.
+   */
+  public void setRate(double rate) {
+    Preconditions.checkArgument(rate > 0 && !Double.isNaN(rate), "Rate must be positive");
+    _rate = rate;
+    _tokenIntervalNanos = Math.max((long) (TimeUnit.SECONDS.toNanos(1) / rate), 1L);
+    _maxBurstNanos = (long) (TimeUnit.SECONDS.toNanos(1) * _maxBurstSeconds);
+  }
+
+  /**
+   * Tries to acquire a token without waiting.
+   *
+   * @return Whether the token is acquired
+   */
+  public boolean tryAcquire() {
+    return tryAcquire(System.nanoTime());
+  }
+
+  @VisibleForTesting
+  boolean tryAcquire(long nowNanos) {
+    long tokenIntervalNanos = _tokenIntervalNanos;
+    long maxBurstNanos = _maxBurstNanos;
+    while (true) {
+      long nextFreeTokenNanos = _nextFreeTokenNanos.get();
+      // NOTE: use subtraction to compare nano times to handle overflow
+      if (nextFreeTokenNanos - nowNanos > 0) {
+        return false;
+      }
+      // Cap the stored tokens to the max burst
+      long earliestNanos = nowNanos - maxBurstNanos;
+      long newNextFreeTokenNanos =
+          (nextFreeTokenNanos - earliestNanos > 0 ? nextFreeTokenNanos : earliestNanos) + tokenIntervalNanos;
+      if (_nextFreeTokenNanos.compareAndSet(nextFreeTokenNanos, newNextFreeTokenNanos)) {
+        return true;
+      }
+    }
+  }
+}
@@ -81,7 +81,9 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
 
   protected final AtomicLong _requestIdGenerator = new AtomicLong();
   protected final BrokerRequestOptimizer _brokerRequestOptimizer = new BrokerRequestOptimizer();
-  protected final BrokerReduceService _brokerReduceService = new BrokerReduceService();
+  protected final BrokerReduceService _brokerReduceService;
+  // Cache of the compiled broker requests, null if disabled
+  protected final BrokerRequestCache _brokerRequestCache;
 
   protected final String _brokerId;
   protected final long _brokerTimeoutMs;
@@ -113,6 +115,14 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
     _numDroppedLog = new AtomicInteger(0);
     _numDroppedLogRateLimiter = RateLimiter.create(1.0);
 
+    _brokerReduceService = new BrokerReduceService(
+        config.getInt(Broker.CONFIG_OF_BROKER_REDUCE_FAN_IN, Broker.DEFAULT_BROKER_REDUCE_FAN_IN),
+        config.getInt(Broker.CONFIG_OF_BROKER_REDUCE_NUM_THREADS, Broker.DEFAULT_BROKER_REDUCE_NUM_THREADS));
+    int brokerRequestCacheSize =
+        config.getInt(Broker.CONFIG_OF_BROKER_REQUEST_CACHE_SIZE, Broker.DEFAULT_BROKER_REQUEST_CACHE_SIZE);
+    _brokerRequestCache =
+        brokerRequestCacheSize > 0 ? new BrokerRequestCache(brokerRequestCacheSize, brokerMetrics) : null;
+
     LOGGER
         .info("Broker Id: {}, timeout: {}ms, query response limit: {}, query log length: {}, query log max rate: {}qps",
             _brokerId, _brokerTimeoutMs, _queryResponseLimit, _queryLogLength, _queryLogRateLimiter.getRate());
@@ -146,7 +156,11 @@ public abstract class BaseBrokerRequestHandler implements BrokerRequestHandler {
     long compilationStartTimeNs = System.nanoTime();
     BrokerRequest brokerRequest;
     try {
-      brokerRequest = PinotQueryParserFactory.get(pinotQueryRequest.getQueryFormat()).compileToBrokerRequest(query);
+      if (_brokerRequestCache != null) {
+        brokerRequest = _brokerRequestCache.compile(pinotQueryRequest);
+      } else {
+        brokerRequest = PinotQueryParserFactory.parsePinotQueryRequest(pinotQueryRequest);
+      }
     } catch (Exception e) {
       LOGGER.info("Caught exception while compiling request {}: {}, {}", requestId, query, e.getMessage());
       _brokerMetrics.addMeteredGlobalValue(BrokerMeter.REQUEST_COMPILATION_EXCEPTIONS, 1);
@@ -0,0 +1,98 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.requesthandler;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.common.metrics.BrokerMeter;
+import org.apache.pinot.common.metrics.BrokerMetrics;
+import org.apache.pinot.common.request.BrokerRequest;
+
+
+/**
+ * The {@code BrokerRequestCache} caches the compiled {@link BrokerRequest}s keyed by the query format and the
+ * normalized query text, so that the queries sent repeatedly (e.g. from dashboards) are only parsed once.
+ * <p>The broker request gets modified while processing the query (table name, options, filter optimization), so a deep
+ * copy of the cached broker request is returned for each query.
+ */
+@ThreadSafe
+public class BrokerRequestCache {
+  private final Cache<String, BrokerRequest> _cache;
+  private final BrokerMetrics _brokerMetrics;
+
+  public BrokerRequestCache(int maxSize, BrokerMetrics brokerMetrics) {
+    _cache = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+    _brokerMetrics = brokerMetrics;
+  }
+
+  /**
+   * Returns the compiled broker request for the given query request, compiles and caches it on cache miss.
+   */
+  public BrokerRequest compile(PinotQueryRequest pinotQueryRequest) {
+    String key = pinotQueryRequest.getQueryFormat() + ':' + normalizeQuery(pinotQueryRequest.getQuery());
+    BrokerRequest cachedBrokerRequest = _cache.getIfPresent(key);
+    if (cachedBrokerRequest != null) {
+      _brokerMetrics.addMeteredGlobalValue(BrokerMeter.REQUEST_COMPILATION_CACHE_HITS, 1);
+      return cachedBrokerRequest.deepCopy();
+    }
+    BrokerRequest brokerRequest = PinotQueryParserFactory.parsePinotQueryRequest(pinotQueryRequest);
+    _cache.put(key, brokerRequest.deepCopy());
+    return brokerRequest;
+  }
+
+  /**
+   * Normalizes the query text by trimming it and collapsing the consecutive whitespaces outside of the quoted literals
+   * into a single space.
+   * <p>Queries with escape character or comment are only trimmed to avoid mis-detecting the boundary of the quoted
+   * literals or the comments.
+   */
+  @VisibleForTesting
+  static String normalizeQuery(String query) {
+    String trimmedQuery = query.trim();
+    if (trimmedQuery.indexOf('\\') >= 0 || trimmedQuery.contains("--") || trimmedQuery.contains("/*")) {
+      return trimmedQuery;
+    }
+    int length = trimmedQuery.length();
+    StringBuilder stringBuilder = new StringBuilder(length);
+    char quote = 0;
+    boolean previousWhitespace = false;
+    for (int i = 0; i < length; i++) {
+      char c = trimmedQuery.charAt(i);
+      if (quote != 0) {
+        // Inside quoted literal
+        if (c == quote) {
+          quote = 0;
+        }
+      } else if (Character.isWhitespace(c)) {
+        if (!previousWhitespace) {
+          stringBuilder.append(' ');
+          previousWhitespace = true;
+        }
+        continue;
+      } else if (c == '\'' || c == '"' || c == '`') {
+        quote = c;
+      }
+      stringBuilder.append(c);
+      previousWhitespace = false;
+    }
+    return stringBuilder.toString();
+  }
+}
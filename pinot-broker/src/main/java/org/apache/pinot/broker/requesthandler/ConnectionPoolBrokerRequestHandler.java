@@ -130,6 +130,7 @@ public class ConnectionPoolBrokerRequestHandler extends BaseBrokerRequestHandler
     _requestSenderPool.shutdown();
     _poolTimeoutExecutor.shutdown();
     _eventLoopGroup.shutdownGracefully();
+    _brokerReduceService.shutDown();
   }
 
   @Override
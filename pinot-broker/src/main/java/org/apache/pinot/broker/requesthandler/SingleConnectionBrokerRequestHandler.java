@@ -36,18 +36,22 @@ import org.apache.pinot.common.metrics.BrokerQueryPhase;
 import org.apache.pinot.common.request.BrokerRequest;
 import org.apache.pinot.common.response.BrokerResponse;
 import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.common.utils.CommonConstants.Broker;
 import org.apache.pinot.common.utils.DataTable;
 import org.apache.pinot.common.utils.HashUtil;
 import org.apache.pinot.core.transport.AsyncQueryResponse;
+import org.apache.pinot.core.transport.HedgingPolicy;
+import org.apache.pinot.core.transport.NettyTransportConfig;
 import org.apache.pinot.core.transport.QueryRouter;
 import org.apache.pinot.core.transport.ServerInstance;
 import org.apache.pinot.core.transport.ServerResponse;
 import org.apache.pinot.core.transport.ServerRoutingInstance;
+import org.apache.pinot.core.transport.ServerStatsTracker;
 
 
 /**
  * The <code>SingleConnectionBrokerRequestHandler</code> class is a thread-safe broker request handler using a single
- * connection per server to route the queries.
+ * connection (or a configurable small pool of multiplexed connections) per server to route the queries.
  */
 @ThreadSafe
 public class SingleConnectionBrokerRequestHandler extends BaseBrokerRequestHandler {
@@ -57,7 +61,16 @@ public class SingleConnectionBrokerRequestHandler extends BaseBrokerRequestHandl
       TimeBoundaryService timeBoundaryService, AccessControlFactory accessControlFactory,
       QueryQuotaManager queryQuotaManager, BrokerMetrics brokerMetrics) {
     super(config, routingTable, timeBoundaryService, accessControlFactory, queryQuotaManager, brokerMetrics);
-    _queryRouter = new QueryRouter(_brokerId, brokerMetrics);
+    _queryRouter = new QueryRouter(_brokerId, brokerMetrics,
+        _config.getInt(Broker.CONFIG_OF_NUM_CHANNELS_PER_SERVER, Broker.DEFAULT_NUM_CHANNELS_PER_SERVER),
+        NettyTransportConfig.fromConfiguration(_config.subset(Broker.NETTY_CONFIG_PREFIX)));
+  }
+
+  /**
+   * Returns the tracker of the live server stats collected from the query responses.
+   */
+  public ServerStatsTracker getServerStatsTracker() {
+    return _queryRouter.getServerStatsTracker();
   }
 
   @Override
@@ -67,6 +80,7 @@ public class SingleConnectionBrokerRequestHandler extends BaseBrokerRequestHandl
   @Override
   public synchronized void shutDown() {
     _queryRouter.shutDown();
+    _brokerReduceService.shutDown();
   }
 
   @Override
@@ -78,11 +92,19 @@ public class SingleConnectionBrokerRequestHandler extends BaseBrokerRequestHandl
     assert offlineBrokerRequest != null || realtimeBrokerRequest != null;
 
     String rawTableName = TableNameBuilder.extractRawTableName(originalBrokerRequest.getQuerySource().getTableName());
+    HedgingPolicy offlineHedgingPolicy = offlineBrokerRequest != null ? _routingTable
+        .getHedgingPolicy(offlineBrokerRequest.getQuerySource().getTableName()) : null;
+    HedgingPolicy realtimeHedgingPolicy = realtimeBrokerRequest != null ? _routingTable
+        .getHedgingPolicy(realtimeBrokerRequest.getQuerySource().getTableName()) : null;
     long scatterGatherStartTimeNs = System.nanoTime();
     AsyncQueryResponse asyncQueryResponse = _queryRouter
         .submitQuery(requestId, rawTableName, offlineBrokerRequest, offlineRoutingTable, realtimeBrokerRequest,
-            realtimeRoutingTable, timeoutMs);
+            realtimeRoutingTable, timeoutMs, offlineHedgingPolicy, realtimeHedgingPolicy);
     Map<ServerRoutingInstance, ServerResponse> response = asyncQueryResponse.getResponse();
+    int numHedgedRequestWins = asyncQueryResponse.getNumHedgedRequestWins();
+    if (numHedgedRequestWins > 0) {
+      _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.HEDGED_REQUEST_WINS, numHedgedRequestWins);
+    }
     _brokerMetrics
         .addPhaseTiming(rawTableName, BrokerQueryPhase.SCATTER_GATHER, System.nanoTime() - scatterGatherStartTimeNs);
     // TODO Use scatterGatherStats as serverStats
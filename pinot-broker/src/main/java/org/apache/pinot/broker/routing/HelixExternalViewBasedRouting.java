@@ -31,6 +31,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 import org.apache.commons.configuration.Configuration;
 import org.apache.helix.AccessOption;
 import org.apache.helix.HelixConstants;
@@ -55,7 +56,9 @@ import org.apache.pinot.common.utils.EqualityUtils;
 import org.apache.pinot.common.utils.JsonUtils;
 import org.apache.pinot.common.utils.NetUtil;
 import org.apache.pinot.common.utils.helix.HelixHelper;
+import org.apache.pinot.core.transport.HedgingPolicy;
 import org.apache.pinot.core.transport.ServerInstance;
+import org.apache.pinot.core.transport.ServerStatsTracker;
 import org.apache.zookeeper.data.Stat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -86,6 +89,7 @@ public class HelixExternalViewBasedRouting implements ClusterChangeHandler, Rout
   private RoutingTableBuilderFactory _routingTableBuilderFactory;
   private SegmentSelectorProvider _segmentSelectorProvider;
   private BrokerMetrics _brokerMetrics;
+  private ServerStatsTracker _serverStatsTracker;
 
   public HelixExternalViewBasedRouting(Configuration configuration) {
     _configuration = configuration;
@@ -124,16 +128,33 @@ public class HelixExternalViewBasedRouting implements ClusterChangeHandler, Rout
     return _routingTableBuilderMap.containsKey(tableNameWithType);
   }
 
+  @Nullable
+  @Override
+  public HedgingPolicy getHedgingPolicy(String tableNameWithType) {
+    RoutingTableBuilder routingTableBuilder = _routingTableBuilderMap.get(tableNameWithType);
+    return routingTableBuilder != null ? routingTableBuilder.getHedgingPolicy() : null;
+  }
+
   public void setBrokerMetrics(BrokerMetrics brokerMetrics) {
     _brokerMetrics = brokerMetrics;
   }
 
+  /**
+   * Sets the tracker of the live server stats for the routing table builders with adaptive server selection enabled.
+   */
+  public void setServerStatsTracker(ServerStatsTracker serverStatsTracker) {
+    _serverStatsTracker = serverStatsTracker;
+  }
+
   public void markDataResourceOnline(TableConfig tableConfig, ExternalView externalView,
       List<InstanceConfig> instanceConfigList) {
     String tableName = tableConfig.getTableName();
 
     RoutingTableBuilder routingTableBuilder =
         _routingTableBuilderFactory.createRoutingTableBuilder(tableConfig, _brokerMetrics);
+    if (_serverStatsTracker != null) {
+      routingTableBuilder.setServerStatsTracker(_serverStatsTracker);
+    }
     LOGGER
         .info("Initialized routingTableBuilder: {} for table {}", routingTableBuilder.getClass().getName(), tableName);
     _routingTableBuilderMap.put(tableName, routingTableBuilder);
@@ -21,6 +21,7 @@ package org.apache.pinot.broker.routing;
 import java.util.List;
 import java.util.Map;
 import javax.annotation.Nullable;
+import org.apache.pinot.core.transport.HedgingPolicy;
 import org.apache.pinot.core.transport.ServerInstance;
 
 
@@ -46,6 +47,15 @@ public interface RoutingTable {
    */
   boolean routingTableExists(String tableNameWithType);
 
+  /**
+   * Returns the policy for the hedged requests for the given table, or {@code null} if hedged requests are not enabled.
+   *
+   * @param tableNameWithType Table name with type suffix
+   * @return Policy for the hedged requests
+   */
+  @Nullable
+  HedgingPolicy getHedgingPolicy(String tableNameWithType);
+
   /**
    * Dumps a snapshot of all the routing tables for the given table.
    *
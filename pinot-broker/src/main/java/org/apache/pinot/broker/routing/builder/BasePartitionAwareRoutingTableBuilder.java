@@ -54,6 +54,10 @@ import org.slf4j.LoggerFactory;
  *      a. Check if the segment can be pruned. If pruned, go to the next segment.
  *      b. If not pruned, assign the segment to a server with the replica id based on the shuffled replica group ids.
  *
+ * When all the partitioned segments are partitioned the same way, a {@link SegmentPartitionIndex} is also built on
+ * the external view change, and step 2a is replaced by looking up the segments for the partitions in the filter, so
+ * that the segments of the other partitions are never visited.
+ *
  */
 public abstract class BasePartitionAwareRoutingTableBuilder implements RoutingTableBuilder {
   private static final Logger LOGGER = LoggerFactory.getLogger(BasePartitionAwareRoutingTableBuilder.class);
@@ -65,6 +69,9 @@ public abstract class BasePartitionAwareRoutingTableBuilder implements RoutingTa
   // Set variable as volatile so all threads can get the up-to-date map
   protected volatile Map<String, Map<Integer, ServerInstance>> _segmentToReplicaToServerMap;
 
+  // Pre-computed partition index for the segments in the look up table, null if the segments cannot be indexed
+  private volatile SegmentPartitionIndex _segmentPartitionIndex;
+
   // Cache for segment zk metadata to reduce the lookup to ZK store
   protected Map<String, SegmentZKMetadata> _segmentToZkMetadataMapping = new ConcurrentHashMap<>();
 
@@ -92,17 +99,27 @@ public abstract class BasePartitionAwareRoutingTableBuilder implements RoutingTa
       SegmentSelector segmentSelector) {
     // Copy the reference for the current segment to replica to server mapping for snapshot
     Map<String, Map<Integer, ServerInstance>> segmentToReplicaToServerMap = _segmentToReplicaToServerMap;
+    // NOTE: the partition index must be read after the look up table (see updateSegmentToReplicaToServerMap())
+    SegmentPartitionIndex segmentPartitionIndex = _segmentPartitionIndex;
 
     // Get all available segments for table
     Set<String> segmentsToQuery = segmentToReplicaToServerMap.keySet();
 
+    // Prune the segments with the partition index if available
+    SegmentPrunerContext prunerContext = new SegmentPrunerContext(request.getBrokerRequest());
+    if (segmentPartitionIndex != null) {
+      Set<String> partitionSegments = segmentPartitionIndex.getSegmentsToQuery(prunerContext.getFilterQueryTree());
+      if (partitionSegments != null) {
+        segmentsToQuery = partitionSegments;
+      }
+    }
+
     // Selecting segments only required for processing a query
     if (segmentSelector != null) {
       segmentsToQuery = segmentSelector.selectSegments(request, segmentsToQuery);
     }
 
     Map<ServerInstance, List<String>> routingTable = new HashMap<>();
-    SegmentPrunerContext prunerContext = new SegmentPrunerContext(request.getBrokerRequest());
 
     // Shuffle the replica group ids in order to satisfy:
     // a. Pick a replica group in an evenly distributed fashion
@@ -114,14 +131,20 @@ public abstract class BasePartitionAwareRoutingTableBuilder implements RoutingTa
     IntArrays.shuffle(shuffledReplicaGroupIds, _random);
 
     for (String segmentName : segmentsToQuery) {
-      SegmentZKMetadata segmentZKMetadata = _segmentToZkMetadataMapping.get(segmentName);
-
-      // 2a. Check if the segment can be pruned
-      boolean segmentPruned = (segmentZKMetadata != null) && _pruner.prune(segmentZKMetadata, prunerContext);
+      // 2a. Check if the segment can be pruned (already pruned by the partition index if available)
+      boolean segmentPruned = false;
+      if (segmentPartitionIndex == null) {
+        SegmentZKMetadata segmentZKMetadata = _segmentToZkMetadataMapping.get(segmentName);
+        segmentPruned = (segmentZKMetadata != null) && _pruner.prune(segmentZKMetadata, prunerContext);
+      }
 
       if (!segmentPruned) {
         // 2b. Segment cannot be pruned. Assign the segment to a server based on the shuffled replica group ids
         Map<Integer, ServerInstance> replicaIdToServerMap = segmentToReplicaToServerMap.get(segmentName);
+        if (replicaIdToServerMap == null) {
+          // The partition index is newer than the look up table snapshot, and the segment is newly added
+          continue;
+        }
 
         ServerInstance serverInstance = null;
         for (int i = 0; i < _numReplicas; i++) {
@@ -151,6 +174,20 @@ public abstract class BasePartitionAwareRoutingTableBuilder implements RoutingTa
     throw new UnsupportedOperationException("Partition aware routing table cannot be pre-computed");
   }
 
+  /**
+   * Updates the look up table used for routing, and rebuilds the partition index for the segments in the look up table.
+   * <p>NOTE: the segment ZK metadata for all the segments should be cached in {@link #_segmentToZkMetadataMapping}
+   * before calling this method.
+   */
+  protected void updateSegmentToReplicaToServerMap(
+      Map<String, Map<Integer, ServerInstance>> segmentToReplicaToServerMap) {
+    // NOTE: the partition index must be updated before the look up table so that a query reading the new look up table
+    // never uses a stale partition index, which might miss the newly added segments
+    _segmentPartitionIndex =
+        SegmentPartitionIndex.build(segmentToReplicaToServerMap.keySet(), _segmentToZkMetadataMapping);
+    _segmentToReplicaToServerMap = segmentToReplicaToServerMap;
+  }
+
   protected void handleNoServingHost(String segmentName) {
     LOGGER.error("Found no server hosting segment {} for table {}", segmentName, _tableName);
     if (_brokerMetrics != null) {
@@ -38,7 +38,9 @@ import org.apache.pinot.common.metrics.BrokerMeter;
 import org.apache.pinot.common.metrics.BrokerMetrics;
 import org.apache.pinot.common.utils.CommonConstants.Helix.StateModel.SegmentOnlineOfflineStateModel;
 import org.apache.pinot.common.utils.HashUtil;
+import org.apache.pinot.core.transport.HedgingPolicy;
 import org.apache.pinot.core.transport.ServerInstance;
+import org.apache.pinot.core.transport.ServerStatsTracker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -48,11 +50,17 @@ import org.slf4j.LoggerFactory;
  */
 public abstract class BaseRoutingTableBuilder implements RoutingTableBuilder {
   private static final Logger LOGGER = LoggerFactory.getLogger(BaseRoutingTableBuilder.class);
+  private static final double DEFAULT_HEDGED_REQUEST_LATENCY_PERCENTILE = 95;
+  private static final double DEFAULT_HEDGED_REQUEST_BUDGET_PERCENT = 5;
+  private static final long HEDGED_REQUEST_MIN_DELAY_MS = 10L;
 
   protected final Random _random = new Random();
   private BrokerMetrics _brokerMetrics;
   private String _tableName;
   private boolean _enableDynamicComputing;
+  private boolean _enableAdaptiveServerSelection;
+  private volatile ServerStatsTracker _serverStatsTracker;
+  private HedgingPolicy _hedgingPolicy;
 
   // Set variable as volatile so all threads can get the up-to-date routing tables
   // Routing tables are used for storing pre-computed routing table
@@ -75,9 +83,56 @@ public abstract class BaseRoutingTableBuilder implements RoutingTableBuilder {
       if (_enableDynamicComputing) {
         LOGGER.info("Dynamic routing table computation is enabled for table {}", _tableName);
       }
+      _enableAdaptiveServerSelection = isSegmentLevelServerSelectionSupported() && Boolean
+          .parseBoolean(routingOption.get(RoutingConfig.ENABLE_ADAPTIVE_SERVER_SELECTION_KEY));
+      if (_enableAdaptiveServerSelection) {
+        LOGGER.info("Adaptive server selection is enabled for table {}", _tableName);
+      }
+      if (isSegmentLevelServerSelectionSupported() && Boolean
+          .parseBoolean(routingOption.get(RoutingConfig.ENABLE_HEDGED_REQUESTS_KEY))) {
+        double latencyPercentile = parseDouble(routingOption, RoutingConfig.HEDGED_REQUEST_LATENCY_PERCENTILE_KEY,
+            DEFAULT_HEDGED_REQUEST_LATENCY_PERCENTILE);
+        double budgetPercent = parseDouble(routingOption, RoutingConfig.HEDGED_REQUEST_BUDGET_PERCENT_KEY,
+            DEFAULT_HEDGED_REQUEST_BUDGET_PERCENT);
+        _hedgingPolicy = new HedgingPolicy(latencyPercentile, budgetPercent, HEDGED_REQUEST_MIN_DELAY_MS);
+        LOGGER.info("Hedged requests are enabled for table {} with latency percentile: {}, budget percent: {}",
+            _tableName, latencyPercentile, budgetPercent);
+      }
+    }
+  }
+
+  private double parseDouble(Map<String, String> routingOption, String key, double defaultValue) {
+    String value = routingOption.get(key);
+    if (value == null) {
+      return defaultValue;
+    }
+    try {
+      return Double.parseDouble(value);
+    } catch (NumberFormatException e) {
+      LOGGER.warn("Invalid value: {} for key: {} for table {}, using default value: {}", value, key, _tableName,
+          defaultValue);
+      return defaultValue;
     }
   }
 
+  @Override
+  public void setServerStatsTracker(ServerStatsTracker serverStatsTracker) {
+    _serverStatsTracker = serverStatsTracker;
+  }
+
+  @Override
+  public HedgingPolicy getHedgingPolicy() {
+    return _hedgingPolicy;
+  }
+
+  /**
+   * Returns whether the servers can be selected independently for each segment, which is required by the adaptive
+   * server selection and the hedged requests.
+   */
+  protected boolean isSegmentLevelServerSelectionSupported() {
+    return true;
+  }
+
   protected static void assignSegmentToLeastAssignedServer(String segmentName, List<ServerInstance> servers,
       Map<ServerInstance, List<String>> routingTable) {
     Collections.shuffle(servers);
@@ -126,12 +181,22 @@ public abstract class BaseRoutingTableBuilder implements RoutingTableBuilder {
     } else {
       // Otherwise, we cache the pre-computed routing tables
       _routingTables = computeRoutingTablesFromSegmentToServersMap(segmentToServersMap);
+      if (_enableAdaptiveServerSelection) {
+        // Also cache the mapping for adaptive server selection, pre-computed routing tables are used as fallback when
+        // the server stats tracker is not set
+        _segmentToServersMap = segmentToServersMap;
+      }
+    }
+    if (_hedgingPolicy != null) {
+      _hedgingPolicy.setSegmentToServersMap(segmentToServersMap);
     }
   }
 
   public Map<ServerInstance, List<String>> getRoutingTable(RoutingTableLookupRequest request,
       SegmentSelector segmentSelector) {
-    if (_enableDynamicComputing) {
+    ServerStatsTracker serverStatsTracker = _serverStatsTracker;
+    boolean useAdaptiveServerSelection = _enableAdaptiveServerSelection && serverStatsTracker != null;
+    if (_enableDynamicComputing || useAdaptiveServerSelection) {
       // Copy the pointer for snapshot since the pointer for segment to servers map can change at anytime
       Map<String, List<ServerInstance>> segmentToServersMap = _segmentToServersMap;
 
@@ -142,7 +207,11 @@ public abstract class BaseRoutingTableBuilder implements RoutingTableBuilder {
       }
 
       // Compute the final routing table
-      return computeDynamicRoutingTable(segmentToServersMap, segmentsToQuery);
+      if (useAdaptiveServerSelection) {
+        return serverStatsTracker.computeRoutingTable(segmentToServersMap, segmentsToQuery);
+      } else {
+        return computeDynamicRoutingTable(segmentToServersMap, segmentsToQuery);
+      }
     }
 
     // Return a pre-computed routing table if we don't use dynamic computing
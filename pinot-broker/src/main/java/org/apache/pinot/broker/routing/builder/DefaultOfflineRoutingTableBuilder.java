@@ -31,7 +31,9 @@ import org.apache.pinot.broker.routing.RoutingTableLookupRequest;
 import org.apache.pinot.broker.routing.selector.SegmentSelector;
 import org.apache.pinot.common.config.TableConfig;
 import org.apache.pinot.common.metrics.BrokerMetrics;
+import org.apache.pinot.core.transport.HedgingPolicy;
 import org.apache.pinot.core.transport.ServerInstance;
+import org.apache.pinot.core.transport.ServerStatsTracker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -136,4 +138,16 @@ public class DefaultOfflineRoutingTableBuilder implements RoutingTableBuilder {
   public List<Map<ServerInstance, List<String>>> getRoutingTables() {
     return _routingTableBuilder.getRoutingTables();
   }
+
+  @Override
+  public void setServerStatsTracker(ServerStatsTracker serverStatsTracker) {
+    _largeClusterRoutingTableBuilder.setServerStatsTracker(serverStatsTracker);
+    _smallClusterRoutingTableBuilder.setServerStatsTracker(serverStatsTracker);
+  }
+
+  @Override
+  public HedgingPolicy getHedgingPolicy() {
+    RoutingTableBuilder routingTableBuilder = _routingTableBuilder;
+    return routingTableBuilder != null ? routingTableBuilder.getHedgingPolicy() : null;
+  }
 }
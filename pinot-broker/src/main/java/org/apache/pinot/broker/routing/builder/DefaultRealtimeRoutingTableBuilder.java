@@ -32,7 +32,9 @@ import org.apache.pinot.broker.routing.selector.SegmentSelector;
 import org.apache.pinot.common.config.TableConfig;
 import org.apache.pinot.common.metrics.BrokerMetrics;
 import org.apache.pinot.common.utils.SegmentName;
+import org.apache.pinot.core.transport.HedgingPolicy;
 import org.apache.pinot.core.transport.ServerInstance;
+import org.apache.pinot.core.transport.ServerStatsTracker;
 
 
 /**
@@ -116,4 +118,18 @@ public class DefaultRealtimeRoutingTableBuilder implements RoutingTableBuilder {
       return Collections.emptyList();
     }
   }
+
+  @Override
+  public void setServerStatsTracker(ServerStatsTracker serverStatsTracker) {
+    _realtimeHLCRoutingTableBuilder.setServerStatsTracker(serverStatsTracker);
+    _realtimeLLCRoutingTableBuilder.setServerStatsTracker(serverStatsTracker);
+  }
+
+  /**
+   * Hedged requests are only supported for the LLC segments.
+   */
+  @Override
+  public HedgingPolicy getHedgingPolicy() {
+    return _hasLLC ? _realtimeLLCRoutingTableBuilder.getHedgingPolicy() : null;
+  }
 }
@@ -86,6 +86,14 @@ public class HighLevelConsumerBasedRoutingTableBuilder extends BaseRoutingTableB
     return new ArrayList<>(groupIdToRouting.values());
   }
 
+  /**
+   * Segments from the same consumer group have to be queried together, so servers cannot be selected per segment.
+   */
+  @Override
+  protected boolean isSegmentLevelServerSelectionSupported() {
+    return false;
+  }
+
   @Override
   public Map<ServerInstance, List<String>> computeDynamicRoutingTable(
       Map<String, List<ServerInstance>> segmentToServersMap, Set<String> segmentsToQuery) {
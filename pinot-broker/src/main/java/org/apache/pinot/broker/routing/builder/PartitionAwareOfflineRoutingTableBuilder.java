@@ -177,7 +177,7 @@ public class PartitionAwareOfflineRoutingTableBuilder extends BasePartitionAware
     _segmentToZkMetadataMapping.keySet().retainAll(segmentAssignment.keySet());
 
     // Update segment to replica to server mapping
-    _segmentToReplicaToServerMap = segmentToReplicaToServerMap;
+    updateSegmentToReplicaToServerMap(segmentToReplicaToServerMap);
   }
 
   /**
@@ -129,7 +129,7 @@ public class PartitionAwareRealtimeRoutingTableBuilder extends BasePartitionAwar
     }
 
     // Update segment to replica to server mapping
-    _segmentToReplicaToServerMap = segmentToReplicaToServerMap;
+    updateSegmentToReplicaToServerMap(segmentToReplicaToServerMap);
   }
 
   /**
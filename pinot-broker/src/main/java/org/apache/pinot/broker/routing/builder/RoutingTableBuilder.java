@@ -20,6 +20,7 @@ package org.apache.pinot.broker.routing.builder;
 
 import java.util.List;
 import java.util.Map;
+import javax.annotation.Nullable;
 import org.apache.commons.configuration.Configuration;
 import org.apache.helix.ZNRecord;
 import org.apache.helix.model.ExternalView;
@@ -29,7 +30,9 @@ import org.apache.pinot.broker.routing.RoutingTableLookupRequest;
 import org.apache.pinot.broker.routing.selector.SegmentSelector;
 import org.apache.pinot.common.config.TableConfig;
 import org.apache.pinot.common.metrics.BrokerMetrics;
+import org.apache.pinot.core.transport.HedgingPolicy;
 import org.apache.pinot.core.transport.ServerInstance;
+import org.apache.pinot.core.transport.ServerStatsTracker;
 
 
 /**
@@ -61,4 +64,18 @@ public interface RoutingTableBuilder {
    * Get all pre-computed routing tables.
    */
   List<Map<ServerInstance, List<String>>> getRoutingTables();
+
+  /**
+   * Set the tracker of the live server stats, which is used for adaptive server selection if enabled.
+   */
+  default void setServerStatsTracker(ServerStatsTracker serverStatsTracker) {
+  }
+
+  /**
+   * Get the policy for the hedged requests, or {@code null} if hedged requests are not enabled.
+   */
+  @Nullable
+  default HedgingPolicy getHedgingPolicy() {
+    return null;
+  }
 }
@@ -0,0 +1,195 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.routing.builder;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.metadata.segment.ColumnPartitionMetadata;
+import org.apache.pinot.common.metadata.segment.SegmentPartitionMetadata;
+import org.apache.pinot.common.metadata.segment.SegmentZKMetadata;
+import org.apache.pinot.common.request.FilterOperator;
+import org.apache.pinot.common.utils.request.FilterQueryTree;
+import org.apache.pinot.core.data.partition.PartitionFunction;
+import org.apache.pinot.core.data.partition.PartitionFunctionFactory;
+
+
+/**
+ * Pre-computed index from partition id to segments, which is rebuilt on external view change so that the partition
+ * based segment pruning costs O(number of partitions in the filter) per query instead of O(number of segments).
+ * <p>The index can only be built when all the partitioned segments are partitioned on the same column with the same
+ * partition function and number of partitions (see {@link #build(Collection, Map)}). Same as the
+ * {@code PartitionZKMetadataPruner}, the segments whose partitions cannot satisfy the EQUALITY predicates on the
+ * partition column are pruned, and the segments without partition metadata are never pruned.
+ */
+class SegmentPartitionIndex {
+  private final String _partitionColumn;
+  private final PartitionFunction _partitionFunction;
+  private final List<String>[] _partitionToSegments;
+  private final List<String> _nonPartitionedSegments;
+
+  private SegmentPartitionIndex(String partitionColumn, PartitionFunction partitionFunction,
+      List<String>[] partitionToSegments, List<String> nonPartitionedSegments) {
+    _partitionColumn = partitionColumn;
+    _partitionFunction = partitionFunction;
+    _partitionToSegments = partitionToSegments;
+    _nonPartitionedSegments = nonPartitionedSegments;
+  }
+
+  /**
+   * Builds the partition index for the given segments.
+   *
+   * @param segments Segments to be indexed
+   * @param segmentToZkMetadataMap Map from segment to segment ZK metadata
+   * @return Partition index, or {@code null} if there is no partitioned segment or the segments are not partitioned
+   *         the same way
+   */
+  @Nullable
+  @SuppressWarnings("unchecked")
+  static SegmentPartitionIndex build(Collection<String> segments,
+      Map<String, SegmentZKMetadata> segmentToZkMetadataMap) {
+    String partitionColumn = null;
+    String functionName = null;
+    int numPartitions = 0;
+    List<String>[] partitionToSegments = null;
+    List<String> nonPartitionedSegments = new ArrayList<>();
+
+    for (String segment : segments) {
+      SegmentZKMetadata segmentZKMetadata = segmentToZkMetadataMap.get(segment);
+      SegmentPartitionMetadata partitionMetadata =
+          segmentZKMetadata != null ? segmentZKMetadata.getPartitionMetadata() : null;
+      Map<String, ColumnPartitionMetadata> columnPartitionMap =
+          partitionMetadata != null ? partitionMetadata.getColumnPartitionMap() : null;
+      if (columnPartitionMap == null || columnPartitionMap.isEmpty()) {
+        nonPartitionedSegments.add(segment);
+        continue;
+      }
+      if (columnPartitionMap.size() != 1) {
+        return null;
+      }
+
+      Map.Entry<String, ColumnPartitionMetadata> entry = columnPartitionMap.entrySet().iterator().next();
+      ColumnPartitionMetadata columnPartitionMetadata = entry.getValue();
+      if (partitionToSegments == null) {
+        partitionColumn = entry.getKey();
+        functionName = columnPartitionMetadata.getFunctionName();
+        numPartitions = columnPartitionMetadata.getNumPartitions();
+        if (functionName == null || numPartitions <= 0) {
+          return null;
+        }
+        partitionToSegments = new List[numPartitions];
+        for (int i = 0; i < numPartitions; i++) {
+          partitionToSegments[i] = new ArrayList<>();
+        }
+      } else if (!partitionColumn.equals(entry.getKey()) || !functionName
+          .equalsIgnoreCase(columnPartitionMetadata.getFunctionName())
+          || numPartitions != columnPartitionMetadata.getNumPartitions()) {
+        return null;
+      }
+      for (int partition : columnPartitionMetadata.getPartitions()) {
+        if (partition < 0 || partition >= numPartitions) {
+          return null;
+        }
+        partitionToSegments[partition].add(segment);
+      }
+    }
+
+    if (partitionToSegments == null) {
+      return null;
+    }
+    return new SegmentPartitionIndex(partitionColumn,
+        PartitionFunctionFactory.getPartitionFunction(functionName, numPartitions), partitionToSegments,
+        nonPartitionedSegments);
+  }
+
+  /**
+   * Returns the segments to query for the given filter, or {@code null} if no segment can be pruned.
+   */
+  @Nullable
+  Set<String> getSegmentsToQuery(@Nullable FilterQueryTree filterQueryTree) {
+    BitSet partitions = getPartitions(filterQueryTree);
+    if (partitions == null) {
+      return null;
+    }
+    Set<String> segmentsToQuery = new HashSet<>(_nonPartitionedSegments);
+    for (int partition = partitions.nextSetBit(0); partition >= 0; partition = partitions.nextSetBit(partition + 1)) {
+      segmentsToQuery.addAll(_partitionToSegments[partition]);
+    }
+    return segmentsToQuery;
+  }
+
+  /**
+   * Returns the partitions that can satisfy the filter, or {@code null} if all partitions can satisfy the filter.
+   */
+  @Nullable
+  private BitSet getPartitions(@Nullable FilterQueryTree filterQueryTree) {
+    if (filterQueryTree == null) {
+      return null;
+    }
+
+    List<FilterQueryTree> children = filterQueryTree.getChildren();
+    FilterOperator filterOperator = filterQueryTree.getOperator();
+
+    // Non-leaf node
+    if (children != null && !children.isEmpty()) {
+      switch (filterOperator) {
+        case AND:
+          BitSet intersection = null;
+          for (FilterQueryTree child : children) {
+            BitSet childPartitions = getPartitions(child);
+            if (childPartitions != null) {
+              if (intersection == null) {
+                intersection = childPartitions;
+              } else {
+                intersection.and(childPartitions);
+              }
+            }
+          }
+          return intersection;
+        case OR:
+          BitSet union = new BitSet(_partitionToSegments.length);
+          for (FilterQueryTree child : children) {
+            BitSet childPartitions = getPartitions(child);
+            if (childPartitions == null) {
+              return null;
+            }
+            union.or(childPartitions);
+          }
+          return union;
+        default:
+          return null;
+      }
+    }
+
+    // Leaf node
+    // Only EQUALITY predicate on the partition column selects partitions, same as the predicate matching in
+    // PartitionZKMetadataPruner (keep them in sync when supporting more predicates)
+    if (filterOperator != FilterOperator.EQUALITY || !_partitionColumn.equals(filterQueryTree.getColumn())) {
+      return null;
+    }
+    BitSet partitions = new BitSet(_partitionToSegments.length);
+    partitions.set(_partitionFunction.getPartition(filterQueryTree.getValue().get(0)));
+    return partitions;
+  }
+}
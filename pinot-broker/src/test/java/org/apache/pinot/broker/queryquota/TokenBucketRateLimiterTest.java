@@ -0,0 +1,109 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.queryquota;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+
+public class TokenBucketRateLimiterTest {
+  private static final long ONE_SECOND_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  @Test
+  public void testRate() {
+    // 10 tokens per second, no burst
+    TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(10, 0);
+    long now = System.nanoTime();
+    Assert.assertTrue(rateLimiter.tryAcquire(now));
+    Assert.assertFalse(rateLimiter.tryAcquire(now));
+    Assert.assertFalse(rateLimiter.tryAcquire(now + ONE_SECOND_NANOS / 20));
+    Assert.assertTrue(rateLimiter.tryAcquire(now + ONE_SECOND_NANOS / 10));
+
+    // Idle time should not be stored without burst
+    now += 10 * ONE_SECOND_NANOS;
+    Assert.assertTrue(rateLimiter.tryAcquire(now));
+    Assert.assertFalse(rateLimiter.tryAcquire(now));
+
+    // Update the rate to 2 tokens per second
+    rateLimiter.setRate(2);
+    Assert.assertEquals(rateLimiter.getRate(), 2.0);
+    now += ONE_SECOND_NANOS / 10;
+    Assert.assertTrue(rateLimiter.tryAcquire(now));
+    Assert.assertFalse(rateLimiter.tryAcquire(now + ONE_SECOND_NANOS / 10));
+    Assert.assertTrue(rateLimiter.tryAcquire(now + ONE_SECOND_NANOS / 2));
+  }
+
+  @Test
+  public void testBurst() {
+    // 10 tokens per second, 1 second of burst
+    TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(10, 1);
+    long now = System.nanoTime();
+
+    // No stored token at the beginning
+    Assert.assertTrue(rateLimiter.tryAcquire(now));
+    Assert.assertFalse(rateLimiter.tryAcquire(now));
+
+    // Up to 1 second of tokens should be stored during idle time
+    now += 10 * ONE_SECOND_NANOS;
+    int numAcquired = 0;
+    while (rateLimiter.tryAcquire(now)) {
+      numAcquired++;
+    }
+    Assert.assertEquals(numAcquired, 11);
+
+    // Half stored tokens after 0.5 second
+    now += ONE_SECOND_NANOS / 2;
+    numAcquired = 0;
+    while (rateLimiter.tryAcquire(now)) {
+      numAcquired++;
+    }
+    Assert.assertEquals(numAcquired, 5);
+  }
+
+  @Test
+  public void testConcurrency()
+      throws Exception {
+    // 1000 tokens per second, 1 second of burst
+    TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(1000, 1);
+    long now = System.nanoTime() + 10 * ONE_SECOND_NANOS;
+    int numThreads = 10;
+    AtomicInteger numAcquired = new AtomicInteger();
+    List<Thread> threads = new ArrayList<>(numThreads);
+    for (int i = 0; i < numThreads; i++) {
+      Thread thread = new Thread(() -> {
+        for (int j = 0; j < 1000; j++) {
+          if (rateLimiter.tryAcquire(now)) {
+            numAcquired.getAndIncrement();
+          }
+        }
+      });
+      thread.start();
+      threads.add(thread);
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    // All stored tokens plus the current one should be acquired exactly once
+    Assert.assertEquals(numAcquired.get(), 1001);
+  }
+}
@@ -0,0 +1,72 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.requesthandler;
+
+import org.apache.pinot.common.metrics.BrokerMetrics;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.utils.CommonConstants.Broker.Request;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+
+
+public class BrokerRequestCacheTest {
+
+  @Test
+  public void testNormalizeQuery() {
+    Assert.assertEquals(BrokerRequestCache.normalizeQuery(" SELECT  *\n\tFROM foo   WHERE col1 = 'a  b' "),
+        "SELECT * FROM foo WHERE col1 = 'a  b'");
+    Assert.assertEquals(BrokerRequestCache.normalizeQuery("SELECT * FROM foo WHERE col1 = \"a \n b\"  LIMIT 10"),
+        "SELECT * FROM foo WHERE col1 = \"a \n b\" LIMIT 10");
+    Assert.assertEquals(BrokerRequestCache.normalizeQuery("SELECT * FROM foo WHERE col1 = 'it''s  a'  LIMIT 10"),
+        "SELECT * FROM foo WHERE col1 = 'it''s  a' LIMIT 10");
+
+    // Queries with escape character or comment should only be trimmed
+    Assert.assertEquals(BrokerRequestCache.normalizeQuery(" SELECT  * FROM foo WHERE col1 = 'a\\'  b' "),
+        "SELECT  * FROM foo WHERE col1 = 'a\\'  b'");
+    Assert.assertEquals(BrokerRequestCache.normalizeQuery("SELECT * FROM foo -- comment\n  WHERE col1 = 'a'"),
+        "SELECT * FROM foo -- comment\n  WHERE col1 = 'a'");
+  }
+
+  @Test
+  public void testCompile() {
+    BrokerRequestCache brokerRequestCache = new BrokerRequestCache(10, mock(BrokerMetrics.class));
+    PinotQueryRequest pinotQueryRequest =
+        new PinotQueryRequest(Request.PQL, "SELECT SUM(col1) FROM foo WHERE col2 = 'a' GROUP BY col3 TOP 10");
+    BrokerRequest expectedBrokerRequest = PinotQueryParserFactory.parsePinotQueryRequest(pinotQueryRequest);
+
+    BrokerRequest brokerRequest = brokerRequestCache.compile(pinotQueryRequest);
+    Assert.assertEquals(brokerRequest, expectedBrokerRequest);
+
+    // Modify the returned broker request, which should not affect the cached one
+    brokerRequest.getQuerySource().setTableName("foo_OFFLINE");
+    PinotQueryRequest normalizedQueryRequest =
+        new PinotQueryRequest(Request.PQL, "SELECT SUM(col1)  FROM foo\nWHERE col2 = 'a' GROUP BY col3 TOP 10 ");
+    BrokerRequest cachedBrokerRequest = brokerRequestCache.compile(normalizedQueryRequest);
+    Assert.assertEquals(cachedBrokerRequest, expectedBrokerRequest);
+    Assert.assertNotSame(cachedBrokerRequest, brokerRequest);
+
+    // Same query in a different query format should not hit the cache
+    PinotQueryRequest sqlQueryRequest =
+        new PinotQueryRequest(Request.SQL, "SELECT SUM(col1) FROM foo WHERE col2 = 'a' GROUP BY col3");
+    Assert.assertEquals(brokerRequestCache.compile(sqlQueryRequest),
+        PinotQueryParserFactory.parsePinotQueryRequest(sqlQueryRequest));
+  }
+}
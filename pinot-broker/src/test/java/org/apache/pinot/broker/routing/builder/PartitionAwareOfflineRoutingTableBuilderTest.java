@@ -292,6 +292,91 @@ public class PartitionAwareOfflineRoutingTableBuilderTest {
     Assert.assertEquals(servers.size(), 2);
   }
 
+  @Test
+  public void testPartitionQueryFanOut()
+      throws Exception {
+    NUM_REPLICA = 2;
+    NUM_PARTITION = 4;
+    NUM_SERVERS = 8;
+    NUM_SEGMENTS = 40;
+
+    // Create the fake property store
+    FakePropertyStore fakePropertyStore = new FakePropertyStore();
+
+    // Create the table config, partition mapping,
+    TableConfig tableConfig = buildOfflineTableConfig();
+
+    // Create the replica group id to server mapping
+    Map<Integer, List<String>> replicaToServerMapping = buildReplicaGroupMapping();
+
+    // Update segment zk metadata. Segments of the same partition are hosted on the same server in each replica group
+    // (see buildExternalView())
+    for (int i = 0; i < NUM_SEGMENTS; i++) {
+      String segmentName = "segment" + i;
+      int partition = i % NUM_PARTITION;
+      SegmentZKMetadata metadata = buildOfflineSegmentZKMetadata(segmentName, partition);
+      fakePropertyStore
+          .setContents(ZKMetadataProvider.constructPropertyStorePathForSegment(OFFLINE_TABLE_NAME, segmentName),
+              metadata.toZNRecord());
+    }
+
+    // Update instance partitions
+    updateInstancePartitions(OFFLINE_TABLE_NAME, fakePropertyStore);
+
+    // Create the fake external view
+    ExternalView externalView = buildExternalView(OFFLINE_TABLE_NAME, replicaToServerMapping);
+
+    // Create instance Configs
+    List<InstanceConfig> instanceConfigs = new ArrayList<>();
+    for (int serverId = 0; serverId < NUM_SERVERS; serverId++) {
+      String serverName = "Server_localhost_" + serverId;
+      instanceConfigs.add(new InstanceConfig(serverName));
+    }
+
+    // Create the partition aware offline routing table builder
+    RoutingTableBuilder routingTableBuilder =
+        buildPartitionAwareOfflineRoutingTableBuilder(fakePropertyStore, tableConfig, externalView, instanceConfigs);
+
+    int numSegmentsPerPartition = NUM_SEGMENTS / NUM_PARTITION;
+    for (int i = 0; i < 100; i++) {
+      // Single partition query should hit exactly one server
+      String filterQuery = "select count(*) from myTable where " + PARTITION_COLUMN + " = " + i;
+      Map<ServerInstance, List<String>> routingTable =
+          routingTableBuilder.getRoutingTable(buildRoutingTableLookupRequest(filterQuery), null);
+      Assert.assertEquals(routingTable.size(), 1);
+      List<String> segments = routingTable.values().iterator().next();
+      Assert.assertEquals(segments.size(), numSegmentsPerPartition);
+      for (String segment : segments) {
+        Assert.assertEquals(Integer.parseInt(segment.substring("segment".length())) % NUM_PARTITION,
+            i % NUM_PARTITION);
+      }
+
+      // Predicates on other columns should not affect the partition pruning
+      filterQuery = "select count(*) from myTable where " + PARTITION_COLUMN + " = " + i + " AND foo = 'bar'";
+      routingTable = routingTableBuilder.getRoutingTable(buildRoutingTableLookupRequest(filterQuery), null);
+      Assert.assertEquals(routingTable.size(), 1);
+      Assert.assertEquals(routingTable.values().iterator().next().size(), numSegmentsPerPartition);
+
+      // Query on two partitions should hit exactly two servers
+      filterQuery = "select count(*) from myTable where " + PARTITION_COLUMN + " = " + i + " OR " + PARTITION_COLUMN
+          + " = " + (i + 1);
+      routingTable = routingTableBuilder.getRoutingTable(buildRoutingTableLookupRequest(filterQuery), null);
+      Assert.assertEquals(routingTable.size(), 2);
+      for (List<String> segmentsForServer : routingTable.values()) {
+        Assert.assertEquals(segmentsForServer.size(), numSegmentsPerPartition);
+      }
+
+      // Predicate on other columns in OR should not be pruned
+      filterQuery = "select count(*) from myTable where " + PARTITION_COLUMN + " = " + i + " OR foo = 'bar'";
+      routingTable = routingTableBuilder.getRoutingTable(buildRoutingTableLookupRequest(filterQuery), null);
+      int numSegments = 0;
+      for (List<String> segmentsForServer : routingTable.values()) {
+        numSegments += segmentsForServer.size();
+      }
+      Assert.assertEquals(numSegments, NUM_SEGMENTS);
+    }
+  }
+
   private void updateInstancePartitions(String tableNameWithType, FakePropertyStore propertyStore) {
     InstancePartitions instancePartitions = new InstancePartitions(
         InstancePartitionsUtils.getInstancePartitionsName(tableNameWithType, InstancePartitionsType.OFFLINE));
@@ -39,6 +39,7 @@ public class IndexingConfig {
   private boolean _createInvertedIndexDuringSegmentGeneration;
   private List<String> _sortedColumn = new ArrayList<>();
   private List<String> _bloomFilterColumns = new ArrayList<>();
+  private List<String> _zoneMapColumns;
   private String _loadMode;
   private Map<String, String> _streamConfigs = new HashMap<>();
   private String _segmentFormatVersion;
@@ -99,6 +100,19 @@ public class IndexingConfig {
     _bloomFilterColumns = bloomFilterColumns;
   }
 
+  /**
+   * The list of dictionary-encoded columns for which the per-block min/max zone maps are created during segment
+   * generation. Zone maps allow scan-based filters to skip the blocks of documents that cannot match the predicate,
+   * which is effective for columns whose values are clustered by document id (e.g. roughly time-ordered columns).
+   */
+  public List<String> getZoneMapColumns() {
+    return _zoneMapColumns;
+  }
+
+  public void setZoneMapColumns(List<String> zoneMapColumns) {
+    _zoneMapColumns = zoneMapColumns;
+  }
+
   public String getLoadMode() {
     return _loadMode;
   }
@@ -260,6 +274,7 @@ public class IndexingConfig {
         .isEqual(_starTreeIndexSpec, that._starTreeIndexSpec) && EqualityUtils
         .isEqual(_segmentPartitionConfig, that._segmentPartitionConfig) && EqualityUtils
         .isEqual(_bloomFilterColumns, that._bloomFilterColumns) && EqualityUtils
+        .isEqual(_zoneMapColumns, that._zoneMapColumns) && EqualityUtils
         .isEqual(_varLengthDictionaryColumns, that._varLengthDictionaryColumns) && EqualityUtils
         .isEqual(_aggregateMetrics, that._aggregateMetrics) && EqualityUtils
         .isEqual(_nullHandlingEnabled, that._nullHandlingEnabled);
@@ -281,6 +296,7 @@ public class IndexingConfig {
     result = EqualityUtils.hashCodeOf(result, _starTreeIndexSpec);
     result = EqualityUtils.hashCodeOf(result, _segmentPartitionConfig);
     result = EqualityUtils.hashCodeOf(result, _bloomFilterColumns);
+    result = EqualityUtils.hashCodeOf(result, _zoneMapColumns);
     result = EqualityUtils.hashCodeOf(result, _varLengthDictionaryColumns);
     result = EqualityUtils.hashCodeOf(result, _aggregateMetrics);
     result = EqualityUtils.hashCodeOf(result, _nullHandlingEnabled);
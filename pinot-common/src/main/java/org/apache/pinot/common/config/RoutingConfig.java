@@ -27,6 +27,10 @@ import org.apache.pinot.common.utils.EqualityUtils;
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class RoutingConfig {
   public static final String ENABLE_DYNAMIC_COMPUTING_KEY = "enableDynamicComputing";
+  public static final String ENABLE_ADAPTIVE_SERVER_SELECTION_KEY = "enableAdaptiveServerSelection";
+  public static final String ENABLE_HEDGED_REQUESTS_KEY = "enableHedgedRequests";
+  public static final String HEDGED_REQUEST_LATENCY_PERCENTILE_KEY = "hedgedRequestLatencyPercentile";
+  public static final String HEDGED_REQUEST_BUDGET_PERCENT_KEY = "hedgedRequestBudgetPercent";
 
   private String _routingTableBuilderName;
   private Map<String, String> _routingTableBuilderOptions = new HashMap<>();
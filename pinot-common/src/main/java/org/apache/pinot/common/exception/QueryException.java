@@ -47,6 +47,7 @@ public class QueryException {
   public static final int SERVER_OUT_OF_CAPACITY_ERROR_CODE = 211;
   public static final int QUERY_SCHEDULING_TIMEOUT_ERROR_CODE = 240;
   public static final int EXECUTION_TIMEOUT_ERROR_CODE = 250;
+  public static final int QUERY_MEMORY_LIMIT_EXCEEDED_ERROR_CODE = 260;
   public static final int BROKER_GATHER_ERROR_CODE = 300;
   public static final int DATA_TABLE_DESERIALIZATION_ERROR_CODE = 310;
   public static final int FUTURE_CALL_ERROR_CODE = 350;
@@ -79,6 +80,8 @@ public class QueryException {
       new ProcessingException(QUERY_SCHEDULING_TIMEOUT_ERROR_CODE);
   public static final ProcessingException EXECUTION_TIMEOUT_ERROR =
       new ProcessingException(EXECUTION_TIMEOUT_ERROR_CODE);
+  public static final ProcessingException QUERY_MEMORY_LIMIT_EXCEEDED_ERROR =
+      new ProcessingException(QUERY_MEMORY_LIMIT_EXCEEDED_ERROR_CODE);
   public static final ProcessingException BROKER_GATHER_ERROR = new ProcessingException(BROKER_GATHER_ERROR_CODE);
   public static final ProcessingException DATA_TABLE_DESERIALIZATION_ERROR =
       new ProcessingException(DATA_TABLE_DESERIALIZATION_ERROR_CODE);
@@ -109,6 +112,7 @@ public class QueryException {
     SERVER_OUT_OF_CAPACITY_ERROR.setMessage("ServerOutOfCapacity");
     QUERY_SCHEDULING_TIMEOUT_ERROR.setMessage("QuerySchedulingTimeoutError");
     EXECUTION_TIMEOUT_ERROR.setMessage("ExecutionTimeoutError");
+    QUERY_MEMORY_LIMIT_EXCEEDED_ERROR.setMessage("QueryMemoryLimitExceededError");
     BROKER_GATHER_ERROR.setMessage("BrokerGatherError");
     DATA_TABLE_DESERIALIZATION_ERROR.setMessage("DataTableDeserializationError");
     FUTURE_CALL_ERROR.setMessage("FutureCallError");
@@ -30,9 +30,13 @@ public enum AggregationFunctionType {
   DISTINCTCOUNTHLL("distinctCountHLL"),
   DISTINCTCOUNTRAWHLL("distinctCountRawHLL"),
   FASTHLL("fastHLL"),
+  DISTINCTCOUNTTHETASKETCH("distinctCountThetaSketch"),
+  DISTINCTCOUNTRAWTHETASKETCH("distinctCountRawThetaSketch"),
+  DISTINCTCOUNTTHETASKETCHINTERSECT("distinctCountThetaSketchIntersect"),
   PERCENTILE("percentile"),
   PERCENTILEEST("percentileEst"),
   PERCENTILETDIGEST("percentileTDigest"),
+  PERCENTILEDDSKETCH("percentileDDSketch"),
   // Aggregation functions for multi-valued columns
   COUNTMV("countMV"),
   MINMV("minMV"),
@@ -46,6 +50,7 @@ public enum AggregationFunctionType {
   PERCENTILEMV("percentileMV"),
   PERCENTILEESTMV("percentileEstMV"),
   PERCENTILETDIGESTMV("percentileTDigestMV"),
+  PERCENTILEDDSKETCHMV("percentileDDSketchMV"),
   DISTINCT("distinct");
 
   private final String _name;
@@ -80,12 +85,16 @@ public enum AggregationFunctionType {
         return PERCENTILEEST;
       } else if (remainingFunctionName.matches("TDIGEST\\d+")) {
         return PERCENTILETDIGEST;
+      } else if (remainingFunctionName.matches("DDSKETCH\\d+")) {
+        return PERCENTILEDDSKETCH;
       } else if (remainingFunctionName.matches("\\d+MV")) {
         return PERCENTILEMV;
       } else if (remainingFunctionName.matches("EST\\d+MV")) {
         return PERCENTILEESTMV;
       } else if (remainingFunctionName.matches("TDIGEST\\d+MV")) {
         return PERCENTILETDIGESTMV;
+      } else if (remainingFunctionName.matches("DDSKETCH\\d+MV")) {
+        return PERCENTILEDDSKETCHMV;
       } else {
         throw new IllegalArgumentException("Invalid aggregation function name: " + functionName);
       }
@@ -26,7 +26,11 @@ import org.apache.pinot.common.Utils;
  *
  */
 public enum BrokerGauge implements AbstractMetrics.Gauge {
-  QUERY_QUOTA_CAPACITY_UTILIZATION_RATE("tables", false), NETTY_CONNECTION_CONNECT_TIME_MS("nettyConnection", true);
+  QUERY_QUOTA_CAPACITY_UTILIZATION_RATE("tables", false), NETTY_CONNECTION_CONNECT_TIME_MS("nettyConnection", true),
+  // Number of active connections to the servers
+  NETTY_CONNECTIONS("nettyConnection", true),
+  // Number of requests sent to the servers but not responded yet
+  NETTY_CONNECTION_PENDING_REQUESTS("nettyConnection", true);
 
   private final String brokerGaugeName;
   private final String unit;
@@ -34,6 +34,8 @@ public enum BrokerMeter implements AbstractMetrics.Meter {
   // These metrics track the exceptions caught during query execution in broker side.
   // PQL compile phase.
   REQUEST_COMPILATION_EXCEPTIONS("exceptions", true),
+  // Queries compiled from the broker request cache (no parsing needed).
+  REQUEST_COMPILATION_CACHE_HITS("queries", true),
   // Get resource phase.
   RESOURCE_MISSING_EXCEPTIONS("exceptions", true),
   // Query validation phase.
@@ -41,6 +43,9 @@ public enum BrokerMeter implements AbstractMetrics.Meter {
   // Scatter phase.
   NO_SERVER_FOUND_EXCEPTIONS("exceptions", false),
   REQUEST_SEND_EXCEPTIONS("exceptions", false),
+  // Hedged requests sent for the servers not responded in time, and the ones that responded before the hedged server.
+  HEDGED_REQUESTS("requests", false),
+  HEDGED_REQUEST_WINS("requests", false),
   // Gather phase.
   RESPONSE_FETCH_EXCEPTIONS("exceptions", false),
   // Response deserialize phase.
@@ -32,6 +32,7 @@ public enum ServerMeter implements AbstractMetrics.Meter {
   RESPONSE_SERIALIZATION_EXCEPTIONS("exceptions", true),
   SCHEDULING_TIMEOUT_EXCEPTIONS("exceptions", true),
   QUERY_EXECUTION_EXCEPTIONS("exceptions", false),
+  QUERY_MEMORY_LIMIT_EXCEEDED_EXCEPTIONS("exceptions", false),
   HELIX_ZOOKEEPER_RECONNECTS("reconnects", true),
   DELETED_SEGMENT_COUNT("segments", false),
   REALTIME_ROWS_CONSUMED("rows", true),
@@ -58,6 +59,8 @@ public enum ServerMeter implements AbstractMetrics.Meter {
   NUM_SEGMENTS_QUERIED("numSegmentsQueried", false),
   NUM_SEGMENTS_PROCESSED("numSegmentsProcessed", false),
   NUM_SEGMENTS_MATCHED("numSegmentsMatched", false),
+  NUM_SEGMENTS_SKIPPED("numSegmentsSkipped", false),
+  QUERY_CPU_TIME_NS("nanoseconds", false),
   NUM_MISSING_SEGMENTS("segments", false),
   RELOAD_FAILURES("segments", false),
   REFRESH_FAILURES("segments", false),
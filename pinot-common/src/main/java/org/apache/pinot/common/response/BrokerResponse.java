@@ -18,6 +18,8 @@
  */
 package org.apache.pinot.common.response;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import org.apache.pinot.common.response.broker.QueryProcessingException;
 
@@ -57,6 +59,15 @@ public interface BrokerResponse {
   String toJsonString()
       throws Exception;
 
+  /**
+   * Write the broker response as JSON to the given output stream (the output stream is not closed).
+   * <p>By default the JSON String is built first, implementations can override it to write the JSON directly.
+   */
+  default void toOutputStream(OutputStream outputStream)
+      throws Exception {
+    outputStream.write(toJsonString().getBytes(StandardCharsets.UTF_8));
+  }
+
   /**
    * Returns the number of servers queried.
    */
@@ -97,6 +108,11 @@ public interface BrokerResponse {
    */
   long getNumSegmentsMatched();
 
+  /**
+   * Get number of segments skipped by server because the query was early terminated (e.g. LIMIT reached)
+   */
+  long getNumSegmentsSkipped();
+
   /**
    * Get number of consuming segments that were queried.
    */
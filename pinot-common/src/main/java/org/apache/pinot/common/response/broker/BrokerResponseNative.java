@@ -23,6 +23,7 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -39,7 +40,7 @@ import org.apache.pinot.common.utils.JsonUtils;
  *
  * Supports serialization via JSON.
  */
-@JsonPropertyOrder({"selectionResults", "aggregationResults", "resultTable", "exceptions", "numServersQueried", "numServersResponded", "numSegmentsQueried", "numSegmentsProcessed", "numSegmentsMatched", "numConsumingSegmentsQueried", "numDocsScanned", "numEntriesScannedInFilter", "numEntriesScannedPostFilter", "numGroupsLimitReached", "totalDocs", "timeUsedMs", "segmentStatistics", "traceInfo"})
+@JsonPropertyOrder({"selectionResults", "aggregationResults", "resultTable", "exceptions", "numServersQueried", "numServersResponded", "numSegmentsQueried", "numSegmentsProcessed", "numSegmentsMatched", "numSegmentsSkipped", "numConsumingSegmentsQueried", "numDocsScanned", "numEntriesScannedInFilter", "numEntriesScannedPostFilter", "numGroupsLimitReached", "totalDocs", "timeUsedMs", "segmentStatistics", "traceInfo"})
 public class BrokerResponseNative implements BrokerResponse {
   public static final BrokerResponseNative EMPTY_RESULT = BrokerResponseNative.empty();
   public static final BrokerResponseNative NO_TABLE_RESULT =
@@ -53,6 +54,7 @@ public class BrokerResponseNative implements BrokerResponse {
   private long _numSegmentsQueried = 0L;
   private long _numSegmentsProcessed = 0L;
   private long _numSegmentsMatched = 0L;
+  private long _numSegmentsSkipped = 0L;
   private long _numConsumingSegmentsQueried = 0L;
   // the timestamp indicating the freshness of the data queried in consuming segments.
   // This can be ingestion timestamp if provided by the stream, or the last index time
@@ -222,6 +224,17 @@ public class BrokerResponseNative implements BrokerResponse {
     _numSegmentsMatched = numSegmentsMatched;
   }
 
+  @JsonProperty("numSegmentsSkipped")
+  @Override
+  public long getNumSegmentsSkipped() {
+    return _numSegmentsSkipped;
+  }
+
+  @JsonProperty("numSegmentsSkipped")
+  public void setNumSegmentsSkipped(long numSegmentsSkipped) {
+    _numSegmentsSkipped = numSegmentsSkipped;
+  }
+
   @JsonProperty("numConsumingSegmentsQueried")
   @Override
   public long getNumConsumingSegmentsQueried() {
@@ -303,6 +316,18 @@ public class BrokerResponseNative implements BrokerResponse {
     return JsonUtils.objectToString(this);
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>Writes the same JSON as {@link #toJsonString()} directly into the output stream, without building the JSON
+   * String. The rows are written one by one, so that rows backed by the reduced data tables (e.g. the selection rows
+   * without ordering) are not all materialized at once.
+   */
+  @Override
+  public void toOutputStream(OutputStream outputStream)
+      throws IOException {
+    JsonUtils.objectToOutputStream(this, outputStream);
+  }
+
   public static BrokerResponseNative fromJsonString(String jsonString)
       throws IOException {
     return JsonUtils.stringToObject(jsonString, BrokerResponseNative.class);
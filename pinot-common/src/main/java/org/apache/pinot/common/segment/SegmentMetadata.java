@@ -105,6 +105,8 @@ public interface SegmentMetadata {
 
   String getNullValueVectorFileName(String column);
 
+  String getZoneMapFileName(String column);
+
   String getCreatorName();
 
   char getPaddingCharacter();
@@ -153,6 +153,25 @@ public class CommonConstants {
     public static final String CONFIG_OF_BROKER_TIMEOUT_MS = "pinot.broker.timeoutMs";
     public static final long DEFAULT_BROKER_TIMEOUT_MS = 10_000L;
     public static final String CONFIG_OF_BROKER_ID = "pinot.broker.id";
+    // Number of channels between the broker and each server for the single connection request handler
+    public static final String CONFIG_OF_NUM_CHANNELS_PER_SERVER = "pinot.broker.numChannelsPerServer";
+    public static final int DEFAULT_NUM_CHANNELS_PER_SERVER = 1;
+    // Netty transport configs (e.g. nativeTransportEnabled, pooledDirectBuffersEnabled) for the single connection
+    // request handler
+    public static final String NETTY_CONFIG_PREFIX = "pinot.broker.netty";
+    // Fan-in of the broker tree reduce: when more server responses than the fan-in are received, they are pre-merged
+    // in parallel in groups of at most fan-in responses before the final merge (disabled if less than 2)
+    public static final String CONFIG_OF_BROKER_REDUCE_FAN_IN = "pinot.broker.reduce.fanIn";
+    public static final int DEFAULT_BROKER_REDUCE_FAN_IN = 0;
+    public static final String CONFIG_OF_BROKER_REDUCE_NUM_THREADS = "pinot.broker.reduce.numThreads";
+    public static final int DEFAULT_BROKER_REDUCE_NUM_THREADS = Runtime.getRuntime().availableProcessors();
+    // Maximum number of compiled broker requests cached by the normalized query text (disabled if not positive)
+    public static final String CONFIG_OF_BROKER_REQUEST_CACHE_SIZE = "pinot.broker.request.cache.size";
+    public static final int DEFAULT_BROKER_REQUEST_CACHE_SIZE = 0;
+    // Max number of seconds of unused query quota that can be stored to serve a burst of queries
+    public static final String CONFIG_OF_BROKER_QUERY_QUOTA_MAX_BURST_SECONDS =
+        "pinot.broker.query.quota.maxBurstSeconds";
+    public static final double DEFAULT_BROKER_QUERY_QUOTA_MAX_BURST_SECONDS = 1.0;
     public static final BrokerResponseFactory.ResponseType DEFAULT_BROKER_RESPONSE_TYPE =
         BrokerResponseFactory.ResponseType.BROKER_RESPONSE_TYPE_NATIVE;
     // The sleep interval time of the thread used by the Brokers to refresh TimeboundaryInfo upon segment refreshing
@@ -235,6 +254,10 @@ public class CommonConstants {
     // Startup: timeout for the startup checks
     public static final String CONFIG_OF_STARTUP_TIMEOUT_MS = "pinot.server.startup.timeoutMs";
     public static final long DEFAULT_STARTUP_TIMEOUT_MS = 600_000L;
+    // Startup: number of threads to preload the segments from the local disk before receiving state transitions
+    //          A value of <= 0 disables the segment preloading
+    public static final String CONFIG_OF_STARTUP_SEGMENT_PRELOAD_THREADS = "pinot.server.startup.segmentPreloadThreads";
+    public static final int DEFAULT_STARTUP_SEGMENT_PRELOAD_THREADS = 0;
     // Startup: enable service status check before claiming server up
     public static final String CONFIG_OF_STARTUP_ENABLE_SERVICE_STATUS_CHECK =
         "pinot.server.startup.enableServiceStatusCheck";
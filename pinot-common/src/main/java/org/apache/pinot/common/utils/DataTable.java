@@ -34,6 +34,7 @@ public interface DataTable {
   String NUM_SEGMENTS_QUERIED = "numSegmentsQueried";
   String NUM_SEGMENTS_PROCESSED = "numSegmentsProcessed";
   String NUM_SEGMENTS_MATCHED = "numSegmentsMatched";
+  String NUM_SEGMENTS_SKIPPED = "numSegmentsSkipped";
   String NUM_CONSUMING_SEGMENTS_PROCESSED = "numConsumingSegmentsProcessed";
   String MIN_CONSUMING_FRESHNESS_TIME_MS = "minConsumingFreshnessTimeMs";
   String TOTAL_DOCS_METADATA_KEY = "totalDocs";
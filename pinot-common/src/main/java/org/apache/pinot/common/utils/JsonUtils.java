@@ -18,6 +18,8 @@
  */
 package org.apache.pinot.common.utils;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -33,6 +35,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import javax.annotation.Nullable;
 import org.apache.pinot.common.data.FieldSpec;
 
@@ -119,6 +122,18 @@ public class JsonUtils {
     return DEFAULT_WRITER.writeValueAsBytes(object);
   }
 
+  /**
+   * Writes the object as UTF-8 JSON into the output stream through a {@link JsonGenerator}. The output stream is
+   * flushed but not closed.
+   */
+  public static void objectToOutputStream(Object object, OutputStream outputStream)
+      throws IOException {
+    try (JsonGenerator generator = DEFAULT_MAPPER.getFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+      generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      DEFAULT_WRITER.writeValue(generator, object);
+    }
+  }
+
   public static JsonNode objectToJsonNode(Object object) {
     return DEFAULT_MAPPER.valueToTree(object);
   }
@@ -46,6 +46,8 @@ public class AggregationFunctionTypeTest {
         AggregationFunctionType.PERCENTILEEST);
     Assert.assertEquals(AggregationFunctionType.getAggregationFunctionType("PeRcEnTiLeTdIgEsT99"),
         AggregationFunctionType.PERCENTILETDIGEST);
+    Assert.assertEquals(AggregationFunctionType.getAggregationFunctionType("PeRcEnTiLeDdSkEtCh99"),
+        AggregationFunctionType.PERCENTILEDDSKETCH);
     Assert.assertEquals(AggregationFunctionType.getAggregationFunctionType("CoUnTMv"), AggregationFunctionType.COUNTMV);
     Assert.assertEquals(AggregationFunctionType.getAggregationFunctionType("MiNmV"), AggregationFunctionType.MINMV);
     Assert.assertEquals(AggregationFunctionType.getAggregationFunctionType("MaXmV"), AggregationFunctionType.MAXMV);
@@ -65,5 +67,7 @@ public class AggregationFunctionTypeTest {
         AggregationFunctionType.PERCENTILEESTMV);
     Assert.assertEquals(AggregationFunctionType.getAggregationFunctionType("PeRcEnTiLeTdIgEsT95mV"),
         AggregationFunctionType.PERCENTILETDIGESTMV);
+    Assert.assertEquals(AggregationFunctionType.getAggregationFunctionType("PeRcEnTiLeDdSkEtCh95mV"),
+        AggregationFunctionType.PERCENTILEDDSKETCHMV);
   }
 }
@@ -18,10 +18,19 @@
  */
 package org.apache.pinot.request;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.response.broker.BrokerResponseNative;
 import org.apache.pinot.common.response.broker.QueryProcessingException;
+import org.apache.pinot.common.response.broker.ResultTable;
+import org.apache.pinot.common.response.broker.SelectionResults;
+import org.apache.pinot.common.utils.DataSchema;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -70,4 +79,42 @@ public class BrokerResponseNativeTest {
     Assert.assertEquals(newBrokerResponse.getProcessingExceptions().get(1).getErrorCode(), 400);
     Assert.assertEquals(newBrokerResponse.getProcessingExceptions().get(1).getMessage(), errorMsgStr);
   }
+
+  @Test
+  public void testToOutputStream()
+      throws IOException {
+    BrokerResponseNative brokerResponse = new BrokerResponseNative();
+    brokerResponse.setSelectionResults(new SelectionResults(Arrays.asList("a", "b", "c", "d", "e", "f"),
+        Arrays.asList(new Serializable[]{1, 2L, 3.5, 4.5f, "foo\"bar", new String[]{"x", "y"}},
+            new Serializable[]{-1, Long.MAX_VALUE, Double.NEGATIVE_INFINITY, Float.NaN, "", new int[]{1, 2}})));
+    DataSchema dataSchema = new DataSchema(new String[]{"a", "b"},
+        new DataSchema.ColumnDataType[]{DataSchema.ColumnDataType.STRING, DataSchema.ColumnDataType.DOUBLE});
+    brokerResponse.setResultTable(
+        new ResultTable(dataSchema, Collections.singletonList(new Object[]{"\u00e9\u4e2d", 0.1 + 0.2})));
+    brokerResponse.addToExceptions(new QueryProcessingException(400, "Some random string!"));
+    brokerResponse.setNumDocsScanned(123L);
+    brokerResponse.setNumGroupsLimitReached(true);
+    brokerResponse.setMinConsumingFreshnessTimeMs(456L);
+    brokerResponse.getSegmentStatistics().add("segment");
+    brokerResponse.getTraceInfo().put("server", "trace");
+    assertSameJson(brokerResponse);
+
+    assertSameJson(BrokerResponseNative.empty());
+    assertSameJson(BrokerResponseNative.NO_TABLE_RESULT);
+  }
+
+  private static void assertSameJson(BrokerResponseNative brokerResponse)
+      throws IOException {
+    AtomicBoolean closed = new AtomicBoolean();
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream() {
+      @Override
+      public void close() {
+        closed.set(true);
+      }
+    };
+    brokerResponse.toOutputStream(outputStream);
+    // The output stream belongs to the caller (e.g. the HTTP response) and must be left open
+    Assert.assertFalse(closed.get());
+    Assert.assertEquals(new String(outputStream.toByteArray(), StandardCharsets.UTF_8), brokerResponse.toJsonString());
+  }
 }
@@ -18,6 +18,9 @@
  */
 package org.apache.pinot.core.common;
 
+import org.apache.pinot.core.segment.index.readers.Dictionary;
+
+
 /**
  * Abstract base class implementation for BlockValSet
  */
@@ -28,6 +31,11 @@ public abstract class BaseBlockValSet implements BlockValSet {
     throw new UnsupportedOperationException();
   }
 
+  @Override
+  public Dictionary getDictionary() {
+    return null;
+  }
+
   @Override
   public void getDictionaryIds(int[] inDocIds, int inStartPos, int inDocIdsSize, int[] outDictionaryIds,
       int outStartPos) {
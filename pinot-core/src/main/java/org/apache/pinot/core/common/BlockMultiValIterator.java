@@ -47,4 +47,22 @@ public abstract class BlockMultiValIterator implements BlockValIterator {
   public byte[][] nextBytesArrayVal(byte[][] bytesArrays) {
     throw new UnsupportedOperationException();
   }
+
+  /**
+   * Returns whether reading the int values for a batch of documents via {@link #nextIntVals(int, int[], int[])} is
+   * supported.
+   */
+  public boolean isBatchReadSupported() {
+    return false;
+  }
+
+  /**
+   * Reads the int values for the next batch of documents. The values of the documents are put into the int array back
+   * to back, and the exclusive end offset of the values of each document is put into the end offset array.
+   *
+   * @return Total number of values read
+   */
+  public int nextIntVals(int numDocs, int[] intArray, int[] valueEndOffsets) {
+    throw new UnsupportedOperationException();
+  }
 }
@@ -18,7 +18,9 @@
  */
 package org.apache.pinot.core.common;
 
+import javax.annotation.Nullable;
 import org.apache.pinot.common.data.FieldSpec.DataType;
+import org.apache.pinot.core.segment.index.readers.Dictionary;
 
 
 public interface BlockValSet {
@@ -29,6 +31,12 @@ public interface BlockValSet {
 
   boolean isSingleValue();
 
+  /**
+   * Returns the dictionary for the values if they are dictionary-encoded, or {@code null} if not.
+   */
+  @Nullable
+  Dictionary getDictionary();
+
   /**
    * DOCUMENT ID BASED APIs
    */
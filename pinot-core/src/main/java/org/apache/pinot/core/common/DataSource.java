@@ -23,6 +23,7 @@ import org.apache.pinot.core.segment.index.readers.BloomFilterReader;
 import org.apache.pinot.core.segment.index.readers.Dictionary;
 import org.apache.pinot.core.segment.index.readers.InvertedIndexReader;
 import org.apache.pinot.core.segment.index.readers.NullValueVectorReader;
+import org.apache.pinot.core.segment.index.readers.ZoneMapReader;
 
 
 public abstract class DataSource extends BaseOperator {
@@ -52,4 +53,9 @@ public abstract class DataSource extends BaseOperator {
    */
   public abstract NullValueVectorReader getNullValueVector();
 
+  /**
+   * Returns the per-block min/max dictionary id zone map for the data source if exists, or {@code null} if not.
+   */
+  public abstract ZoneMapReader getZoneMap();
+
 }
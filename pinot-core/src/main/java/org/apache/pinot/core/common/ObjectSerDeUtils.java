@@ -33,9 +33,14 @@ import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import org.apache.datasketches.memory.Memory;
+import org.apache.datasketches.theta.Intersection;
+import org.apache.datasketches.theta.SetOperation;
+import org.apache.datasketches.theta.Sketch;
 import org.apache.pinot.common.utils.StringUtil;
 import org.apache.pinot.core.query.aggregation.DistinctTable;
 import org.apache.pinot.core.query.aggregation.function.customobject.AvgPair;
+import org.apache.pinot.core.query.aggregation.function.customobject.DDSketch;
 import org.apache.pinot.core.query.aggregation.function.customobject.MinMaxRangePair;
 import org.apache.pinot.core.query.aggregation.function.customobject.QuantileDigest;
 
@@ -60,7 +65,10 @@ public class ObjectSerDeUtils {
     Map(8),
     IntSet(9),
     TDigest(10),
-    DistinctTable(11);
+    DistinctTable(11),
+    ThetaSketch(12),
+    DDSketch(13),
+    ThetaSketchIntersection(14);
 
     private int _value;
 
@@ -97,6 +105,12 @@ public class ObjectSerDeUtils {
         return ObjectType.TDigest;
       } else if (value instanceof DistinctTable) {
         return ObjectType.DistinctTable;
+      } else if (value instanceof Sketch) {
+        return ObjectType.ThetaSketch;
+      } else if (value instanceof Intersection) {
+        return ObjectType.ThetaSketchIntersection;
+      } else if (value instanceof DDSketch) {
+        return ObjectType.DDSketch;
       } else {
         throw new IllegalArgumentException("Unsupported type of value: " + value.getClass().getSimpleName());
       }
@@ -458,6 +472,64 @@ public class ObjectSerDeUtils {
     }
   };
 
+  public static final ObjectSerDe<Sketch> THETA_SKETCH_SER_DE = new ObjectSerDe<Sketch>() {
+
+    @Override
+    public byte[] serialize(Sketch sketch) {
+      return sketch.compact().toByteArray();
+    }
+
+    @Override
+    public Sketch deserialize(byte[] bytes) {
+      return Sketch.wrap(Memory.wrap(bytes));
+    }
+
+    @Override
+    public Sketch deserialize(ByteBuffer byteBuffer) {
+      byte[] bytes = new byte[byteBuffer.remaining()];
+      byteBuffer.get(bytes);
+      return Sketch.wrap(Memory.wrap(bytes));
+    }
+  };
+
+  public static final ObjectSerDe<DDSketch> DDSKETCH_SER_DE = new ObjectSerDe<DDSketch>() {
+
+    @Override
+    public byte[] serialize(DDSketch ddSketch) {
+      return ddSketch.toBytes();
+    }
+
+    @Override
+    public DDSketch deserialize(byte[] bytes) {
+      return DDSketch.fromBytes(bytes);
+    }
+
+    @Override
+    public DDSketch deserialize(ByteBuffer byteBuffer) {
+      return DDSketch.fromByteBuffer(byteBuffer);
+    }
+  };
+
+  public static final ObjectSerDe<Intersection> THETA_SKETCH_INTERSECTION_SER_DE = new ObjectSerDe<Intersection>() {
+
+    @Override
+    public byte[] serialize(Intersection intersection) {
+      return intersection.toByteArray();
+    }
+
+    @Override
+    public Intersection deserialize(byte[] bytes) {
+      return (Intersection) SetOperation.heapify(Memory.wrap(bytes));
+    }
+
+    @Override
+    public Intersection deserialize(ByteBuffer byteBuffer) {
+      byte[] bytes = new byte[byteBuffer.remaining()];
+      byteBuffer.get(bytes);
+      return (Intersection) SetOperation.heapify(Memory.wrap(bytes));
+    }
+  };
+
   // NOTE: DO NOT change the order, it has to be the same order as the ObjectType
   //@formatter:off
   private static final ObjectSerDe[] SER_DES = {
@@ -472,7 +544,10 @@ public class ObjectSerDeUtils {
       MAP_SER_DE,
       INT_SET_SER_DE,
       TDIGEST_SER_DE,
-      DISTINCT_TABLE_SER_DE
+      DISTINCT_TABLE_SER_DE,
+      THETA_SKETCH_SER_DE,
+      DDSKETCH_SER_DE,
+      THETA_SKETCH_INTERSECTION_SER_DE
   };
   //@formatter:on
 
@@ -0,0 +1,99 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.aggregator;
+
+import org.apache.datasketches.theta.Sketch;
+import org.apache.datasketches.theta.Union;
+import org.apache.pinot.common.data.FieldSpec.DataType;
+import org.apache.pinot.common.function.AggregationFunctionType;
+import org.apache.pinot.core.common.ObjectSerDeUtils;
+import org.apache.pinot.core.query.aggregation.function.DistinctCountThetaSketchAggregationFunction;
+
+
+/**
+ * The aggregated value is kept as a theta {@link Union} and serialized as a compact theta sketch.
+ */
+public class DistinctCountThetaSketchValueAggregator implements ValueAggregator<Object, Union> {
+  public static final DataType AGGREGATED_VALUE_TYPE = DataType.BYTES;
+
+  // The union result retains at most nominal entries, use the max compact sketch size as the upper bound so that the
+  // size does not need to be computed for each aggregated value
+  private static final int MAX_BYTE_SIZE =
+      Sketch.getMaxCompactSketchBytes(DistinctCountThetaSketchAggregationFunction.DEFAULT_NOMINAL_ENTRIES);
+
+  @Override
+  public AggregationFunctionType getAggregationType() {
+    return AggregationFunctionType.DISTINCTCOUNTTHETASKETCH;
+  }
+
+  @Override
+  public DataType getAggregatedValueType() {
+    return AGGREGATED_VALUE_TYPE;
+  }
+
+  @Override
+  public Union getInitialAggregatedValue(Object rawValue) {
+    return applyRawValue(DistinctCountThetaSketchAggregationFunction.createUnion(), rawValue);
+  }
+
+  @Override
+  public Union applyRawValue(Union value, Object rawValue) {
+    if (rawValue instanceof byte[]) {
+      value.update(ObjectSerDeUtils.THETA_SKETCH_SER_DE.deserialize((byte[]) rawValue));
+    } else if (rawValue instanceof Number) {
+      Number number = (Number) rawValue;
+      if (number instanceof Float || number instanceof Double) {
+        value.update(number.doubleValue());
+      } else {
+        value.update(number.longValue());
+      }
+    } else {
+      value.update(rawValue.toString());
+    }
+    return value;
+  }
+
+  @Override
+  public Union applyAggregatedValue(Union value, Union aggregatedValue) {
+    value.update(aggregatedValue.getResult());
+    return value;
+  }
+
+  @Override
+  public Union cloneAggregatedValue(Union value) {
+    return deserializeAggregatedValue(serializeAggregatedValue(value));
+  }
+
+  @Override
+  public int getMaxAggregatedValueByteSize() {
+    return MAX_BYTE_SIZE;
+  }
+
+  @Override
+  public byte[] serializeAggregatedValue(Union value) {
+    return value.getResult().toByteArray();
+  }
+
+  @Override
+  public Union deserializeAggregatedValue(byte[] bytes) {
+    Union union = DistinctCountThetaSketchAggregationFunction.createUnion();
+    union.update(ObjectSerDeUtils.THETA_SKETCH_SER_DE.deserialize(bytes));
+    return union;
+  }
+}
@@ -20,6 +20,7 @@ package org.apache.pinot.core.data.manager.offline;
 
 import org.apache.pinot.core.data.manager.SegmentDataManager;
 import org.apache.pinot.core.indexsegment.immutable.ImmutableSegment;
+import org.apache.pinot.core.indexsegment.immutable.ImmutableSegmentImpl;
 
 
 /**
@@ -31,6 +32,9 @@ public class ImmutableSegmentDataManager extends SegmentDataManager {
 
   public ImmutableSegmentDataManager(ImmutableSegment immutableSegment) {
     _immutableSegment = immutableSegment;
+    if (immutableSegment instanceof ImmutableSegmentImpl) {
+      ((ImmutableSegmentImpl) immutableSegment).setColumnIndexEvictionListener(this::unloadEvictedColumnIndexesIfIdle);
+    }
   }
 
   @Override
@@ -43,6 +47,30 @@ public class ImmutableSegmentDataManager extends SegmentDataManager {
     return _immutableSegment;
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>Also unloads the lazily loaded column indexes requested to be evicted once the segment is released by all the
+   * queries.
+   */
+  @Override
+  public synchronized boolean decreaseReferenceCount() {
+    boolean canBeDestroyed = super.decreaseReferenceCount();
+    if (!canBeDestroyed) {
+      unloadEvictedColumnIndexesIfIdle();
+    }
+    return canBeDestroyed;
+  }
+
+  /**
+   * Unloads the lazily loaded column indexes requested to be evicted if the segment is not acquired by any query.
+   * Holding the lock guarantees that no query can acquire the segment while the indexes are being unloaded.
+   */
+  private synchronized void unloadEvictedColumnIndexesIfIdle() {
+    if (getReferenceCount() == 1 && _immutableSegment instanceof ImmutableSegmentImpl) {
+      ((ImmutableSegmentImpl) _immutableSegment).unloadEvictedColumnIndexes();
+    }
+  }
+
   @Override
   public void destroy() {
     _immutableSegment.destroy();
@@ -30,6 +30,7 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.apache.pinot.common.request.AggregationInfo;
 import org.apache.pinot.common.request.SelectionSort;
 import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.core.query.request.context.QueryMemoryTracker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -88,6 +89,7 @@ public class ConcurrentIndexedTable extends IndexedTable {
       try {
         _lookupMap.compute(key, (k, v) -> {
           if (v == null) {
+            QueryMemoryTracker.allocate(_recordSizeInBytes);
             return newRecord;
           } else {
             Object[] existingValues = v.getValues();
@@ -138,7 +140,9 @@ public class ConcurrentIndexedTable extends IndexedTable {
 
     long startTime = System.currentTimeMillis();
 
+    int sizeBeforeResize = _lookupMap.size();
     _tableResizer.resizeRecordsMap(_lookupMap, trimToSize);
+    QueryMemoryTracker.release((sizeBeforeResize - _lookupMap.size()) * _recordSizeInBytes);
 
     long endTime = System.currentTimeMillis();
     long timeElapsed = endTime - startTime;
@@ -23,6 +23,7 @@ import java.util.List;
 import org.apache.pinot.common.request.AggregationInfo;
 import org.apache.pinot.common.request.SelectionSort;
 import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.core.query.request.context.QueryMemoryTracker;
 
 
 /**
@@ -32,6 +33,8 @@ public abstract class IndexedTable extends BaseTable {
 
   private final KeyExtractor _keyExtractor;
   final int _numKeyColumns;
+  // Estimated heap size of a record in the lookup map, including the key and the map entry
+  final long _recordSizeInBytes;
 
   /**
    * Initializes the variables and comparators needed for the table
@@ -41,6 +44,10 @@ public abstract class IndexedTable extends BaseTable {
 
     _numKeyColumns = dataSchema.size() - _numAggregations;
     _keyExtractor = new KeyExtractor(_numKeyColumns);
+    _recordSizeInBytes = QueryMemoryTracker.HASH_MAP_ENTRY_SIZE
+        + 2 * (QueryMemoryTracker.OBJECT_HEADER_SIZE + QueryMemoryTracker.REFERENCE_SIZE)
+        + QueryMemoryTracker.OBJECT_HEADER_SIZE + (long) _numKeyColumns * QueryMemoryTracker.REFERENCE_SIZE
+        + QueryMemoryTracker.estimateRowSizeInBytes(_numColumns);
   }
 
   @Override
@@ -27,6 +27,7 @@ import javax.annotation.concurrent.NotThreadSafe;
 import org.apache.pinot.common.request.AggregationInfo;
 import org.apache.pinot.common.request.SelectionSort;
 import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.core.query.request.context.QueryMemoryTracker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -80,6 +81,7 @@ public class SimpleIndexedTable extends IndexedTable {
 
       _lookupMap.compute(key, (k, v) -> {
         if (v == null) {
+          QueryMemoryTracker.allocate(_recordSizeInBytes);
           return newRecord;
         } else {
           Object[] existingValues = v.getValues();
@@ -109,7 +111,9 @@ public class SimpleIndexedTable extends IndexedTable {
 
     long startTime = System.currentTimeMillis();
 
+    int sizeBeforeResize = _lookupMap.size();
     _tableResizer.resizeRecordsMap(_lookupMap, trimToSize);
+    QueryMemoryTracker.release((sizeBeforeResize - _lookupMap.size()) * _recordSizeInBytes);
 
     long endTime = System.currentTimeMillis();
     long timeElapsed = endTime - startTime;
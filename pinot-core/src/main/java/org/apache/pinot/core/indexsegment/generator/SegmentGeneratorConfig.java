@@ -79,6 +79,7 @@ public class SegmentGeneratorConfig {
   private Set<String> _rawIndexCreationColumns = new HashSet<>();
   private Map<String, ChunkCompressorFactory.CompressionType> _rawIndexCompressionType = new HashMap<>();
   private List<String> _invertedIndexCreationColumns = new ArrayList<>();
+  private List<String> _zoneMapCreationColumns = new ArrayList<>();
   private List<String> _columnSortOrder = new ArrayList<>();
   private List<String> _varLengthDictionaryColumns = new ArrayList<>();
   private String _dataDir = null;
@@ -130,6 +131,7 @@ public class SegmentGeneratorConfig {
     _rawIndexCreationColumns.addAll(config._rawIndexCreationColumns);
     _rawIndexCompressionType.putAll(config._rawIndexCompressionType);
     _invertedIndexCreationColumns.addAll(config._invertedIndexCreationColumns);
+    _zoneMapCreationColumns.addAll(config._zoneMapCreationColumns);
     _columnSortOrder.addAll(config._columnSortOrder);
     _varLengthDictionaryColumns.addAll(config._varLengthDictionaryColumns);
     _dataDir = config._dataDir;
@@ -218,6 +220,10 @@ public class SegmentGeneratorConfig {
       _invertedIndexCreationColumns = indexingConfig.getInvertedIndexColumns();
     }
 
+    if (indexingConfig.getZoneMapColumns() != null) {
+      _zoneMapCreationColumns.addAll(indexingConfig.getZoneMapColumns());
+    }
+
     SegmentsValidationAndRetentionConfig validationConfig = tableConfig.getValidationConfig();
     _hllConfig = validationConfig.getHllConfig();
 
@@ -268,6 +274,10 @@ public class SegmentGeneratorConfig {
     return _invertedIndexCreationColumns;
   }
 
+  public List<String> getZoneMapCreationColumns() {
+    return _zoneMapCreationColumns;
+  }
+
   public List<String> getColumnSortOrder() {
     return _columnSortOrder;
   }
@@ -282,6 +292,11 @@ public class SegmentGeneratorConfig {
     _invertedIndexCreationColumns.addAll(indexCreationColumns);
   }
 
+  public void setZoneMapCreationColumns(List<String> zoneMapCreationColumns) {
+    Preconditions.checkNotNull(zoneMapCreationColumns);
+    _zoneMapCreationColumns.addAll(zoneMapCreationColumns);
+  }
+
   public void setColumnSortOrder(List<String> sortOrder) {
     Preconditions.checkNotNull(sortOrder);
     _columnSortOrder.addAll(sortOrder);
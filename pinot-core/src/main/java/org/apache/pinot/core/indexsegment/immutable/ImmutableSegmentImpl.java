@@ -30,6 +30,7 @@ import org.apache.pinot.core.indexsegment.IndexSegmentUtils;
 import org.apache.pinot.core.io.reader.DataFileReader;
 import org.apache.pinot.core.segment.index.SegmentMetadataImpl;
 import org.apache.pinot.core.segment.index.column.ColumnIndexContainer;
+import org.apache.pinot.core.segment.index.column.LazyColumnIndexContainer;
 import org.apache.pinot.core.segment.index.data.source.ColumnDataSource;
 import org.apache.pinot.core.segment.index.readers.Dictionary;
 import org.apache.pinot.core.segment.index.readers.InvertedIndexReader;
@@ -57,6 +58,32 @@ public class ImmutableSegmentImpl implements ImmutableSegment {
     _starTreeIndexContainer = starTreeIndexContainer;
   }
 
+  /**
+   * Sets the listener to be notified when the indexes of a lazily loaded column are requested to be evicted.
+   */
+  public void setColumnIndexEvictionListener(@Nullable Runnable evictionListener) {
+    for (ColumnIndexContainer columnIndexContainer : _indexContainerMap.values()) {
+      if (columnIndexContainer instanceof LazyColumnIndexContainer) {
+        ((LazyColumnIndexContainer) columnIndexContainer).setEvictionListener(evictionListener);
+      }
+    }
+  }
+
+  /**
+   * Unloads the indexes of the lazily loaded columns that are requested to be evicted.
+   * <p>NOTE: caller must ensure that the segment is not acquired by any query.
+   */
+  public void unloadEvictedColumnIndexes() {
+    for (ColumnIndexContainer columnIndexContainer : _indexContainerMap.values()) {
+      if (columnIndexContainer instanceof LazyColumnIndexContainer) {
+        LazyColumnIndexContainer lazyColumnIndexContainer = (LazyColumnIndexContainer) columnIndexContainer;
+        if (lazyColumnIndexContainer.isEvictionRequested()) {
+          lazyColumnIndexContainer.evict();
+        }
+      }
+    }
+  }
+
   @Override
   public Dictionary getDictionary(String column) {
     return _indexContainerMap.get(column).getDictionary();
@@ -107,6 +134,13 @@ public class ImmutableSegmentImpl implements ImmutableSegment {
     LOGGER.info("Trying to destroy segment : {}", this.getSegmentName());
     for (String column : _indexContainerMap.keySet()) {
       ColumnIndexContainer columnIndexContainer = _indexContainerMap.get(column);
+      if (columnIndexContainer instanceof LazyColumnIndexContainer) {
+        // Do not load the indexes just to close them
+        LazyColumnIndexContainer lazyColumnIndexContainer = (LazyColumnIndexContainer) columnIndexContainer;
+        lazyColumnIndexContainer.setEvictionListener(null);
+        lazyColumnIndexContainer.unload();
+        continue;
+      }
 
       try {
         Dictionary dictionary = columnIndexContainer.getDictionary();
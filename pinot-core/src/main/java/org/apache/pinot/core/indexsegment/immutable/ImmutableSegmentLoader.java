@@ -32,6 +32,8 @@ import org.apache.pinot.core.indexsegment.generator.SegmentVersion;
 import org.apache.pinot.core.segment.index.ColumnMetadata;
 import org.apache.pinot.core.segment.index.SegmentMetadataImpl;
 import org.apache.pinot.core.segment.index.column.ColumnIndexContainer;
+import org.apache.pinot.core.segment.index.column.LazyColumnIndexContainer;
+import org.apache.pinot.core.segment.index.column.LazyColumnIndexManager;
 import org.apache.pinot.core.segment.index.column.PhysicalColumnIndexContainer;
 import org.apache.pinot.core.segment.index.converter.SegmentFormatConverter;
 import org.apache.pinot.core.segment.index.converter.SegmentFormatConverterFactory;
@@ -97,8 +99,24 @@ public class ImmutableSegmentLoader {
 
     // Pre-process the segment
     // NOTE: this step may modify the segment metadata
-    try (SegmentPreProcessor preProcessor = new SegmentPreProcessor(indexDir, indexLoadingConfig, schema)) {
-      preProcessor.process();
+    // NOTE: the pre-processing can be skipped if the segment has been pre-processed with the same index config
+    String indexConfigChecksum = null;
+    if (indexLoadingConfig.isSkipPreProcessIfIndexConfigUnchanged()) {
+      indexConfigChecksum = SegmentPreProcessor
+          .computeIndexConfigChecksum(new SegmentMetadataImpl(indexDir), indexLoadingConfig, schema);
+    }
+    if (indexConfigChecksum != null && !SegmentPreProcessor.needProcess(indexDir, indexConfigChecksum)) {
+      LOGGER.info("Skipping pre-processing segment: {} with unchanged index config", segmentName);
+    } else {
+      if (indexConfigChecksum != null) {
+        SegmentPreProcessor.markProcessed(indexDir, null);
+      }
+      try (SegmentPreProcessor preProcessor = new SegmentPreProcessor(indexDir, indexLoadingConfig, schema)) {
+        preProcessor.process();
+      }
+      if (indexConfigChecksum != null) {
+        SegmentPreProcessor.markProcessed(indexDir, indexConfigChecksum);
+      }
     }
 
     // Load the metadata again since converter and pre-processor may have changed it
@@ -106,12 +124,20 @@ public class ImmutableSegmentLoader {
 
     // Load the segment
     ReadMode readMode = indexLoadingConfig.getReadMode();
-    SegmentDirectory segmentDirectory = SegmentDirectory.createFromLocalFS(indexDir, segmentMetadata, readMode);
+    boolean lazyColumnIndexLoading = indexLoadingConfig.isLazyColumnIndexLoading();
+    SegmentDirectory segmentDirectory =
+        SegmentDirectory.createFromLocalFS(indexDir, segmentMetadata, readMode, lazyColumnIndexLoading);
     SegmentDirectory.Reader segmentReader = segmentDirectory.createReader();
     Map<String, ColumnIndexContainer> indexContainerMap = new HashMap<>();
     for (Map.Entry<String, ColumnMetadata> entry : segmentMetadata.getColumnMetadataMap().entrySet()) {
-      indexContainerMap
-          .put(entry.getKey(), new PhysicalColumnIndexContainer(segmentReader, entry.getValue(), indexLoadingConfig));
+      if (lazyColumnIndexLoading) {
+        indexContainerMap.put(entry.getKey(),
+            new LazyColumnIndexContainer(segmentName, segmentReader, entry.getValue(), indexLoadingConfig,
+                LazyColumnIndexManager.getInstance()));
+      } else {
+        indexContainerMap
+            .put(entry.getKey(), new PhysicalColumnIndexContainer(segmentReader, entry.getValue(), indexLoadingConfig));
+      }
     }
 
     if (schema == null) {
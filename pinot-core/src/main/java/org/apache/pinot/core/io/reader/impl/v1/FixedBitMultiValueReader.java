@@ -97,33 +97,8 @@ public final class FixedBitMultiValueReader extends BaseSingleColumnMultiValueRe
 
   @Override
   public int getIntArray(int row, int[] intArray, Context context) {
-    int contextRow = context._row;
-    int contextEndOffset = context._endOffset;
-    int startIndex;
-    if (row == contextRow + 1) {
-      startIndex = contextEndOffset;
-    } else {
-      int chunkId = row / _numRowsPerChunk;
-      if (row > contextRow && chunkId == contextRow / _numRowsPerChunk) {
-        // Same chunk
-        startIndex = _bitmapReader.getNextNthSetBitOffset(contextEndOffset + 1, row - contextRow - 1);
-      } else {
-        // Different chunk
-        int chunkOffset = _chunkOffsetReader.getInt(chunkId);
-        int indexInChunk = row % _numRowsPerChunk;
-        if (indexInChunk == 0) {
-          startIndex = chunkOffset;
-        } else {
-          startIndex = _bitmapReader.getNextNthSetBitOffset(chunkOffset + 1, indexInChunk);
-        }
-      }
-    }
-    int endIndex;
-    if (row == _numRows - 1) {
-      endIndex = _numValues;
-    } else {
-      endIndex = _bitmapReader.getNextSetBitOffset(startIndex + 1);
-    }
+    int startIndex = getStartIndex(row, context);
+    int endIndex = getEndIndex(row, startIndex);
     int numValues = endIndex - startIndex;
     _rawDataReader.readInt(startIndex, numValues, intArray);
 
@@ -134,6 +109,65 @@ public final class FixedBitMultiValueReader extends BaseSingleColumnMultiValueRe
     return numValues;
   }
 
+  /**
+   * Reads the values for a batch of consecutive rows starting from the given row. The values of all the rows are
+   * stored contiguously in RAW DATA, so they are decoded in bulk instead of row by row.
+   * <p>The values of the rows are put into the given int array back to back, and the exclusive end offset of the values
+   * of each row inside the int array is put into the given end offset array.
+   *
+   * @param startRow Start row
+   * @param numRows Number of rows to read
+   * @param intArray Int array to put the values into, should be large enough to hold the values of all the rows
+   * @param valueEndOffsets Array to put the end offset of the values of each row into
+   * @param context Reader context
+   * @return Total number of values read
+   */
+  public int getIntArrays(int startRow, int numRows, int[] intArray, int[] valueEndOffsets, Context context) {
+    int startIndex = getStartIndex(startRow, context);
+    int endIndex = startIndex;
+    for (int i = 0; i < numRows; i++) {
+      endIndex = getEndIndex(startRow + i, endIndex);
+      valueEndOffsets[i] = endIndex - startIndex;
+    }
+    int numValues = endIndex - startIndex;
+    _rawDataReader.readInt(startIndex, numValues, intArray);
+
+    // Update context
+    context._row = startRow + numRows - 1;
+    context._endOffset = endIndex;
+
+    return numValues;
+  }
+
+  private int getStartIndex(int row, Context context) {
+    int contextRow = context._row;
+    int contextEndOffset = context._endOffset;
+    if (row == contextRow + 1) {
+      return contextEndOffset;
+    }
+    int chunkId = row / _numRowsPerChunk;
+    if (row > contextRow && chunkId == contextRow / _numRowsPerChunk) {
+      // Same chunk
+      return _bitmapReader.getNextNthSetBitOffset(contextEndOffset + 1, row - contextRow - 1);
+    }
+    // Different chunk
+    int chunkOffset = _chunkOffsetReader.getInt(chunkId);
+    int indexInChunk = row % _numRowsPerChunk;
+    if (indexInChunk == 0) {
+      return chunkOffset;
+    } else {
+      return _bitmapReader.getNextNthSetBitOffset(chunkOffset + 1, indexInChunk);
+    }
+  }
+
+  private int getEndIndex(int row, int startIndex) {
+    if (row == _numRows - 1) {
+      return _numValues;
+    } else {
+      return _bitmapReader.getNextSetBitOffset(startIndex + 1);
+    }
+  }
+
   @Override
   public Context createContext() {
     return new Context();
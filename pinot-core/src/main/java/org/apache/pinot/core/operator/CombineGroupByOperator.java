@@ -43,6 +43,7 @@ import org.apache.pinot.core.query.aggregation.function.AggregationFunctionUtils
 import org.apache.pinot.core.query.aggregation.groupby.AggregationGroupByResult;
 import org.apache.pinot.core.query.aggregation.groupby.AggregationGroupByTrimmingService;
 import org.apache.pinot.core.query.aggregation.groupby.GroupKeyGenerator;
+import org.apache.pinot.core.query.request.context.QueryMemoryTracker;
 import org.apache.pinot.core.util.trace.TraceRunnable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -110,6 +111,9 @@ public class CombineGroupByOperator extends BaseOperator<IntermediateResultsBloc
     AggregationFunctionContext[] aggregationFunctionContexts =
         AggregationFunctionUtils.getAggregationFunctionContexts(_brokerRequest, null);
     int numAggregationFunctions = aggregationFunctionContexts.length;
+    // Estimated heap size of a group in the results map (string key treated as an extra value)
+    long groupSizeInBytes =
+        QueryMemoryTracker.HASH_MAP_ENTRY_SIZE + QueryMemoryTracker.estimateRowSizeInBytes(numAggregationFunctions + 1);
     AggregationFunction[] aggregationFunctions = new AggregationFunction[numAggregationFunctions];
     for (int i = 0; i < numAggregationFunctions; i++) {
       aggregationFunctions[i] = aggregationFunctionContexts[i].getAggregationFunction();
@@ -161,6 +165,7 @@ public class CombineGroupByOperator extends BaseOperator<IntermediateResultsBloc
                 resultsMap.compute(groupKey._stringKey, (key, value) -> {
                   if (value == null) {
                     if (numGroups.getAndIncrement() < _interSegmentNumGroupsLimit) {
+                      QueryMemoryTracker.allocate(groupSizeInBytes);
                       value = new Object[numAggregationFunctions];
                       for (int i = 0; i < numAggregationFunctions; i++) {
                         value[i] = aggregationGroupByResult.getResultForKey(groupKey, i);
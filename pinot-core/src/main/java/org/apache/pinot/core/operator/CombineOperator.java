@@ -18,20 +18,31 @@
  */
 package org.apache.pinot.core.operator;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.util.List;
+import java.util.Queue;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.Phaser;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.request.Selection;
 import org.apache.pinot.core.common.Operator;
 import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
 import org.apache.pinot.core.query.reduce.CombineService;
+import org.apache.pinot.core.query.scheduler.resources.QueryExecutorService;
 import org.apache.pinot.core.util.trace.TraceCallable;
 import org.apache.pinot.core.util.trace.TraceRunnable;
 import org.slf4j.Logger;
@@ -51,6 +62,15 @@ public class CombineOperator extends BaseOperator<IntermediateResultsBlock> {
   private static final int MAX_NUM_THREADS_PER_QUERY =
       Math.max(1, Math.min(10, Runtime.getRuntime().availableProcessors() / 2));
 
+  // Timer for the asynchronous execution to time out the queries without blocking a thread for each query
+  private static final ScheduledThreadPoolExecutor TIMEOUT_EXECUTOR = createTimeoutExecutor();
+  // Executor to merge the results and complete the queries for the asynchronous execution, so that the query worker
+  // finishing the last job is released right away, and the stages chained on the result future (segment release,
+  // serialization) do not run on the query workers
+  private static final ExecutorService COMPLETION_EXECUTOR = Executors
+      .newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+          new ThreadFactoryBuilder().setDaemon(true).setNameFormat("combine-completion-%d").build());
+
   private final List<Operator> _operators;
   private final BrokerRequest _brokerRequest;
   private final ExecutorService _executorService;
@@ -83,10 +103,21 @@ public class CombineOperator extends BaseOperator<IntermediateResultsBlock> {
     BlockingQueue<IntermediateResultsBlock> blockingQueue = new ArrayBlockingQueue<>(numThreads);
     Phaser phaser = new Phaser(1);
 
+    // Operators are not pinned to threads. Each thread first executes the operator with its own index (so that every
+    // thread produces a block carrying the data schema or aggregation contexts), then pulls the next unprocessed
+    // operator from the shared index, so a slow segment only holds up the thread processing it while the other threads
+    // keep draining the remaining ones.
+    AtomicInteger nextOperatorId = new AtomicInteger(numThreads);
+
+    // For selection only queries, skip the remaining operators once enough rows have been collected across all the
+    // threads. The skipped operators report themselves as skipped segments in the execution statistics.
+    int numRowsToKeep = getNumRowsToKeepForEarlyTermination();
+    AtomicInteger numRowsCollected = new AtomicInteger();
+
     // Submit operator group execution jobs
     Future[] futures = new Future[numThreads];
     for (int i = 0; i < numThreads; i++) {
-      int index = i;
+      int firstOperatorId = i;
       futures[i] = _executorService.submit(new TraceRunnable() {
         @Override
         public void runJob() {
@@ -99,18 +130,8 @@ public class CombineOperator extends BaseOperator<IntermediateResultsBlock> {
               return;
             }
 
-            IntermediateResultsBlock mergedBlock = (IntermediateResultsBlock) _operators.get(index).nextBlock();
-            for (int i = index + numThreads; i < numOperators; i += numThreads) {
-              IntermediateResultsBlock blockToMerge = (IntermediateResultsBlock) _operators.get(i).nextBlock();
-              try {
-                CombineService.mergeTwoBlocks(_brokerRequest, mergedBlock, blockToMerge);
-              } catch (Exception e) {
-                LOGGER.error("Caught exception while merging two blocks (step 1).", e);
-                mergedBlock
-                    .addToProcessingExceptions(QueryException.getException(QueryException.MERGE_RESPONSE_ERROR, e));
-              }
-            }
-            blockingQueue.offer(mergedBlock);
+            blockingQueue.offer(
+                processOperators(firstOperatorId, nextOperatorId, numRowsCollected, numRowsToKeep, endTimeMs));
           } catch (Exception e) {
             LOGGER.error("Caught exception while executing query.", e);
             blockingQueue.offer(new IntermediateResultsBlock(e));
@@ -178,7 +199,184 @@ public class CombineOperator extends BaseOperator<IntermediateResultsBlock> {
       phaser.awaitAdvance(phaser.arriveAndDeregister());
     }
 
-    // Update execution statistics.
+    setExecutionStatistics(mergedBlock);
+    return mergedBlock;
+  }
+
+  /**
+   * Asynchronous version of {@link #nextBlock()}, which submits the operator jobs and returns without waiting for them.
+   * <p>The returned future is completed on a separate completion executor once all the jobs finish (or the query times
+   * out), and only after all the started jobs are done, so that the segments are not released while still being
+   * queried. No thread is blocked while the query is executing.
+   */
+  public CompletableFuture<IntermediateResultsBlock> nextBlockAsync() {
+    long startTimeMs = System.currentTimeMillis();
+    long endTimeMs = startTimeMs + _timeOutMs;
+    int numOperators = _operators.size();
+    // Do not submit more jobs than the executor can run concurrently, otherwise the submitting thread would be blocked
+    // until one of the running jobs finishes
+    int numThreads = Math.min(Math.min(numOperators, MAX_NUM_THREADS_PER_QUERY), getMaxConcurrency());
+
+    CompletableFuture<IntermediateResultsBlock> resultFuture = new CompletableFuture<>();
+    ConcurrentLinkedQueue<IntermediateResultsBlock> blocks = new ConcurrentLinkedQueue<>();
+    AtomicBoolean finished = new AtomicBoolean();
+    AtomicBoolean timedOut = new AtomicBoolean();
+    // The completion job is created on the query thread so that it carries the trace and the memory tracker of the
+    // query to the completion executor, where the blocks are merged and the stages chained on the result future run
+    TraceRunnable completionJob = new TraceRunnable() {
+      @Override
+      public void runJob() {
+        try {
+          resultFuture.complete(mergeBlocks(blocks, timedOut.get()));
+        } catch (Exception e) {
+          LOGGER.error("Caught exception while completing the query.", e);
+          resultFuture.completeExceptionally(e);
+        }
+      }
+    };
+    // The phaser advances once the main party deregisters (all the jobs finished or the query timed out) and all the
+    // started jobs are done. The thread arriving last hands the merge over to the completion executor on advance.
+    Phaser phaser = new Phaser(1) {
+      @Override
+      protected boolean onAdvance(int phase, int registeredParties) {
+        try {
+          COMPLETION_EXECUTOR.execute(completionJob);
+        } catch (Exception e) {
+          LOGGER.error("Caught exception while submitting the query completion.", e);
+          resultFuture.completeExceptionally(e);
+        }
+        return true;
+      }
+    };
+
+    AtomicInteger nextOperatorId = new AtomicInteger(numThreads);
+    int numRowsToKeep = getNumRowsToKeepForEarlyTermination();
+    AtomicInteger numRowsCollected = new AtomicInteger();
+    AtomicInteger numThreadsFinished = new AtomicInteger();
+
+    Future[] futures = new Future[numThreads];
+    ScheduledFuture<?> timeoutFuture = TIMEOUT_EXECUTOR.schedule(() -> {
+      if (finished.compareAndSet(false, true)) {
+        timedOut.set(true);
+        for (Future future : futures) {
+          if (future != null && !future.isDone()) {
+            future.cancel(true);
+          }
+        }
+        phaser.arriveAndDeregister();
+      }
+    }, _timeOutMs, TimeUnit.MILLISECONDS);
+
+    for (int i = 0; i < numThreads; i++) {
+      int firstOperatorId = i;
+      futures[i] = _executorService.submit(new TraceRunnable() {
+        @Override
+        public void runJob() {
+          // The phaser is terminated if the query has already timed out and all the started jobs are done
+          if (phaser.register() < 0) {
+            return;
+          }
+          try {
+            blocks.add(processOperators(firstOperatorId, nextOperatorId, numRowsCollected, numRowsToKeep, endTimeMs));
+          } catch (Exception e) {
+            LOGGER.error("Caught exception while executing query.", e);
+            blocks.add(new IntermediateResultsBlock(e));
+          } finally {
+            // The last finished job deregisters the main party on behalf of the query
+            if (numThreadsFinished.incrementAndGet() == numThreads && finished.compareAndSet(false, true)) {
+              timeoutFuture.cancel(false);
+              phaser.arriveAndDeregister();
+            }
+            phaser.arriveAndDeregister();
+          }
+        }
+      });
+    }
+    return resultFuture;
+  }
+
+  /**
+   * Processes the given first operator, then the operators pulled from the shared index until all of them are drained,
+   * enough rows are collected or the query is cancelled or timed out, and returns the merged block.
+   * <p>The cancellation and timeout are only checked between operators (a running operator is not interrupted), and
+   * the remaining operators are abandoned instead of being rescheduled. The merged block then carries an
+   * {@link QueryException#EXECUTION_TIMEOUT_ERROR} so that the partial result is not mistaken for a complete one.
+   * <p>The first operator is always processed so that each thread returns a block from an actual operator, which
+   * carries the data schema (selection) or the aggregation function contexts (aggregation only) required to merge the
+   * blocks. The number of threads never exceeds the number of operators.
+   */
+  private IntermediateResultsBlock processOperators(int firstOperatorId, AtomicInteger nextOperatorId,
+      AtomicInteger numRowsCollected, int numRowsToKeep, long endTimeMs) {
+    int numOperators = _operators.size();
+    IntermediateResultsBlock mergedBlock = processOperator(firstOperatorId, numRowsCollected, numRowsToKeep);
+    // Stop pulling operators once enough rows have been collected, or the query has been cancelled or timed out
+    int operatorId;
+    while (numRowsCollected.get() < numRowsToKeep && (operatorId = nextOperatorId.getAndIncrement()) < numOperators) {
+      if (isCancelledOrTimedOut(endTimeMs)) {
+        String errorMessage =
+            "Query cancelled or timed out (timeout: " + _timeOutMs + "ms) before processing all " + numOperators
+                + " segments";
+        LOGGER.error(errorMessage);
+        mergedBlock.addToProcessingExceptions(
+            QueryException.getException(QueryException.EXECUTION_TIMEOUT_ERROR, new TimeoutException(errorMessage)));
+        break;
+      }
+      IntermediateResultsBlock blockToMerge = processOperator(operatorId, numRowsCollected, numRowsToKeep);
+      try {
+        CombineService.mergeTwoBlocks(_brokerRequest, mergedBlock, blockToMerge);
+      } catch (Exception e) {
+        LOGGER.error("Caught exception while merging two blocks (step 1).", e);
+        mergedBlock.addToProcessingExceptions(QueryException.getException(QueryException.MERGE_RESPONSE_ERROR, e));
+      }
+    }
+    return mergedBlock;
+  }
+
+  private IntermediateResultsBlock processOperator(int operatorId, AtomicInteger numRowsCollected, int numRowsToKeep) {
+    IntermediateResultsBlock block = (IntermediateResultsBlock) _operators.get(operatorId).nextBlock();
+    addNumRowsCollected(block, numRowsCollected, numRowsToKeep);
+    return block;
+  }
+
+  /**
+   * Merges the blocks from all the jobs for the asynchronous execution, or returns a timeout error block if the query
+   * timed out.
+   */
+  private IntermediateResultsBlock mergeBlocks(Queue<IntermediateResultsBlock> blocks, boolean timedOut) {
+    IntermediateResultsBlock mergedBlock;
+    if (timedOut) {
+      String errorMessage = "Timed out while combining results after " + _timeOutMs + "ms";
+      LOGGER.error(errorMessage);
+      mergedBlock =
+          new IntermediateResultsBlock(QueryException.EXECUTION_TIMEOUT_ERROR, new TimeoutException(errorMessage));
+    } else {
+      mergedBlock = blocks.poll();
+      IntermediateResultsBlock blockToMerge;
+      while ((blockToMerge = blocks.poll()) != null) {
+        try {
+          CombineService.mergeTwoBlocks(_brokerRequest, mergedBlock, blockToMerge);
+        } catch (Exception e) {
+          LOGGER.error("Caught exception while merging two blocks (step 2).", e);
+          mergedBlock.addToProcessingExceptions(QueryException.getException(QueryException.MERGE_RESPONSE_ERROR, e));
+        }
+      }
+    }
+    setExecutionStatistics(mergedBlock);
+    return mergedBlock;
+  }
+
+  /**
+   * Returns the number of jobs the executor service can run concurrently for the query.
+   */
+  private int getMaxConcurrency() {
+    if (_executorService instanceof QueryExecutorService) {
+      return ((QueryExecutorService) _executorService).getMaxConcurrency();
+    } else {
+      return Integer.MAX_VALUE;
+    }
+  }
+
+  private void setExecutionStatistics(IntermediateResultsBlock mergedBlock) {
     ExecutionStatistics executionStatistics = new ExecutionStatistics();
     for (Operator operator : _operators) {
       ExecutionStatistics executionStatisticsToMerge = operator.getExecutionStatistics();
@@ -192,8 +390,42 @@ public class CombineOperator extends BaseOperator<IntermediateResultsBlock> {
     mergedBlock.setNumTotalRawDocs(executionStatistics.getNumTotalRawDocs());
     mergedBlock.setNumSegmentsProcessed(executionStatistics.getNumSegmentsProcessed());
     mergedBlock.setNumSegmentsMatched(executionStatistics.getNumSegmentsMatched());
+    mergedBlock.setNumSegmentsSkipped(executionStatistics.getNumSegmentsSkipped());
+  }
 
-    return mergedBlock;
+  /**
+   * Returns the number of rows to collect before skipping the remaining operators, or {@link Integer#MAX_VALUE} if
+   * early termination does not apply (only applies to selection only queries).
+   */
+  private int getNumRowsToKeepForEarlyTermination() {
+    Selection selection = _brokerRequest.getSelections();
+    if (selection != null && !selection.isSetSelectionSortSequence() && selection.getSize() > 0) {
+      return selection.getSize();
+    } else {
+      return Integer.MAX_VALUE;
+    }
+  }
+
+  /**
+   * Returns whether the query has been cancelled (thread interrupted) or timed out.
+   */
+  private static boolean isCancelledOrTimedOut(long endTimeMs) {
+    return Thread.currentThread().isInterrupted() || System.currentTimeMillis() >= endTimeMs;
+  }
+
+  private static void addNumRowsCollected(IntermediateResultsBlock block, AtomicInteger numRowsCollected,
+      int numRowsToKeep) {
+    if (numRowsToKeep != Integer.MAX_VALUE && block != null && block.getSelectionResult() != null) {
+      numRowsCollected.addAndGet(block.getSelectionResult().size());
+    }
+  }
+
+  private static ScheduledThreadPoolExecutor createTimeoutExecutor() {
+    ScheduledThreadPoolExecutor timeoutExecutor = new ScheduledThreadPoolExecutor(1,
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("combine-timeout-%d").build());
+    // Most of the queries finish before timing out, remove the cancelled timeouts right away
+    timeoutExecutor.setRemoveOnCancelPolicy(true);
+    return timeoutExecutor;
   }
 
   @Override
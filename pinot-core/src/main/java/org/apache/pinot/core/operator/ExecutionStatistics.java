@@ -28,6 +28,7 @@ public class ExecutionStatistics {
   private long _numTotalRawDocs;
   private long _numSegmentsProcessed;
   private long _numSegmentsMatched;
+  private long _numSegmentsSkipped;
 
   public ExecutionStatistics() {
   }
@@ -42,6 +43,17 @@ public class ExecutionStatistics {
     _numSegmentsMatched = (numDocsScanned == 0) ? 0 : 1;
   }
 
+  /**
+   * Returns the execution statistics for a segment that is skipped without being processed (e.g. because enough rows
+   * have already been collected from the other segments).
+   */
+  public static ExecutionStatistics forSkippedSegment(long numTotalRawDocs) {
+    ExecutionStatistics executionStatistics = new ExecutionStatistics();
+    executionStatistics._numTotalRawDocs = numTotalRawDocs;
+    executionStatistics._numSegmentsSkipped = 1;
+    return executionStatistics;
+  }
+
   public long getNumDocsScanned() {
     return _numDocsScanned;
   }
@@ -66,6 +78,10 @@ public class ExecutionStatistics {
     return _numSegmentsMatched;
   }
 
+  public long getNumSegmentsSkipped() {
+    return _numSegmentsSkipped;
+  }
+
   /**
    * Merge another execution statistics into the current one.
    *
@@ -78,6 +94,7 @@ public class ExecutionStatistics {
     _numTotalRawDocs += executionStatisticsToMerge._numTotalRawDocs;
     _numSegmentsProcessed += executionStatisticsToMerge._numSegmentsProcessed;
     _numSegmentsMatched += executionStatisticsToMerge._numSegmentsMatched;
+    _numSegmentsSkipped += executionStatisticsToMerge._numSegmentsSkipped;
   }
 
   @Override
@@ -85,6 +102,6 @@ public class ExecutionStatistics {
     return "Execution Statistics:" + "\n  numDocsScanned: " + _numDocsScanned + "\n  numEntriesScannedInFilter: "
         + _numEntriesScannedInFilter + "\n  numEntriesScannedPostFilter: " + _numEntriesScannedPostFilter
         + "\n  numTotalRawDocs: " + _numTotalRawDocs + "\n  numSegmentsProcessed: " + _numSegmentsProcessed
-        + "\n  numSegmentsMatched: " + _numSegmentsMatched;
+        + "\n  numSegmentsMatched: " + _numSegmentsMatched + "\n  numSegmentsSkipped: " + _numSegmentsSkipped;
   }
 }
@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.core.operator;
 
+import java.util.concurrent.CompletableFuture;
 import org.apache.pinot.core.common.Operator;
 import org.apache.pinot.core.operator.blocks.InstanceResponseBlock;
 import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
@@ -37,6 +38,18 @@ public class InstanceResponseOperator extends BaseOperator<InstanceResponseBlock
     return new InstanceResponseBlock((IntermediateResultsBlock) _operator.nextBlock());
   }
 
+  /**
+   * Returns a future of the instance response block. The combine operator is executed asynchronously if it supports
+   * asynchronous execution, otherwise it is executed synchronously on the calling thread.
+   */
+  public CompletableFuture<InstanceResponseBlock> nextBlockAsync() {
+    if (_operator instanceof CombineOperator) {
+      return ((CombineOperator) _operator).nextBlockAsync().thenApply(InstanceResponseBlock::new);
+    } else {
+      return CompletableFuture.completedFuture(nextBlock());
+    }
+  }
+
   @Override
   public String getOperatorName() {
     return OPERATOR_NAME;
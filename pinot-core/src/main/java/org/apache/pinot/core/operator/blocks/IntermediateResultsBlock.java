@@ -63,10 +63,17 @@ public class IntermediateResultsBlock implements Block {
   private long _numTotalRawDocs;
   private long _numSegmentsProcessed;
   private long _numSegmentsMatched;
+  private long _numSegmentsSkipped;
   private boolean _numGroupsLimitReached;
 
   private Table _table;
 
+  /**
+   * Constructor for empty result.
+   */
+  public IntermediateResultsBlock() {
+  }
+
   /**
    * Constructor for selection result.
    */
@@ -217,6 +224,14 @@ public class IntermediateResultsBlock implements Block {
     _numSegmentsMatched = numSegmentsMatched;
   }
 
+  public long getNumSegmentsSkipped() {
+    return _numSegmentsSkipped;
+  }
+
+  public void setNumSegmentsSkipped(long numSegmentsSkipped) {
+    _numSegmentsSkipped = numSegmentsSkipped;
+  }
+
   public void setNumTotalRawDocs(long numTotalRawDocs) {
     _numTotalRawDocs = numTotalRawDocs;
   }
@@ -383,6 +398,9 @@ public class IntermediateResultsBlock implements Block {
         .put(DataTable.NUM_ENTRIES_SCANNED_POST_FILTER_METADATA_KEY, String.valueOf(_numEntriesScannedPostFilter));
     dataTable.getMetadata().put(DataTable.NUM_SEGMENTS_PROCESSED, String.valueOf(_numSegmentsProcessed));
     dataTable.getMetadata().put(DataTable.NUM_SEGMENTS_MATCHED, String.valueOf(_numSegmentsMatched));
+    if (_numSegmentsSkipped > 0) {
+      dataTable.getMetadata().put(DataTable.NUM_SEGMENTS_SKIPPED, String.valueOf(_numSegmentsSkipped));
+    }
 
     dataTable.getMetadata().put(DataTable.TOTAL_DOCS_METADATA_KEY, String.valueOf(_numTotalRawDocs));
     if (_numGroupsLimitReached) {
@@ -19,17 +19,23 @@
 package org.apache.pinot.core.operator.dociditerators;
 
 import java.util.Arrays;
+import javax.annotation.Nullable;
 import org.apache.commons.lang3.mutable.MutableInt;
 import org.apache.pinot.core.common.BlockMetadata;
 import org.apache.pinot.core.common.BlockMultiValIterator;
 import org.apache.pinot.core.common.BlockValSet;
 import org.apache.pinot.core.common.Constants;
 import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import org.apache.pinot.core.segment.index.readers.Dictionary;
+import org.apache.pinot.core.segment.index.readers.ZoneMapReader;
 import org.roaringbitmap.IntIterator;
 import org.roaringbitmap.buffer.MutableRoaringBitmap;
 
 
 public class MVScanDocIdIterator implements ScanBasedDocIdIterator {
+  // Number of values to decode per batch for the batched scan
+  private static final int NUM_VALUES_PER_BATCH = 8192;
+
   BlockMultiValIterator valueIterator;
   int currentDocId = -1;
   final int[] intArray;
@@ -40,9 +46,32 @@ public class MVScanDocIdIterator implements ScanBasedDocIdIterator {
   private String datasourceName;
   private MutableInt _numEntriesScanned = new MutableInt(0);
 
+  // Zone map based block pruning, where matchingBlocks is null if zone map cannot be applied
+  private final boolean[] matchingBlocks;
+  private final int numDocsPerBlock;
+  private int blockEndDocId = -1;
+
+  // Batched scan, where dictIdBitSet is null if batched scan is not supported
+  // The values for documents in [batchStartDocId, batchEndDocId) are decoded into batchIntArray
+  private final long[] dictIdBitSet;
+  private final boolean isExclusive;
+  private int numDocs;
+  private int numDocsPerBatch;
+  private int[] batchIntArray;
+  private int[] batchValueEndOffsets;
+  private int batchStartDocId;
+  private int batchEndDocId;
+
   public MVScanDocIdIterator(String datasourceName, BlockValSet blockValSet, BlockMetadata blockMetadata,
       PredicateEvaluator evaluator) {
+    this(datasourceName, blockValSet, blockMetadata, evaluator, null);
+  }
+
+  public MVScanDocIdIterator(String datasourceName, BlockValSet blockValSet, BlockMetadata blockMetadata,
+      PredicateEvaluator evaluator, @Nullable ZoneMapReader zoneMap) {
     this.datasourceName = datasourceName;
+    this.matchingBlocks = ZoneMapUtils.computeMatchingBlocks(zoneMap, evaluator);
+    this.numDocsPerBlock = matchingBlocks != null ? zoneMap.getNumDocsPerBlock() : 0;
     this.evaluator = evaluator;
     if (evaluator.isAlwaysFalse()) {
       this.intArray = new int[0];
@@ -56,6 +85,41 @@ public class MVScanDocIdIterator implements ScanBasedDocIdIterator {
       setEndDocId(blockMetadata.getEndDocId());
     }
     valueIterator = (BlockMultiValIterator) blockValSet.iterator();
+
+    // Use batched scan for dictionary-based predicate if the forward index supports reading values in batch
+    Dictionary dictionary = blockMetadata.getDictionary();
+    if (evaluator.isDictionaryBased() && !evaluator.isAlwaysFalse() && dictionary != null
+        && valueIterator.isBatchReadSupported()) {
+      isExclusive = evaluator.isExclusive();
+      dictIdBitSet = getDictIdBitSet(evaluator, dictionary.length());
+      int maxNumMultiValues = Math.max(blockMetadata.getMaxNumberOfMultiValues(), 1);
+      numDocs = blockMetadata.getLength();
+      numDocsPerBatch = Math.max(NUM_VALUES_PER_BATCH / maxNumMultiValues, 1);
+      batchIntArray = new int[numDocsPerBatch * maxNumMultiValues];
+      batchValueEndOffsets = new int[numDocsPerBatch];
+    } else {
+      isExclusive = false;
+      dictIdBitSet = null;
+    }
+  }
+
+  /**
+   * Returns a bit set where the bits for the matching dictionary ids are set.
+   */
+  private static long[] getDictIdBitSet(PredicateEvaluator evaluator, int cardinality) {
+    long[] dictIdBitSet = new long[(cardinality + Long.SIZE - 1) / Long.SIZE];
+    if (evaluator.isExclusive()) {
+      // Set all bits, then clear the bits for the non-matching dictionary ids
+      Arrays.fill(dictIdBitSet, -1L);
+      for (int dictId : evaluator.getNonMatchingDictIds()) {
+        dictIdBitSet[dictId >>> 6] &= ~(1L << dictId);
+      }
+    } else {
+      for (int dictId : evaluator.getMatchingDictIds()) {
+        dictIdBitSet[dictId >>> 6] |= 1L << dictId;
+      }
+    }
+    return dictIdBitSet;
   }
 
   /**
@@ -64,6 +128,7 @@ public class MVScanDocIdIterator implements ScanBasedDocIdIterator {
    */
   public void setStartDocId(int startDocId) {
     this.startDocId = startDocId;
+    this.blockEndDocId = -1;
   }
 
   /**
@@ -80,6 +145,9 @@ public class MVScanDocIdIterator implements ScanBasedDocIdIterator {
     if (currentDocId == Constants.EOF) {
       return false;
     }
+    if (!isBlockMatching(docId)) {
+      return false;
+    }
     valueIterator.skipTo(docId);
     int length = valueIterator.nextIntVal(intArray);
     return evaluator.applyMV(intArray, length, _numEntriesScanned);
@@ -110,7 +178,13 @@ public class MVScanDocIdIterator implements ScanBasedDocIdIterator {
     if (currentDocId == Constants.EOF) {
       return currentDocId;
     }
+    if (dictIdBitSet != null) {
+      return nextBatched();
+    }
     while (valueIterator.hasNext() && currentDocId < endDocId) {
+      if (matchingBlocks != null && currentDocId >= blockEndDocId && skipNonMatchingBlock()) {
+        continue;
+      }
       currentDocId = currentDocId + 1;
       int length = valueIterator.nextIntVal(intArray);
       if (evaluator.applyMV(intArray, length, _numEntriesScanned)) {
@@ -121,6 +195,93 @@ public class MVScanDocIdIterator implements ScanBasedDocIdIterator {
     return Constants.EOF;
   }
 
+  /**
+   * Batched version of {@link #next()}, which decodes the values for a batch of documents in bulk, and matches the
+   * dictionary ids against the pre-computed bit set.
+   */
+  private int nextBatched() {
+    while (currentDocId < endDocId) {
+      if (matchingBlocks != null && currentDocId >= blockEndDocId && skipNonMatchingBlock()) {
+        continue;
+      }
+      int docId = currentDocId + 1;
+      if (docId < batchStartDocId || docId >= batchEndDocId) {
+        if (docId >= numDocs) {
+          break;
+        }
+        readBatch(docId);
+      }
+      currentDocId = docId;
+      int index = docId - batchStartDocId;
+      int valueStartOffset = index == 0 ? 0 : batchValueEndOffsets[index - 1];
+      if (matchesDictIdBitSet(valueStartOffset, batchValueEndOffsets[index])) {
+        return currentDocId;
+      }
+    }
+    currentDocId = Constants.EOF;
+    return Constants.EOF;
+  }
+
+  private void readBatch(int startDocId) {
+    int numDocsInBatch = Math.min(numDocsPerBatch, Math.min(endDocId, numDocs - 1) - startDocId + 1);
+    valueIterator.skipTo(startDocId);
+    valueIterator.nextIntVals(numDocsInBatch, batchIntArray, batchValueEndOffsets);
+    batchStartDocId = startDocId;
+    batchEndDocId = startDocId + numDocsInBatch;
+  }
+
+  /**
+   * Matches the dictionary ids inside the batch int array with the same semantic as
+   * {@link PredicateEvaluator#applyMV(int[], int, MutableInt)}.
+   */
+  private boolean matchesDictIdBitSet(int valueStartOffset, int valueEndOffset) {
+    if (isExclusive) {
+      for (int i = valueStartOffset; i < valueEndOffset; i++) {
+        int dictId = batchIntArray[i];
+        if ((dictIdBitSet[dictId >>> 6] & (1L << dictId)) == 0) {
+          _numEntriesScanned.add(i - valueStartOffset + 1);
+          return false;
+        }
+      }
+      _numEntriesScanned.add(valueEndOffset - valueStartOffset);
+      return true;
+    } else {
+      for (int i = valueStartOffset; i < valueEndOffset; i++) {
+        int dictId = batchIntArray[i];
+        if ((dictIdBitSet[dictId >>> 6] & (1L << dictId)) != 0) {
+          _numEntriesScanned.add(i - valueStartOffset + 1);
+          return true;
+        }
+      }
+      _numEntriesScanned.add(valueEndOffset - valueStartOffset);
+      return false;
+    }
+  }
+
+  /**
+   * Moves to the block of the next document, and skips the whole block if it cannot match based on the zone map.
+   * Returns {@code true} if the block is skipped.
+   */
+  private boolean skipNonMatchingBlock() {
+    int nextDocId = currentDocId + 1;
+    int blockId = nextDocId / numDocsPerBlock;
+    blockEndDocId = (blockId + 1) * numDocsPerBlock - 1;
+    if (blockId < matchingBlocks.length && !matchingBlocks[blockId]) {
+      currentDocId = Math.min(blockEndDocId, endDocId);
+      valueIterator.skipTo(currentDocId + 1);
+      return true;
+    }
+    return false;
+  }
+
+  private boolean isBlockMatching(int docId) {
+    if (matchingBlocks == null) {
+      return true;
+    }
+    int blockId = docId / numDocsPerBlock;
+    return blockId >= matchingBlocks.length || matchingBlocks[blockId];
+  }
+
   @Override
   public int currentDocId() {
     return currentDocId;
@@ -142,7 +303,7 @@ public class MVScanDocIdIterator implements ScanBasedDocIdIterator {
     int docId = -1, length;
     while (intIterator.hasNext() && docId < endDocId) {
       docId = intIterator.next();
-      if (docId >= startDocId) {
+      if (docId >= startDocId && isBlockMatching(docId)) {
         valueIterator.skipTo(docId);
         length = valueIterator.nextIntVal(intArray);
         if (evaluator.applyMV(intArray, length, _numEntriesScanned)) {
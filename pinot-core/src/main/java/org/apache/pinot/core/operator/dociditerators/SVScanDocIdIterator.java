@@ -18,12 +18,14 @@
  */
 package org.apache.pinot.core.operator.dociditerators;
 
+import javax.annotation.Nullable;
 import org.apache.pinot.common.data.FieldSpec;
 import org.apache.pinot.core.common.BlockMetadata;
 import org.apache.pinot.core.common.BlockSingleValIterator;
 import org.apache.pinot.core.common.BlockValSet;
 import org.apache.pinot.core.common.Constants;
 import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import org.apache.pinot.core.segment.index.readers.ZoneMapReader;
 import org.roaringbitmap.IntIterator;
 import org.roaringbitmap.buffer.MutableRoaringBitmap;
 
@@ -38,9 +40,21 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
   private int _numEntriesScanned = 0;
   private final ValueMatcher _valueMatcher;
 
+  // Zone map based block pruning, where _matchingBlocks is null if zone map cannot be applied
+  private final boolean[] _matchingBlocks;
+  private final int _numDocsPerBlock;
+  private int _blockEndDocId = -1;
+
   public SVScanDocIdIterator(String operatorName, BlockValSet blockValSet, BlockMetadata blockMetadata,
       PredicateEvaluator evaluator) {
+    this(operatorName, blockValSet, blockMetadata, evaluator, null);
+  }
+
+  public SVScanDocIdIterator(String operatorName, BlockValSet blockValSet, BlockMetadata blockMetadata,
+      PredicateEvaluator evaluator, @Nullable ZoneMapReader zoneMap) {
     _operatorName = operatorName;
+    _matchingBlocks = ZoneMapUtils.computeMatchingBlocks(zoneMap, evaluator);
+    _numDocsPerBlock = _matchingBlocks != null ? zoneMap.getNumDocsPerBlock() : 0;
     _evaluator = evaluator;
     _valueIterator = (BlockSingleValIterator) blockValSet.iterator();
 
@@ -70,6 +84,7 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
     _currentDocId = startDocId - 1;
     _valueIterator.skipTo(startDocId);
     _startDocId = startDocId;
+    _blockEndDocId = -1;
   }
 
   /**
@@ -87,6 +102,9 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
     if (_currentDocId == Constants.EOF) {
       return false;
     }
+    if (!isBlockMatching(docId)) {
+      return false;
+    }
     _valueIterator.skipTo(docId);
     _numEntriesScanned++;
     return _valueMatcher.doesCurrentEntryMatch(_valueIterator);
@@ -117,6 +135,9 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
       return Constants.EOF;
     }
     while (_valueIterator.hasNext() && _currentDocId < _endDocId) {
+      if (_matchingBlocks != null && _currentDocId >= _blockEndDocId && skipNonMatchingBlock()) {
+        continue;
+      }
       _currentDocId = _currentDocId + 1;
       _numEntriesScanned++;
       if (_valueMatcher.doesCurrentEntryMatch(_valueIterator)) {
@@ -127,6 +148,30 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
     return Constants.EOF;
   }
 
+  /**
+   * Moves to the block of the next document, and skips the whole block if it cannot match based on the zone map.
+   * Returns {@code true} if the block is skipped.
+   */
+  private boolean skipNonMatchingBlock() {
+    int nextDocId = _currentDocId + 1;
+    int blockId = nextDocId / _numDocsPerBlock;
+    _blockEndDocId = (blockId + 1) * _numDocsPerBlock - 1;
+    if (blockId < _matchingBlocks.length && !_matchingBlocks[blockId]) {
+      _currentDocId = Math.min(_blockEndDocId, _endDocId);
+      _valueIterator.skipTo(_currentDocId + 1);
+      return true;
+    }
+    return false;
+  }
+
+  private boolean isBlockMatching(int docId) {
+    if (_matchingBlocks == null) {
+      return true;
+    }
+    int blockId = docId / _numDocsPerBlock;
+    return blockId >= _matchingBlocks.length || _matchingBlocks[blockId];
+  }
+
   @Override
   public int currentDocId() {
     return _currentDocId;
@@ -147,7 +192,7 @@ public class SVScanDocIdIterator implements ScanBasedDocIdIterator {
     int docId = -1;
     while (intIterator.hasNext() && docId < _endDocId) {
       docId = intIterator.next();
-      if (docId >= _startDocId) {
+      if (docId >= _startDocId && isBlockMatching(docId)) {
         _valueIterator.skipTo(docId);
         _numEntriesScanned++;
         if (_valueMatcher.doesCurrentEntryMatch(_valueIterator)) {
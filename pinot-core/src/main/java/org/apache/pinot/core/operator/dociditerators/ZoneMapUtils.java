@@ -0,0 +1,107 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.dociditerators;
+
+import java.util.Arrays;
+import javax.annotation.Nullable;
+import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import org.apache.pinot.core.segment.index.readers.ZoneMapReader;
+
+
+/**
+ * Utility class to prune the blocks of documents that cannot match a predicate using the per-block min/max dictionary
+ * id zone map.
+ */
+class ZoneMapUtils {
+  private ZoneMapUtils() {
+  }
+
+  /**
+   * Returns an array of flags indexed by block id where {@code false} means none of the documents inside the block can
+   * match the predicate, or {@code null} if the zone map cannot be applied to the predicate.
+   */
+  @Nullable
+  static boolean[] computeMatchingBlocks(@Nullable ZoneMapReader zoneMap, PredicateEvaluator evaluator) {
+    if (zoneMap == null || !evaluator.isDictionaryBased() || evaluator.isAlwaysTrue() || evaluator.isAlwaysFalse()) {
+      return null;
+    }
+    switch (evaluator.getPredicateType()) {
+      case EQ:
+      case IN:
+      case RANGE:
+        return computeMatchingBlocksForInclusivePredicate(zoneMap, evaluator);
+      case NEQ:
+      case NOT_IN:
+        return computeMatchingBlocksForExclusivePredicate(zoneMap, evaluator);
+      default:
+        return null;
+    }
+  }
+
+  private static boolean[] computeMatchingBlocksForInclusivePredicate(ZoneMapReader zoneMap,
+      PredicateEvaluator evaluator) {
+    int[] matchingDictIds = getSortedDictIds(evaluator.getMatchingDictIds());
+    int numBlocks = zoneMap.getNumBlocks();
+    boolean[] matchingBlocks = new boolean[numBlocks];
+    for (int i = 0; i < numBlocks; i++) {
+      // The block matches if any matching dictionary id is within [min, max]
+      int minDictId = zoneMap.getMinDictId(i);
+      int maxDictId = zoneMap.getMaxDictId(i);
+      if (minDictId <= maxDictId) {
+        int index = getInsertionIndex(matchingDictIds, minDictId);
+        matchingBlocks[i] = index < matchingDictIds.length && matchingDictIds[index] <= maxDictId;
+      }
+    }
+    return matchingBlocks;
+  }
+
+  private static boolean[] computeMatchingBlocksForExclusivePredicate(ZoneMapReader zoneMap,
+      PredicateEvaluator evaluator) {
+    int[] nonMatchingDictIds = getSortedDictIds(evaluator.getNonMatchingDictIds());
+    int numBlocks = zoneMap.getNumBlocks();
+    boolean[] matchingBlocks = new boolean[numBlocks];
+    for (int i = 0; i < numBlocks; i++) {
+      // The block cannot match only if all the dictionary ids within [min, max] are non-matching
+      int minDictId = zoneMap.getMinDictId(i);
+      int maxDictId = zoneMap.getMaxDictId(i);
+      if (minDictId <= maxDictId) {
+        int numNonMatchingDictIdsInRange = getInsertionIndex(nonMatchingDictIds, maxDictId + 1) - getInsertionIndex(
+            nonMatchingDictIds, minDictId);
+        matchingBlocks[i] = numNonMatchingDictIdsInRange < maxDictId - minDictId + 1;
+      }
+    }
+    return matchingBlocks;
+  }
+
+  private static int[] getSortedDictIds(int[] dictIds) {
+    // NOTE: dictionary ids from the evaluator might not be sorted (e.g. IN predicate), and the array should not be
+    // modified in place because it might be cached inside the evaluator
+    int[] sortedDictIds = Arrays.copyOf(dictIds, dictIds.length);
+    Arrays.sort(sortedDictIds);
+    return sortedDictIds;
+  }
+
+  /**
+   * Returns the index of the first element that is greater than or equal to the given value.
+   */
+  private static int getInsertionIndex(int[] sortedValues, int value) {
+    int index = Arrays.binarySearch(sortedValues, value);
+    return index >= 0 ? index : -(index + 1);
+  }
+}
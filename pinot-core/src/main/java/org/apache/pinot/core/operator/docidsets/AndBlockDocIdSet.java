@@ -28,7 +28,6 @@ import org.apache.pinot.core.operator.dociditerators.AndDocIdIterator;
 import org.apache.pinot.core.operator.dociditerators.BitmapDocIdIterator;
 import org.apache.pinot.core.operator.dociditerators.RangelessBitmapDocIdIterator;
 import org.apache.pinot.core.operator.dociditerators.ScanBasedDocIdIterator;
-import org.apache.pinot.core.util.SortedRangeIntersection;
 import org.roaringbitmap.IntIterator;
 import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
 import org.roaringbitmap.buffer.MutableRoaringBitmap;
@@ -143,30 +142,14 @@ public final class AndBlockDocIdSet implements FilterBlockDocIdSet {
 
   public BlockDocIdIterator fastIterator() {
     long start = System.currentTimeMillis();
-    List<List<IntPair>> sortedRangeSets = new ArrayList<>();
-    List<ImmutableRoaringBitmap> childBitmaps = new ArrayList<ImmutableRoaringBitmap>();
-    List<FilterBlockDocIdSet> scanBasedDocIdSets = new ArrayList<>();
-    List<BlockDocIdIterator> remainingIterators = new ArrayList<>();
-
-    for (BlockDocIdSet docIdSet : blockDocIdSets) {
-      if (docIdSet instanceof SortedDocIdSet) {
-        SortedDocIdSet sortedDocIdSet = (SortedDocIdSet) docIdSet;
-        List<IntPair> pairs = sortedDocIdSet.getRaw();
-        sortedRangeSets.add(pairs);
-      } else if (docIdSet instanceof BitmapDocIdSet) {
-        BitmapDocIdSet bitmapDocIdSet = (BitmapDocIdSet) docIdSet;
-        ImmutableRoaringBitmap childBitmap = bitmapDocIdSet.getRaw();
-        childBitmaps.add(childBitmap);
-      } else if (docIdSet instanceof ScanBasedSingleValueDocIdSet) {
-        scanBasedDocIdSets.add((ScanBasedSingleValueDocIdSet) docIdSet);
-      } else if (docIdSet instanceof ScanBasedMultiValueDocIdSet) {
-        scanBasedDocIdSets.add((ScanBasedMultiValueDocIdSet) docIdSet);
-      } else {
-        // TODO:handle child OR/AND as bitmap if possible
-        remainingIterators.add(docIdSet.iterator());
+    boolean hasIndexBasedDocIdSet = false;
+    for (FilterBlockDocIdSet docIdSet : blockDocIdSets) {
+      if (docIdSet instanceof SortedDocIdSet || docIdSet instanceof BitmapDocIdSet) {
+        hasIndexBasedDocIdSet = true;
+        break;
       }
     }
-    if (childBitmaps.size() == 0 && sortedRangeSets.size() == 0) {
+    if (!hasIndexBasedDocIdSet) {
       // When one or more of the operands are operators themselves, then we don't have a sorted or
       // bitmap index. In that case, just use the AndDocIdIterator to iterate over all of of the subtree.
       BlockDocIdIterator[] docIdIterators = new BlockDocIdIterator[blockDocIdSets.size()];
@@ -174,56 +157,68 @@ public final class AndBlockDocIdSet implements FilterBlockDocIdSet {
         docIdIterators[srcId] = blockDocIdSets.get(srcId).iterator();
       }
       return new AndDocIdIterator(docIdIterators);
-    } else {
-      // handle sorted ranges
-      // TODO: will be nice to re-order sorted and bitmap index based on size
-      if (sortedRangeSets.size() > 0) {
-        List<IntPair> pairList;
-        pairList = SortedRangeIntersection.intersectSortedRangeSets(sortedRangeSets);
-        answer = new MutableRoaringBitmap();
-        for (IntPair pair : pairList) {
+    }
+
+    // NOTE: The doc id sets are applied in the order of the child filter operators (ordered by their priority or
+    //       estimated cost, see FilterOperatorUtils), and each of them is only applied on the documents matching all
+    //       the previous ones. The doc id sets that cannot be applied on a bitmap (e.g. nested AND/OR) are intersected
+    //       via iteration at the end.
+    List<BlockDocIdIterator> remainingIterators = new ArrayList<>();
+    for (FilterBlockDocIdSet docIdSet : blockDocIdSets) {
+      if (answer != null && answer.isEmpty()) {
+        break;
+      }
+      if (docIdSet instanceof SortedDocIdSet) {
+        MutableRoaringBitmap sortedBitmap = new MutableRoaringBitmap();
+        List<IntPair> pairs = ((SortedDocIdSet) docIdSet).getRaw();
+        for (IntPair pair : pairs) {
           // end is exclusive
-          answer.add(pair.getLeft(), pair.getRight() + 1);
+          sortedBitmap.add(pair.getLeft(), pair.getRight() + 1);
         }
-      }
-      // handle bitmaps
-      if (childBitmaps.size() > 0) {
         if (answer == null) {
-          answer = childBitmaps.get(0).toMutableRoaringBitmap();
-          for (int i = 1; i < childBitmaps.size(); i++) {
-            answer.and(childBitmaps.get(i));
-          }
+          answer = sortedBitmap;
         } else {
-          for (int i = 0; i < childBitmaps.size(); i++) {
-            answer.and(childBitmaps.get(i));
-          }
+          answer.and(sortedBitmap);
         }
-      }
-
-      // At this point, we must have 'answer' to be non-null.
-      assert (answer != null) : "sortedRangeSets=" + sortedRangeSets.size() + ",childBitmaps=" + childBitmaps.size();
-
-      // handle raw iterators
-      for (FilterBlockDocIdSet scanBasedDocIdSet : scanBasedDocIdSets) {
-        ScanBasedDocIdIterator iterator = (ScanBasedDocIdIterator) scanBasedDocIdSet.iterator();
+      } else if (docIdSet instanceof BitmapDocIdSet) {
+        ImmutableRoaringBitmap childBitmap = ((BitmapDocIdSet) docIdSet).getRaw();
+        if (answer == null) {
+          answer = childBitmap.toMutableRoaringBitmap();
+        } else {
+          answer.and(childBitmap);
+        }
+      } else if (docIdSet instanceof ScanBasedSingleValueDocIdSet || docIdSet instanceof ScanBasedMultiValueDocIdSet) {
+        if (answer == null) {
+          // Scan based doc id set ranked before all the index based ones, apply it on all the documents in range
+          answer = new MutableRoaringBitmap();
+          answer.add(minDocId, maxDocId + 1);
+        }
+        ScanBasedDocIdIterator iterator = (ScanBasedDocIdIterator) docIdSet.iterator();
         MutableRoaringBitmap scanAnswer = iterator.applyAnd(answer);
         answer.and(scanAnswer);
-      }
-      long end = System.currentTimeMillis();
-      LOGGER.debug("Time to evaluate and Filter:{}", (end - start));
-      // if other iterators exists resort to iterator style intersection
-      BlockDocIdIterator answerDocIdIterator = new RangelessBitmapDocIdIterator(answer.getIntIterator());
-      if (remainingIterators.size() == 0) {
-        return answerDocIdIterator;
       } else {
-        BlockDocIdIterator[] docIdIterators = new BlockDocIdIterator[remainingIterators.size() + 1];
-        docIdIterators[0] = answerDocIdIterator;
-        for (int i = 0; i < remainingIterators.size(); i++) {
-          docIdIterators[i + 1] = remainingIterators.get(i);
-        }
-        return new AndDocIdIterator(docIdIterators);
+        // TODO:handle child OR/AND as bitmap if possible
+        remainingIterators.add(docIdSet.iterator());
       }
     }
+
+    // At this point, we must have 'answer' to be non-null.
+    assert (answer != null);
+
+    long end = System.currentTimeMillis();
+    LOGGER.debug("Time to evaluate and Filter:{}", (end - start));
+    // if other iterators exists resort to iterator style intersection
+    BlockDocIdIterator answerDocIdIterator = new RangelessBitmapDocIdIterator(answer.getIntIterator());
+    if (remainingIterators.size() == 0 || answer.isEmpty()) {
+      return answerDocIdIterator;
+    } else {
+      BlockDocIdIterator[] docIdIterators = new BlockDocIdIterator[remainingIterators.size() + 1];
+      docIdIterators[0] = answerDocIdIterator;
+      for (int i = 0; i < remainingIterators.size(); i++) {
+        docIdIterators[i + 1] = remainingIterators.get(i);
+      }
+      return new AndDocIdIterator(docIdIterators);
+    }
   }
 
   @SuppressWarnings("unchecked")
@@ -18,11 +18,13 @@
  */
 package org.apache.pinot.core.operator.docidsets;
 
+import javax.annotation.Nullable;
 import org.apache.pinot.core.common.BlockMetadata;
 import org.apache.pinot.core.common.BlockValSet;
 import org.apache.pinot.core.operator.dociditerators.MVScanDocIdIterator;
 import org.apache.pinot.core.operator.dociditerators.ScanBasedDocIdIterator;
 import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import org.apache.pinot.core.segment.index.readers.ZoneMapReader;
 
 
 public class ScanBasedMultiValueDocIdSet implements FilterBlockDocIdSet {
@@ -32,11 +34,11 @@ public class ScanBasedMultiValueDocIdSet implements FilterBlockDocIdSet {
   private String datasourceName;
 
   public ScanBasedMultiValueDocIdSet(String datasourceName, BlockValSet blockValSet, BlockMetadata blockMetadata,
-      PredicateEvaluator evaluator) {
+      PredicateEvaluator evaluator, @Nullable ZoneMapReader zoneMap) {
     this.datasourceName = datasourceName;
     this.blockValSet = blockValSet;
     this.blockMetadata = blockMetadata;
-    blockValSetBlockDocIdIterator = new MVScanDocIdIterator(datasourceName, blockValSet, blockMetadata, evaluator);
+    blockValSetBlockDocIdIterator = new MVScanDocIdIterator(datasourceName, blockValSet, blockMetadata, evaluator, zoneMap);
   }
 
   @Override
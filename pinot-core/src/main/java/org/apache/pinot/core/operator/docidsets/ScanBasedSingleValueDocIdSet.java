@@ -18,11 +18,13 @@
  */
 package org.apache.pinot.core.operator.docidsets;
 
+import javax.annotation.Nullable;
 import org.apache.pinot.core.common.BlockMetadata;
 import org.apache.pinot.core.common.BlockValSet;
 import org.apache.pinot.core.operator.dociditerators.SVScanDocIdIterator;
 import org.apache.pinot.core.operator.dociditerators.ScanBasedDocIdIterator;
 import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import org.apache.pinot.core.segment.index.readers.ZoneMapReader;
 
 
 public class ScanBasedSingleValueDocIdSet implements FilterBlockDocIdSet {
@@ -33,10 +35,11 @@ public class ScanBasedSingleValueDocIdSet implements FilterBlockDocIdSet {
   int endDocId;
 
   public ScanBasedSingleValueDocIdSet(String datasourceName, BlockValSet blockValSet, BlockMetadata blockMetadata,
-      PredicateEvaluator evaluator) {
+      PredicateEvaluator evaluator, @Nullable ZoneMapReader zoneMap) {
     this.datasourceName = datasourceName;
     this.blockValSet = blockValSet;
-    blockValSetBlockDocIdIterator = new SVScanDocIdIterator(datasourceName, blockValSet, blockMetadata, evaluator);
+    blockValSetBlockDocIdIterator =
+        new SVScanDocIdIterator(datasourceName, blockValSet, blockMetadata, evaluator, zoneMap);
     setStartDocId(blockMetadata.getStartDocId());
     setEndDocId(blockMetadata.getEndDocId());
   }
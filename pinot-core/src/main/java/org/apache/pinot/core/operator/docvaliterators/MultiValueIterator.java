@@ -21,6 +21,7 @@ package org.apache.pinot.core.operator.docvaliterators;
 import org.apache.pinot.core.common.BlockMultiValIterator;
 import org.apache.pinot.core.io.reader.ReaderContext;
 import org.apache.pinot.core.io.reader.SingleColumnMultiValueReader;
+import org.apache.pinot.core.io.reader.impl.v1.FixedBitMultiValueReader;
 
 
 @SuppressWarnings("unchecked")
@@ -42,6 +43,19 @@ public final class MultiValueIterator extends BlockMultiValIterator {
     return _reader.getIntArray(_nextDocId++, intArray, _context);
   }
 
+  @Override
+  public boolean isBatchReadSupported() {
+    return _reader instanceof FixedBitMultiValueReader;
+  }
+
+  @Override
+  public int nextIntVals(int numDocs, int[] intArray, int[] valueEndOffsets) {
+    int numValues = ((FixedBitMultiValueReader) _reader)
+        .getIntArrays(_nextDocId, numDocs, intArray, valueEndOffsets, (FixedBitMultiValueReader.Context) _context);
+    _nextDocId += numDocs;
+    return numValues;
+  }
+
   @Override
   public boolean hasNext() {
     return _nextDocId < _numDocs;
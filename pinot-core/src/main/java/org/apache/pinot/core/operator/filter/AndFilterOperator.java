@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.core.operator.filter;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import java.util.ArrayList;
 import java.util.List;
@@ -56,6 +57,24 @@ public class AndFilterOperator extends BaseFilterOperator {
     return new FilterBlock(new AndBlockDocIdSet(filterBlockDocIdSets));
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>The number of documents matching AND cannot exceed the number of documents matching any of its children.
+   */
+  @Override
+  public int getNumMatchingDocsEstimate() {
+    int numMatchingDocsEstimate = Integer.MAX_VALUE;
+    for (BaseFilterOperator filterOperator : _filterOperators) {
+      numMatchingDocsEstimate = Math.min(numMatchingDocsEstimate, filterOperator.getNumMatchingDocsEstimate());
+    }
+    return numMatchingDocsEstimate;
+  }
+
+  @VisibleForTesting
+  List<BaseFilterOperator> getChildFilterOperators() {
+    return _filterOperators;
+  }
+
   @Override
   public String getOperatorName() {
     return OPERATOR_NAME;
@@ -40,4 +40,14 @@ public abstract class BaseFilterOperator extends BaseOperator<FilterBlock> {
   public boolean isResultMatchingAll() {
     return false;
   }
+
+  /**
+   * Returns the estimated number of documents matching the filter, which is used as the cost of the filter operator
+   * when reordering the child filter operators of {@link AndFilterOperator}. The estimation should be cheap to compute
+   * and does not need to be accurate.
+   * <p>Returns {@link Integer#MAX_VALUE} if the number of matching documents cannot be estimated.
+   */
+  public int getNumMatchingDocsEstimate() {
+    return Integer.MAX_VALUE;
+  }
 }
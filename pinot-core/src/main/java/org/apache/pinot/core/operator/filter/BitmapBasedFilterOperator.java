@@ -39,6 +39,10 @@ public class BitmapBasedFilterOperator extends BaseFilterOperator {
   private final int _endDocId;
   private final boolean _exclusive;
 
+  // Bitmaps fetched from the inverted index, cached so that they are only read once for both cost estimation and
+  // filtering
+  private ImmutableRoaringBitmap[] _invertedIndexBitmaps;
+
   BitmapBasedFilterOperator(PredicateEvaluator predicateEvaluator, DataSource dataSource, int startDocId,
       int endDocId) {
     // NOTE:
@@ -67,20 +71,47 @@ public class BitmapBasedFilterOperator extends BaseFilterOperator {
 
   @Override
   protected FilterBlock getNextBlock() {
+    return new FilterBlock(new BitmapDocIdSet(getBitmaps(), _startDocId, _endDocId, _exclusive));
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>The estimation is based on the cardinality of the bitmaps from the inverted index, which is the exact number of
+   * matching documents for single-value columns, and an upper bound (lower bound for exclusive predicate) for
+   * multi-value columns.
+   */
+  @Override
+  public int getNumMatchingDocsEstimate() {
+    long numDocsInBitmaps = 0L;
+    for (ImmutableRoaringBitmap bitmap : getBitmaps()) {
+      numDocsInBitmaps += bitmap.getCardinality();
+    }
+    int numDocs = _endDocId - _startDocId + 1;
+    if (_exclusive) {
+      return (int) Math.max(numDocs - numDocsInBitmaps, 0L);
+    } else {
+      return (int) Math.min(numDocsInBitmaps, numDocs);
+    }
+  }
+
+  private ImmutableRoaringBitmap[] getBitmaps() {
     if (_bitmaps != null) {
-      return new FilterBlock(new BitmapDocIdSet(_bitmaps, _startDocId, _endDocId, _exclusive));
+      return _bitmaps;
     }
 
-    int[] dictIds = _exclusive ? _predicateEvaluator.getNonMatchingDictIds() : _predicateEvaluator.getMatchingDictIds();
+    if (_invertedIndexBitmaps == null) {
+      int[] dictIds =
+          _exclusive ? _predicateEvaluator.getNonMatchingDictIds() : _predicateEvaluator.getMatchingDictIds();
 
-    InvertedIndexReader invertedIndex = _dataSource.getInvertedIndex();
-    int length = dictIds.length;
-    ImmutableRoaringBitmap[] bitmaps = new ImmutableRoaringBitmap[length];
-    for (int i = 0; i < length; i++) {
-      bitmaps[i] = (ImmutableRoaringBitmap) invertedIndex.getDocIds(dictIds[i]);
+      InvertedIndexReader invertedIndex = _dataSource.getInvertedIndex();
+      int length = dictIds.length;
+      ImmutableRoaringBitmap[] bitmaps = new ImmutableRoaringBitmap[length];
+      for (int i = 0; i < length; i++) {
+        bitmaps[i] = (ImmutableRoaringBitmap) invertedIndex.getDocIds(dictIds[i]);
+      }
+      _invertedIndexBitmaps = bitmaps;
     }
-
-    return new FilterBlock(new BitmapDocIdSet(bitmaps, _startDocId, _endDocId, _exclusive));
+    return _invertedIndexBitmaps;
   }
 
   @Override
@@ -41,6 +41,11 @@ public final class EmptyFilterOperator extends BaseFilterOperator {
     return true;
   }
 
+  @Override
+  public int getNumMatchingDocsEstimate() {
+    return 0;
+  }
+
   @Override
   protected FilterBlock getNextBlock() {
     return EmptyFilterBlock.getInstance();
@@ -20,6 +20,7 @@ package org.apache.pinot.core.operator.filter;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import javax.annotation.Nullable;
@@ -37,6 +38,17 @@ public class FilterOperatorUtils {
   // Debug option to enable or disable multi-value optimization
   public static final String USE_SCAN_REORDER_OPTIMIZATION = "useScanReorderOpt";
 
+  // Estimated cost of evaluating the filter on one document for each type of filter operator, which is used to rank the
+  // child filter operators of AND when cost based reordering is enabled
+  private static final double SORTED_INDEX_COST_PER_DOC = 0.0;
+  private static final double BITMAP_COST_PER_DOC = 0.25;
+  private static final double NESTED_FILTER_COST_PER_DOC = 1.0;
+  private static final double SV_SCAN_COST_PER_DOC = 1.0;
+  private static final double MV_SCAN_COST_PER_DOC = 2.0;
+  private static final double EXPRESSION_COST_PER_DOC = 4.0;
+
+  private static final int SCAN_BASED_FILTER_BASE_PRIORITY = 4;
+
   /**
    * Returns the leaf filter operator (i.e. not {@link AndFilterOperator} or {@link OrFilterOperator}).
    */
@@ -69,10 +81,21 @@ public class FilterOperatorUtils {
   }
 
   /**
-   * Returns the AND filter operator or equivalent filter operator.
+   * Returns the AND filter operator or equivalent filter operator, with the child filter operators reordered by
+   * priority.
    */
   public static BaseFilterOperator getAndFilterOperator(List<BaseFilterOperator> filterOperators, int numDocs,
       @Nullable Map<String, String> debugOptions) {
+    return getAndFilterOperator(filterOperators, numDocs, debugOptions, false);
+  }
+
+  /**
+   * Returns the AND filter operator or equivalent filter operator.
+   * <p>When cost based reordering is enabled (configured on the plan maker), the child filter operators are reordered
+   * based on their estimated cost instead of only the priority.
+   */
+  public static BaseFilterOperator getAndFilterOperator(List<BaseFilterOperator> filterOperators, int numDocs,
+      @Nullable Map<String, String> debugOptions, boolean costBasedReorderEnabled) {
     List<BaseFilterOperator> childFilterOperators = new ArrayList<>(filterOperators.size());
     for (BaseFilterOperator filterOperator : filterOperators) {
       if (filterOperator.isResultEmpty()) {
@@ -90,7 +113,8 @@ public class FilterOperatorUtils {
       return childFilterOperators.get(0);
     } else {
       // Return the AND filter operator with re-ordered child filter operators
-      FilterOperatorUtils.reorderAndFilterChildOperators(childFilterOperators, debugOptions);
+      FilterOperatorUtils
+          .reorderAndFilterChildOperators(childFilterOperators, numDocs, debugOptions, costBasedReorderEnabled);
       return new AndFilterOperator(childFilterOperators);
     }
   }
@@ -124,48 +148,92 @@ public class FilterOperatorUtils {
   /**
    * For AND filter operator, reorders its child filter operators based on the their cost and puts the ones with
    * inverted index first in order to reduce the number of documents to be processed.
+   * <p>When cost based reordering is enabled, the child filter operators are ranked across the filter operator types by
+   * {@code costPerDoc / (1 - selectivity)}, where the selectivity comes from the estimated number of matching documents
+   * (see {@link BaseFilterOperator#getNumMatchingDocsEstimate()}). This is the order that minimizes the total cost when
+   * each filter is applied on the documents matching all the previous ones, e.g. a scan based filter matching 1% of the
+   * documents is applied before a bitmap based filter matching 90% of the documents. Filter operators with the same
+   * rank keep the priority order.
    * <p>Special filter operators such as {@link MatchAllFilterOperator} and {@link EmptyFilterOperator} should be
    * removed from the list before calling this method.
    */
-  private static void reorderAndFilterChildOperators(List<BaseFilterOperator> filterOperators,
-      @Nullable Map<String, String> debugOptions) {
-    filterOperators.sort(new Comparator<BaseFilterOperator>() {
-      @Override
-      public int compare(BaseFilterOperator o1, BaseFilterOperator o2) {
-        return getPriority(o1) - getPriority(o2);
+  private static void reorderAndFilterChildOperators(List<BaseFilterOperator> filterOperators, int numDocs,
+      @Nullable Map<String, String> debugOptions, boolean costBasedReorderEnabled) {
+    // Compute the priority and rank of each filter operator upfront because the cost estimation might not be trivial
+    Map<BaseFilterOperator, Integer> priorities = new IdentityHashMap<>();
+    for (BaseFilterOperator filterOperator : filterOperators) {
+      priorities.put(filterOperator, getPriority(filterOperator, debugOptions));
+    }
+    Comparator<BaseFilterOperator> priorityComparator = Comparator.comparingInt(priorities::get);
+    if (costBasedReorderEnabled) {
+      Map<BaseFilterOperator, Double> ranks = new IdentityHashMap<>();
+      for (BaseFilterOperator filterOperator : filterOperators) {
+        ranks.put(filterOperator, getRank(filterOperator, priorities.get(filterOperator), numDocs));
       }
+      filterOperators
+          .sort(Comparator.<BaseFilterOperator>comparingDouble(ranks::get).thenComparing(priorityComparator));
+    } else {
+      filterOperators.sort(priorityComparator);
+    }
+  }
 
-      int getPriority(BaseFilterOperator filterOperator) {
-        if (filterOperator instanceof SortedInvertedIndexBasedFilterOperator) {
-          return 0;
-        }
-        if (filterOperator instanceof BitmapBasedFilterOperator) {
-          return 1;
-        }
-        if (filterOperator instanceof AndFilterOperator) {
-          return 2;
-        }
-        if (filterOperator instanceof OrFilterOperator) {
-          return 3;
-        }
-        if (filterOperator instanceof ScanBasedFilterOperator) {
-          return getScanBasedFilterPriority((ScanBasedFilterOperator) filterOperator, 4, debugOptions);
-        }
-        if (filterOperator instanceof ExpressionFilterOperator) {
-          return 10;
-        }
-        throw new IllegalStateException(filterOperator.getClass().getSimpleName()
-            + " should not be reordered, remove it from the list before calling this method");
-      }
-    });
+  /**
+   * Returns the rank of the filter operator for cost based reordering, where the filter operator with lower rank should
+   * be applied first.
+   */
+  private static double getRank(BaseFilterOperator filterOperator, int priority, int numDocs) {
+    double costPerDoc;
+    if (filterOperator instanceof SortedInvertedIndexBasedFilterOperator) {
+      costPerDoc = SORTED_INDEX_COST_PER_DOC;
+    } else if (filterOperator instanceof BitmapBasedFilterOperator) {
+      costPerDoc = BITMAP_COST_PER_DOC;
+    } else if (filterOperator instanceof AndFilterOperator || filterOperator instanceof OrFilterOperator) {
+      costPerDoc = NESTED_FILTER_COST_PER_DOC;
+    } else if (filterOperator instanceof ScanBasedFilterOperator) {
+      // NOTE: multi-value scan has lower priority than single-value scan unless it is disabled in the debug options
+      costPerDoc = priority == SCAN_BASED_FILTER_BASE_PRIORITY ? SV_SCAN_COST_PER_DOC : MV_SCAN_COST_PER_DOC;
+    } else {
+      costPerDoc = EXPRESSION_COST_PER_DOC;
+    }
+    if (costPerDoc == 0.0) {
+      return 0.0;
+    }
+    double selectivity = numDocs > 0 ? (double) filterOperator.getNumMatchingDocsEstimate() / numDocs : 1.0;
+    if (selectivity >= 1.0) {
+      // Filter operator that does not filter out any document should be applied last
+      return Double.POSITIVE_INFINITY;
+    }
+    return costPerDoc / (1.0 - selectivity);
+  }
+
+  private static int getPriority(BaseFilterOperator filterOperator, @Nullable Map<String, String> debugOptions) {
+    if (filterOperator instanceof SortedInvertedIndexBasedFilterOperator) {
+      return 0;
+    }
+    if (filterOperator instanceof BitmapBasedFilterOperator) {
+      return 1;
+    }
+    if (filterOperator instanceof AndFilterOperator) {
+      return 2;
+    }
+    if (filterOperator instanceof OrFilterOperator) {
+      return 3;
+    }
+    if (filterOperator instanceof ScanBasedFilterOperator) {
+      return getScanBasedFilterPriority((ScanBasedFilterOperator) filterOperator, SCAN_BASED_FILTER_BASE_PRIORITY,
+          debugOptions);
+    }
+    if (filterOperator instanceof ExpressionFilterOperator) {
+      return 10;
+    }
+    throw new IllegalStateException(filterOperator.getClass().getSimpleName()
+        + " should not be reordered, remove it from the list before calling this method");
   }
 
   /**
    * Returns the priority for scan based filtering. Multivalue column evaluation is costly, so
    * reorder such that multivalue columns are evaluated after single value columns.
    *
-   * TODO: additional cost based prioritization to be added
-   *
    * @param scanBasedFilterOperator the filter operator to prioritize
    * @param debugOptions  debug-options to enable/disable the optimization
    * @return the priority to be associated with the filter
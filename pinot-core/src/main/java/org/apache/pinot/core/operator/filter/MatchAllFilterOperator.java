@@ -36,6 +36,11 @@ public class MatchAllFilterOperator extends BaseFilterOperator {
     return true;
   }
 
+  @Override
+  public int getNumMatchingDocsEstimate() {
+    return _maxDocId + 1;
+  }
+
   @Override
   protected FilterBlock getNextBlock() {
     return new FilterBlock(new SizeBasedDocIdSet(_maxDocId));
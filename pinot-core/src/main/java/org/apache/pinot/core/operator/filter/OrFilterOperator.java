@@ -56,6 +56,19 @@ public class OrFilterOperator extends BaseFilterOperator {
     return new FilterBlock(new OrBlockDocIdSet(filterBlockDocIdSets));
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>The number of documents matching OR cannot exceed the sum of the documents matching its children.
+   */
+  @Override
+  public int getNumMatchingDocsEstimate() {
+    long numMatchingDocsEstimate = 0L;
+    for (BaseFilterOperator filterOperator : _filterOperators) {
+      numMatchingDocsEstimate += filterOperator.getNumMatchingDocsEstimate();
+    }
+    return (int) Math.min(numMatchingDocsEstimate, Integer.MAX_VALUE);
+  }
+
   @Override
   public String getOperatorName() {
     return OPERATOR_NAME;
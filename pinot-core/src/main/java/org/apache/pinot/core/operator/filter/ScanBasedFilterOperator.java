@@ -24,6 +24,7 @@ import org.apache.pinot.core.common.BlockMetadata;
 import org.apache.pinot.core.common.BlockValSet;
 import org.apache.pinot.core.common.DataSource;
 import org.apache.pinot.core.common.DataSourceMetadata;
+import org.apache.pinot.core.common.Predicate;
 import org.apache.pinot.core.operator.blocks.FilterBlock;
 import org.apache.pinot.core.operator.docidsets.FilterBlockDocIdSet;
 import org.apache.pinot.core.operator.docidsets.ScanBasedMultiValueDocIdSet;
@@ -66,10 +67,10 @@ public class ScanBasedFilterOperator extends BaseFilterOperator {
     if (dataSourceMetadata.isSingleValue()) {
       filterBlockDocIdSet =
           new ScanBasedSingleValueDocIdSet(_dataSource.getOperatorName(), blockValueSet, blockMetadata,
-              _predicateEvaluator);
+              _predicateEvaluator, _dataSource.getZoneMap());
     } else {
       filterBlockDocIdSet = new ScanBasedMultiValueDocIdSet(_dataSource.getOperatorName(), blockValueSet, blockMetadata,
-          _predicateEvaluator);
+          _predicateEvaluator, _dataSource.getZoneMap());
     }
     filterBlockDocIdSet.setStartDocId(_startDocId);
     filterBlockDocIdSet.setEndDocId(_endDocId);
@@ -77,6 +78,30 @@ public class ScanBasedFilterOperator extends BaseFilterOperator {
     return new FilterBlock(filterBlockDocIdSet);
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>For dictionary based predicate, the estimation assumes the values are uniformly distributed across the
+   * documents, and uses the ratio of the matching dictionary ids to the cardinality of the column as the selectivity.
+   */
+  @Override
+  public int getNumMatchingDocsEstimate() {
+    int numDocs = _endDocId - _startDocId + 1;
+    int cardinality = _dataSource.getDataSourceMetadata().getCardinality();
+    // NOTE: REGEXP_LIKE predicate evaluator has to scan the whole dictionary to get the matching dictionary ids, which
+    // is too expensive for estimation
+    if (!_predicateEvaluator.isDictionaryBased() || cardinality <= 0
+        || _predicateEvaluator.getPredicateType() == Predicate.Type.REGEXP_LIKE) {
+      return numDocs;
+    }
+    int numMatchingDictIds;
+    if (_predicateEvaluator.isExclusive()) {
+      numMatchingDictIds = cardinality - _predicateEvaluator.getNumNonMatchingDictIds();
+    } else {
+      numMatchingDictIds = _predicateEvaluator.getNumMatchingDictIds();
+    }
+    return (int) Math.min((long) numDocs * Math.max(numMatchingDictIds, 0) / cardinality, numDocs);
+  }
+
   @Override
   public String getOperatorName() {
     return OPERATOR_NAME;
@@ -157,6 +157,32 @@ public class SortedInvertedIndexBasedFilterOperator extends BaseFilterOperator {
     return new FilterBlock(new SortedDocIdSet(_dataSource.getOperatorName(), pairs));
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>For sorted column, the number of matching documents is the total length of the matching doc id ranges, which
+   * can be computed from the sorted index without constructing the ranges.
+   */
+  @Override
+  public int getNumMatchingDocsEstimate() {
+    SortedIndexReader invertedIndex = (SortedIndexReader) _dataSource.getInvertedIndex();
+    boolean exclusive = _predicateEvaluator.isExclusive();
+    int[] dictIds = exclusive ? _predicateEvaluator.getNonMatchingDictIds() : _predicateEvaluator.getMatchingDictIds();
+
+    long numDocsInRanges = 0L;
+    for (int dictId : dictIds) {
+      IntPair docIds = invertedIndex.getDocIds(dictId);
+      IntRanges.clip(docIds, _startDocId, _endDocId);
+      if (!IntRanges.isInvalid(docIds)) {
+        numDocsInRanges += docIds.getRight() - docIds.getLeft() + 1;
+      }
+    }
+    if (exclusive) {
+      return (int) Math.max(_endDocId - _startDocId + 1 - numDocsInRanges, 0L);
+    } else {
+      return (int) numDocsInRanges;
+    }
+  }
+
   @Override
   public String getOperatorName() {
     return OPERATOR_NAME;
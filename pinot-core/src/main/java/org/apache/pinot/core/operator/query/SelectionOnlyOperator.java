@@ -33,6 +33,7 @@ import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
 import org.apache.pinot.core.operator.blocks.TransformBlock;
 import org.apache.pinot.core.operator.transform.TransformOperator;
 import org.apache.pinot.core.operator.transform.TransformResultMetadata;
+import org.apache.pinot.core.query.request.context.QueryMemoryTracker;
 import org.apache.pinot.core.query.selection.SelectionOperatorUtils;
 
 
@@ -69,6 +70,9 @@ public class SelectionOnlyOperator extends BaseOperator<IntermediateResultsBlock
 
     _numRowsToKeep = selection.getSize();
     _rows = new ArrayList<>(Math.min(_numRowsToKeep, SelectionOperatorUtils.MAX_ROW_HOLDER_INITIAL_CAPACITY));
+
+    // Report the segment as skipped if the operator never gets executed (early terminated by the CombineOperator)
+    _executionStatistics = ExecutionStatistics.forSkippedSegment(indexSegment.getSegmentMetadata().getTotalRawDocs());
   }
 
   @Override
@@ -85,6 +89,7 @@ public class SelectionOnlyOperator extends BaseOperator<IntermediateResultsBlock
 
       int numDocsToAdd = Math.min(_numRowsToKeep - _rows.size(), transformBlock.getNumDocs());
       numDocsScanned += numDocsToAdd;
+      QueryMemoryTracker.allocate(numDocsToAdd * QueryMemoryTracker.estimateRowSizeInBytes(numExpressions));
       for (int i = 0; i < numDocsToAdd; i++) {
         _rows.add(blockValueFetcher.getRow(i));
       }
@@ -20,9 +20,12 @@ package org.apache.pinot.core.operator.query;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.PriorityQueue;
+import java.util.Set;
 import org.apache.pinot.common.data.FieldSpec.DataType;
 import org.apache.pinot.common.request.Selection;
 import org.apache.pinot.common.request.SelectionSort;
@@ -33,14 +36,29 @@ import org.apache.pinot.core.common.BlockValSet;
 import org.apache.pinot.core.common.RowBasedBlockValueFetcher;
 import org.apache.pinot.core.indexsegment.IndexSegment;
 import org.apache.pinot.core.operator.BaseOperator;
+import org.apache.pinot.core.operator.DocIdSetOperator;
 import org.apache.pinot.core.operator.ExecutionStatistics;
+import org.apache.pinot.core.operator.ProjectionOperator;
 import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
 import org.apache.pinot.core.operator.blocks.TransformBlock;
+import org.apache.pinot.core.operator.filter.BitmapBasedFilterOperator;
 import org.apache.pinot.core.operator.transform.TransformOperator;
 import org.apache.pinot.core.operator.transform.TransformResultMetadata;
+import org.apache.pinot.core.plan.DocIdSetPlanNode;
+import org.apache.pinot.core.query.request.context.QueryMemoryTracker;
 import org.apache.pinot.core.query.selection.SelectionOperatorUtils;
+import org.apache.pinot.core.segment.index.readers.Dictionary;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
 
 
+/**
+ * The {@code SelectionOrderByOperator} class provides the operator for selection order-by queries on a single segment.
+ * <p>When ordering on a single single-value expression that is either numeric or backed by a sorted dictionary, the
+ * operator uses late materialization: the first pass only reads the order-by expression and keeps the top-K document
+ * ids in a primitive heap (comparing on dictionary ids or primitive values without boxing), and the second pass fetches
+ * all the projected expressions only for the final top-K documents.
+ */
 public class SelectionOrderByOperator extends BaseOperator<IntermediateResultsBlock> {
   private static final String OPERATOR_NAME = "SelectionOrderByOperator";
 
@@ -52,9 +70,23 @@ public class SelectionOrderByOperator extends BaseOperator<IntermediateResultsBl
   private final int _numRowsToKeep;
   private final PriorityQueue<Serializable[]> _rows;
 
+  // For late materialization, null if not applicable
+  private final TransformExpressionTree _sortExpression;
+  private final boolean _sortOnDictIds;
+  private final boolean _sortAscending;
+  private final int _numSortColumns;
+
   private ExecutionStatistics _executionStatistics;
 
   public SelectionOrderByOperator(IndexSegment indexSegment, Selection selection, TransformOperator transformOperator) {
+    this(indexSegment, selection, transformOperator, true);
+  }
+
+  /**
+   * Late materialization can be disabled to compare the results with the default path in tests.
+   */
+  SelectionOrderByOperator(IndexSegment indexSegment, Selection selection, TransformOperator transformOperator,
+      boolean enableLateMaterialization) {
     _indexSegment = indexSegment;
     _transformOperator = transformOperator;
     _expressions = SelectionOperatorUtils
@@ -77,6 +109,36 @@ public class SelectionOrderByOperator extends BaseOperator<IntermediateResultsBl
     _numRowsToKeep = selection.getOffset() + selection.getSize();
     _rows = new PriorityQueue<>(Math.min(_numRowsToKeep, SelectionOperatorUtils.MAX_ROW_HOLDER_INITIAL_CAPACITY),
         getComparator(selection.getSelectionSortSequence()));
+
+    // Late materialization applies to a single single-value order-by expression, which can be compared either on the
+    // dictionary ids (for sorted dictionary) or on the primitive values (for numeric types)
+    List<SelectionSort> sortSequence = selection.getSelectionSortSequence();
+    TransformExpressionTree sortExpression = null;
+    boolean sortOnDictIds = false;
+    if (enableLateMaterialization && sortSequence.size() == 1 && _expressionMetadata[0].isSingleValue()) {
+      Dictionary dictionary =
+          _expressionMetadata[0].hasDictionary() ? _transformOperator.getDictionary(_expressions.get(0)) : null;
+      if (dictionary != null && dictionary.isSorted()) {
+        sortExpression = _expressions.get(0);
+        sortOnDictIds = true;
+      } else {
+        DataType dataType = _expressionMetadata[0].getDataType();
+        if (dataType == DataType.INT || dataType == DataType.LONG || dataType == DataType.FLOAT
+            || dataType == DataType.DOUBLE) {
+          sortExpression = _expressions.get(0);
+        }
+      }
+    }
+    _sortExpression = sortExpression;
+    _sortOnDictIds = sortOnDictIds;
+    _sortAscending = sortExpression != null && sortSequence.get(0).isIsAsc();
+    if (sortExpression != null) {
+      Set<String> sortColumns = new HashSet<>();
+      sortExpression.getColumns(sortColumns);
+      _numSortColumns = sortColumns.size();
+    } else {
+      _numSortColumns = 0;
+    }
   }
 
   private Comparator<Serializable[]> getComparator(List<SelectionSort> sortSequence) {
@@ -140,27 +202,40 @@ public class SelectionOrderByOperator extends BaseOperator<IntermediateResultsBl
   @Override
   protected IntermediateResultsBlock getNextBlock() {
     int numDocsScanned = 0;
+    long numEntriesScannedPostFilter;
 
-    TransformBlock transformBlock;
-    while ((transformBlock = _transformOperator.nextBlock()) != null) {
-      int numExpressions = _expressions.size();
-      BlockValSet[] blockValSets = new BlockValSet[numExpressions];
-      for (int i = 0; i < numExpressions; i++) {
-        TransformExpressionTree expression = _expressions.get(i);
-        blockValSets[i] = transformBlock.getBlockValueSet(expression);
+    if (_sortExpression == null) {
+      TransformBlock transformBlock;
+      while ((transformBlock = _transformOperator.nextBlock()) != null) {
+        numDocsScanned += addRows(transformBlock);
+      }
+      numEntriesScannedPostFilter = (long) numDocsScanned * _transformOperator.getNumColumnsProjected();
+    } else {
+      // First pass: only read the order-by expression and keep the top-K document ids
+      TopKDocIdHeap heap = new TopKDocIdHeap(_numRowsToKeep);
+      TransformBlock transformBlock;
+      while ((transformBlock = _transformOperator.nextBlock()) != null) {
+        numDocsScanned += addSortKeys(transformBlock, heap);
       }
-      RowBasedBlockValueFetcher blockValueFetcher = new RowBasedBlockValueFetcher(blockValSets);
 
-      int numDocsFetched = transformBlock.getNumDocs();
-      numDocsScanned += numDocsFetched;
-      for (int i = 0; i < numDocsFetched; i++) {
-        SelectionOperatorUtils.addToPriorityQueue(blockValueFetcher.getRow(i), _rows, _numRowsToKeep);
+      // Second pass: fetch all the projected expressions for the top-K documents
+      int numDocsMaterialized = 0;
+      if (heap._size > 0) {
+        MutableRoaringBitmap docIds = heap.getDocIds();
+        TransformOperator transformOperator = new TransformOperator(
+            new ProjectionOperator(_transformOperator.getDataSourceMap(), new DocIdSetOperator(
+                new BitmapBasedFilterOperator(new ImmutableRoaringBitmap[]{docIds}, 0, docIds.last(), false),
+                DocIdSetPlanNode.MAX_DOC_PER_CALL)), _expressions);
+        while ((transformBlock = transformOperator.nextBlock()) != null) {
+          numDocsMaterialized += addRows(transformBlock);
+        }
       }
+      numEntriesScannedPostFilter = (long) numDocsScanned * _numSortColumns
+          + (long) numDocsMaterialized * _transformOperator.getNumColumnsProjected();
     }
 
     // Create execution statistics.
     long numEntriesScannedInFilter = _transformOperator.getExecutionStatistics().getNumEntriesScannedInFilter();
-    long numEntriesScannedPostFilter = numDocsScanned * _transformOperator.getNumColumnsProjected();
     long numTotalRawDocs = _indexSegment.getSegmentMetadata().getTotalRawDocs();
     _executionStatistics =
         new ExecutionStatistics(numDocsScanned, numEntriesScannedInFilter, numEntriesScannedPostFilter,
@@ -169,6 +244,154 @@ public class SelectionOrderByOperator extends BaseOperator<IntermediateResultsBl
     return new IntermediateResultsBlock(_dataSchema, _rows);
   }
 
+  /**
+   * Adds all the rows in the given transform block into the priority queue, returns the number of documents in the
+   * block.
+   */
+  private int addRows(TransformBlock transformBlock) {
+    int numExpressions = _expressions.size();
+    BlockValSet[] blockValSets = new BlockValSet[numExpressions];
+    for (int i = 0; i < numExpressions; i++) {
+      TransformExpressionTree expression = _expressions.get(i);
+      blockValSets[i] = transformBlock.getBlockValueSet(expression);
+    }
+    RowBasedBlockValueFetcher blockValueFetcher = new RowBasedBlockValueFetcher(blockValSets);
+
+    int numDocsFetched = transformBlock.getNumDocs();
+    int numRowsBefore = _rows.size();
+    for (int i = 0; i < numDocsFetched; i++) {
+      SelectionOperatorUtils.addToPriorityQueue(blockValueFetcher.getRow(i), _rows, _numRowsToKeep);
+    }
+    // Rows replaced in the bounded heap become garbage, only the growth of the heap is tracked
+    QueryMemoryTracker
+        .allocate((_rows.size() - numRowsBefore) * QueryMemoryTracker.estimateRowSizeInBytes(numExpressions));
+    return numDocsFetched;
+  }
+
+  /**
+   * Adds the sort keys of all the documents in the given transform block into the heap, returns the number of
+   * documents in the block.
+   * <p>The sort keys are encoded as longs whose natural order is the same as the value order, and bit-wise inverted for
+   * descending order so that the heap always keeps the smallest keys.
+   */
+  private int addSortKeys(TransformBlock transformBlock, TopKDocIdHeap heap) {
+    BlockValSet blockValSet = transformBlock.getBlockValueSet(_sortExpression);
+    int[] docIds = transformBlock.getDocIdSetBlock().getDocIdSet();
+    int numDocs = transformBlock.getNumDocs();
+    long invertMask = _sortAscending ? 0L : -1L;
+    if (_sortOnDictIds) {
+      int[] dictIds = blockValSet.getDictionaryIdsSV();
+      for (int i = 0; i < numDocs; i++) {
+        heap.add(dictIds[i] ^ invertMask, docIds[i]);
+      }
+    } else {
+      switch (blockValSet.getValueType()) {
+        case INT:
+          int[] intValues = blockValSet.getIntValuesSV();
+          for (int i = 0; i < numDocs; i++) {
+            heap.add(intValues[i] ^ invertMask, docIds[i]);
+          }
+          break;
+        case LONG:
+          long[] longValues = blockValSet.getLongValuesSV();
+          for (int i = 0; i < numDocs; i++) {
+            heap.add(longValues[i] ^ invertMask, docIds[i]);
+          }
+          break;
+        case FLOAT:
+          float[] floatValues = blockValSet.getFloatValuesSV();
+          for (int i = 0; i < numDocs; i++) {
+            heap.add(toSortableLong(floatValues[i]) ^ invertMask, docIds[i]);
+          }
+          break;
+        case DOUBLE:
+          double[] doubleValues = blockValSet.getDoubleValuesSV();
+          for (int i = 0; i < numDocs; i++) {
+            heap.add(toSortableLong(doubleValues[i]) ^ invertMask, docIds[i]);
+          }
+          break;
+        default:
+          throw new IllegalStateException();
+      }
+    }
+    return numDocs;
+  }
+
+  /**
+   * Converts a double value into a long with the same order as {@link Double#compare(double, double)}.
+   */
+  private static long toSortableLong(double value) {
+    long bits = Double.doubleToLongBits(value);
+    return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+  }
+
+  /**
+   * Bounded max-heap of (sort key, document id) pairs that keeps the document ids with the smallest sort keys.
+   */
+  private static class TopKDocIdHeap {
+    final int _maxSize;
+    long[] _keys;
+    int[] _docIds;
+    int _size;
+
+    TopKDocIdHeap(int maxSize) {
+      _maxSize = maxSize;
+      int initialCapacity = Math.min(maxSize, SelectionOperatorUtils.MAX_ROW_HOLDER_INITIAL_CAPACITY);
+      _keys = new long[initialCapacity];
+      _docIds = new int[initialCapacity];
+    }
+
+    void add(long key, int docId) {
+      if (_size < _maxSize) {
+        if (_size == _keys.length) {
+          int newCapacity = (int) Math.min((long) _size << 1, _maxSize);
+          _keys = Arrays.copyOf(_keys, newCapacity);
+          _docIds = Arrays.copyOf(_docIds, newCapacity);
+        }
+        // Sift up
+        int index = _size++;
+        while (index > 0) {
+          int parent = (index - 1) >>> 1;
+          if (_keys[parent] >= key) {
+            break;
+          }
+          _keys[index] = _keys[parent];
+          _docIds[index] = _docIds[parent];
+          index = parent;
+        }
+        _keys[index] = key;
+        _docIds[index] = docId;
+      } else if (key < _keys[0]) {
+        // Replace the root and sift down
+        int index = 0;
+        int half = _size >>> 1;
+        while (index < half) {
+          int child = (index << 1) + 1;
+          int right = child + 1;
+          if (right < _size && _keys[right] > _keys[child]) {
+            child = right;
+          }
+          if (_keys[child] <= key) {
+            break;
+          }
+          _keys[index] = _keys[child];
+          _docIds[index] = _docIds[child];
+          index = child;
+        }
+        _keys[index] = key;
+        _docIds[index] = docId;
+      }
+    }
+
+    MutableRoaringBitmap getDocIds() {
+      MutableRoaringBitmap docIds = new MutableRoaringBitmap();
+      for (int i = 0; i < _size; i++) {
+        docIds.add(_docIds[i]);
+      }
+      return docIds;
+    }
+  }
+
   @Override
   public String getOperatorName() {
     return OPERATOR_NAME;
@@ -67,6 +67,15 @@ public class TransformOperator extends BaseOperator<TransformBlock> {
     return _dataSourceMap.size();
   }
 
+  /**
+   * Returns the map from column to data source.
+   *
+   * @return Map from column to data source
+   */
+  public Map<String, DataSource> getDataSourceMap() {
+    return _dataSourceMap;
+  }
+
   /**
    * Returns the transform result metadata associated with the given expression.
    *
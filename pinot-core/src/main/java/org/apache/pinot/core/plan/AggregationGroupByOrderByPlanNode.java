@@ -58,7 +58,7 @@ public class AggregationGroupByOrderByPlanNode implements PlanNode {
   private final StarTreeTransformPlanNode _starTreeTransformPlanNode;
 
   public AggregationGroupByOrderByPlanNode(@Nonnull IndexSegment indexSegment, @Nonnull BrokerRequest brokerRequest,
-      int maxInitialResultHolderCapacity, int numGroupsLimit) {
+      int maxInitialResultHolderCapacity, int numGroupsLimit, boolean costBasedFilterReorderEnabled) {
     _indexSegment = indexSegment;
     _maxInitialResultHolderCapacity = maxInitialResultHolderCapacity;
     _numGroupsLimit = numGroupsLimit;
@@ -93,7 +93,7 @@ public class AggregationGroupByOrderByPlanNode implements PlanNode {
       }
     }
 
-    _transformPlanNode = new TransformPlanNode(_indexSegment, brokerRequest);
+    _transformPlanNode = new TransformPlanNode(_indexSegment, brokerRequest, costBasedFilterReorderEnabled);
     _starTreeTransformPlanNode = null;
   }
 
@@ -57,7 +57,7 @@ public class AggregationGroupByPlanNode implements PlanNode {
   private final StarTreeTransformPlanNode _starTreeTransformPlanNode;
 
   public AggregationGroupByPlanNode(@Nonnull IndexSegment indexSegment, @Nonnull BrokerRequest brokerRequest,
-      int maxInitialResultHolderCapacity, int numGroupsLimit) {
+      int maxInitialResultHolderCapacity, int numGroupsLimit, boolean costBasedFilterReorderEnabled) {
     _indexSegment = indexSegment;
     _maxInitialResultHolderCapacity = maxInitialResultHolderCapacity;
     _numGroupsLimit = numGroupsLimit;
@@ -92,7 +92,7 @@ public class AggregationGroupByPlanNode implements PlanNode {
       }
     }
 
-    _transformPlanNode = new TransformPlanNode(_indexSegment, brokerRequest);
+    _transformPlanNode = new TransformPlanNode(_indexSegment, brokerRequest, costBasedFilterReorderEnabled);
     _starTreeTransformPlanNode = null;
   }
 
@@ -25,6 +25,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.Phaser;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.pinot.common.request.BrokerRequest;
 import org.apache.pinot.core.common.Operator;
 import org.apache.pinot.core.operator.CombineGroupByOperator;
@@ -103,10 +104,12 @@ public class CombinePlanNode implements PlanNode {
       // them.
       Phaser phaser = new Phaser(1);
 
+      // Each thread pulls the next plan node to run from the shared index instead of running a fixed share of them
+      AtomicInteger nextPlanNodeId = new AtomicInteger();
+
       // Submit all jobs
       Future[] futures = new Future[numThreads];
       for (int i = 0; i < numThreads; i++) {
-        int index = i;
         futures[i] = _executorService.submit(new TraceCallable<List<Operator>>() {
           @Override
           public List<Operator> callJob() {
@@ -120,8 +123,9 @@ public class CombinePlanNode implements PlanNode {
               }
 
               List<Operator> operators = new ArrayList<>();
-              for (int i = index; i < numPlanNodes; i += numThreads) {
-                operators.add(_planNodes.get(i).run());
+              int planNodeId;
+              while ((planNodeId = nextPlanNodeId.getAndIncrement()) < numPlanNodes) {
+                operators.add(_planNodes.get(planNodeId).run());
               }
               return operators;
             } finally {
@@ -160,7 +164,7 @@ public class CombinePlanNode implements PlanNode {
     }
 
     // TODO: use the same combine operator for both aggregation and selection query.
-    if (_brokerRequest.isSetAggregationsInfo() && _brokerRequest.getGroupBy() != null) {
+    if (isGroupByQuery(_brokerRequest)) {
       // Aggregation group-by query
       QueryOptions queryOptions = new QueryOptions(_brokerRequest.getQueryOptions());
       // new Combine operator only when GROUP_BY_MODE explicitly set to SQL
@@ -174,6 +178,19 @@ public class CombinePlanNode implements PlanNode {
     }
   }
 
+  /**
+   * Returns whether the combine operator of the query supports asynchronous execution. Only the selection and
+   * aggregation only queries are combined asynchronously, the aggregation group-by queries are combined synchronously
+   * on the calling thread.
+   */
+  public static boolean supportsAsyncExecution(BrokerRequest brokerRequest) {
+    return !isGroupByQuery(brokerRequest);
+  }
+
+  private static boolean isGroupByQuery(BrokerRequest brokerRequest) {
+    return brokerRequest.isSetAggregationsInfo() && brokerRequest.getGroupBy() != null;
+  }
+
   @Override
   public void showTree(String prefix) {
     LOGGER.debug(prefix + "Instance Level Inter-Segments Combine Plan Node:");
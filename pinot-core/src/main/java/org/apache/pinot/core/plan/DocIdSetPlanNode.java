@@ -36,13 +36,18 @@ public class DocIdSetPlanNode implements PlanNode {
   private final FilterPlanNode _filterPlanNode;
   private final int _maxDocPerCall;
 
-  public DocIdSetPlanNode(@Nonnull IndexSegment indexSegment, @Nonnull BrokerRequest brokerRequest, int maxDocPerCall) {
+  public DocIdSetPlanNode(@Nonnull IndexSegment indexSegment, @Nonnull BrokerRequest brokerRequest, int maxDocPerCall,
+      boolean costBasedFilterReorderEnabled) {
     Preconditions.checkState(maxDocPerCall > 0 && maxDocPerCall <= MAX_DOC_PER_CALL);
     _indexSegment = indexSegment;
-    _filterPlanNode = new FilterPlanNode(_indexSegment, brokerRequest);
+    _filterPlanNode = new FilterPlanNode(_indexSegment, brokerRequest, costBasedFilterReorderEnabled);
     _maxDocPerCall = maxDocPerCall;
   }
 
+  public DocIdSetPlanNode(@Nonnull IndexSegment indexSegment, @Nonnull BrokerRequest brokerRequest, int maxDocPerCall) {
+    this(indexSegment, brokerRequest, maxDocPerCall, false);
+  }
+
   public DocIdSetPlanNode(@Nonnull IndexSegment indexSegment, @Nonnull BrokerRequest brokerRequest) {
     this(indexSegment, brokerRequest, MAX_DOC_PER_CALL);
   }
@@ -52,23 +52,30 @@ public class FilterPlanNode implements PlanNode {
   private static final Logger LOGGER = LoggerFactory.getLogger(FilterPlanNode.class);
   private final BrokerRequest _brokerRequest;
   private final IndexSegment _segment;
+  private final boolean _costBasedFilterReorderEnabled;
 
   public FilterPlanNode(IndexSegment segment, BrokerRequest brokerRequest) {
+    this(segment, brokerRequest, false);
+  }
+
+  public FilterPlanNode(IndexSegment segment, BrokerRequest brokerRequest, boolean costBasedFilterReorderEnabled) {
     _segment = segment;
     _brokerRequest = brokerRequest;
+    _costBasedFilterReorderEnabled = costBasedFilterReorderEnabled;
   }
 
   @Override
   public BaseFilterOperator run() {
     FilterQueryTree rootFilterNode = RequestUtils.generateFilterQueryTree(_brokerRequest);
-    return constructPhysicalOperator(rootFilterNode, _segment, _brokerRequest.getDebugOptions());
+    return constructPhysicalOperator(rootFilterNode, _segment, _brokerRequest.getDebugOptions(),
+        _costBasedFilterReorderEnabled);
   }
 
   /**
    * Helper method to build the operator tree from the filter query tree.
    */
   private static BaseFilterOperator constructPhysicalOperator(FilterQueryTree filterQueryTree, IndexSegment segment,
-      @Nullable Map<String, String> debugOptions) {
+      @Nullable Map<String, String> debugOptions, boolean costBasedFilterReorderEnabled) {
     int numDocs = segment.getSegmentMetadata().getTotalRawDocs();
     if (filterQueryTree == null) {
       return new MatchAllFilterOperator(numDocs);
@@ -83,7 +90,8 @@ public class FilterPlanNode implements PlanNode {
       if (filterType == FilterOperator.AND) {
         // AND operator
         for (FilterQueryTree childFilter : childFilters) {
-          BaseFilterOperator childFilterOperator = constructPhysicalOperator(childFilter, segment, debugOptions);
+          BaseFilterOperator childFilterOperator =
+              constructPhysicalOperator(childFilter, segment, debugOptions, costBasedFilterReorderEnabled);
           if (childFilterOperator.isResultEmpty()) {
             // Return empty filter operator if any of the child filter operator's result is empty
             return EmptyFilterOperator.getInstance();
@@ -92,11 +100,13 @@ public class FilterPlanNode implements PlanNode {
             childFilterOperators.add(childFilterOperator);
           }
         }
-        return FilterOperatorUtils.getAndFilterOperator(childFilterOperators, numDocs, debugOptions);
+        return FilterOperatorUtils
+            .getAndFilterOperator(childFilterOperators, numDocs, debugOptions, costBasedFilterReorderEnabled);
       } else {
         // OR operator
         for (FilterQueryTree childFilter : childFilters) {
-          BaseFilterOperator childFilterOperator = constructPhysicalOperator(childFilter, segment, debugOptions);
+          BaseFilterOperator childFilterOperator =
+              constructPhysicalOperator(childFilter, segment, debugOptions, costBasedFilterReorderEnabled);
           if (childFilterOperator.isResultMatchingAll()) {
             // Return match all filter operator if any of the child filter operator matches all records
             return new MatchAllFilterOperator(numDocs);
@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.core.plan;
 
+import java.util.concurrent.CompletableFuture;
 import org.apache.pinot.common.utils.DataTable;
 import org.apache.pinot.core.operator.InstanceResponseOperator;
 import org.apache.pinot.core.operator.blocks.InstanceResponseBlock;
@@ -51,6 +52,12 @@ public class GlobalPlanImplV0 implements Plan {
     return instanceResponseBlock.getInstanceResponseDataTable();
   }
 
+  @Override
+  public CompletableFuture<DataTable> executeAsync() {
+    InstanceResponseOperator instanceResponseOperator = _instanceResponsePlanNode.run();
+    return instanceResponseOperator.nextBlockAsync().thenApply(InstanceResponseBlock::getInstanceResponseDataTable);
+  }
+
   @Override
   public void print() {
     _instanceResponsePlanNode.showTree("");
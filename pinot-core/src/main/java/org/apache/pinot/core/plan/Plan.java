@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.core.plan;
 
+import java.util.concurrent.CompletableFuture;
 import org.apache.pinot.common.utils.DataTable;
 
 
@@ -31,6 +32,14 @@ public interface Plan {
    */
   DataTable execute();
 
+  /**
+   * Execute the query plan asynchronously and get a future of the instance response.
+   * <p>By default the query plan is executed synchronously on the calling thread.
+   */
+  default CompletableFuture<DataTable> executeAsync() {
+    return CompletableFuture.completedFuture(execute());
+  }
+
   /**
    * Print the query plan (for debugging only).
    */
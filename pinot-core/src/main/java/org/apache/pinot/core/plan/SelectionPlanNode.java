@@ -40,10 +40,11 @@ public class SelectionPlanNode implements PlanNode {
   private final Selection _selection;
   private final TransformPlanNode _transformPlanNode;
 
-  public SelectionPlanNode(IndexSegment indexSegment, BrokerRequest brokerRequest) {
+  public SelectionPlanNode(IndexSegment indexSegment, BrokerRequest brokerRequest,
+      boolean costBasedFilterReorderEnabled) {
     _indexSegment = indexSegment;
     _selection = brokerRequest.getSelections();
-    _transformPlanNode = new TransformPlanNode(_indexSegment, brokerRequest);
+    _transformPlanNode = new TransformPlanNode(_indexSegment, brokerRequest, costBasedFilterReorderEnabled);
   }
 
   @Override
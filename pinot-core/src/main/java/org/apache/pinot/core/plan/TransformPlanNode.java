@@ -50,10 +50,15 @@ public class TransformPlanNode implements PlanNode {
   private int _maxDocPerNextCall = DocIdSetPlanNode.MAX_DOC_PER_CALL;
 
   public TransformPlanNode(IndexSegment indexSegment, BrokerRequest brokerRequest) {
+    this(indexSegment, brokerRequest, false);
+  }
+
+  public TransformPlanNode(IndexSegment indexSegment, BrokerRequest brokerRequest,
+      boolean costBasedFilterReorderEnabled) {
     _segmentName = indexSegment.getSegmentName();
     extractColumnsAndTransforms(brokerRequest, indexSegment);
     _projectionPlanNode = new ProjectionPlanNode(indexSegment, _projectionColumns,
-        new DocIdSetPlanNode(indexSegment, brokerRequest, _maxDocPerNextCall));
+        new DocIdSetPlanNode(indexSegment, brokerRequest, _maxDocPerNextCall, costBasedFilterReorderEnabled));
   }
 
   /**
@@ -57,21 +57,32 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
   public static final int DEFAULT_MAX_INITIAL_RESULT_HOLDER_CAPACITY = 10_000;
   public static final String NUM_GROUPS_LIMIT = "num.groups.limit";
   public static final int DEFAULT_NUM_GROUPS_LIMIT = 100_000;
+  // Whether to reorder the child filters of AND based on their estimated cost across the filter types
+  public static final String ENABLE_COST_BASED_FILTER_REORDER_KEY = "enable.cost.based.filter.reorder";
+  public static final boolean DEFAULT_ENABLE_COST_BASED_FILTER_REORDER = false;
 
   private final int _maxInitialResultHolderCapacity;
   // Limit on number of groups stored for each segment, beyond which no new group will be created
   private final int _numGroupsLimit;
+  // Whether to reorder the child filters of AND based on their estimated cost
+  private final boolean _costBasedFilterReorderEnabled;
 
   @VisibleForTesting
   public InstancePlanMakerImplV2() {
-    _maxInitialResultHolderCapacity = DEFAULT_MAX_INITIAL_RESULT_HOLDER_CAPACITY;
-    _numGroupsLimit = DEFAULT_NUM_GROUPS_LIMIT;
+    this(DEFAULT_MAX_INITIAL_RESULT_HOLDER_CAPACITY, DEFAULT_NUM_GROUPS_LIMIT);
   }
 
   @VisibleForTesting
   public InstancePlanMakerImplV2(int maxInitialResultHolderCapacity, int numGroupsLimit) {
+    this(maxInitialResultHolderCapacity, numGroupsLimit, DEFAULT_ENABLE_COST_BASED_FILTER_REORDER);
+  }
+
+  @VisibleForTesting
+  public InstancePlanMakerImplV2(int maxInitialResultHolderCapacity, int numGroupsLimit,
+      boolean costBasedFilterReorderEnabled) {
     _maxInitialResultHolderCapacity = maxInitialResultHolderCapacity;
     _numGroupsLimit = numGroupsLimit;
+    _costBasedFilterReorderEnabled = costBasedFilterReorderEnabled;
   }
 
   /**
@@ -79,6 +90,7 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
    * <ul>
    *   <li>Set limit on the initial result holder capacity</li>
    *   <li>Set limit on number of groups returned from each segment and combined result</li>
+   *   <li>Enable or disable the cost based reordering of the filters (applied to all the queries on the server)</li>
    * </ul>
    *
    * @param queryExecutorConfig Query executor configuration
@@ -90,8 +102,11 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
     Preconditions.checkState(_maxInitialResultHolderCapacity <= _numGroupsLimit,
         "Invalid configuration: maxInitialResultHolderCapacity: %d must be smaller or equal to numGroupsLimit: %d",
         _maxInitialResultHolderCapacity, _numGroupsLimit);
-    LOGGER.info("Initializing plan maker with maxInitialResultHolderCapacity: {}, numGroupsLimit: {}",
-        _maxInitialResultHolderCapacity, _numGroupsLimit);
+    _costBasedFilterReorderEnabled = queryExecutorConfig.getConfig()
+        .getBoolean(ENABLE_COST_BASED_FILTER_REORDER_KEY, DEFAULT_ENABLE_COST_BASED_FILTER_REORDER);
+    LOGGER.info("Initializing plan maker with maxInitialResultHolderCapacity: {}, numGroupsLimit: {}, "
+            + "costBasedFilterReorderEnabled: {}", _maxInitialResultHolderCapacity, _numGroupsLimit,
+        _costBasedFilterReorderEnabled);
   }
 
   @Override
@@ -102,22 +117,22 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
         // new Combine operator only when GROUP_BY_MODE explicitly set to SQL
         if (queryOptions.isGroupByModeSQL()) {
           return new AggregationGroupByOrderByPlanNode(indexSegment, brokerRequest, _maxInitialResultHolderCapacity,
-              _numGroupsLimit);
+              _numGroupsLimit, _costBasedFilterReorderEnabled);
         }
         return new AggregationGroupByPlanNode(indexSegment, brokerRequest, _maxInitialResultHolderCapacity,
-            _numGroupsLimit);
+            _numGroupsLimit, _costBasedFilterReorderEnabled);
       } else {
         if (isFitForMetadataBasedPlan(brokerRequest, indexSegment)) {
           return new MetadataBasedAggregationPlanNode(indexSegment, brokerRequest);
         } else if (isFitForDictionaryBasedPlan(brokerRequest, indexSegment)) {
           return new DictionaryBasedAggregationPlanNode(indexSegment, brokerRequest);
         } else {
-          return new AggregationPlanNode(indexSegment, brokerRequest);
+          return new AggregationPlanNode(indexSegment, brokerRequest, _costBasedFilterReorderEnabled);
         }
       }
     }
     if (brokerRequest.isSetSelections()) {
-      return new SelectionPlanNode(indexSegment, brokerRequest);
+      return new SelectionPlanNode(indexSegment, brokerRequest, _costBasedFilterReorderEnabled);
     }
     throw new UnsupportedOperationException("The query contains no aggregation or selection.");
   }
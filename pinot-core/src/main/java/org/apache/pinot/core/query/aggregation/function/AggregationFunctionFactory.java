@@ -56,6 +56,9 @@ public class AggregationFunctionFactory {
         } else if (remainingFunctionName.matches("TDIGEST\\d+")) {
           // PercentileTDigest
           return new PercentileTDigestAggregationFunction(parsePercentile(remainingFunctionName.substring(7)));
+        } else if (remainingFunctionName.matches("DDSKETCH\\d+")) {
+          // PercentileDDSketch
+          return new PercentileDDSketchAggregationFunction(parsePercentile(remainingFunctionName.substring(8)));
         } else if (remainingFunctionName.matches("\\d+MV")) {
           // PercentileMV
           return new PercentileMVAggregationFunction(
@@ -68,6 +71,10 @@ public class AggregationFunctionFactory {
           // PercentileTDigestMV
           return new PercentileTDigestMVAggregationFunction(
               parsePercentile(remainingFunctionName.substring(7, remainingFunctionName.length() - 2)));
+        } else if (remainingFunctionName.matches("DDSKETCH\\d+MV")) {
+          // PercentileDDSketchMV
+          return new PercentileDDSketchMVAggregationFunction(
+              parsePercentile(remainingFunctionName.substring(8, remainingFunctionName.length() - 2)));
         } else {
           throw new IllegalArgumentException();
         }
@@ -93,6 +100,12 @@ public class AggregationFunctionFactory {
             return new DistinctCountRawHLLAggregationFunction();
           case FASTHLL:
             return new FastHLLAggregationFunction();
+          case DISTINCTCOUNTTHETASKETCH:
+            return new DistinctCountThetaSketchAggregationFunction();
+          case DISTINCTCOUNTRAWTHETASKETCH:
+            return new DistinctCountRawThetaSketchAggregationFunction();
+          case DISTINCTCOUNTTHETASKETCHINTERSECT:
+            return new DistinctCountThetaSketchIntersectAggregationFunction();
           case COUNTMV:
             return new CountMVAggregationFunction();
           case MINMV:
@@ -51,6 +51,12 @@ public class AggregationFunctionVisitorBase {
   public void visit(DistinctCountHLLMVAggregationFunction function) {
   }
 
+  public void visit(DistinctCountThetaSketchAggregationFunction function) {
+  }
+
+  public void visit(DistinctCountThetaSketchIntersectAggregationFunction function) {
+  }
+
   public void visit(FastHLLAggregationFunction function) {
   }
 
@@ -90,6 +96,12 @@ public class AggregationFunctionVisitorBase {
   public void visit(PercentileTDigestMVAggregationFunction function) {
   }
 
+  public void visit(PercentileDDSketchAggregationFunction function) {
+  }
+
+  public void visit(PercentileDDSketchMVAggregationFunction function) {
+  }
+
   public void visit(SumAggregationFunction function) {
   }
 
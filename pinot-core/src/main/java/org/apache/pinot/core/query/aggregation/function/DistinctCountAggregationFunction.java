@@ -27,8 +27,20 @@ import org.apache.pinot.core.query.aggregation.AggregationResultHolder;
 import org.apache.pinot.core.query.aggregation.ObjectAggregationResultHolder;
 import org.apache.pinot.core.query.aggregation.groupby.GroupByResultHolder;
 import org.apache.pinot.core.query.aggregation.groupby.ObjectGroupByResultHolder;
+import org.apache.pinot.core.segment.index.readers.Dictionary;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
 
 
+/**
+ * The {@code DistinctCountAggregationFunction} computes the number of distinct values (hash of values for non-INT data
+ * types) of an expression.
+ * <p>For dictionary-encoded expression, the dictionary ids are collected into a {@link RoaringBitmap} while processing
+ * the segment, and only converted into the value set when extracting the segment level result. This avoids reading
+ * and hashing the values for every document. The intermediate result is still the value set because the dictionary
+ * ids are local to the segment and cannot be merged across segments, so the memory and the serialized size of the
+ * intermediate result are unchanged.
+ */
 public class DistinctCountAggregationFunction implements AggregationFunction<IntOpenHashSet, Integer> {
 
   @Override
@@ -58,6 +70,18 @@ public class DistinctCountAggregationFunction implements AggregationFunction<Int
 
   @Override
   public void aggregate(int length, AggregationResultHolder aggregationResultHolder, BlockValSet... blockValSets) {
+    // For dictionary-encoded expression, store the dictionary ids into the bitmap
+    Dictionary dictionary = blockValSets[0].getDictionary();
+    if (dictionary != null) {
+      int[] dictIds = blockValSets[0].getDictionaryIdsSV();
+      RoaringBitmap dictIdBitmap =
+          getDictIdBitmap(aggregationResultHolder, dictionary, blockValSets[0].getValueType());
+      for (int i = 0; i < length; i++) {
+        dictIdBitmap.add(dictIds[i]);
+      }
+      return;
+    }
+
     IntOpenHashSet valueSet = getValueSet(aggregationResultHolder);
 
     FieldSpec.DataType valueType = blockValSets[0].getValueType();
@@ -101,6 +125,17 @@ public class DistinctCountAggregationFunction implements AggregationFunction<Int
   public void aggregateGroupBySV(int length, int[] groupKeyArray, GroupByResultHolder groupByResultHolder,
       BlockValSet... blockValSets) {
     FieldSpec.DataType valueType = blockValSets[0].getValueType();
+
+    // For dictionary-encoded expression, store the dictionary ids into the bitmap
+    Dictionary dictionary = blockValSets[0].getDictionary();
+    if (dictionary != null) {
+      int[] dictIds = blockValSets[0].getDictionaryIdsSV();
+      for (int i = 0; i < length; i++) {
+        getDictIdBitmap(groupByResultHolder, groupKeyArray[i], dictionary, valueType).add(dictIds[i]);
+      }
+      return;
+    }
+
     switch (valueType) {
       case INT:
         int[] intValues = blockValSets[0].getIntValuesSV();
@@ -141,6 +176,19 @@ public class DistinctCountAggregationFunction implements AggregationFunction<Int
   public void aggregateGroupByMV(int length, int[][] groupKeysArray, GroupByResultHolder groupByResultHolder,
       BlockValSet... blockValSets) {
     FieldSpec.DataType valueType = blockValSets[0].getValueType();
+
+    // For dictionary-encoded expression, store the dictionary ids into the bitmap
+    Dictionary dictionary = blockValSets[0].getDictionary();
+    if (dictionary != null) {
+      int[] dictIds = blockValSets[0].getDictionaryIdsSV();
+      for (int i = 0; i < length; i++) {
+        for (int groupKey : groupKeysArray[i]) {
+          getDictIdBitmap(groupByResultHolder, groupKey, dictionary, valueType).add(dictIds[i]);
+        }
+      }
+      return;
+    }
+
     switch (valueType) {
       case INT:
         int[] intValues = blockValSets[0].getIntValuesSV();
@@ -179,28 +227,24 @@ public class DistinctCountAggregationFunction implements AggregationFunction<Int
 
   @Override
   public IntOpenHashSet extractAggregationResult(AggregationResultHolder aggregationResultHolder) {
-    IntOpenHashSet valueSet = aggregationResultHolder.getResult();
-    if (valueSet == null) {
-      return new IntOpenHashSet();
-    } else {
-      return valueSet;
-    }
+    return extractValueSet(aggregationResultHolder.getResult());
   }
 
   @Override
   public IntOpenHashSet extractGroupByResult(GroupByResultHolder groupByResultHolder, int groupKey) {
-    IntOpenHashSet valueSet = groupByResultHolder.getResult(groupKey);
-    if (valueSet == null) {
-      return new IntOpenHashSet();
-    } else {
-      return valueSet;
-    }
+    return extractValueSet(groupByResultHolder.getResult(groupKey));
   }
 
   @Override
   public IntOpenHashSet merge(IntOpenHashSet intermediateResult1, IntOpenHashSet intermediateResult2) {
-    intermediateResult1.addAll(intermediateResult2);
-    return intermediateResult1;
+    // Add the smaller set into the larger one to reduce the number of insertions and rehashes
+    if (intermediateResult1.size() < intermediateResult2.size()) {
+      intermediateResult2.addAll(intermediateResult1);
+      return intermediateResult2;
+    } else {
+      intermediateResult1.addAll(intermediateResult2);
+      return intermediateResult1;
+    }
   }
 
   @Override
@@ -248,6 +292,122 @@ public class DistinctCountAggregationFunction implements AggregationFunction<Int
     }
   }
 
+  /**
+   * Returns the dictionary id bitmap from the result holder or creates a new one if it does not exist.
+   *
+   * @param aggregationResultHolder Result holder
+   * @param dictionary Dictionary for the dictionary ids
+   * @param valueType Data type of the values
+   * @return Dictionary id bitmap from the result holder
+   */
+  protected static RoaringBitmap getDictIdBitmap(AggregationResultHolder aggregationResultHolder,
+      Dictionary dictionary, FieldSpec.DataType valueType) {
+    DictIdsWrapper dictIdsWrapper = aggregationResultHolder.getResult();
+    if (dictIdsWrapper == null) {
+      dictIdsWrapper = new DictIdsWrapper(dictionary, valueType);
+      aggregationResultHolder.setValue(dictIdsWrapper);
+    }
+    return dictIdsWrapper._dictIdBitmap;
+  }
+
+  /**
+   * Returns the dictionary id bitmap for the given group key. If one does not exist, creates a new one and returns
+   * that.
+   *
+   * @param groupByResultHolder Result holder
+   * @param groupKey Group key for which to return the dictionary id bitmap
+   * @param dictionary Dictionary for the dictionary ids
+   * @param valueType Data type of the values
+   * @return Dictionary id bitmap for the group key
+   */
+  protected static RoaringBitmap getDictIdBitmap(GroupByResultHolder groupByResultHolder, int groupKey,
+      Dictionary dictionary, FieldSpec.DataType valueType) {
+    DictIdsWrapper dictIdsWrapper = groupByResultHolder.getResult(groupKey);
+    if (dictIdsWrapper == null) {
+      dictIdsWrapper = new DictIdsWrapper(dictionary, valueType);
+      groupByResultHolder.setValueForKey(groupKey, dictIdsWrapper);
+    }
+    return dictIdsWrapper._dictIdBitmap;
+  }
+
+  /**
+   * Helper method to extract the value set from the result stored in the result holder, which can be either a value
+   * set or a dictionary id bitmap (for dictionary-encoded expression).
+   */
+  private static IntOpenHashSet extractValueSet(Object result) {
+    if (result == null) {
+      return new IntOpenHashSet();
+    }
+    if (result instanceof DictIdsWrapper) {
+      return convertToValueSet((DictIdsWrapper) result);
+    }
+    return (IntOpenHashSet) result;
+  }
+
+  /**
+   * Helper method to read the dictionary values for the dictionary ids inside the bitmap, and put them into the value
+   * set. The values are hashed the same way as the non-dictionary-encoded expression.
+   */
+  private static IntOpenHashSet convertToValueSet(DictIdsWrapper dictIdsWrapper) {
+    Dictionary dictionary = dictIdsWrapper._dictionary;
+    RoaringBitmap dictIdBitmap = dictIdsWrapper._dictIdBitmap;
+    IntOpenHashSet valueSet = new IntOpenHashSet(dictIdBitmap.getCardinality());
+    PeekableIntIterator iterator = dictIdBitmap.getIntIterator();
+    FieldSpec.DataType valueType = dictIdsWrapper._valueType;
+    switch (valueType) {
+      case INT:
+        while (iterator.hasNext()) {
+          valueSet.add(dictionary.getIntValue(iterator.next()));
+        }
+        break;
+      case LONG:
+        while (iterator.hasNext()) {
+          valueSet.add(Long.hashCode(dictionary.getLongValue(iterator.next())));
+        }
+        break;
+      case FLOAT:
+        while (iterator.hasNext()) {
+          valueSet.add(Float.hashCode(dictionary.getFloatValue(iterator.next())));
+        }
+        break;
+      case DOUBLE:
+        while (iterator.hasNext()) {
+          valueSet.add(Double.hashCode(dictionary.getDoubleValue(iterator.next())));
+        }
+        break;
+      case STRING:
+        while (iterator.hasNext()) {
+          valueSet.add(dictionary.getStringValue(iterator.next()).hashCode());
+        }
+        break;
+      default:
+        throw new IllegalStateException("Illegal data type for DISTINCT_COUNT aggregation function: " + valueType);
+    }
+    return valueSet;
+  }
+
+  /**
+   * Wrapper of the dictionary id bitmap and the dictionary to read the values from.
+   */
+  public static final class DictIdsWrapper {
+    final Dictionary _dictionary;
+    final FieldSpec.DataType _valueType;
+    final RoaringBitmap _dictIdBitmap;
+
+    DictIdsWrapper(Dictionary dictionary, FieldSpec.DataType valueType) {
+      _dictionary = dictionary;
+      _valueType = valueType;
+      _dictIdBitmap = new RoaringBitmap();
+    }
+
+    /**
+     * Returns the estimated heap size in bytes of the dictionary id bitmap.
+     */
+    public long getSizeInBytes() {
+      return _dictIdBitmap.getLongSizeInBytes();
+    }
+  }
+
   /**
    * Returns the value set from the result holder or creates a new one if it does not exist.
    *
@@ -24,6 +24,8 @@ import org.apache.pinot.common.function.AggregationFunctionType;
 import org.apache.pinot.core.common.BlockValSet;
 import org.apache.pinot.core.query.aggregation.AggregationResultHolder;
 import org.apache.pinot.core.query.aggregation.groupby.GroupByResultHolder;
+import org.apache.pinot.core.segment.index.readers.Dictionary;
+import org.roaringbitmap.RoaringBitmap;
 
 
 public class DistinctCountMVAggregationFunction extends DistinctCountAggregationFunction {
@@ -45,6 +47,18 @@ public class DistinctCountMVAggregationFunction extends DistinctCountAggregation
 
   @Override
   public void aggregate(int length, AggregationResultHolder aggregationResultHolder, BlockValSet... blockValSets) {
+    // For dictionary-encoded expression, store the dictionary ids into the bitmap
+    Dictionary dictionary = blockValSets[0].getDictionary();
+    if (dictionary != null) {
+      int[][] dictIds = blockValSets[0].getDictionaryIdsMV();
+      RoaringBitmap dictIdBitmap =
+          getDictIdBitmap(aggregationResultHolder, dictionary, blockValSets[0].getValueType());
+      for (int i = 0; i < length; i++) {
+        dictIdBitmap.add(dictIds[i]);
+      }
+      return;
+    }
+
     IntOpenHashSet valueSet = getValueSet(aggregationResultHolder);
 
     FieldSpec.DataType valueType = blockValSets[0].getValueType();
@@ -97,6 +111,17 @@ public class DistinctCountMVAggregationFunction extends DistinctCountAggregation
   public void aggregateGroupBySV(int length, int[] groupKeyArray, GroupByResultHolder groupByResultHolder,
       BlockValSet... blockValSets) {
     FieldSpec.DataType valueType = blockValSets[0].getValueType();
+
+    // For dictionary-encoded expression, store the dictionary ids into the bitmap
+    Dictionary dictionary = blockValSets[0].getDictionary();
+    if (dictionary != null) {
+      int[][] dictIds = blockValSets[0].getDictionaryIdsMV();
+      for (int i = 0; i < length; i++) {
+        getDictIdBitmap(groupByResultHolder, groupKeyArray[i], dictionary, valueType).add(dictIds[i]);
+      }
+      return;
+    }
+
     switch (valueType) {
       case INT:
         int[][] intValues = blockValSets[0].getIntValuesMV();
@@ -152,6 +177,19 @@ public class DistinctCountMVAggregationFunction extends DistinctCountAggregation
   public void aggregateGroupByMV(int length, int[][] groupKeysArray, GroupByResultHolder groupByResultHolder,
       BlockValSet... blockValSets) {
     FieldSpec.DataType valueType = blockValSets[0].getValueType();
+
+    // For dictionary-encoded expression, store the dictionary ids into the bitmap
+    Dictionary dictionary = blockValSets[0].getDictionary();
+    if (dictionary != null) {
+      int[][] dictIds = blockValSets[0].getDictionaryIdsMV();
+      for (int i = 0; i < length; i++) {
+        for (int groupKey : groupKeysArray[i]) {
+          getDictIdBitmap(groupByResultHolder, groupKey, dictionary, valueType).add(dictIds[i]);
+        }
+      }
+      return;
+    }
+
     switch (valueType) {
       case INT:
         int[][] intValues = blockValSets[0].getIntValuesMV();
@@ -0,0 +1,125 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.aggregation.function;
+
+import org.apache.datasketches.theta.Sketch;
+import org.apache.pinot.common.function.AggregationFunctionType;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.common.BlockValSet;
+import org.apache.pinot.core.query.aggregation.AggregationResultHolder;
+import org.apache.pinot.core.query.aggregation.function.customobject.SerializedThetaSketch;
+import org.apache.pinot.core.query.aggregation.groupby.GroupByResultHolder;
+
+
+/**
+ * Same as {@link DistinctCountThetaSketchAggregationFunction}, but returns the serialized sketch (as hex string)
+ * instead of the estimate so that the clients can apply further set operations (e.g. intersection for overlap).
+ */
+public class DistinctCountRawThetaSketchAggregationFunction
+    implements AggregationFunction<Sketch, SerializedThetaSketch> {
+  private final DistinctCountThetaSketchAggregationFunction _distinctCountThetaSketchAggregationFunction;
+
+  public DistinctCountRawThetaSketchAggregationFunction() {
+    this(new DistinctCountThetaSketchAggregationFunction());
+  }
+
+  DistinctCountRawThetaSketchAggregationFunction(
+      DistinctCountThetaSketchAggregationFunction distinctCountThetaSketchAggregationFunction) {
+    _distinctCountThetaSketchAggregationFunction = distinctCountThetaSketchAggregationFunction;
+  }
+
+  @Override
+  public AggregationFunctionType getType() {
+    return AggregationFunctionType.DISTINCTCOUNTRAWTHETASKETCH;
+  }
+
+  @Override
+  public String getColumnName(String column) {
+    return AggregationFunctionType.DISTINCTCOUNTRAWTHETASKETCH.getName() + "_" + column;
+  }
+
+  @Override
+  public void accept(AggregationFunctionVisitorBase visitor) {
+    _distinctCountThetaSketchAggregationFunction.accept(visitor);
+  }
+
+  @Override
+  public AggregationResultHolder createAggregationResultHolder() {
+    return _distinctCountThetaSketchAggregationFunction.createAggregationResultHolder();
+  }
+
+  @Override
+  public GroupByResultHolder createGroupByResultHolder(int initialCapacity, int maxCapacity) {
+    return _distinctCountThetaSketchAggregationFunction.createGroupByResultHolder(initialCapacity, maxCapacity);
+  }
+
+  @Override
+  public void aggregate(int length, AggregationResultHolder aggregationResultHolder, BlockValSet... blockValSets) {
+    _distinctCountThetaSketchAggregationFunction.aggregate(length, aggregationResultHolder, blockValSets);
+  }
+
+  @Override
+  public void aggregateGroupBySV(int length, int[] groupKeyArray, GroupByResultHolder groupByResultHolder,
+      BlockValSet... blockValSets) {
+    _distinctCountThetaSketchAggregationFunction
+        .aggregateGroupBySV(length, groupKeyArray, groupByResultHolder, blockValSets);
+  }
+
+  @Override
+  public void aggregateGroupByMV(int length, int[][] groupKeysArray, GroupByResultHolder groupByResultHolder,
+      BlockValSet... blockValSets) {
+    _distinctCountThetaSketchAggregationFunction
+        .aggregateGroupByMV(length, groupKeysArray, groupByResultHolder, blockValSets);
+  }
+
+  @Override
+  public Sketch extractAggregationResult(AggregationResultHolder aggregationResultHolder) {
+    return _distinctCountThetaSketchAggregationFunction.extractAggregationResult(aggregationResultHolder);
+  }
+
+  @Override
+  public Sketch extractGroupByResult(GroupByResultHolder groupByResultHolder, int groupKey) {
+    return _distinctCountThetaSketchAggregationFunction.extractGroupByResult(groupByResultHolder, groupKey);
+  }
+
+  @Override
+  public Sketch merge(Sketch intermediateResult1, Sketch intermediateResult2) {
+    return _distinctCountThetaSketchAggregationFunction.merge(intermediateResult1, intermediateResult2);
+  }
+
+  @Override
+  public boolean isIntermediateResultComparable() {
+    return _distinctCountThetaSketchAggregationFunction.isIntermediateResultComparable();
+  }
+
+  @Override
+  public ColumnDataType getIntermediateResultColumnType() {
+    return _distinctCountThetaSketchAggregationFunction.getIntermediateResultColumnType();
+  }
+
+  @Override
+  public ColumnDataType getFinalResultColumnType() {
+    return ColumnDataType.STRING;
+  }
+
+  @Override
+  public SerializedThetaSketch extractFinalResult(Sketch intermediateResult) {
+    return SerializedThetaSketch.of(intermediateResult);
+  }
+}
@@ -0,0 +1,331 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.aggregation.function;
+
+import org.apache.datasketches.theta.SetOperation;
+import org.apache.datasketches.theta.Sketch;
+import org.apache.datasketches.theta.Union;
+import org.apache.datasketches.theta.UpdateSketch;
+import org.apache.pinot.common.data.FieldSpec.DataType;
+import org.apache.pinot.common.function.AggregationFunctionType;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.common.BlockValSet;
+import org.apache.pinot.core.common.ObjectSerDeUtils;
+import org.apache.pinot.core.query.aggregation.AggregationResultHolder;
+import org.apache.pinot.core.query.aggregation.ObjectAggregationResultHolder;
+import org.apache.pinot.core.query.aggregation.groupby.GroupByResultHolder;
+import org.apache.pinot.core.query.aggregation.groupby.ObjectGroupByResultHolder;
+
+
+/**
+ * Approximate distinct count based on the Apache DataSketches theta {@link Sketch}.
+ * <p>The result holders keep a theta {@link Union}: raw values are hashed into the union, and for BYTES columns the
+ * values are treated as serialized theta sketches (pre-aggregated during ingestion) and merged with set union.
+ */
+public class DistinctCountThetaSketchAggregationFunction implements AggregationFunction<Sketch, Long> {
+  public static final int DEFAULT_NOMINAL_ENTRIES = 4096;
+
+  @Override
+  public AggregationFunctionType getType() {
+    return AggregationFunctionType.DISTINCTCOUNTTHETASKETCH;
+  }
+
+  @Override
+  public String getColumnName(String column) {
+    return AggregationFunctionType.DISTINCTCOUNTTHETASKETCH.getName() + "_" + column;
+  }
+
+  @Override
+  public void accept(AggregationFunctionVisitorBase visitor) {
+    visitor.visit(this);
+  }
+
+  @Override
+  public AggregationResultHolder createAggregationResultHolder() {
+    return new ObjectAggregationResultHolder();
+  }
+
+  @Override
+  public GroupByResultHolder createGroupByResultHolder(int initialCapacity, int maxCapacity) {
+    return new ObjectGroupByResultHolder(initialCapacity, maxCapacity);
+  }
+
+  @Override
+  public void aggregate(int length, AggregationResultHolder aggregationResultHolder, BlockValSet... blockValSets) {
+    Union union = getDefaultUnion(aggregationResultHolder);
+    DataType valueType = blockValSets[0].getValueType();
+    switch (valueType) {
+      case INT:
+        int[] intValues = blockValSets[0].getIntValuesSV();
+        for (int i = 0; i < length; i++) {
+          union.update(intValues[i]);
+        }
+        break;
+      case LONG:
+        long[] longValues = blockValSets[0].getLongValuesSV();
+        for (int i = 0; i < length; i++) {
+          union.update(longValues[i]);
+        }
+        break;
+      case FLOAT:
+        float[] floatValues = blockValSets[0].getFloatValuesSV();
+        for (int i = 0; i < length; i++) {
+          union.update(floatValues[i]);
+        }
+        break;
+      case DOUBLE:
+        double[] doubleValues = blockValSets[0].getDoubleValuesSV();
+        for (int i = 0; i < length; i++) {
+          union.update(doubleValues[i]);
+        }
+        break;
+      case STRING:
+        String[] stringValues = blockValSets[0].getStringValuesSV();
+        for (int i = 0; i < length; i++) {
+          union.update(stringValues[i]);
+        }
+        break;
+      case BYTES:
+        // Serialized theta sketch
+        byte[][] bytesValues = blockValSets[0].getBytesValuesSV();
+        for (int i = 0; i < length; i++) {
+          union.update(ObjectSerDeUtils.THETA_SKETCH_SER_DE.deserialize(bytesValues[i]));
+        }
+        break;
+      default:
+        throw new IllegalStateException(
+            "Illegal data type for DISTINCT_COUNT_THETA_SKETCH aggregation function: " + valueType);
+    }
+  }
+
+  @Override
+  public void aggregateGroupBySV(int length, int[] groupKeyArray, GroupByResultHolder groupByResultHolder,
+      BlockValSet... blockValSets) {
+    DataType valueType = blockValSets[0].getValueType();
+    switch (valueType) {
+      case INT:
+        int[] intValues = blockValSets[0].getIntValuesSV();
+        for (int i = 0; i < length; i++) {
+          getDefaultUnion(groupByResultHolder, groupKeyArray[i]).update(intValues[i]);
+        }
+        break;
+      case LONG:
+        long[] longValues = blockValSets[0].getLongValuesSV();
+        for (int i = 0; i < length; i++) {
+          getDefaultUnion(groupByResultHolder, groupKeyArray[i]).update(longValues[i]);
+        }
+        break;
+      case FLOAT:
+        float[] floatValues = blockValSets[0].getFloatValuesSV();
+        for (int i = 0; i < length; i++) {
+          getDefaultUnion(groupByResultHolder, groupKeyArray[i]).update(floatValues[i]);
+        }
+        break;
+      case DOUBLE:
+        double[] doubleValues = blockValSets[0].getDoubleValuesSV();
+        for (int i = 0; i < length; i++) {
+          getDefaultUnion(groupByResultHolder, groupKeyArray[i]).update(doubleValues[i]);
+        }
+        break;
+      case STRING:
+        String[] stringValues = blockValSets[0].getStringValuesSV();
+        for (int i = 0; i < length; i++) {
+          getDefaultUnion(groupByResultHolder, groupKeyArray[i]).update(stringValues[i]);
+        }
+        break;
+      case BYTES:
+        // Serialized theta sketch
+        byte[][] bytesValues = blockValSets[0].getBytesValuesSV();
+        for (int i = 0; i < length; i++) {
+          getDefaultUnion(groupByResultHolder, groupKeyArray[i])
+              .update(ObjectSerDeUtils.THETA_SKETCH_SER_DE.deserialize(bytesValues[i]));
+        }
+        break;
+      default:
+        throw new IllegalStateException(
+            "Illegal data type for DISTINCT_COUNT_THETA_SKETCH aggregation function: " + valueType);
+    }
+  }
+
+  @Override
+  public void aggregateGroupByMV(int length, int[][] groupKeysArray, GroupByResultHolder groupByResultHolder,
+      BlockValSet... blockValSets) {
+    DataType valueType = blockValSets[0].getValueType();
+    switch (valueType) {
+      case INT:
+        int[] intValues = blockValSets[0].getIntValuesSV();
+        for (int i = 0; i < length; i++) {
+          int value = intValues[i];
+          for (int groupKey : groupKeysArray[i]) {
+            getDefaultUnion(groupByResultHolder, groupKey).update(value);
+          }
+        }
+        break;
+      case LONG:
+        long[] longValues = blockValSets[0].getLongValuesSV();
+        for (int i = 0; i < length; i++) {
+          long value = longValues[i];
+          for (int groupKey : groupKeysArray[i]) {
+            getDefaultUnion(groupByResultHolder, groupKey).update(value);
+          }
+        }
+        break;
+      case FLOAT:
+        float[] floatValues = blockValSets[0].getFloatValuesSV();
+        for (int i = 0; i < length; i++) {
+          float value = floatValues[i];
+          for (int groupKey : groupKeysArray[i]) {
+            getDefaultUnion(groupByResultHolder, groupKey).update(value);
+          }
+        }
+        break;
+      case DOUBLE:
+        double[] doubleValues = blockValSets[0].getDoubleValuesSV();
+        for (int i = 0; i < length; i++) {
+          double value = doubleValues[i];
+          for (int groupKey : groupKeysArray[i]) {
+            getDefaultUnion(groupByResultHolder, groupKey).update(value);
+          }
+        }
+        break;
+      case STRING:
+        String[] stringValues = blockValSets[0].getStringValuesSV();
+        for (int i = 0; i < length; i++) {
+          String value = stringValues[i];
+          for (int groupKey : groupKeysArray[i]) {
+            getDefaultUnion(groupByResultHolder, groupKey).update(value);
+          }
+        }
+        break;
+      case BYTES:
+        // Serialized theta sketch
+        byte[][] bytesValues = blockValSets[0].getBytesValuesSV();
+        for (int i = 0; i < length; i++) {
+          // Union does not modify the argument, so the same deserialized sketch can be shared across the groups
+          Sketch value = ObjectSerDeUtils.THETA_SKETCH_SER_DE.deserialize(bytesValues[i]);
+          for (int groupKey : groupKeysArray[i]) {
+            getDefaultUnion(groupByResultHolder, groupKey).update(value);
+          }
+        }
+        break;
+      default:
+        throw new IllegalStateException(
+            "Illegal data type for DISTINCT_COUNT_THETA_SKETCH aggregation function: " + valueType);
+    }
+  }
+
+  @Override
+  public Sketch extractAggregationResult(AggregationResultHolder aggregationResultHolder) {
+    Union union = aggregationResultHolder.getResult();
+    if (union == null) {
+      return getEmptySketch();
+    } else {
+      return union.getResult();
+    }
+  }
+
+  @Override
+  public Sketch extractGroupByResult(GroupByResultHolder groupByResultHolder, int groupKey) {
+    Union union = groupByResultHolder.getResult(groupKey);
+    if (union == null) {
+      return getEmptySketch();
+    } else {
+      return union.getResult();
+    }
+  }
+
+  @Override
+  public Sketch merge(Sketch intermediateResult1, Sketch intermediateResult2) {
+    if (intermediateResult1.isEmpty()) {
+      return intermediateResult2;
+    }
+    if (intermediateResult2.isEmpty()) {
+      return intermediateResult1;
+    }
+    Union union = createUnion();
+    union.update(intermediateResult1);
+    union.update(intermediateResult2);
+    return union.getResult();
+  }
+
+  @Override
+  public boolean isIntermediateResultComparable() {
+    return false;
+  }
+
+  @Override
+  public ColumnDataType getIntermediateResultColumnType() {
+    return ColumnDataType.OBJECT;
+  }
+
+  @Override
+  public ColumnDataType getFinalResultColumnType() {
+    return ColumnDataType.LONG;
+  }
+
+  @Override
+  public Long extractFinalResult(Sketch intermediateResult) {
+    return Math.round(intermediateResult.getEstimate());
+  }
+
+  /**
+   * Returns a new theta union with the default nominal entries.
+   */
+  public static Union createUnion() {
+    return SetOperation.builder().setNominalEntries(DEFAULT_NOMINAL_ENTRIES).buildUnion();
+  }
+
+  /**
+   * Returns an empty compact theta sketch, which is the intermediate result when there is no value aggregated.
+   */
+  public static Sketch getEmptySketch() {
+    return UpdateSketch.builder().setNominalEntries(DEFAULT_NOMINAL_ENTRIES).build().compact();
+  }
+
+  /**
+   * Returns the theta union from the result holder or creates a new one if it does not exist.
+   *
+   * @param aggregationResultHolder Result holder
+   * @return Theta union from the result holder
+   */
+  protected static Union getDefaultUnion(AggregationResultHolder aggregationResultHolder) {
+    Union union = aggregationResultHolder.getResult();
+    if (union == null) {
+      union = createUnion();
+      aggregationResultHolder.setValue(union);
+    }
+    return union;
+  }
+
+  /**
+   * Returns the theta union for the given group key if exists, or creates a new one.
+   *
+   * @param groupByResultHolder Result holder
+   * @param groupKey Group key for which to return the theta union
+   * @return Theta union for the group key
+   */
+  protected static Union getDefaultUnion(GroupByResultHolder groupByResultHolder, int groupKey) {
+    Union union = groupByResultHolder.getResult(groupKey);
+    if (union == null) {
+      union = createUnion();
+      groupByResultHolder.setValueForKey(groupKey, union);
+    }
+    return union;
+  }
+}
@@ -0,0 +1,191 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.aggregation.function;
+
+import org.apache.datasketches.theta.Intersection;
+import org.apache.datasketches.theta.SetOperation;
+import org.apache.datasketches.theta.Sketch;
+import org.apache.pinot.common.data.FieldSpec.DataType;
+import org.apache.pinot.common.function.AggregationFunctionType;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.common.BlockValSet;
+import org.apache.pinot.core.common.ObjectSerDeUtils;
+import org.apache.pinot.core.query.aggregation.AggregationResultHolder;
+import org.apache.pinot.core.query.aggregation.ObjectAggregationResultHolder;
+import org.apache.pinot.core.query.aggregation.groupby.GroupByResultHolder;
+import org.apache.pinot.core.query.aggregation.groupby.ObjectGroupByResultHolder;
+
+
+/**
+ * Approximate distinct count of the values that appear in every theta sketch of a BYTES column (set intersection of
+ * the serialized sketches), e.g. the users retained across all the days of a time range.
+ * <p>The set union of the serialized sketches is {@link DistinctCountThetaSketchAggregationFunction}.
+ * <p>The intermediate result is a theta {@link Intersection}. An intersection without any sketch applied represents
+ * the universe set, which is the identity of the merge, so that the segments without any matching document do not
+ * empty the result.
+ */
+public class DistinctCountThetaSketchIntersectAggregationFunction implements AggregationFunction<Intersection, Long> {
+
+  @Override
+  public AggregationFunctionType getType() {
+    return AggregationFunctionType.DISTINCTCOUNTTHETASKETCHINTERSECT;
+  }
+
+  @Override
+  public String getColumnName(String column) {
+    return AggregationFunctionType.DISTINCTCOUNTTHETASKETCHINTERSECT.getName() + "_" + column;
+  }
+
+  @Override
+  public void accept(AggregationFunctionVisitorBase visitor) {
+    visitor.visit(this);
+  }
+
+  @Override
+  public AggregationResultHolder createAggregationResultHolder() {
+    return new ObjectAggregationResultHolder();
+  }
+
+  @Override
+  public GroupByResultHolder createGroupByResultHolder(int initialCapacity, int maxCapacity) {
+    return new ObjectGroupByResultHolder(initialCapacity, maxCapacity);
+  }
+
+  @Override
+  public void aggregate(int length, AggregationResultHolder aggregationResultHolder, BlockValSet... blockValSets) {
+    byte[][] bytesValues = getBytesValues(blockValSets[0]);
+    Intersection intersection = getDefaultIntersection(aggregationResultHolder);
+    for (int i = 0; i < length; i++) {
+      intersection.update(ObjectSerDeUtils.THETA_SKETCH_SER_DE.deserialize(bytesValues[i]));
+    }
+  }
+
+  @Override
+  public void aggregateGroupBySV(int length, int[] groupKeyArray, GroupByResultHolder groupByResultHolder,
+      BlockValSet... blockValSets) {
+    byte[][] bytesValues = getBytesValues(blockValSets[0]);
+    for (int i = 0; i < length; i++) {
+      getDefaultIntersection(groupByResultHolder, groupKeyArray[i])
+          .update(ObjectSerDeUtils.THETA_SKETCH_SER_DE.deserialize(bytesValues[i]));
+    }
+  }
+
+  @Override
+  public void aggregateGroupByMV(int length, int[][] groupKeysArray, GroupByResultHolder groupByResultHolder,
+      BlockValSet... blockValSets) {
+    byte[][] bytesValues = getBytesValues(blockValSets[0]);
+    for (int i = 0; i < length; i++) {
+      // Intersection does not modify the argument, so the same deserialized sketch can be shared across the groups
+      Sketch value = ObjectSerDeUtils.THETA_SKETCH_SER_DE.deserialize(bytesValues[i]);
+      for (int groupKey : groupKeysArray[i]) {
+        getDefaultIntersection(groupByResultHolder, groupKey).update(value);
+      }
+    }
+  }
+
+  @Override
+  public Intersection extractAggregationResult(AggregationResultHolder aggregationResultHolder) {
+    Intersection intersection = aggregationResultHolder.getResult();
+    if (intersection == null) {
+      return createIntersection();
+    } else {
+      return intersection;
+    }
+  }
+
+  @Override
+  public Intersection extractGroupByResult(GroupByResultHolder groupByResultHolder, int groupKey) {
+    Intersection intersection = groupByResultHolder.getResult(groupKey);
+    if (intersection == null) {
+      return createIntersection();
+    } else {
+      return intersection;
+    }
+  }
+
+  @Override
+  public Intersection merge(Intersection intermediateResult1, Intersection intermediateResult2) {
+    if (!intermediateResult2.hasResult()) {
+      return intermediateResult1;
+    }
+    if (!intermediateResult1.hasResult()) {
+      return intermediateResult2;
+    }
+    intermediateResult1.update(intermediateResult2.getResult());
+    return intermediateResult1;
+  }
+
+  @Override
+  public boolean isIntermediateResultComparable() {
+    return false;
+  }
+
+  @Override
+  public ColumnDataType getIntermediateResultColumnType() {
+    return ColumnDataType.OBJECT;
+  }
+
+  @Override
+  public ColumnDataType getFinalResultColumnType() {
+    return ColumnDataType.LONG;
+  }
+
+  @Override
+  public Long extractFinalResult(Intersection intermediateResult) {
+    // No sketch intersected (no matching document)
+    if (!intermediateResult.hasResult()) {
+      return 0L;
+    }
+    return Math.round(intermediateResult.getResult().getEstimate());
+  }
+
+  private static byte[][] getBytesValues(BlockValSet blockValSet) {
+    DataType valueType = blockValSet.getValueType();
+    if (valueType != DataType.BYTES) {
+      throw new IllegalStateException(
+          "Illegal data type for DISTINCT_COUNT_THETA_SKETCH_INTERSECT aggregation function: " + valueType);
+    }
+    return blockValSet.getBytesValuesSV();
+  }
+
+  /**
+   * Returns a new theta intersection, which represents the universe set until the first sketch is applied.
+   */
+  public static Intersection createIntersection() {
+    return SetOperation.builder().buildIntersection();
+  }
+
+  private static Intersection getDefaultIntersection(AggregationResultHolder aggregationResultHolder) {
+    Intersection intersection = aggregationResultHolder.getResult();
+    if (intersection == null) {
+      intersection = createIntersection();
+      aggregationResultHolder.setValue(intersection);
+    }
+    return intersection;
+  }
+
+  private static Intersection getDefaultIntersection(GroupByResultHolder groupByResultHolder, int groupKey) {
+    Intersection intersection = groupByResultHolder.getResult(groupKey);
+    if (intersection == null) {
+      intersection = createIntersection();
+      groupByResultHolder.setValueForKey(groupKey, intersection);
+    }
+    return intersection;
+  }
+}
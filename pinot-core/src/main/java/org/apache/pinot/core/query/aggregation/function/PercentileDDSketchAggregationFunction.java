@@ -0,0 +1,231 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.aggregation.function;
+
+import org.apache.pinot.common.data.FieldSpec.DataType;
+import org.apache.pinot.common.function.AggregationFunctionType;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.core.common.BlockValSet;
+import org.apache.pinot.core.common.ObjectSerDeUtils;
+import org.apache.pinot.core.query.aggregation.AggregationResultHolder;
+import org.apache.pinot.core.query.aggregation.ObjectAggregationResultHolder;
+import org.apache.pinot.core.query.aggregation.function.customobject.DDSketch;
+import org.apache.pinot.core.query.aggregation.groupby.GroupByResultHolder;
+import org.apache.pinot.core.query.aggregation.groupby.ObjectGroupByResultHolder;
+
+
+/**
+ * DDSketch based Percentile aggregation function, which has bounded memory, fast merge and relative-error guarantee on
+ * the returned percentile value.
+ */
+public class PercentileDDSketchAggregationFunction implements AggregationFunction<DDSketch, Double> {
+  protected final int _percentile;
+
+  public PercentileDDSketchAggregationFunction(int percentile) {
+    _percentile = percentile;
+  }
+
+  @Override
+  public AggregationFunctionType getType() {
+    return AggregationFunctionType.PERCENTILEDDSKETCH;
+  }
+
+  @Override
+  public String getColumnName(String column) {
+    return AggregationFunctionType.PERCENTILEDDSKETCH.getName() + _percentile + "_" + column;
+  }
+
+  @Override
+  public void accept(AggregationFunctionVisitorBase visitor) {
+    visitor.visit(this);
+  }
+
+  @Override
+  public AggregationResultHolder createAggregationResultHolder() {
+    return new ObjectAggregationResultHolder();
+  }
+
+  @Override
+  public GroupByResultHolder createGroupByResultHolder(int initialCapacity, int maxCapacity) {
+    return new ObjectGroupByResultHolder(initialCapacity, maxCapacity);
+  }
+
+  @Override
+  public void aggregate(int length, AggregationResultHolder aggregationResultHolder, BlockValSet... blockValSets) {
+    if (blockValSets[0].getValueType() != DataType.BYTES) {
+      double[] doubleValues = blockValSets[0].getDoubleValuesSV();
+      DDSketch ddSketch = getDefaultDDSketch(aggregationResultHolder);
+      for (int i = 0; i < length; i++) {
+        ddSketch.add(doubleValues[i]);
+      }
+    } else {
+      // Serialized DDSketch
+      byte[][] bytesValues = blockValSets[0].getBytesValuesSV();
+      DDSketch ddSketch = aggregationResultHolder.getResult();
+      if (ddSketch != null) {
+        for (int i = 0; i < length; i++) {
+          ddSketch.merge(ObjectSerDeUtils.DDSKETCH_SER_DE.deserialize(bytesValues[i]));
+        }
+      } else {
+        ddSketch = ObjectSerDeUtils.DDSKETCH_SER_DE.deserialize(bytesValues[0]);
+        aggregationResultHolder.setValue(ddSketch);
+        for (int i = 1; i < length; i++) {
+          ddSketch.merge(ObjectSerDeUtils.DDSKETCH_SER_DE.deserialize(bytesValues[i]));
+        }
+      }
+    }
+  }
+
+  @Override
+  public void aggregateGroupBySV(int length, int[] groupKeyArray, GroupByResultHolder groupByResultHolder,
+      BlockValSet... blockValSets) {
+    if (blockValSets[0].getValueType() != DataType.BYTES) {
+      double[] doubleValues = blockValSets[0].getDoubleValuesSV();
+      for (int i = 0; i < length; i++) {
+        getDefaultDDSketch(groupByResultHolder, groupKeyArray[i]).add(doubleValues[i]);
+      }
+    } else {
+      // Serialized DDSketch
+      byte[][] bytesValues = blockValSets[0].getBytesValuesSV();
+      for (int i = 0; i < length; i++) {
+        DDSketch value = ObjectSerDeUtils.DDSKETCH_SER_DE.deserialize(bytesValues[i]);
+        int groupKey = groupKeyArray[i];
+        DDSketch ddSketch = groupByResultHolder.getResult(groupKey);
+        if (ddSketch != null) {
+          ddSketch.merge(value);
+        } else {
+          groupByResultHolder.setValueForKey(groupKey, value);
+        }
+      }
+    }
+  }
+
+  @Override
+  public void aggregateGroupByMV(int length, int[][] groupKeysArray, GroupByResultHolder groupByResultHolder,
+      BlockValSet... blockValSets) {
+    if (blockValSets[0].getValueType() != DataType.BYTES) {
+      double[] doubleValues = blockValSets[0].getDoubleValuesSV();
+      for (int i = 0; i < length; i++) {
+        double value = doubleValues[i];
+        for (int groupKey : groupKeysArray[i]) {
+          getDefaultDDSketch(groupByResultHolder, groupKey).add(value);
+        }
+      }
+    } else {
+      // Serialized DDSketch
+      byte[][] bytesValues = blockValSets[0].getBytesValuesSV();
+      for (int i = 0; i < length; i++) {
+        DDSketch value = ObjectSerDeUtils.DDSKETCH_SER_DE.deserialize(bytesValues[i]);
+        for (int groupKey : groupKeysArray[i]) {
+          DDSketch ddSketch = groupByResultHolder.getResult(groupKey);
+          if (ddSketch != null) {
+            ddSketch.merge(value);
+          } else {
+            // Create a new DDSketch for the group
+            groupByResultHolder.setValueForKey(groupKey, ObjectSerDeUtils.DDSKETCH_SER_DE.deserialize(bytesValues[i]));
+          }
+        }
+      }
+    }
+  }
+
+  @Override
+  public DDSketch extractAggregationResult(AggregationResultHolder aggregationResultHolder) {
+    DDSketch ddSketch = aggregationResultHolder.getResult();
+    if (ddSketch == null) {
+      return new DDSketch();
+    } else {
+      return ddSketch;
+    }
+  }
+
+  @Override
+  public DDSketch extractGroupByResult(GroupByResultHolder groupByResultHolder, int groupKey) {
+    DDSketch ddSketch = groupByResultHolder.getResult(groupKey);
+    if (ddSketch == null) {
+      return new DDSketch();
+    } else {
+      return ddSketch;
+    }
+  }
+
+  @Override
+  public DDSketch merge(DDSketch intermediateResult1, DDSketch intermediateResult2) {
+    if (intermediateResult1.getCount() == 0L) {
+      return intermediateResult2;
+    }
+    if (intermediateResult2.getCount() == 0L) {
+      return intermediateResult1;
+    }
+    intermediateResult1.merge(intermediateResult2);
+    return intermediateResult1;
+  }
+
+  @Override
+  public boolean isIntermediateResultComparable() {
+    return false;
+  }
+
+  @Override
+  public ColumnDataType getIntermediateResultColumnType() {
+    return ColumnDataType.OBJECT;
+  }
+
+  @Override
+  public ColumnDataType getFinalResultColumnType() {
+    return ColumnDataType.DOUBLE;
+  }
+
+  @Override
+  public Double extractFinalResult(DDSketch intermediateResult) {
+    return intermediateResult.getQuantile(_percentile / 100.0);
+  }
+
+  /**
+   * Returns the DDSketch from the result holder or creates a new one with default relative accuracy if it does not
+   * exist.
+   *
+   * @param aggregationResultHolder Result holder
+   * @return DDSketch from the result holder
+   */
+  protected static DDSketch getDefaultDDSketch(AggregationResultHolder aggregationResultHolder) {
+    DDSketch ddSketch = aggregationResultHolder.getResult();
+    if (ddSketch == null) {
+      ddSketch = new DDSketch();
+      aggregationResultHolder.setValue(ddSketch);
+    }
+    return ddSketch;
+  }
+
+  /**
+   * Returns the DDSketch for the given group key if exists, or creates a new one with default relative accuracy.
+   *
+   * @param groupByResultHolder Result holder
+   * @param groupKey Group key for which to return the DDSketch
+   * @return DDSketch for the group key
+   */
+  protected static DDSketch getDefaultDDSketch(GroupByResultHolder groupByResultHolder, int groupKey) {
+    DDSketch ddSketch = groupByResultHolder.getResult(groupKey);
+    if (ddSketch == null) {
+      ddSketch = new DDSketch();
+      groupByResultHolder.setValueForKey(groupKey, ddSketch);
+    }
+    return ddSketch;
+  }
+}
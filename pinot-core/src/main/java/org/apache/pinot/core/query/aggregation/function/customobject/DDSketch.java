@@ -0,0 +1,341 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.aggregation.function.customobject;
+
+import com.google.common.base.Preconditions;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import javax.annotation.Nonnull;
+
+
+/**
+ * The {@code DDSketch} class is a quantile sketch with relative-error guarantee (see "DDSketch: A Fast and
+ * Fully-Mergeable Quantile Sketch with Relative-Error Guarantees", VLDB 2019).
+ * <p>Values are mapped into logarithmically sized buckets with index {@code ceil(log(|value|) / log(gamma))}, where
+ * {@code gamma = (1 + alpha) / (1 - alpha)}, so that any quantile is returned with a relative error of at most
+ * {@code alpha}. Buckets are stored as dense counters, so that adding a value is O(1), and merging two sketches is a
+ * bucket-wise addition. The number of buckets is bounded by collapsing the lowest buckets (the values closest to 0)
+ * when exceeding the max number of buckets.
+ */
+public class DDSketch implements Comparable<DDSketch> {
+  public static final double DEFAULT_RELATIVE_ACCURACY = 0.01;
+  public static final int DEFAULT_MAX_NUM_BUCKETS = 2048;
+
+  private final double _relativeAccuracy;
+  private final int _maxNumBuckets;
+  private final double _gamma;
+  private final double _logGamma;
+  private final double _minIndexableValue;
+  // Store for positive values, and for the absolute value of the negative values
+  private final Store _positiveStore;
+  private final Store _negativeStore;
+
+  private long _zeroCount;
+  private double _min = Double.POSITIVE_INFINITY;
+  private double _max = Double.NEGATIVE_INFINITY;
+
+  public DDSketch() {
+    this(DEFAULT_RELATIVE_ACCURACY, DEFAULT_MAX_NUM_BUCKETS);
+  }
+
+  public DDSketch(double relativeAccuracy, int maxNumBuckets) {
+    Preconditions.checkArgument(relativeAccuracy > 0 && relativeAccuracy < 1,
+        "Relative accuracy must be between 0 and 1, got: %s", relativeAccuracy);
+    Preconditions.checkArgument(maxNumBuckets > 0, "Max number of buckets must be positive, got: %s", maxNumBuckets);
+    _relativeAccuracy = relativeAccuracy;
+    _maxNumBuckets = maxNumBuckets;
+    _gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+    _logGamma = Math.log(_gamma);
+    _minIndexableValue = Double.MIN_NORMAL * _gamma;
+    _positiveStore = new Store(maxNumBuckets);
+    _negativeStore = new Store(maxNumBuckets);
+  }
+
+  public void add(double value) {
+    if (value > _minIndexableValue) {
+      _positiveStore.add(index(value), 1L);
+    } else if (value < -_minIndexableValue) {
+      _negativeStore.add(index(-value), 1L);
+    } else if (!Double.isNaN(value)) {
+      _zeroCount++;
+    } else {
+      return;
+    }
+    if (value < _min) {
+      _min = value;
+    }
+    if (value > _max) {
+      _max = value;
+    }
+  }
+
+  /**
+   * Merges another sketch into this one. Both sketches must have the same relative accuracy.
+   */
+  public void merge(@Nonnull DDSketch other) {
+    Preconditions.checkArgument(_relativeAccuracy == other._relativeAccuracy,
+        "Cannot merge DDSketches with different relative accuracy: %s and %s", _relativeAccuracy,
+        other._relativeAccuracy);
+    if (other.getCount() == 0L) {
+      return;
+    }
+    _positiveStore.merge(other._positiveStore);
+    _negativeStore.merge(other._negativeStore);
+    _zeroCount += other._zeroCount;
+    _min = Math.min(_min, other._min);
+    _max = Math.max(_max, other._max);
+  }
+
+  public long getCount() {
+    return _zeroCount + _positiveStore._totalCount + _negativeStore._totalCount;
+  }
+
+  public double getRelativeAccuracy() {
+    return _relativeAccuracy;
+  }
+
+  /**
+   * Returns the value at the given quantile (between 0 and 1), or {@link Double#NEGATIVE_INFINITY} if the sketch is
+   * empty (same as the exact percentile on an empty list).
+   */
+  public double getQuantile(double quantile) {
+    long count = getCount();
+    if (count == 0L) {
+      return Double.NEGATIVE_INFINITY;
+    }
+    if (quantile <= 0) {
+      return _min;
+    }
+    if (quantile >= 1) {
+      return _max;
+    }
+
+    long rank = (long) (quantile * (count - 1));
+    double value;
+    if (rank < _negativeStore._totalCount) {
+      // Negative values are stored by absolute value, so iterate from the highest index
+      value = -value(_negativeStore.getIndexDescending(rank));
+    } else if (rank < _negativeStore._totalCount + _zeroCount) {
+      value = 0;
+    } else {
+      value = value(_positiveStore.getIndexAscending(rank - _negativeStore._totalCount - _zeroCount));
+    }
+    // The min and max values are exact, use them to bound the result
+    return Math.max(_min, Math.min(_max, value));
+  }
+
+  public int getSerializedSizeInBytes() {
+    return Double.BYTES + Integer.BYTES + Long.BYTES + 2 * Double.BYTES + _positiveStore.getSerializedSizeInBytes()
+        + _negativeStore.getSerializedSizeInBytes();
+  }
+
+  @Nonnull
+  public byte[] toBytes() {
+    byte[] bytes = new byte[getSerializedSizeInBytes()];
+    ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
+    byteBuffer.putDouble(_relativeAccuracy);
+    byteBuffer.putInt(_maxNumBuckets);
+    byteBuffer.putLong(_zeroCount);
+    byteBuffer.putDouble(_min);
+    byteBuffer.putDouble(_max);
+    _positiveStore.serialize(byteBuffer);
+    _negativeStore.serialize(byteBuffer);
+    return bytes;
+  }
+
+  @Nonnull
+  public static DDSketch fromBytes(byte[] bytes) {
+    return fromByteBuffer(ByteBuffer.wrap(bytes));
+  }
+
+  @Nonnull
+  public static DDSketch fromByteBuffer(ByteBuffer byteBuffer) {
+    DDSketch ddSketch = new DDSketch(byteBuffer.getDouble(), byteBuffer.getInt());
+    ddSketch._zeroCount = byteBuffer.getLong();
+    ddSketch._min = byteBuffer.getDouble();
+    ddSketch._max = byteBuffer.getDouble();
+    ddSketch._positiveStore.deserialize(byteBuffer);
+    ddSketch._negativeStore.deserialize(byteBuffer);
+    return ddSketch;
+  }
+
+  @Override
+  public int compareTo(@Nonnull DDSketch other) {
+    return Double.compare(getQuantile(0.5), other.getQuantile(0.5));
+  }
+
+  private int index(double value) {
+    return (int) Math.ceil(Math.log(value) / _logGamma);
+  }
+
+  /**
+   * Returns the representative value of the bucket, which is within the relative accuracy of all the values in the
+   * bucket {@code (gamma^(index - 1), gamma^index]}.
+   */
+  private double value(int index) {
+    return 2 * Math.pow(_gamma, index) / (_gamma + 1);
+  }
+
+  /**
+   * Dense bucket counters for a contiguous range of indices, collapsing the lowest indices when the range exceeds the
+   * max number of buckets.
+   */
+  private static class Store {
+    final int _maxNumBuckets;
+    long[] _counts;
+    // Index of _counts[0]
+    int _offset;
+    int _minIndex = Integer.MAX_VALUE;
+    int _maxIndex = Integer.MIN_VALUE;
+    long _totalCount;
+
+    Store(int maxNumBuckets) {
+      _maxNumBuckets = maxNumBuckets;
+    }
+
+    void add(int index, long count) {
+      if (_totalCount == 0L) {
+        if (_counts == null) {
+          _counts = new long[Math.min(64, _maxNumBuckets)];
+        }
+        _offset = index - (_counts.length >>> 1);
+        _minIndex = index;
+        _maxIndex = index;
+      } else if (index < _minIndex || index > _maxIndex) {
+        index = extendRange(index);
+      }
+      _counts[index - _offset] += count;
+      _totalCount += count;
+    }
+
+    /**
+     * Extends the range to cover the given index, returns the index to put the value (which can be changed because of
+     * collapsing).
+     */
+    int extendRange(int index) {
+      int newMinIndex = Math.min(index, _minIndex);
+      int newMaxIndex = Math.max(index, _maxIndex);
+      long collapsedCount = 0L;
+      if ((long) newMaxIndex - newMinIndex + 1 > _maxNumBuckets) {
+        // Collapse the lowest buckets into the lowest remaining bucket
+        newMinIndex = newMaxIndex - _maxNumBuckets + 1;
+        int endIndex = Math.min(newMinIndex - 1, _maxIndex);
+        for (int i = _minIndex; i <= endIndex; i++) {
+          collapsedCount += _counts[i - _offset];
+          _counts[i - _offset] = 0L;
+        }
+        index = Math.max(index, newMinIndex);
+      }
+      if (newMinIndex < _offset || newMaxIndex >= _offset + _counts.length) {
+        resize(newMinIndex, newMaxIndex);
+      }
+      _minIndex = newMinIndex;
+      _maxIndex = newMaxIndex;
+      _counts[newMinIndex - _offset] += collapsedCount;
+      return index;
+    }
+
+    void resize(int newMinIndex, int newMaxIndex) {
+      int rangeLength = newMaxIndex - newMinIndex + 1;
+      int newLength = _counts.length;
+      while (newLength < rangeLength) {
+        newLength <<= 1;
+      }
+      long[] newCounts = new long[newLength];
+      // Center the range in the new array to leave room for both directions
+      int newOffset = newMinIndex - ((newLength - rangeLength) >>> 1);
+      int startIndex = Math.max(_minIndex, newMinIndex);
+      int endIndex = Math.min(_maxIndex, newMaxIndex);
+      for (int i = startIndex; i <= endIndex; i++) {
+        newCounts[i - newOffset] = _counts[i - _offset];
+      }
+      _counts = newCounts;
+      _offset = newOffset;
+    }
+
+    void merge(Store other) {
+      if (other._totalCount == 0L) {
+        return;
+      }
+      for (int i = other._maxIndex; i >= other._minIndex; i--) {
+        long count = other._counts[i - other._offset];
+        if (count != 0L) {
+          add(i, count);
+        }
+      }
+    }
+
+    int getIndexAscending(long rank) {
+      long cumulativeCount = 0L;
+      for (int i = _minIndex; i <= _maxIndex; i++) {
+        cumulativeCount += _counts[i - _offset];
+        if (cumulativeCount > rank) {
+          return i;
+        }
+      }
+      return _maxIndex;
+    }
+
+    int getIndexDescending(long rank) {
+      long cumulativeCount = 0L;
+      for (int i = _maxIndex; i >= _minIndex; i--) {
+        cumulativeCount += _counts[i - _offset];
+        if (cumulativeCount > rank) {
+          return i;
+        }
+      }
+      return _minIndex;
+    }
+
+    int getSerializedSizeInBytes() {
+      if (_totalCount == 0L) {
+        return Integer.BYTES;
+      }
+      return 2 * Integer.BYTES + (_maxIndex - _minIndex + 1) * Long.BYTES;
+    }
+
+    void serialize(ByteBuffer byteBuffer) {
+      if (_totalCount == 0L) {
+        byteBuffer.putInt(0);
+        return;
+      }
+      byteBuffer.putInt(_maxIndex - _minIndex + 1);
+      byteBuffer.putInt(_minIndex);
+      for (int i = _minIndex; i <= _maxIndex; i++) {
+        byteBuffer.putLong(_counts[i - _offset]);
+      }
+    }
+
+    void deserialize(ByteBuffer byteBuffer) {
+      int numBuckets = byteBuffer.getInt();
+      if (numBuckets == 0) {
+        return;
+      }
+      _minIndex = byteBuffer.getInt();
+      _maxIndex = _minIndex + numBuckets - 1;
+      _offset = _minIndex;
+      _counts = new long[numBuckets];
+      for (int i = 0; i < numBuckets; i++) {
+        long count = byteBuffer.getLong();
+        _counts[i] = count;
+        _totalCount += count;
+      }
+    }
+  }
+}
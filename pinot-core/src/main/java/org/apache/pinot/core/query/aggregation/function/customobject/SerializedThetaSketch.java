@@ -0,0 +1,46 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.aggregation.function.customobject;
+
+import javax.annotation.Nonnull;
+import org.apache.datasketches.theta.Sketch;
+import org.apache.pinot.common.utils.BytesUtils;
+
+
+public class SerializedThetaSketch implements Comparable<SerializedThetaSketch> {
+  private final Sketch _thetaSketch;
+
+  public static SerializedThetaSketch of(@Nonnull Sketch thetaSketch) {
+    return new SerializedThetaSketch(thetaSketch);
+  }
+
+  private SerializedThetaSketch(Sketch thetaSketch) {
+    _thetaSketch = thetaSketch;
+  }
+
+  @Override
+  public int compareTo(@Nonnull SerializedThetaSketch other) {
+    return Double.compare(_thetaSketch.getEstimate(), other._thetaSketch.getEstimate());
+  }
+
+  @Override
+  public String toString() {
+    return BytesUtils.toHexString(_thetaSketch.compact().toByteArray());
+  }
+}
@@ -30,6 +30,7 @@ import org.apache.pinot.core.operator.transform.TransformResultMetadata;
 import org.apache.pinot.core.plan.DocIdSetPlanNode;
 import org.apache.pinot.core.query.aggregation.AggregationFunctionContext;
 import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
+import org.apache.pinot.core.query.request.context.QueryMemoryTracker;
 
 
 /**
@@ -57,6 +58,10 @@ public class DefaultGroupByExecutor implements GroupByExecutor {
   protected final boolean _hasNoDictionaryGroupByExpression;
   protected final int[] _svGroupKeys;
   protected final int[][] _mvGroupKeys;
+  // Memory tracker of the query, null if the memory is not tracked
+  protected final QueryMemoryTracker _memoryTracker;
+
+  private long _groupKeyGeneratorSizeInBytes;
 
   /**
    * Constructor for the class.
@@ -126,6 +131,11 @@ public class DefaultGroupByExecutor implements GroupByExecutor {
       _svGroupKeys = THREAD_LOCAL_SV_GROUP_KEYS.get();
       _mvGroupKeys = null;
     }
+
+    _memoryTracker = QueryMemoryTracker.get();
+    if (_memoryTracker != null) {
+      trackGroupKeyGeneratorSize();
+    }
   }
 
   @Override
@@ -145,6 +155,26 @@ public class DefaultGroupByExecutor implements GroupByExecutor {
       resultHolder.ensureCapacity(capacityNeeded);
       aggregate(transformBlock, length, i);
     }
+
+    if (_memoryTracker != null) {
+      trackGroupKeyGeneratorSize();
+      for (GroupByResultHolder resultHolder : _resultHolders) {
+        if (_hasMVGroupByExpression) {
+          resultHolder.trackResultSizes(_mvGroupKeys, length);
+        } else {
+          resultHolder.trackResultSizes(_svGroupKeys, length);
+        }
+      }
+    }
+  }
+
+  /**
+   * Tracks the growth of the group key generator since the last call.
+   */
+  private void trackGroupKeyGeneratorSize() {
+    long sizeInBytes = _groupKeyGenerator.getEstimatedSizeInBytes();
+    _memoryTracker.allocateBytes(sizeInBytes - _groupKeyGeneratorSizeInBytes);
+    _groupKeyGeneratorSizeInBytes = sizeInBytes;
   }
 
   protected void aggregate(@Nonnull TransformBlock transformBlock, int length, int functionIndex) {
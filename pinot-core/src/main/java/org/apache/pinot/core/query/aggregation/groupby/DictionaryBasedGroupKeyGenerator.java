@@ -32,6 +32,7 @@ import org.apache.pinot.common.request.transform.TransformExpressionTree;
 import org.apache.pinot.core.common.BlockValSet;
 import org.apache.pinot.core.operator.blocks.TransformBlock;
 import org.apache.pinot.core.operator.transform.TransformOperator;
+import org.apache.pinot.core.query.request.context.QueryMemoryTracker;
 import org.apache.pinot.core.segment.index.readers.Dictionary;
 
 
@@ -161,6 +162,11 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
     return _rawKeyHolder.getGroupIdUpperBound();
   }
 
+  @Override
+  public long getEstimatedSizeInBytes() {
+    return _rawKeyHolder.getEstimatedSizeInBytes();
+  }
+
   @Override
   public Iterator<GroupKey> getUniqueGroupKeys() {
     return _rawKeyHolder.iterator();
@@ -190,6 +196,13 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
      * @return Upper bound of group id inside the holder
      */
     int getGroupIdUpperBound();
+
+    /**
+     * Get the estimated heap size of the holder.
+     *
+     * @return Estimated size in bytes
+     */
+    long getEstimatedSizeInBytes();
   }
 
   private class ArrayBasedHolder implements RawKeyHolder {
@@ -224,6 +237,11 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
       return _globalGroupIdUpperBound;
     }
 
+    @Override
+    public long getEstimatedSizeInBytes() {
+      return QueryMemoryTracker.OBJECT_HEADER_SIZE + _flags.length;
+    }
+
     @Nonnull
     @Override
     public Iterator<GroupKey> iterator() {
@@ -306,6 +324,11 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
       return _numGroups;
     }
 
+    @Override
+    public long getEstimatedSizeInBytes() {
+      return QueryMemoryTracker.estimateOpenHashTableSizeInBytes(_numGroups, Integer.BYTES + Integer.BYTES);
+    }
+
     @Nonnull
     @Override
     public Iterator<GroupKey> iterator() {
@@ -485,6 +508,11 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
       return _numGroups;
     }
 
+    @Override
+    public long getEstimatedSizeInBytes() {
+      return QueryMemoryTracker.estimateOpenHashTableSizeInBytes(_numGroups, Long.BYTES + Integer.BYTES);
+    }
+
     @Nonnull
     @Override
     public Iterator<GroupKey> iterator() {
@@ -655,6 +683,16 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
       return _numGroups;
     }
 
+    @Override
+    public long getEstimatedSizeInBytes() {
+      // Each key is an IntArray object wrapping an int array
+      long keySize = 2 * QueryMemoryTracker.OBJECT_HEADER_SIZE + QueryMemoryTracker.REFERENCE_SIZE
+          + (long) _numGroupByExpressions * Integer.BYTES;
+      return QueryMemoryTracker
+          .estimateOpenHashTableSizeInBytes(_numGroups, QueryMemoryTracker.REFERENCE_SIZE + Integer.BYTES)
+          + _numGroups * keySize;
+    }
+
     @Nonnull
     @Override
     public Iterator<GroupKey> iterator() {
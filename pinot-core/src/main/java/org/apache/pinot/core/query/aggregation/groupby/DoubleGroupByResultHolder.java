@@ -20,6 +20,7 @@ package org.apache.pinot.core.query.aggregation.groupby;
 
 import com.google.common.base.Preconditions;
 import java.util.Arrays;
+import org.apache.pinot.core.query.request.context.QueryMemoryTracker;
 
 
 /**
@@ -44,6 +45,7 @@ public class DoubleGroupByResultHolder implements GroupByResultHolder {
     _defaultValue = defaultValue;
 
     _resultHolderCapacity = initialCapacity;
+    QueryMemoryTracker.allocate((long) initialCapacity * Double.BYTES);
     _resultArray = new double[initialCapacity];
     if (defaultValue != 0.0) {
       Arrays.fill(_resultArray, defaultValue);
@@ -60,6 +62,7 @@ public class DoubleGroupByResultHolder implements GroupByResultHolder {
 
       // Cap the growth to maximum possible number of group keys
       _resultHolderCapacity = Math.min(_resultHolderCapacity, _maxCapacity);
+      QueryMemoryTracker.allocate((long) (_resultHolderCapacity - copyLength) * Double.BYTES);
 
       double[] current = _resultArray;
       _resultArray = new double[_resultHolderCapacity];
@@ -67,4 +67,24 @@ public interface GroupByResultHolder {
    * @param capacity
    */
   void ensureCapacity(int capacity);
+
+  /**
+   * Tracks the memory of the results for the given single-valued group keys, which might have grown in place (e.g.
+   * sets) after aggregating a block. No-op for result holders of fixed size values.
+   *
+   * @param groupKeys Group keys of the block
+   * @param length Number of documents in the block
+   */
+  default void trackResultSizes(int[] groupKeys, int length) {
+  }
+
+  /**
+   * Tracks the memory of the results for the given multi-valued group keys, which might have grown in place (e.g.
+   * sets) after aggregating a block. No-op for result holders of fixed size values.
+   *
+   * @param groupKeys Group keys of the block
+   * @param length Number of documents in the block
+   */
+  default void trackResultSizes(int[][] groupKeys, int length) {
+  }
 }
@@ -66,6 +66,14 @@ public interface GroupKeyGenerator {
    */
   int getCurrentGroupKeyUpperBound();
 
+  /**
+   * Returns the estimated heap memory in bytes used to map the group keys generated so far to group ids, which is used
+   * to track the memory of the query.
+   *
+   * @return estimated size in bytes of the group key mapping.
+   */
+  long getEstimatedSizeInBytes();
+
   /**
    * Returns an iterator of group keys. Use this interface to iterate through all the group keys.
    *
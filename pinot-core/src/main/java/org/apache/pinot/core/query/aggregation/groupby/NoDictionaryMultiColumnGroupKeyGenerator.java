@@ -30,6 +30,7 @@ import org.apache.pinot.core.operator.transform.TransformOperator;
 import org.apache.pinot.core.operator.transform.TransformResultMetadata;
 import org.apache.pinot.core.query.aggregation.groupby.utils.ValueToIdMap;
 import org.apache.pinot.core.query.aggregation.groupby.utils.ValueToIdMapFactory;
+import org.apache.pinot.core.query.request.context.QueryMemoryTracker;
 import org.apache.pinot.core.segment.index.readers.Dictionary;
 import org.apache.pinot.core.util.FixedIntArray;
 
@@ -44,6 +45,9 @@ import org.apache.pinot.core.util.FixedIntArray;
  * 2. Add support for trimming group-by results.
  */
 public class NoDictionaryMultiColumnGroupKeyGenerator implements GroupKeyGenerator {
+  // Estimated size of a value in the on-the-fly dictionary, including the hash map entry and the list entry
+  private static final int ON_THE_FLY_DICTIONARY_ENTRY_SIZE = 24;
+
   private final TransformExpressionTree[] _groupByExpressions;
   private final int _numGroupByExpressions;
   private final FieldSpec.DataType[] _dataTypes;
@@ -145,6 +149,23 @@ public class NoDictionaryMultiColumnGroupKeyGenerator implements GroupKeyGenerat
     return _groupKeyMap.size();
   }
 
+  @Override
+  public long getEstimatedSizeInBytes() {
+    // Each key is a FixedIntArray object wrapping an int array
+    long keySize = 2 * QueryMemoryTracker.OBJECT_HEADER_SIZE + QueryMemoryTracker.REFERENCE_SIZE
+        + (long) _numGroupByExpressions * Integer.BYTES;
+    // The number of groups is an upper bound of the number of values in each on-the-fly dictionary
+    int numOnTheFlyDictionaries = 0;
+    for (ValueToIdMap onTheFlyDictionary : _onTheFlyDictionaries) {
+      if (onTheFlyDictionary != null) {
+        numOnTheFlyDictionaries++;
+      }
+    }
+    return QueryMemoryTracker
+        .estimateOpenHashTableSizeInBytes(_numGroups, QueryMemoryTracker.REFERENCE_SIZE + Integer.BYTES)
+        + _numGroups * (keySize + numOnTheFlyDictionaries * ON_THE_FLY_DICTIONARY_ENTRY_SIZE);
+  }
+
   @Override
   public Iterator<GroupKey> getUniqueGroupKeys() {
     return new GroupKeyIterator(_groupKeyMap);
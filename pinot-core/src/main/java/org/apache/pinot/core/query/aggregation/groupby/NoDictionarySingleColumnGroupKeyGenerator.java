@@ -36,6 +36,7 @@ import org.apache.pinot.common.request.transform.TransformExpressionTree;
 import org.apache.pinot.core.common.BlockValSet;
 import org.apache.pinot.core.operator.blocks.TransformBlock;
 import org.apache.pinot.core.operator.transform.TransformOperator;
+import org.apache.pinot.core.query.request.context.QueryMemoryTracker;
 
 
 /**
@@ -44,6 +45,9 @@ import org.apache.pinot.core.operator.transform.TransformOperator;
  *
  */
 public class NoDictionarySingleColumnGroupKeyGenerator implements GroupKeyGenerator {
+  // Estimated size of a string key with short content, including the char array
+  private static final int STRING_KEY_SIZE = 64;
+
   private final TransformExpressionTree _groupByExpression;
   private final FieldSpec.DataType _dataType;
   private final Map _groupKeyMap;
@@ -162,6 +166,23 @@ public class NoDictionarySingleColumnGroupKeyGenerator implements GroupKeyGenera
     return _groupKeyMap.size();
   }
 
+  @Override
+  public long getEstimatedSizeInBytes() {
+    int numGroups = _groupKeyMap.size();
+    switch (_dataType) {
+      case INT:
+      case FLOAT:
+        return QueryMemoryTracker.estimateOpenHashTableSizeInBytes(numGroups, Integer.BYTES + Integer.BYTES);
+      case LONG:
+      case DOUBLE:
+        return QueryMemoryTracker.estimateOpenHashTableSizeInBytes(numGroups, Long.BYTES + Integer.BYTES);
+      default:
+        return QueryMemoryTracker
+            .estimateOpenHashTableSizeInBytes(numGroups, QueryMemoryTracker.REFERENCE_SIZE + Integer.BYTES)
+            + (long) numGroups * STRING_KEY_SIZE;
+    }
+  }
+
   @Override
   public Iterator<GroupKey> getUniqueGroupKeys() {
     return new GroupKeyIterator(_groupKeyMap);
@@ -18,17 +18,44 @@
  */
 package org.apache.pinot.core.query.aggregation.groupby;
 
+import com.clearspring.analytics.stream.cardinality.HyperLogLog;
 import com.google.common.base.Preconditions;
+import com.tdunning.math.stats.TDigest;
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import javax.annotation.Nullable;
+import org.apache.datasketches.theta.Intersection;
+import org.apache.datasketches.theta.SetOperation;
+import org.apache.datasketches.theta.Sketch;
+import org.apache.datasketches.theta.Union;
+import org.apache.pinot.core.query.aggregation.function.DistinctCountAggregationFunction;
+import org.apache.pinot.core.query.aggregation.function.DistinctCountThetaSketchAggregationFunction;
+import org.apache.pinot.core.query.aggregation.function.customobject.DDSketch;
+import org.apache.pinot.core.query.aggregation.function.customobject.QuantileDigest;
+import org.apache.pinot.core.query.request.context.QueryMemoryTracker;
 
 
 /**
  * Result Holder implemented using ObjectArray.
+ * <p>When a memory tracker is registered to the thread creating the result holder, the estimated size of each result
+ * object is tracked, including the growth of the objects updated in place (e.g. sets) through
+ * {@link #trackResultSizes(int[], int)}.
  */
 public class ObjectGroupByResultHolder implements GroupByResultHolder {
+  // Theta sketch unions and intersections do not expose their current size, use the maximum size for the nominal
+  // entries instead
+  private static final long THETA_SKETCH_UNION_SIZE =
+      SetOperation.getMaxUnionBytes(DistinctCountThetaSketchAggregationFunction.DEFAULT_NOMINAL_ENTRIES);
+  private static final long THETA_SKETCH_INTERSECTION_SIZE =
+      SetOperation.getMaxIntersectionBytes(DistinctCountThetaSketchAggregationFunction.DEFAULT_NOMINAL_ENTRIES);
+
   private final int _maxCapacity;
+  private final QueryMemoryTracker _memoryTracker;
 
   private int _resultHolderCapacity;
   private Object[] _resultArray;
+  // Tracked size of each result, only maintained when there is a memory tracker
+  private long[] _resultSizes;
 
   /**
    * Constructor for the class.
@@ -38,8 +65,13 @@ public class ObjectGroupByResultHolder implements GroupByResultHolder {
    */
   public ObjectGroupByResultHolder(int initialCapacity, int maxCapacity) {
     _maxCapacity = maxCapacity;
+    _memoryTracker = QueryMemoryTracker.get();
 
     _resultHolderCapacity = initialCapacity;
+    if (_memoryTracker != null) {
+      _memoryTracker.allocateBytes((long) initialCapacity * (QueryMemoryTracker.REFERENCE_SIZE + Long.BYTES));
+      _resultSizes = new long[initialCapacity];
+    }
     _resultArray = new Object[initialCapacity];
   }
 
@@ -53,6 +85,13 @@ public class ObjectGroupByResultHolder implements GroupByResultHolder {
 
       // Cap the growth to maximum possible number of group keys
       _resultHolderCapacity = Math.min(_resultHolderCapacity, _maxCapacity);
+      if (_memoryTracker != null) {
+        _memoryTracker.allocateBytes(
+            (long) (_resultHolderCapacity - copyLength) * (QueryMemoryTracker.REFERENCE_SIZE + Long.BYTES));
+        long[] currentSizes = _resultSizes;
+        _resultSizes = new long[_resultHolderCapacity];
+        System.arraycopy(currentSizes, 0, _resultSizes, 0, copyLength);
+      }
 
       Object[] current = _resultArray;
       _resultArray = new Object[_resultHolderCapacity];
@@ -85,6 +124,95 @@ public class ObjectGroupByResultHolder implements GroupByResultHolder {
   public void setValueForKey(int groupKey, Object newValue) {
     if (groupKey != GroupKeyGenerator.INVALID_ID) {
       _resultArray[groupKey] = newValue;
+      if (_memoryTracker != null) {
+        _memoryTracker.allocateBytes(updateResultSize(groupKey));
+      }
+    }
+  }
+
+  @Override
+  public void trackResultSizes(int[] groupKeys, int length) {
+    if (_memoryTracker != null) {
+      long bytes = 0L;
+      for (int i = 0; i < length; i++) {
+        int groupKey = groupKeys[i];
+        if (groupKey != GroupKeyGenerator.INVALID_ID) {
+          bytes += updateResultSize(groupKey);
+        }
+      }
+      _memoryTracker.allocateBytes(bytes);
+    }
+  }
+
+  @Override
+  public void trackResultSizes(int[][] groupKeys, int length) {
+    if (_memoryTracker != null) {
+      long bytes = 0L;
+      for (int i = 0; i < length; i++) {
+        for (int groupKey : groupKeys[i]) {
+          if (groupKey != GroupKeyGenerator.INVALID_ID) {
+            bytes += updateResultSize(groupKey);
+          }
+        }
+      }
+      _memoryTracker.allocateBytes(bytes);
+    }
+  }
+
+  /**
+   * Re-estimates the size of the result for the given group key, and returns the growth since the last estimate.
+   */
+  private long updateResultSize(int groupKey) {
+    long size = estimateSizeInBytes(_resultArray[groupKey]);
+    long growth = size - _resultSizes[groupKey];
+    _resultSizes[groupKey] = size;
+    return growth;
+  }
+
+  /**
+   * Returns the estimated heap size in bytes of the given intermediate result. Sets, bitmaps and lists are estimated
+   * from their current size, sketches from their current or preallocated size.
+   */
+  static long estimateSizeInBytes(@Nullable Object value) {
+    if (value == null) {
+      return 0L;
+    }
+    if (value instanceof IntOpenHashSet) {
+      return QueryMemoryTracker.OBJECT_HEADER_SIZE + QueryMemoryTracker
+          .estimateOpenHashTableSizeInBytes(((IntOpenHashSet) value).size(), Integer.BYTES);
+    }
+    if (value instanceof DistinctCountAggregationFunction.DictIdsWrapper) {
+      return QueryMemoryTracker.OBJECT_HEADER_SIZE + ((DistinctCountAggregationFunction.DictIdsWrapper) value)
+          .getSizeInBytes();
+    }
+    if (value instanceof DoubleArrayList) {
+      return 2 * QueryMemoryTracker.OBJECT_HEADER_SIZE
+          + (long) ((DoubleArrayList) value).elements().length * Double.BYTES;
+    }
+    if (value instanceof HyperLogLog) {
+      return QueryMemoryTracker.OBJECT_HEADER_SIZE + ((HyperLogLog) value).sizeof();
+    }
+    if (value instanceof TDigest) {
+      // Merging digest preallocates 2 arrays for the centroids and 10 for the buffer, each sized 2 * compression + 10
+      long arraySize = 2 * (long) Math.ceil(((TDigest) value).compression()) + 10;
+      return QueryMemoryTracker.OBJECT_HEADER_SIZE + 12 * arraySize * Double.BYTES;
+    }
+    if (value instanceof QuantileDigest) {
+      return QueryMemoryTracker.OBJECT_HEADER_SIZE + ((QuantileDigest) value).getByteSize();
+    }
+    if (value instanceof DDSketch) {
+      return QueryMemoryTracker.OBJECT_HEADER_SIZE + ((DDSketch) value).getSerializedSizeInBytes();
+    }
+    if (value instanceof Union) {
+      return THETA_SKETCH_UNION_SIZE;
+    }
+    if (value instanceof Intersection) {
+      return THETA_SKETCH_INTERSECTION_SIZE;
+    }
+    if (value instanceof Sketch) {
+      return QueryMemoryTracker.OBJECT_HEADER_SIZE + ((Sketch) value).getCurrentBytes(true);
     }
+    // Small fixed size objects (e.g. AvgPair, MinMaxRangePair)
+    return QueryMemoryTracker.BOXED_VALUE_SIZE;
   }
 }
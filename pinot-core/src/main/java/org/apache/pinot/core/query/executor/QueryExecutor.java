@@ -18,7 +18,9 @@
  */
 package org.apache.pinot.core.query.executor;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.commons.configuration.Configuration;
 import org.apache.commons.configuration.ConfigurationException;
@@ -55,6 +57,33 @@ public interface QueryExecutor {
    */
   DataTable processQuery(ServerQueryRequest queryRequest, ExecutorService executorService);
 
+  /**
+   * Processes the query with the given executor service asynchronously, and returns a future of the result without
+   * waiting for the query execution.
+   * <p>By default the query is processed synchronously on the calling thread.
+   */
+  default CompletableFuture<DataTable> processQueryAsync(ServerQueryRequest queryRequest,
+      ExecutorService executorService) {
+    return CompletableFuture.completedFuture(processQuery(queryRequest, executorService));
+  }
+
+  /**
+   * Returns whether the query is executed asynchronously by {@link #processQueryAsync(ServerQueryRequest,
+   * ExecutorService)}, i.e. whether the calling thread is released before the query execution finishes.
+   * <p>By default the queries are processed synchronously.
+   */
+  default boolean supportsAsyncExecution(ServerQueryRequest queryRequest) {
+    return false;
+  }
+
+  /**
+   * Returns the instance data manager hosting the segments queried by this executor, or {@code null} if not available.
+   */
+  @Nullable
+  default InstanceDataManager getInstanceDataManager() {
+    return null;
+  }
+
   /**
    * Sets the timeout for the given table, instead of using the global timeout.
    */
@@ -22,6 +22,8 @@ import com.google.common.base.Preconditions;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import javax.annotation.concurrent.ThreadSafe;
@@ -42,6 +44,7 @@ import org.apache.pinot.core.data.manager.SegmentDataManager;
 import org.apache.pinot.core.data.manager.TableDataManager;
 import org.apache.pinot.core.indexsegment.IndexSegment;
 import org.apache.pinot.core.indexsegment.mutable.MutableSegment;
+import org.apache.pinot.core.plan.CombinePlanNode;
 import org.apache.pinot.core.plan.Plan;
 import org.apache.pinot.core.plan.maker.InstancePlanMakerImplV2;
 import org.apache.pinot.core.plan.maker.PlanMaker;
@@ -97,6 +100,34 @@ public class ServerQueryExecutorV1Impl implements QueryExecutor {
 
   @Override
   public DataTable processQuery(ServerQueryRequest queryRequest, ExecutorService executorService) {
+    return processQuery(queryRequest, executorService, false).join();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The segments are acquired and the query plan is built on the calling thread, then the query plan is executed
+   * asynchronously and the segments are released by the thread completing the query. Queries with trace enabled are
+   * executed synchronously because the trace context is bound to the calling thread.
+   */
+  @Override
+  public CompletableFuture<DataTable> processQueryAsync(ServerQueryRequest queryRequest,
+      ExecutorService executorService) {
+    return processQuery(queryRequest, executorService, true);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Queries with trace enabled and aggregation group-by queries are executed synchronously.
+   */
+  @Override
+  public boolean supportsAsyncExecution(ServerQueryRequest queryRequest) {
+    return !queryRequest.isEnableTrace() && CombinePlanNode.supportsAsyncExecution(queryRequest.getBrokerRequest());
+  }
+
+  private CompletableFuture<DataTable> processQuery(ServerQueryRequest queryRequest, ExecutorService executorService,
+      boolean async) {
     TimerContext timerContext = queryRequest.getTimerContext();
     TimerContext.Timer schedulerWaitTimer = timerContext.getPhaseTimer(ServerQueryPhase.SCHEDULER_WAIT);
     if (schedulerWaitTimer != null) {
@@ -121,7 +152,7 @@ public class ServerQueryExecutorV1Impl implements QueryExecutor {
       DataTable dataTable = new DataTableImplV2();
       dataTable.addException(QueryException.getException(QueryException.QUERY_SCHEDULING_TIMEOUT_ERROR, errorMessage));
       LOGGER.error("{} while processing requestId: {}", errorMessage, requestId);
-      return dataTable;
+      return CompletableFuture.completedFuture(dataTable);
     }
 
     TableDataManager tableDataManager = _instanceDataManager.getTableDataManager(tableNameWithType);
@@ -180,7 +211,9 @@ public class ServerQueryExecutorV1Impl implements QueryExecutor {
               minConsumingFreshnessTimeMs);
     }
 
-    DataTable dataTable = null;
+    int finalNumConsumingSegmentsProcessed = numConsumingSegmentsProcessed;
+    long finalMinConsumingFreshnessTimeMs = minConsumingFreshnessTimeMs;
+    CompletableFuture<DataTable> dataTableFuture;
     try {
       TimerContext.Timer segmentPruneTimer = timerContext.startNewPhaseTimer(ServerQueryPhase.SEGMENT_PRUNING);
       long totalRawDocs = pruneSegments(tableDataManager, segmentDataManagers, queryRequest);
@@ -188,7 +221,7 @@ public class ServerQueryExecutorV1Impl implements QueryExecutor {
       int numSegmentsMatchedAfterPruning = segmentDataManagers.size();
       LOGGER.debug("Matched {} segments after pruning", numSegmentsMatchedAfterPruning);
       if (numSegmentsMatchedAfterPruning == 0) {
-        dataTable = DataTableBuilder.buildEmptyDataTable(brokerRequest);
+        DataTable dataTable = DataTableBuilder.buildEmptyDataTable(brokerRequest);
         Map<String, String> metadata = dataTable.getMetadata();
         metadata.put(DataTable.TOTAL_DOCS_METADATA_KEY, String.valueOf(totalRawDocs));
         metadata.put(DataTable.NUM_DOCS_SCANNED_METADATA_KEY, "0");
@@ -196,6 +229,7 @@ public class ServerQueryExecutorV1Impl implements QueryExecutor {
         metadata.put(DataTable.NUM_ENTRIES_SCANNED_POST_FILTER_METADATA_KEY, "0");
         metadata.put(DataTable.NUM_SEGMENTS_PROCESSED, "0");
         metadata.put(DataTable.NUM_SEGMENTS_MATCHED, "0");
+        dataTableFuture = CompletableFuture.completedFuture(dataTable);
       } else {
         TimerContext.Timer planBuildTimer = timerContext.startNewPhaseTimer(ServerQueryPhase.BUILD_QUERY_PLAN);
         Plan globalQueryPlan =
@@ -210,13 +244,28 @@ public class ServerQueryExecutorV1Impl implements QueryExecutor {
         }
 
         TimerContext.Timer planExecTimer = timerContext.startNewPhaseTimer(ServerQueryPhase.QUERY_PLAN_EXECUTION);
-        dataTable = globalQueryPlan.execute();
-        planExecTimer.stopAndRecord();
-
-        // Update the total docs in the metadata based on un-pruned segments.
-        dataTable.getMetadata().put(DataTable.TOTAL_DOCS_METADATA_KEY, Long.toString(totalRawDocs));
+        if (async && !enableTrace) {
+          dataTableFuture = globalQueryPlan.executeAsync();
+        } else {
+          dataTableFuture = CompletableFuture.completedFuture(globalQueryPlan.execute());
+        }
+        dataTableFuture = dataTableFuture.thenApply(dataTable -> {
+          planExecTimer.stopAndRecord();
+          // Update the total docs in the metadata based on un-pruned segments.
+          dataTable.getMetadata().put(DataTable.TOTAL_DOCS_METADATA_KEY, Long.toString(totalRawDocs));
+          return dataTable;
+        });
       }
-    } catch (Exception e) {
+    } catch (Throwable t) {
+      dataTableFuture = new CompletableFuture<>();
+      dataTableFuture.completeExceptionally(t);
+    }
+
+    // NOTE: For synchronous execution, the following stages are executed on the calling thread because the future is
+    //       already completed.
+    return dataTableFuture.exceptionally(t -> {
+      Throwable cause = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+      Exception e = cause instanceof Exception ? (Exception) cause : new RuntimeException(cause);
       _serverMetrics.addMeteredQueryValue(brokerRequest, ServerMeter.QUERY_EXECUTION_EXCEPTIONS, 1);
 
       // Do not log error for BadQueryRequestException because it's caused by bad query
@@ -226,35 +275,34 @@ public class ServerQueryExecutorV1Impl implements QueryExecutor {
         LOGGER.error("Exception processing requestId {}", requestId, e);
       }
 
-      dataTable = new DataTableImplV2();
+      DataTable dataTable = new DataTableImplV2();
       dataTable.addException(QueryException.getException(QueryException.QUERY_EXECUTION_ERROR, e));
-    } finally {
+      return dataTable;
+    }).thenApply(dataTable -> {
       for (SegmentDataManager segmentDataManager : segmentDataManagers) {
         tableDataManager.releaseSegment(segmentDataManager);
       }
       if (enableTrace) {
-        if (dataTable != null) {
-          dataTable.getMetadata().put(DataTable.TRACE_INFO_METADATA_KEY, TraceContext.getTraceInfo());
-        }
+        dataTable.getMetadata().put(DataTable.TRACE_INFO_METADATA_KEY, TraceContext.getTraceInfo());
         TraceContext.unregister();
       }
-    }
 
-    queryProcessingTimer.stopAndRecord();
-    long queryProcessingTime = queryProcessingTimer.getDurationMs();
-    dataTable.getMetadata().put(DataTable.NUM_SEGMENTS_QUERIED, Integer.toString(numSegmentsQueried));
-    dataTable.getMetadata().put(DataTable.TIME_USED_MS_METADATA_KEY, Long.toString(queryProcessingTime));
+      queryProcessingTimer.stopAndRecord();
+      long queryProcessingTime = queryProcessingTimer.getDurationMs();
+      dataTable.getMetadata().put(DataTable.NUM_SEGMENTS_QUERIED, Integer.toString(numSegmentsQueried));
+      dataTable.getMetadata().put(DataTable.TIME_USED_MS_METADATA_KEY, Long.toString(queryProcessingTime));
 
-    if (numConsumingSegmentsProcessed > 0) {
-      dataTable.getMetadata()
-          .put(DataTable.NUM_CONSUMING_SEGMENTS_PROCESSED, Integer.toString(numConsumingSegmentsProcessed));
-      dataTable.getMetadata()
-          .put(DataTable.MIN_CONSUMING_FRESHNESS_TIME_MS, Long.toString(minConsumingFreshnessTimeMs));
-    }
+      if (finalNumConsumingSegmentsProcessed > 0) {
+        dataTable.getMetadata()
+            .put(DataTable.NUM_CONSUMING_SEGMENTS_PROCESSED, Integer.toString(finalNumConsumingSegmentsProcessed));
+        dataTable.getMetadata()
+            .put(DataTable.MIN_CONSUMING_FRESHNESS_TIME_MS, Long.toString(finalMinConsumingFreshnessTimeMs));
+      }
 
-    LOGGER.debug("Query processing time for request Id - {}: {}", requestId, queryProcessingTime);
-    LOGGER.debug("InstanceResponse for request Id - {}: {}", requestId, dataTable);
-    return dataTable;
+      LOGGER.debug("Query processing time for request Id - {}: {}", requestId, queryProcessingTime);
+      LOGGER.debug("InstanceResponse for request Id - {}: {}", requestId, dataTable);
+      return dataTable;
+    });
   }
 
   /**
@@ -284,6 +332,11 @@ public class ServerQueryExecutorV1Impl implements QueryExecutor {
     return totalRawDocs;
   }
 
+  @Override
+  public InstanceDataManager getInstanceDataManager() {
+    return _instanceDataManager;
+  }
+
   @Override
   public void setTableTimeoutMs(String tableNameWithType, long timeOutMs) {
     _tableTimeoutMs.put(tableNameWithType, timeOutMs);
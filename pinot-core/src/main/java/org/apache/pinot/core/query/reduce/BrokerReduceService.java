@@ -19,6 +19,7 @@
 package org.apache.pinot.core.query.reduce;
 
 import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -30,8 +31,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.pinot.common.config.TableNameBuilder;
@@ -60,6 +66,7 @@ import org.apache.pinot.common.utils.DataTable;
 import org.apache.pinot.core.data.table.ConcurrentIndexedTable;
 import org.apache.pinot.core.data.table.IndexedTable;
 import org.apache.pinot.core.data.table.Record;
+import org.apache.pinot.core.data.table.SimpleIndexedTable;
 import org.apache.pinot.core.query.aggregation.DistinctTable;
 import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
 import org.apache.pinot.core.query.aggregation.function.AggregationFunctionUtils;
@@ -81,6 +88,43 @@ import org.slf4j.LoggerFactory;
 public class BrokerReduceService {
   private static final Logger LOGGER = LoggerFactory.getLogger(BrokerReduceService.class);
 
+  // Maximum number of data tables pre-merged together by the intermediate tier of the tree reduce
+  private final int _reduceFanIn;
+  // Executor for the intermediate tier of the tree reduce, null if tree reduce is disabled
+  private final ExecutorService _reduceExecutorService;
+
+  public BrokerReduceService() {
+    this(0, 0);
+  }
+
+  /**
+   * Constructor for the broker reduce service with tree reduce.
+   * <p>When there are more than {@code reduceFanIn} data tables to reduce, they are split into groups of at most
+   * {@code reduceFanIn} data tables, each group gets pre-merged in parallel (intermediate tier), and the final merge
+   * only needs to merge the pre-merged results. Tree reduce is disabled if {@code reduceFanIn} is less than 2.
+   *
+   * @param reduceFanIn Maximum number of data tables pre-merged together
+   * @param numReduceThreads Number of threads for the intermediate tier
+   */
+  public BrokerReduceService(int reduceFanIn, int numReduceThreads) {
+    if (reduceFanIn > 1) {
+      Preconditions.checkArgument(numReduceThreads > 0, "Number of reduce threads must be positive");
+      _reduceFanIn = reduceFanIn;
+      _reduceExecutorService = Executors.newFixedThreadPool(numReduceThreads,
+          new ThreadFactoryBuilder().setDaemon(true).setNameFormat("broker-reduce-%d").build());
+      LOGGER.info("Enabled tree reduce with fan-in: {}, number of threads: {}", reduceFanIn, numReduceThreads);
+    } else {
+      _reduceFanIn = 0;
+      _reduceExecutorService = null;
+    }
+  }
+
+  public void shutDown() {
+    if (_reduceExecutorService != null) {
+      _reduceExecutorService.shutdownNow();
+    }
+  }
+
   public BrokerResponseNative reduceOnDataTable(BrokerRequest brokerRequest,
       Map<ServerRoutingInstance, DataTable> dataTableMap, @Nullable BrokerMetrics brokerMetrics) {
     if (dataTableMap.size() == 0) {
@@ -96,6 +140,7 @@ public class BrokerReduceService {
     long numSegmentsQueried = 0L;
     long numSegmentsProcessed = 0L;
     long numSegmentsMatched = 0L;
+    long numSegmentsSkipped = 0L;
     long numConsumingSegmentsProcessed = 0L;
     long minConsumingFreshnessTimeMs = Long.MAX_VALUE;
     long numTotalRawDocs = 0L;
@@ -150,6 +195,10 @@ public class BrokerReduceService {
       if (numSegmentsMatchedString != null) {
         numSegmentsMatched += Long.parseLong(numSegmentsMatchedString);
       }
+      String numSegmentsSkippedString = metadata.get(DataTable.NUM_SEGMENTS_SKIPPED);
+      if (numSegmentsSkippedString != null) {
+        numSegmentsSkipped += Long.parseLong(numSegmentsSkippedString);
+      }
 
       String numConsumingString = metadata.get(DataTable.NUM_CONSUMING_SEGMENTS_PROCESSED);
       if (numConsumingString != null) {
@@ -192,6 +241,7 @@ public class BrokerReduceService {
     brokerResponseNative.setNumSegmentsQueried(numSegmentsQueried);
     brokerResponseNative.setNumSegmentsProcessed(numSegmentsProcessed);
     brokerResponseNative.setNumSegmentsMatched(numSegmentsMatched);
+    brokerResponseNative.setNumSegmentsSkipped(numSegmentsSkipped);
     brokerResponseNative.setTotalDocs(numTotalRawDocs);
     brokerResponseNative.setNumGroupsLimitReached(numGroupsLimitReached);
     if (numConsumingSegmentsProcessed > 0) {
@@ -355,9 +405,9 @@ public class BrokerReduceService {
       // Selection only
       List<String> selectionColumns =
           SelectionOperatorUtils.getSelectionColumns(selection.getSelectionColumns(), dataSchema);
-      brokerResponseNative.setSelectionResults(SelectionOperatorUtils.renderSelectionResultsWithoutOrdering(
-          SelectionOperatorUtils.reduceWithoutOrdering(dataTables, selectionSize), dataSchema, selectionColumns,
-          preserveType));
+      brokerResponseNative.setSelectionResults(SelectionOperatorUtils
+          .reduceToSelectionResultsWithoutOrdering(dataTables, selectionSize, dataSchema, selectionColumns,
+              preserveType));
     }
   }
 
@@ -384,29 +434,17 @@ public class BrokerReduceService {
       // handle all other aggregation functions
       int numAggregationFunctions = aggregationFunctions.length;
       // Merge results from all data tables.
-      Object[] intermediateResults = new Object[numAggregationFunctions];
-      for (DataTable dataTable : dataTables) {
-        for (int i = 0; i < numAggregationFunctions; i++) {
-          Object intermediateResultToMerge;
-          ColumnDataType columnDataType = dataSchema.getColumnDataType(i);
-          switch (columnDataType) {
-            case LONG:
-              intermediateResultToMerge = dataTable.getLong(0, i);
-              break;
-            case DOUBLE:
-              intermediateResultToMerge = dataTable.getDouble(0, i);
-              break;
-            case OBJECT:
-              intermediateResultToMerge = dataTable.getObject(0, i);
-              break;
-            default:
-              throw new IllegalStateException("Illegal column data type in aggregation results: " + columnDataType);
-          }
-          Object mergedIntermediateResult = intermediateResults[i];
-          if (mergedIntermediateResult == null) {
-            intermediateResults[i] = intermediateResultToMerge;
-          } else {
-            intermediateResults[i] = aggregationFunctions[i].merge(mergedIntermediateResult, intermediateResultToMerge);
+      Object[] intermediateResults;
+      List<Object[]> preMergedIntermediateResults =
+          preMerge(dataTables, group -> mergeAggregationResults(aggregationFunctions, group, dataSchema));
+      if (preMergedIntermediateResults == null) {
+        intermediateResults = mergeAggregationResults(aggregationFunctions, dataTables, dataSchema);
+      } else {
+        intermediateResults = new Object[numAggregationFunctions];
+        for (Object[] intermediateResultsToMerge : preMergedIntermediateResults) {
+          for (int i = 0; i < numAggregationFunctions; i++) {
+            intermediateResults[i] =
+                mergeIntermediateResult(aggregationFunctions[i], intermediateResults[i], intermediateResultsToMerge[i]);
           }
         }
       }
@@ -427,6 +465,47 @@ public class BrokerReduceService {
     }
   }
 
+  /**
+   * Merge the aggregation results from the given data tables into an array of intermediate results.
+   */
+  private static Object[] mergeAggregationResults(AggregationFunction[] aggregationFunctions,
+      Collection<DataTable> dataTables, DataSchema dataSchema) {
+    int numAggregationFunctions = aggregationFunctions.length;
+    Object[] intermediateResults = new Object[numAggregationFunctions];
+    for (DataTable dataTable : dataTables) {
+      for (int i = 0; i < numAggregationFunctions; i++) {
+        Object intermediateResultToMerge;
+        ColumnDataType columnDataType = dataSchema.getColumnDataType(i);
+        switch (columnDataType) {
+          case LONG:
+            intermediateResultToMerge = dataTable.getLong(0, i);
+            break;
+          case DOUBLE:
+            intermediateResultToMerge = dataTable.getDouble(0, i);
+            break;
+          case OBJECT:
+            intermediateResultToMerge = dataTable.getObject(0, i);
+            break;
+          default:
+            throw new IllegalStateException("Illegal column data type in aggregation results: " + columnDataType);
+        }
+        intermediateResults[i] =
+            mergeIntermediateResult(aggregationFunctions[i], intermediateResults[i], intermediateResultToMerge);
+      }
+    }
+    return intermediateResults;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Object mergeIntermediateResult(AggregationFunction aggregationFunction,
+      @Nullable Object mergedIntermediateResult, Object intermediateResultToMerge) {
+    if (mergedIntermediateResult == null) {
+      return intermediateResultToMerge;
+    } else {
+      return aggregationFunction.merge(mergedIntermediateResult, intermediateResultToMerge);
+    }
+  }
+
   private void setDistinctQueryResults(BrokerRequest brokerRequest, BrokerResponseNative brokerResponseNative,
       Collection<DataTable> dataTables, DataSchema dataSchema, AggregationFunction aggregationFunction) {
     // DISTINCT is implemented as an aggregation function in the execution engine. Just like
@@ -537,10 +616,35 @@ public class BrokerReduceService {
   private IndexedTable getIndexedTable(GroupBy groupBy, List<AggregationInfo> aggregationInfos,
       List<SelectionSort> orderBy, DataSchema dataSchema, Collection<DataTable> dataTables) {
 
-    int numColumns = dataSchema.size();
     int indexedTableCapacity = GroupByUtils.getTableCapacity(groupBy, orderBy);
     IndexedTable indexedTable = new ConcurrentIndexedTable(dataSchema, aggregationInfos, orderBy, indexedTableCapacity);
 
+    // NOTE: Do not trim the pre-merged tables (no order by and unbounded capacity), so that the final table sees the
+    //       same groups as when merging the data tables directly and applies the trimming only once
+    List<IndexedTable> preMergedIndexedTables = preMerge(dataTables, group -> {
+      IndexedTable groupIndexedTable =
+          new SimpleIndexedTable(dataSchema, aggregationInfos, null, Integer.MAX_VALUE);
+      upsertDataTables(groupIndexedTable, dataSchema, group);
+      groupIndexedTable.finish(false);
+      return groupIndexedTable;
+    });
+    if (preMergedIndexedTables == null) {
+      upsertDataTables(indexedTable, dataSchema, dataTables);
+    } else {
+      for (IndexedTable preMergedIndexedTable : preMergedIndexedTables) {
+        indexedTable.merge(preMergedIndexedTable);
+      }
+    }
+    indexedTable.finish(true);
+    return indexedTable;
+  }
+
+  /**
+   * Upsert the records from the given data tables into the indexed table.
+   */
+  private static void upsertDataTables(IndexedTable indexedTable, DataSchema dataSchema,
+      Collection<DataTable> dataTables) {
+    int numColumns = dataSchema.size();
     for (DataTable dataTable : dataTables) {
       BiFunction[] functions = new BiFunction[numColumns];
       for (int i = 0; i < numColumns; i++) {
@@ -582,8 +686,6 @@ public class BrokerReduceService {
         indexedTable.upsert(record);
       }
     }
-    indexedTable.finish(true);
-    return indexedTable;
   }
 
   /**
@@ -694,26 +796,21 @@ public class BrokerReduceService {
 
     // Merge results from all data tables.
     String[] columnNames = new String[numAggregationFunctions];
-    Map<String, Object>[] intermediateResultMaps = new Map[numAggregationFunctions];
-    for (DataTable dataTable : dataTables) {
-      for (int i = 0; i < numAggregationFunctions; i++) {
-        if (columnNames[i] == null) {
-          columnNames[i] = dataTable.getString(i, 0);
-          intermediateResultMaps[i] = dataTable.getObject(i, 1);
-        } else {
-          Map<String, Object> mergedIntermediateResultMap = intermediateResultMaps[i];
-          Map<String, Object> intermediateResultMapToMerge = dataTable.getObject(i, 1);
-          for (Map.Entry<String, Object> entry : intermediateResultMapToMerge.entrySet()) {
-            String groupKey = entry.getKey();
-            Object intermediateResultToMerge = entry.getValue();
-            if (mergedIntermediateResultMap.containsKey(groupKey)) {
-              Object mergedIntermediateResult = mergedIntermediateResultMap.get(groupKey);
-              mergedIntermediateResultMap
-                  .put(groupKey, aggregationFunctions[i].merge(mergedIntermediateResult, intermediateResultToMerge));
-            } else {
-              mergedIntermediateResultMap.put(groupKey, intermediateResultToMerge);
-            }
-          }
+    DataTable firstDataTable = dataTables.iterator().next();
+    for (int i = 0; i < numAggregationFunctions; i++) {
+      columnNames[i] = firstDataTable.getString(i, 0);
+    }
+    Map<String, Object>[] intermediateResultMaps;
+    List<Map<String, Object>[]> preMergedIntermediateResultMaps =
+        preMerge(dataTables, group -> mergeGroupByResults(aggregationFunctions, group));
+    if (preMergedIntermediateResultMaps == null) {
+      intermediateResultMaps = mergeGroupByResults(aggregationFunctions, dataTables);
+    } else {
+      intermediateResultMaps = new Map[numAggregationFunctions];
+      for (Map<String, Object>[] intermediateResultMapsToMerge : preMergedIntermediateResultMaps) {
+        for (int i = 0; i < numAggregationFunctions; i++) {
+          intermediateResultMaps[i] = mergeIntermediateResultMap(aggregationFunctions[i], intermediateResultMaps[i],
+              intermediateResultMapsToMerge[i]);
         }
       }
     }
@@ -810,4 +907,82 @@ public class BrokerReduceService {
           "There should be minimum one aggregation function in the select list of a Group by query");
     }
   }
+
+  /**
+   * Merge the group-by results from the given data tables into an array of intermediate result maps (one per
+   * aggregation function).
+   */
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object>[] mergeGroupByResults(AggregationFunction[] aggregationFunctions,
+      Collection<DataTable> dataTables) {
+    int numAggregationFunctions = aggregationFunctions.length;
+    Map<String, Object>[] intermediateResultMaps = new Map[numAggregationFunctions];
+    for (DataTable dataTable : dataTables) {
+      for (int i = 0; i < numAggregationFunctions; i++) {
+        intermediateResultMaps[i] =
+            mergeIntermediateResultMap(aggregationFunctions[i], intermediateResultMaps[i], dataTable.getObject(i, 1));
+      }
+    }
+    return intermediateResultMaps;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> mergeIntermediateResultMap(AggregationFunction aggregationFunction,
+      @Nullable Map<String, Object> mergedIntermediateResultMap, Map<String, Object> intermediateResultMapToMerge) {
+    if (mergedIntermediateResultMap == null) {
+      return intermediateResultMapToMerge;
+    }
+    for (Map.Entry<String, Object> entry : intermediateResultMapToMerge.entrySet()) {
+      String groupKey = entry.getKey();
+      Object intermediateResultToMerge = entry.getValue();
+      if (mergedIntermediateResultMap.containsKey(groupKey)) {
+        Object mergedIntermediateResult = mergedIntermediateResultMap.get(groupKey);
+        mergedIntermediateResultMap
+            .put(groupKey, aggregationFunction.merge(mergedIntermediateResult, intermediateResultToMerge));
+      } else {
+        mergedIntermediateResultMap.put(groupKey, intermediateResultToMerge);
+      }
+    }
+    return mergedIntermediateResultMap;
+  }
+
+  /**
+   * Intermediate tier of the tree reduce: split the data tables into groups of at most {@code _reduceFanIn} data
+   * tables, and pre-merge each group in parallel with the given group merger.
+   *
+   * @param dataTables Collection of data tables
+   * @param groupMerger Function to merge a group of data tables into a pre-merged result
+   * @return List of pre-merged results (one per group), or {@code null} if tree reduce is disabled or not needed, in
+   *         which case the data tables should be merged directly
+   */
+  @Nullable
+  private <T> List<T> preMerge(Collection<DataTable> dataTables, Function<List<DataTable>, T> groupMerger) {
+    int numDataTables = dataTables.size();
+    if (_reduceExecutorService == null || numDataTables <= _reduceFanIn) {
+      return null;
+    }
+
+    List<DataTable> dataTableList = new ArrayList<>(dataTables);
+    List<Future<T>> futures = new ArrayList<>((numDataTables + _reduceFanIn - 1) / _reduceFanIn);
+    for (int i = 0; i < numDataTables; i += _reduceFanIn) {
+      List<DataTable> group = dataTableList.subList(i, Math.min(i + _reduceFanIn, numDataTables));
+      futures.add(_reduceExecutorService.submit(() -> groupMerger.apply(group)));
+    }
+    List<T> preMergedResults = new ArrayList<>(futures.size());
+    try {
+      for (Future<T> future : futures) {
+        preMergedResults.add(future.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while pre-merging data tables", e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException("Caught exception while pre-merging data tables", e.getCause());
+    } finally {
+      for (Future<T> future : futures) {
+        future.cancel(true);
+      }
+    }
+    return preMergedResults;
+  }
 }
@@ -72,9 +72,10 @@ public class CombineService {
 
         AggregationFunctionContext[] mergedAggregationFunctionContexts = mergedBlock.getAggregationFunctionContexts();
         if (mergedAggregationFunctionContexts == null) {
-          // No data in merged block.
+          // No data in merged block, take the result from the block to merge (merging it again would double count).
           mergedBlock.setAggregationFunctionContexts(blockToMerge.getAggregationFunctionContexts());
           mergedBlock.setAggregationResults(aggregationResultToMerge);
+          return;
         }
 
         // Merge two block.
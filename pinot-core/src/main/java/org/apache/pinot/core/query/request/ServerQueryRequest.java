@@ -34,6 +34,7 @@ import org.apache.pinot.common.request.transform.TransformExpressionTree;
 import org.apache.pinot.common.utils.request.FilterQueryTree;
 import org.apache.pinot.common.utils.request.RequestUtils;
 import org.apache.pinot.core.query.aggregation.function.AggregationFunctionUtils;
+import org.apache.pinot.core.query.request.context.QueryMemoryTracker;
 import org.apache.pinot.core.query.request.context.TimerContext;
 
 
@@ -67,6 +68,7 @@ public class ServerQueryRequest {
 
   // Query processing context
   private volatile int _segmentCountAfterPruning = -1;
+  private volatile QueryMemoryTracker _parentMemoryTracker;
 
   public ServerQueryRequest(InstanceRequest instanceRequest, ServerMetrics serverMetrics, long queryArrivalTimeMs) {
     _requestId = instanceRequest.getRequestId();
@@ -208,4 +210,16 @@ public class ServerQueryRequest {
   public Set<TransformExpressionTree> getSelectionExpressions() {
     return _selectionExpressions;
   }
+
+  /**
+   * Returns the memory tracker (e.g. of the scheduler group) to which the memory allocated by the query is propagated.
+   */
+  @Nullable
+  public QueryMemoryTracker getParentMemoryTracker() {
+    return _parentMemoryTracker;
+  }
+
+  public void setParentMemoryTracker(@Nullable QueryMemoryTracker parentMemoryTracker) {
+    _parentMemoryTracker = parentMemoryTracker;
+  }
 }
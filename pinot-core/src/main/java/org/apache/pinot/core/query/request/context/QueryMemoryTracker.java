@@ -0,0 +1,195 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.request.context;
+
+import it.unimi.dsi.fastutil.Hash;
+import it.unimi.dsi.fastutil.HashCommon;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+import org.apache.pinot.core.query.exception.QueryMemoryLimitExceededException;
+
+
+/**
+ * The <code>QueryMemoryTracker</code> class tracks the estimated heap memory used by the large data structures of a
+ * query (group-by result holders, indexed tables, selection rows and the serialized data table).
+ * <p>A tracker is registered to the thread executing the query, and propagated to the worker threads through
+ * {@link org.apache.pinot.core.util.trace.TraceRunnable} and {@link org.apache.pinot.core.util.trace.TraceCallable}, so
+ * that the data structures can report their allocations through {@link #allocate(long)} and {@link #release(long)}
+ * without holding a reference to the query. These calls are no-op if no tracker is registered to the thread.
+ * <p>Allocations are also added to the parent tracker (e.g. the tracker of the scheduler group). Once the allocated
+ * memory exceeds the budget, the tracker is marked as exceeded and every following allocation throws
+ * {@link QueryMemoryLimitExceededException}, so that all the threads of the query stop at their next allocation.
+ */
+public class QueryMemoryTracker {
+  // Estimated sizes of the JVM objects
+  public static final int OBJECT_HEADER_SIZE = 16;
+  public static final int REFERENCE_SIZE = 8;
+  // Boxed value (e.g. Double, Long, String with small content) referenced by an object array
+  public static final int BOXED_VALUE_SIZE = 24;
+  // Entry in a hash map, including the entry object and the slot in the table
+  public static final int HASH_MAP_ENTRY_SIZE = 48;
+
+  private static final ThreadLocal<QueryMemoryTracker> THREAD_LOCAL = new ThreadLocal<>();
+
+  private final String _name;
+  private final long _maxBytes;
+  private final QueryMemoryTracker _parent;
+  private final AtomicLong _allocatedBytes = new AtomicLong();
+  private final AtomicLong _peakBytes = new AtomicLong();
+  private volatile boolean _limitExceeded;
+
+  /**
+   * Constructor for the class.
+   *
+   * @param name Name of the tracker, used in the error message
+   * @param maxBytes Memory budget, non-positive value means unlimited
+   * @param parent Parent tracker to propagate the allocations to
+   */
+  public QueryMemoryTracker(String name, long maxBytes, @Nullable QueryMemoryTracker parent) {
+    _name = name;
+    _maxBytes = maxBytes;
+    _parent = parent;
+  }
+
+  /**
+   * Registers the tracker to the current thread.
+   */
+  public static void register(@Nullable QueryMemoryTracker memoryTracker) {
+    THREAD_LOCAL.set(memoryTracker);
+  }
+
+  /**
+   * Unregisters the tracker from the current thread.
+   */
+  public static void unregister() {
+    THREAD_LOCAL.remove();
+  }
+
+  /**
+   * Returns the tracker registered to the current thread, or null if there is none.
+   */
+  @Nullable
+  public static QueryMemoryTracker get() {
+    return THREAD_LOCAL.get();
+  }
+
+  /**
+   * Tracks an allocation on the tracker registered to the current thread.
+   *
+   * @throws QueryMemoryLimitExceededException If the budget of the query is exceeded
+   */
+  public static void allocate(long bytes) {
+    QueryMemoryTracker memoryTracker = THREAD_LOCAL.get();
+    if (memoryTracker != null) {
+      memoryTracker.allocateBytes(bytes);
+    }
+  }
+
+  /**
+   * Tracks a release on the tracker registered to the current thread.
+   */
+  public static void release(long bytes) {
+    QueryMemoryTracker memoryTracker = THREAD_LOCAL.get();
+    if (memoryTracker != null) {
+      memoryTracker.releaseBytes(bytes);
+    }
+  }
+
+  /**
+   * Returns the estimated size of a row stored as an object array of boxed values.
+   */
+  public static long estimateRowSizeInBytes(int numColumns) {
+    return OBJECT_HEADER_SIZE + (long) numColumns * (REFERENCE_SIZE + BOXED_VALUE_SIZE);
+  }
+
+  /**
+   * Returns the estimated size of the table of an open addressing hash map or set (e.g. fastutil), which keeps the
+   * table size a power of 2 within the default load factor.
+   */
+  public static long estimateOpenHashTableSizeInBytes(int numEntries, int entrySizeInBytes) {
+    long tableSize = HashCommon.nextPowerOfTwo((long) Math.ceil(numEntries / Hash.DEFAULT_LOAD_FACTOR));
+    return Math.max(tableSize, 2L) * entrySizeInBytes;
+  }
+
+  /**
+   * Tracks an allocation.
+   *
+   * @throws QueryMemoryLimitExceededException If the budget is exceeded
+   */
+  public void allocateBytes(long bytes) {
+    if (_limitExceeded) {
+      throw new QueryMemoryLimitExceededException(getErrorMessage());
+    }
+    long allocatedBytes = allocateBytesWithoutLimit(bytes);
+    if (_maxBytes > 0 && allocatedBytes > _maxBytes) {
+      _limitExceeded = true;
+      throw new QueryMemoryLimitExceededException(getErrorMessage());
+    }
+  }
+
+  /**
+   * Tracks an allocation without checking the budget, returns the total allocated bytes.
+   */
+  public long allocateBytesWithoutLimit(long bytes) {
+    long allocatedBytes = _allocatedBytes.addAndGet(bytes);
+    _peakBytes.accumulateAndGet(allocatedBytes, Math::max);
+    if (_parent != null) {
+      _parent.allocateBytesWithoutLimit(bytes);
+    }
+    return allocatedBytes;
+  }
+
+  public void releaseBytes(long bytes) {
+    _allocatedBytes.addAndGet(-bytes);
+    if (_parent != null) {
+      _parent.releaseBytes(bytes);
+    }
+  }
+
+  /**
+   * Releases all the memory allocated by this tracker from the parent tracker, should be called once the query is
+   * done.
+   */
+  public void close() {
+    if (_parent != null) {
+      _parent.releaseBytes(_allocatedBytes.getAndSet(0));
+    }
+  }
+
+  public long getAllocatedBytes() {
+    return _allocatedBytes.get();
+  }
+
+  public long getPeakBytes() {
+    return _peakBytes.get();
+  }
+
+  public long getMaxBytes() {
+    return _maxBytes;
+  }
+
+  public boolean isLimitExceeded() {
+    return _limitExceeded;
+  }
+
+  public String getErrorMessage() {
+    return String.format("%s exceeded memory budget of %d bytes (allocated: %d bytes)", _name, _maxBytes,
+        _allocatedBytes.get());
+  }
+}
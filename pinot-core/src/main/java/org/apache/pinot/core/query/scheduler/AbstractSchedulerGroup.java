@@ -22,7 +22,9 @@ import com.google.common.base.Preconditions;
 import java.util.Iterator;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.annotation.Nonnull;
+import org.apache.pinot.core.query.request.context.QueryMemoryTracker;
 
 
 /**
@@ -40,10 +42,17 @@ public abstract class AbstractSchedulerGroup implements SchedulerGroup {
   protected AtomicInteger threadsInUse = new AtomicInteger(0);
   // Total reserved threads for currently running queries for this group
   protected AtomicInteger reservedThreads = new AtomicInteger(0);
+  // Total estimated cost of currently running queries for this group
+  protected AtomicLong runningCost = new AtomicLong(0);
+  // Total CPU time consumed by queries of this group
+  protected AtomicLong cpuTimeNs = new AtomicLong(0);
+  // Tracks memory allocated by currently running queries for this group
+  protected final QueryMemoryTracker memoryTracker;
 
   public AbstractSchedulerGroup(@Nonnull String name) {
     Preconditions.checkNotNull(name);
     this.name = name;
+    this.memoryTracker = new QueryMemoryTracker("SchedulerGroup " + name, 0, null);
   }
 
   @Override
@@ -92,6 +101,26 @@ public abstract class AbstractSchedulerGroup implements SchedulerGroup {
     return numRunning.get();
   }
 
+  @Override
+  public void addRunningCost(long cost) {
+    runningCost.addAndGet(cost);
+  }
+
+  @Override
+  public void releaseRunningCost(long cost) {
+    runningCost.addAndGet(-1 * cost);
+  }
+
+  @Override
+  public long totalRunningCost() {
+    return runningCost.get();
+  }
+
+  @Override
+  public QueryMemoryTracker getMemoryTracker() {
+    return memoryTracker;
+  }
+
   @Override
   public void incrementThreads() {
     threadsInUse.incrementAndGet();
@@ -107,6 +136,16 @@ public abstract class AbstractSchedulerGroup implements SchedulerGroup {
     return threadsInUse.get();
   }
 
+  @Override
+  public void addCpuTimeNs(long cpuTimeNs) {
+    this.cpuTimeNs.addAndGet(cpuTimeNs);
+  }
+
+  @Override
+  public long totalCpuTimeNs() {
+    return cpuTimeNs.get();
+  }
+
   @Override
   public void addReservedThreads(int threads) {
     reservedThreads.addAndGet(threads);
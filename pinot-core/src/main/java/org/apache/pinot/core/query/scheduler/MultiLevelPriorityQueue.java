@@ -45,6 +45,16 @@ import org.slf4j.LoggerFactory;
  * implementation. If two groups have the same priority then the group with lower
  * resource utilization is selected first. Oldest query from the winning SchedulerGroup
  * is selected for execution.
+ *
+ * Optionally, queries are also admitted based on their estimated cost (see {@link QueryCostEstimator}):
+ * <ul>
+ *   <li>Queries with estimated cost above {@link #MAX_QUERY_COST_KEY} are rejected on arrival</li>
+ *   <li>
+ *     Groups whose running queries already use {@link #MAX_RUNNING_COST_PER_GROUP_KEY} are skipped until enough
+ *     queries finish, so that a few expensive queries cannot take all the runners. A group with no running query can
+ *     always schedule its first pending query so that expensive queries are not starved forever.
+ *   </li>
+ * </ul>
  */
 public class MultiLevelPriorityQueue implements SchedulerPriorityQueue {
 
@@ -52,11 +62,16 @@ public class MultiLevelPriorityQueue implements SchedulerPriorityQueue {
   public static final String QUERY_DEADLINE_SECONDS_KEY = "query_deadline_seconds";
   public static final String MAX_PENDING_PER_GROUP_KEY = "max_pending_per_group";
   public static final String QUEUE_WAKEUP_MICROS = "queue_wakeup_micros";
+  public static final String MAX_RUNNING_COST_PER_GROUP_KEY = "max_running_cost_per_group";
+  public static final String MAX_QUERY_COST_KEY = "max_query_cost";
 
   private static final int DEFAULT_WAKEUP_MICROS = 1000;
 
   private static int wakeUpTimeMicros = DEFAULT_WAKEUP_MICROS;
   private final int maxPendingPerGroup;
+  // Cost based admission control, disabled if non-positive
+  private final long maxRunningCostPerGroup;
+  private final long maxQueryCost;
 
   private final Map<String, SchedulerGroup> schedulerGroups = new HashMap<>();
   private final Lock queueLock = new ReentrantLock();
@@ -79,6 +94,8 @@ public class MultiLevelPriorityQueue implements SchedulerPriorityQueue {
     queryDeadlineMillis = config.getInt(QUERY_DEADLINE_SECONDS_KEY, 30) * 1000;
     wakeUpTimeMicros = config.getInt(QUEUE_WAKEUP_MICROS, DEFAULT_WAKEUP_MICROS);
     maxPendingPerGroup = config.getInt(MAX_PENDING_PER_GROUP_KEY, 10);
+    maxRunningCostPerGroup = config.getLong(MAX_RUNNING_COST_PER_GROUP_KEY, 0L);
+    maxQueryCost = config.getLong(MAX_QUERY_COST_KEY, 0L);
     this.config = config;
     this.resourceManager = resourceManager;
     this.groupFactory = groupFactory;
@@ -93,6 +110,7 @@ public class MultiLevelPriorityQueue implements SchedulerPriorityQueue {
     String groupName = groupSelector.getSchedulerGroupName(query);
     try {
       SchedulerGroup groupContext = getOrCreateGroupContext(groupName);
+      checkQueryCost(query);
       checkGroupHasCapacity(groupContext);
       query.setSchedulerGroupContext(groupContext);
       groupContext.addLast(query);
@@ -156,7 +174,7 @@ public class MultiLevelPriorityQueue implements SchedulerPriorityQueue {
         sb.append(group.toString());
       }
       group.trimExpired(deadlineEpochMillis);
-      if (group.isEmpty() || !resourceManager.canSchedule(group)) {
+      if (group.isEmpty() || !resourceManager.canSchedule(group) || !hasCostBudget(group)) {
         continue;
       }
 
@@ -218,6 +236,26 @@ public class MultiLevelPriorityQueue implements SchedulerPriorityQueue {
     }
   }
 
+  private void checkQueryCost(SchedulerQueryContext query)
+      throws OutOfCapacityException {
+    if (maxQueryCost > 0 && query.getEstimatedCost() > maxQueryCost) {
+      throw new OutOfCapacityException(
+          String.format("Query estimated cost: %d exceeds max query cost: %d", query.getEstimatedCost(), maxQueryCost));
+    }
+  }
+
+  /**
+   * Returns whether the first pending query of the group fits in the remaining cost budget of the group. The first
+   * query of a group with no running query is always admitted.
+   */
+  private boolean hasCostBudget(SchedulerGroup group) {
+    if (maxRunningCostPerGroup <= 0) {
+      return true;
+    }
+    long runningCost = group.totalRunningCost();
+    return runningCost == 0 || runningCost + group.peekFirst().getEstimatedCost() <= maxRunningCostPerGroup;
+  }
+
   private SchedulerGroup getOrCreateGroupContext(String groupName) {
     SchedulerGroup groupContext = schedulerGroups.get(groupName);
     if (groupContext == null) {
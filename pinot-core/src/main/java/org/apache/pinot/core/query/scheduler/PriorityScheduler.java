@@ -23,8 +23,14 @@ import com.google.common.base.Preconditions;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListenableFutureTask;
 import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.LongAccumulator;
 import javax.annotation.Nonnull;
 import org.apache.commons.configuration.Configuration;
@@ -36,6 +42,7 @@ import org.apache.pinot.core.query.executor.QueryExecutor;
 import org.apache.pinot.core.query.request.ServerQueryRequest;
 import org.apache.pinot.core.query.scheduler.resources.QueryExecutorService;
 import org.apache.pinot.core.query.scheduler.resources.ResourceManager;
+import org.apache.pinot.core.query.scheduler.resources.TaskCpuTimeTracker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -46,11 +53,33 @@ import org.slf4j.LoggerFactory;
 public abstract class PriorityScheduler extends QueryScheduler {
   private static Logger LOGGER = LoggerFactory.getLogger(PriorityScheduler.class);
 
+  // Execute the queries asynchronously without blocking a runner thread for each running query
+  public static final String ASYNC_EXECUTION_KEY = "async_execution";
+  // Max number of queries running concurrently for asynchronous execution
+  public static final String ASYNC_MAX_RUNNING_QUERIES_KEY = "async_max_running_queries";
+  private static final boolean DEFAULT_ASYNC_EXECUTION = false;
+  private static final int DEFAULT_ASYNC_RUNNING_QUERIES_PER_RUNNER = 4;
+  // Interval to charge the CPU time consumed so far by the running queries, non-positive value to only charge the CPU
+  // time when the tasks complete
+  public static final String CPU_ACCOUNTING_INTERVAL_MS_KEY = "cpu_accounting_interval_ms";
+  private static final long DEFAULT_CPU_ACCOUNTING_INTERVAL_MS = 100L;
+
   protected final SchedulerPriorityQueue queryQueue;
+  protected final QueryCostEstimator costEstimator;
 
   @VisibleForTesting
   protected final Semaphore runningQueriesSemaphore;
-  private final int numRunners;
+  // Max number of queries running concurrently, which equals the number of runner threads for synchronous execution
+  private final int maxRunningQueries;
+  private final boolean asyncExecution;
+  // For asynchronous execution, caps the queries not supporting asynchronous execution to the number of runner threads
+  // because they block a runner thread while executing
+  private final Semaphore blockingQueriesSemaphore;
+  private final long cpuAccountingIntervalMs;
+  // Executors and runner tasks of the running queries, whose CPU time is charged periodically
+  private final Set<QueryExecutorService> runningExecutors = ConcurrentHashMap.newKeySet();
+  private final Set<TaskCpuTimeTracker> runningRunnerTasks = ConcurrentHashMap.newKeySet();
+  private ScheduledExecutorService cpuAccountingExecutor;
   @VisibleForTesting
   Thread scheduler;
 
@@ -60,8 +89,22 @@ public abstract class PriorityScheduler extends QueryScheduler {
     super(config, queryExecutor, resourceManager, metrics, latestQueryTime);
     Preconditions.checkNotNull(queue);
     this.queryQueue = queue;
-    this.numRunners = resourceManager.getNumQueryRunnerThreads();
-    runningQueriesSemaphore = new Semaphore(numRunners);
+    this.costEstimator = new QueryCostEstimator(queryExecutor.getInstanceDataManager());
+    int numRunners = resourceManager.getNumQueryRunnerThreads();
+    this.asyncExecution = config.getBoolean(ASYNC_EXECUTION_KEY, DEFAULT_ASYNC_EXECUTION);
+    if (asyncExecution) {
+      // Runner threads are not blocked by the running queries for asynchronous execution
+      this.maxRunningQueries =
+          config.getInt(ASYNC_MAX_RUNNING_QUERIES_KEY, DEFAULT_ASYNC_RUNNING_QUERIES_PER_RUNNER * numRunners);
+      this.blockingQueriesSemaphore = new Semaphore(numRunners);
+    } else {
+      this.maxRunningQueries = numRunners;
+      this.blockingQueriesSemaphore = null;
+    }
+    runningQueriesSemaphore = new Semaphore(maxRunningQueries);
+    this.cpuAccountingIntervalMs = config.getLong(CPU_ACCOUNTING_INTERVAL_MS_KEY, DEFAULT_CPU_ACCOUNTING_INTERVAL_MS);
+    LOGGER.info("Async execution: {}, max running queries: {}, CPU accounting interval: {}ms", asyncExecution,
+        maxRunningQueries, cpuAccountingIntervalMs);
   }
 
   @Nonnull
@@ -71,7 +114,8 @@ public abstract class PriorityScheduler extends QueryScheduler {
       return immediateErrorResponse(queryRequest, QueryException.SERVER_SCHEDULER_DOWN_ERROR);
     }
     queryRequest.getTimerContext().startNewPhaseTimer(ServerQueryPhase.SCHEDULER_WAIT);
-    final SchedulerQueryContext schedQueryContext = new SchedulerQueryContext(queryRequest);
+    final SchedulerQueryContext schedQueryContext =
+        new SchedulerQueryContext(queryRequest, costEstimator.estimateCost(queryRequest));
     try {
       queryQueue.put(schedQueryContext);
     } catch (OutOfCapacityException e) {
@@ -85,6 +129,15 @@ public abstract class PriorityScheduler extends QueryScheduler {
   @Override
   public void start() {
     super.start();
+    if (cpuAccountingIntervalMs > 0) {
+      cpuAccountingExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cpu-accounting");
+        thread.setDaemon(true);
+        return thread;
+      });
+      cpuAccountingExecutor.scheduleWithFixedDelay(this::chargeRunningCpuTime, cpuAccountingIntervalMs,
+          cpuAccountingIntervalMs, TimeUnit.MILLISECONDS);
+    }
     scheduler = new Thread(new Runnable() {
       @Override
       public void run() {
@@ -104,26 +157,96 @@ public abstract class PriorityScheduler extends QueryScheduler {
             if (request == null) {
               continue;
             }
-            ServerQueryRequest queryRequest = request.getQueryRequest();
+            final ServerQueryRequest queryRequest = request.getQueryRequest();
+            // Only the queries supporting asynchronous execution can exceed the number of runner threads, the other
+            // ones wait for a runner thread to be available
+            final boolean async = asyncExecution && queryExecutor.supportsAsyncExecution(queryRequest);
+            final boolean blocking = asyncExecution && !async;
+            if (blocking) {
+              try {
+                blockingQueriesSemaphore.acquire();
+              } catch (InterruptedException e) {
+                runningQueriesSemaphore.release();
+                request.setResultFuture(
+                    immediateErrorResponse(queryRequest, QueryException.SERVER_SCHEDULER_DOWN_ERROR));
+                if (!isRunning) {
+                  LOGGER.info("Shutting down scheduler");
+                } else {
+                  LOGGER.error("Interrupt while acquiring semaphore. Exiting.", e);
+                }
+                break;
+              }
+            }
             final QueryExecutorService executor =
                 resourceManager.getExecutorService(queryRequest, request.getSchedulerGroup());
-            final ListenableFutureTask<byte[]> queryFutureTask = createQueryFutureTask(queryRequest, executor);
-            queryFutureTask.addListener(new Runnable() {
+            // CPU time of the worker tasks is charged to the group by the executor, and to the table as it is charged
+            executor.setCpuTimeListener(
+                cpuTimeNs -> serverMetrics.addMeteredTableValue(queryRequest.getTableNameWithType(),
+                    ServerMeter.QUERY_CPU_TIME_NS, cpuTimeNs));
+            final ListenableFuture<byte[]> queryFuture;
+            final Runnable queryTask;
+            if (async) {
+              // The runner thread only starts the query execution, and the query future is completed by the thread
+              // finishing the query, so that the runner thread is not blocked while the query is executing
+              final SettableFuture<byte[]> asyncQueryFuture = SettableFuture.create();
+              queryTask = new Runnable() {
+                @Override
+                public void run() {
+                  try {
+                    asyncQueryFuture.setFuture(processQueryAndSerializeAsync(queryRequest, executor));
+                  } catch (Throwable t) {
+                    asyncQueryFuture.setException(t);
+                  }
+                }
+              };
+              queryFuture = asyncQueryFuture;
+            } else {
+              ListenableFutureTask<byte[]> queryFutureTask = createQueryFutureTask(queryRequest, executor);
+              queryTask = queryFutureTask;
+              queryFuture = queryFutureTask;
+            }
+            queryFuture.addListener(new Runnable() {
               @Override
               public void run() {
+                // Worker tasks might still be finishing here, they charge their remaining CPU time when they complete
+                runningExecutors.remove(executor);
                 executor.releaseWorkers();
                 request.getSchedulerGroup().endQuery();
+                request.getSchedulerGroup().releaseRunningCost(request.getEstimatedCost());
+                if (blocking) {
+                  blockingQueriesSemaphore.release();
+                }
                 runningQueriesSemaphore.release();
                 checkStopResourceManager();
-                if (!isRunning && runningQueriesSemaphore.availablePermits() == numRunners) {
+                if (!isRunning && runningQueriesSemaphore.availablePermits() == maxRunningQueries) {
                   resourceManager.stop();
                 }
               }
             }, MoreExecutors.directExecutor());
-            request.setResultFuture(queryFutureTask);
+            request.setResultFuture(queryFuture);
             request.getSchedulerGroup().startQuery();
+            request.getSchedulerGroup().addRunningCost(request.getEstimatedCost());
+            queryRequest.setParentMemoryTracker(request.getSchedulerGroup().getMemoryTracker());
             queryRequest.getTimerContext().getPhaseTimer(ServerQueryPhase.SCHEDULER_WAIT).stopAndRecord();
-            resourceManager.getQueryRunners().submit(queryFutureTask);
+            runningExecutors.add(executor);
+            resourceManager.getQueryRunners().submit(new Runnable() {
+              @Override
+              public void run() {
+                // Charge the CPU time of the runner thread to the group and the table
+                TaskCpuTimeTracker cpuTimeTracker = new TaskCpuTimeTracker(cpuTimeNs -> {
+                  request.getSchedulerGroup().addCpuTimeNs(cpuTimeNs);
+                  serverMetrics.addMeteredTableValue(queryRequest.getTableNameWithType(), ServerMeter.QUERY_CPU_TIME_NS,
+                      cpuTimeNs);
+                });
+                runningRunnerTasks.add(cpuTimeTracker);
+                try {
+                  queryTask.run();
+                } finally {
+                  runningRunnerTasks.remove(cpuTimeTracker);
+                  cpuTimeTracker.finish();
+                }
+              }
+            });
           } catch (Throwable t) {
             LOGGER.error(
                 "Error in scheduler thread. This is indicative of a bug. Please report this. Server will continue with errors",
@@ -150,6 +273,28 @@ public abstract class PriorityScheduler extends QueryScheduler {
     if (scheduler != null) {
       scheduler.interrupt();
     }
+    if (cpuAccountingExecutor != null) {
+      cpuAccountingExecutor.shutdownNow();
+    }
+  }
+
+  /**
+   * Charges the CPU time consumed so far by the running queries, so that the scheduler groups are charged for long
+   * running queries before they complete.
+   */
+  @VisibleForTesting
+  void chargeRunningCpuTime() {
+    try {
+      for (QueryExecutorService executor : runningExecutors) {
+        executor.chargeRunningCpuTime();
+      }
+      for (TaskCpuTimeTracker runnerTask : runningRunnerTasks) {
+        runnerTask.charge();
+      }
+    } catch (Throwable t) {
+      // Do not let the exception cancel the periodic accounting
+      LOGGER.error("Caught exception while charging CPU time of the running queries", t);
+    }
   }
 
   synchronized private void failAllPendingQueries() {
@@ -161,7 +306,7 @@ public abstract class PriorityScheduler extends QueryScheduler {
   }
 
   private void checkStopResourceManager() {
-    if (!isRunning && runningQueriesSemaphore.availablePermits() == numRunners) {
+    if (!isRunning && runningQueriesSemaphore.availablePermits() == maxRunningQueries) {
       resourceManager.stop();
     }
   }
@@ -0,0 +1,218 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.scheduler;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.request.FilterOperator;
+import org.apache.pinot.common.request.Selection;
+import org.apache.pinot.common.utils.request.FilterQueryTree;
+import org.apache.pinot.core.common.DataSource;
+import org.apache.pinot.core.common.DataSourceMetadata;
+import org.apache.pinot.core.data.manager.InstanceDataManager;
+import org.apache.pinot.core.data.manager.SegmentDataManager;
+import org.apache.pinot.core.data.manager.TableDataManager;
+import org.apache.pinot.core.indexsegment.IndexSegment;
+import org.apache.pinot.core.query.request.ServerQueryRequest;
+
+
+/**
+ * Estimates the cost of a query before it is executed, used by the scheduler to admit, queue or reject queries based on
+ * the cost instead of the number of queries.
+ *
+ * The cost is the estimated number of entries the query reads on this server, in the same unit as the execution
+ * statistics: entries scanned by the filter, documents scanned, and entries scanned after the filter. It is computed
+ * per segment from the segment metadata (number of documents, and the cardinality, sorted flag and inverted index of
+ * each filter column), so a point lookup on an indexed column only costs the matching documents while a full-scan
+ * group-by costs every value of every column it reads. Segments not hosted on this server are not counted.
+ */
+public class QueryCostEstimator {
+  private final InstanceDataManager instanceDataManager;
+
+  /**
+   * @param instanceDataManager Instance data manager hosting the segments, or {@code null} to treat every query as free
+   */
+  public QueryCostEstimator(@Nullable InstanceDataManager instanceDataManager) {
+    this.instanceDataManager = instanceDataManager;
+  }
+
+  /**
+   * Returns the estimated cost of the given query, or 0 if none of its segments are hosted on this server.
+   */
+  public long estimateCost(@Nonnull ServerQueryRequest queryRequest) {
+    if (instanceDataManager == null) {
+      return 0L;
+    }
+    TableDataManager tableDataManager = instanceDataManager.getTableDataManager(queryRequest.getTableNameWithType());
+    if (tableDataManager == null) {
+      return 0L;
+    }
+    List<SegmentDataManager> segmentDataManagers = tableDataManager.acquireSegments(queryRequest.getSegmentsToQuery());
+    try {
+      long cost = 0L;
+      for (SegmentDataManager segmentDataManager : segmentDataManagers) {
+        cost += estimateCost(queryRequest, segmentDataManager.getSegment());
+      }
+      return cost;
+    } finally {
+      for (SegmentDataManager segmentDataManager : segmentDataManagers) {
+        tableDataManager.releaseSegment(segmentDataManager);
+      }
+    }
+  }
+
+  /**
+   * Returns the estimated number of entries read when executing the query on the given segment.
+   */
+  static long estimateCost(ServerQueryRequest queryRequest, IndexSegment indexSegment) {
+    int numDocs = indexSegment.getSegmentMetadata().getTotalDocs();
+    FilterEstimate filterEstimate = estimateFilter(queryRequest.getFilterQueryTree(), indexSegment, numDocs);
+
+    // Selection queries without order-by stop once enough documents are collected
+    long numDocsScanned = filterEstimate.numMatchingDocs;
+    BrokerRequest brokerRequest = queryRequest.getBrokerRequest();
+    Selection selection = brokerRequest.getSelections();
+    if (selection != null && !selection.isSetSelectionSortSequence()) {
+      numDocsScanned = Math.min(numDocsScanned, selection.getOffset() + selection.getSize());
+    }
+
+    return filterEstimate.numEntriesScanned + numDocsScanned + numDocsScanned * getNumProjectedColumns(queryRequest,
+        indexSegment);
+  }
+
+  /**
+   * Returns the number of columns read for each document matching the filter.
+   */
+  static int getNumProjectedColumns(ServerQueryRequest queryRequest, IndexSegment indexSegment) {
+    Set<String> columns = new HashSet<>();
+    if (queryRequest.getAggregationColumns() != null) {
+      columns.addAll(queryRequest.getAggregationColumns());
+    }
+    if (queryRequest.getGroupByColumns() != null) {
+      columns.addAll(queryRequest.getGroupByColumns());
+    }
+    if (queryRequest.getSelectionColumns() != null) {
+      columns.addAll(queryRequest.getSelectionColumns());
+      if (queryRequest.getBrokerRequest().getSelections().getSelectionColumns().contains("*")) {
+        columns.addAll(indexSegment.getPhysicalColumnNames());
+      }
+    }
+    return columns.size();
+  }
+
+  /**
+   * Estimates the number of documents matching the filter and the number of entries scanned to evaluate it. Follows
+   * the filter operators chosen by the query planner: inverted (or sorted) indexes are used for all predicates other
+   * than RANGE and REGEXP_LIKE, and scan based predicates under AND only scan the documents matched by the index
+   * based predicates.
+   */
+  static FilterEstimate estimateFilter(@Nullable FilterQueryTree filterQueryTree, IndexSegment indexSegment,
+      int numDocs) {
+    if (filterQueryTree == null) {
+      return new FilterEstimate(numDocs, 0L);
+    }
+    List<FilterQueryTree> children = filterQueryTree.getChildren();
+    FilterOperator filterOperator = filterQueryTree.getOperator();
+    switch (filterOperator) {
+      case AND: {
+        long numMatchingDocs = numDocs;
+        long numIndexMatchingDocs = numDocs;
+        FilterEstimate[] childEstimates = new FilterEstimate[children.size()];
+        for (int i = 0; i < childEstimates.length; i++) {
+          FilterEstimate childEstimate = estimateFilter(children.get(i), indexSegment, numDocs);
+          childEstimates[i] = childEstimate;
+          numMatchingDocs = Math.min(numMatchingDocs, childEstimate.numMatchingDocs);
+          if (childEstimate.numEntriesScanned == 0) {
+            numIndexMatchingDocs = Math.min(numIndexMatchingDocs, childEstimate.numMatchingDocs);
+          }
+        }
+        long numEntriesScanned = 0L;
+        for (FilterEstimate childEstimate : childEstimates) {
+          if (numDocs > 0) {
+            numEntriesScanned += childEstimate.numEntriesScanned * numIndexMatchingDocs / numDocs;
+          }
+        }
+        return new FilterEstimate(numMatchingDocs, numEntriesScanned);
+      }
+      case OR: {
+        long numMatchingDocs = 0L;
+        long numEntriesScanned = 0L;
+        for (FilterQueryTree child : children) {
+          FilterEstimate childEstimate = estimateFilter(child, indexSegment, numDocs);
+          numMatchingDocs += childEstimate.numMatchingDocs;
+          numEntriesScanned += childEstimate.numEntriesScanned;
+        }
+        return new FilterEstimate(Math.min(numMatchingDocs, numDocs), numEntriesScanned);
+      }
+      default:
+        break;
+    }
+
+    // Leaf predicate, estimate the matching documents assuming uniformly distributed values
+    String column = filterQueryTree.getColumn();
+    if (column == null || !indexSegment.getColumnNames().contains(column)) {
+      // Expression or unknown column, which is always scanned
+      return new FilterEstimate(numDocs, numDocs);
+    }
+    DataSource dataSource = indexSegment.getDataSource(column);
+    DataSourceMetadata dataSourceMetadata = dataSource.getDataSourceMetadata();
+    long cardinality = Math.max(1, dataSourceMetadata.getCardinality());
+    long numValues = filterQueryTree.getValue() != null ? filterQueryTree.getValue().size() : 1;
+    long numMatchingDocs;
+    switch (filterOperator) {
+      case EQUALITY:
+        numMatchingDocs = ceilDiv(numDocs, cardinality);
+        break;
+      case IN:
+        numMatchingDocs = Math.min(numDocs, numValues * ceilDiv(numDocs, cardinality));
+        break;
+      case NOT:
+        numMatchingDocs = numDocs - numDocs / cardinality;
+        break;
+      case NOT_IN:
+        numMatchingDocs = Math.max(0, numDocs - numValues * numDocs / cardinality);
+        break;
+      default:
+        // No statistics about the selectivity of RANGE and REGEXP_LIKE, assume all documents match
+        numMatchingDocs = numDocs;
+        break;
+    }
+    boolean indexBased = dataSourceMetadata.hasInvertedIndex() && filterOperator != FilterOperator.RANGE
+        && filterOperator != FilterOperator.REGEXP_LIKE;
+    return new FilterEstimate(numMatchingDocs, indexBased ? 0L : numDocs);
+  }
+
+  private static long ceilDiv(long numerator, long denominator) {
+    return (numerator + denominator - 1) / denominator;
+  }
+
+  static class FilterEstimate {
+    final long numMatchingDocs;
+    final long numEntriesScanned;
+
+    FilterEstimate(long numMatchingDocs, long numEntriesScanned) {
+      this.numMatchingDocs = numMatchingDocs;
+      this.numEntriesScanned = numEntriesScanned;
+    }
+  }
+}
@@ -23,7 +23,10 @@ import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListenableFutureTask;
 import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.util.concurrent.SettableFuture;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -32,6 +35,7 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.apache.commons.configuration.Configuration;
 import org.apache.pinot.common.exception.QueryException;
+import org.apache.pinot.common.metrics.ServerGauge;
 import org.apache.pinot.common.metrics.ServerMeter;
 import org.apache.pinot.common.metrics.ServerMetrics;
 import org.apache.pinot.common.metrics.ServerQueryPhase;
@@ -41,6 +45,7 @@ import org.apache.pinot.common.utils.DataTable;
 import org.apache.pinot.core.common.datatable.DataTableImplV2;
 import org.apache.pinot.core.query.executor.QueryExecutor;
 import org.apache.pinot.core.query.request.ServerQueryRequest;
+import org.apache.pinot.core.query.request.context.QueryMemoryTracker;
 import org.apache.pinot.core.query.request.context.TimerContext;
 import org.apache.pinot.core.query.scheduler.resources.ResourceManager;
 import org.slf4j.Logger;
@@ -59,10 +64,15 @@ public abstract class QueryScheduler {
   private static final String INVALID_FRESHNESS_MS = "-1";
   private static final String QUERY_LOG_MAX_RATE_KEY = "query.log.maxRatePerSecond";
   private static final double DEFAULT_QUERY_LOG_MAX_RATE = 10_000d;
+  // Memory budget for each query, queries allocating more memory will be failed (non-positive value means unlimited,
+  // in which case the memory is not tracked)
+  public static final String QUERY_MAX_MEMORY_BYTES_KEY = "query.maxMemoryBytes";
+  private static final long DEFAULT_QUERY_MAX_MEMORY_BYTES = 0L;
 
   private final RateLimiter queryLogRateLimiter;
   private final RateLimiter numDroppedLogRateLimiter;
   private final AtomicInteger numDroppedLogCounter;
+  private final long queryMaxMemoryBytes;
 
   protected final ServerMetrics serverMetrics;
   protected final QueryExecutor queryExecutor;
@@ -91,8 +101,10 @@ public abstract class QueryScheduler {
     this.queryLogRateLimiter = RateLimiter.create(config.getDouble(QUERY_LOG_MAX_RATE_KEY, DEFAULT_QUERY_LOG_MAX_RATE));
     this.numDroppedLogRateLimiter = RateLimiter.create(1.0d);
     this.numDroppedLogCounter = new AtomicInteger(0);
+    this.queryMaxMemoryBytes = config.getLong(QUERY_MAX_MEMORY_BYTES_KEY, DEFAULT_QUERY_MAX_MEMORY_BYTES);
 
     LOGGER.info("Query log max rate: {}", queryLogRateLimiter.getRate());
+    LOGGER.info("Query max memory bytes: {}", queryMaxMemoryBytes);
   }
 
   /**
@@ -142,30 +154,123 @@ public abstract class QueryScheduler {
    * @param executorService Executor service to use for parallelizing query processing
    * @return serialized query response
    */
-  @SuppressWarnings("Duplicates")
   @Nullable
   protected byte[] processQueryAndSerialize(@Nonnull ServerQueryRequest queryRequest,
       @Nonnull ExecutorService executorService) {
     latestQueryTime.accumulate(System.currentTimeMillis());
+
+    // Track the memory allocated by the query, which is propagated to the worker threads
+    QueryMemoryTracker memoryTracker = createMemoryTracker(queryRequest);
+    QueryMemoryTracker.register(memoryTracker);
     DataTable dataTable;
     try {
       dataTable = queryExecutor.processQuery(queryRequest, executorService);
     } catch (Exception e) {
-      LOGGER.error("Encountered exception while processing requestId {} from broker {}", queryRequest.getRequestId(),
-          queryRequest.getBrokerId(), e);
-      // For not handled exceptions
-      serverMetrics.addMeteredGlobalValue(ServerMeter.UNCAUGHT_EXCEPTIONS, 1);
-      dataTable = new DataTableImplV2();
-      dataTable.addException(QueryException.getException(QueryException.INTERNAL_ERROR, e));
+      dataTable = getUncaughtExceptionDataTable(queryRequest, e);
+    } finally {
+      QueryMemoryTracker.unregister();
+    }
+    return serializeAndLogResponse(queryRequest, dataTable, memoryTracker);
+  }
+
+  /**
+   * Asynchronous version of {@link #processQueryAndSerialize(ServerQueryRequest, ExecutorService)}. The calling thread
+   * only starts the query execution, and the response is serialized by the thread completing the query.
+   * @param queryRequest incoming query request
+   * @param executorService Executor service to use for parallelizing query processing
+   * @return future of the serialized query response
+   */
+  protected ListenableFuture<byte[]> processQueryAndSerializeAsync(@Nonnull ServerQueryRequest queryRequest,
+      @Nonnull ExecutorService executorService) {
+    latestQueryTime.accumulate(System.currentTimeMillis());
+
+    // The memory tracker is propagated to the worker threads when the jobs are submitted
+    QueryMemoryTracker memoryTracker = createMemoryTracker(queryRequest);
+    QueryMemoryTracker.register(memoryTracker);
+    CompletableFuture<DataTable> dataTableFuture;
+    try {
+      dataTableFuture = queryExecutor.processQueryAsync(queryRequest, executorService);
+    } catch (Exception e) {
+      dataTableFuture = CompletableFuture.completedFuture(getUncaughtExceptionDataTable(queryRequest, e));
+    } finally {
+      QueryMemoryTracker.unregister();
     }
+
+    SettableFuture<byte[]> responseFuture = SettableFuture.create();
+    dataTableFuture.whenComplete((dataTable, t) -> {
+      try {
+        if (t != null) {
+          Throwable cause = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+          dataTable = getUncaughtExceptionDataTable(queryRequest,
+              cause instanceof Exception ? (Exception) cause : new RuntimeException(cause));
+        }
+        responseFuture.set(serializeAndLogResponse(queryRequest, dataTable, memoryTracker));
+      } catch (Throwable e) {
+        responseFuture.setException(e);
+      }
+    });
+    return responseFuture;
+  }
+
+  /**
+   * Returns the memory tracker for the query. The memory is always tracked (for the peak memory gauge and the scheduler
+   * group), but the budget is only enforced when {@link #QUERY_MAX_MEMORY_BYTES_KEY} is configured.
+   */
+  private QueryMemoryTracker createMemoryTracker(ServerQueryRequest queryRequest) {
+    return new QueryMemoryTracker("Query " + queryRequest.getRequestId(), queryMaxMemoryBytes,
+        queryRequest.getParentMemoryTracker());
+  }
+
+  private DataTable getUncaughtExceptionDataTable(ServerQueryRequest queryRequest, Exception e) {
+    LOGGER.error("Encountered exception while processing requestId {} from broker {}", queryRequest.getRequestId(),
+        queryRequest.getBrokerId(), e);
+    // For not handled exceptions
+    serverMetrics.addMeteredGlobalValue(ServerMeter.UNCAUGHT_EXCEPTIONS, 1);
+    DataTable dataTable = new DataTableImplV2();
+    dataTable.addException(QueryException.getException(QueryException.INTERNAL_ERROR, e));
+    return dataTable;
+  }
+
+  /**
+   * Serializes the query response, closes the memory tracker of the query and logs the query statistics
+   */
+  @SuppressWarnings("Duplicates")
+  @Nullable
+  private byte[] serializeAndLogResponse(ServerQueryRequest queryRequest, DataTable dataTable,
+      QueryMemoryTracker memoryTracker) {
     long requestId = queryRequest.getRequestId();
-    Map<String, String> dataTableMetadata = dataTable.getMetadata();
-    dataTableMetadata.put(DataTable.REQUEST_ID_METADATA_KEY, Long.toString(requestId));
+    String tableNameWithType = queryRequest.getTableNameWithType();
+    byte[] responseData;
+    try {
+      dataTable.getMetadata().put(DataTable.REQUEST_ID_METADATA_KEY, Long.toString(requestId));
 
-    byte[] responseData = serializeDataTable(queryRequest, dataTable);
+      // Replace the response with a clean error if the query exceeded its memory budget, where the operators might
+      // have been failed with arbitrary exceptions
+      if (memoryTracker.isLimitExceeded()) {
+        LOGGER.error("Query memory limit exceeded for requestId {} from broker {}: {}", requestId,
+            queryRequest.getBrokerId(), memoryTracker.getErrorMessage());
+        serverMetrics.addMeteredTableValue(tableNameWithType, ServerMeter.QUERY_MEMORY_LIMIT_EXCEEDED_EXCEPTIONS, 1);
+        Map<String, String> metadata = dataTable.getMetadata();
+        dataTable = new DataTableImplV2();
+        dataTable.getMetadata().putAll(metadata);
+        dataTable.addException(QueryException
+            .getException(QueryException.QUERY_MEMORY_LIMIT_EXCEEDED_ERROR, memoryTracker.getErrorMessage()));
+      }
+
+      responseData = serializeDataTable(queryRequest, dataTable);
+      // The serialized response is kept in memory until it is sent back to the broker. It is already built at this
+      // point, so it only counts towards the peak memory instead of failing the query.
+      if (responseData != null) {
+        memoryTracker.allocateBytesWithoutLimit(responseData.length);
+      }
+    } finally {
+      memoryTracker.close();
+    }
+    serverMetrics.setValueOfTableGauge(tableNameWithType, ServerGauge.QUERY_PEAK_MEMORY_BYTES,
+        memoryTracker.getPeakBytes());
+    Map<String, String> dataTableMetadata = dataTable.getMetadata();
 
     // Log the statistics
-    String tableNameWithType = queryRequest.getTableNameWithType();
     long numDocsScanned =
         Long.parseLong(dataTableMetadata.getOrDefault(DataTable.NUM_DOCS_SCANNED_METADATA_KEY, INVALID_NUM_SCANNED));
     long numEntriesScannedInFilter = Long.parseLong(
@@ -229,6 +334,10 @@ public abstract class QueryScheduler {
     serverMetrics.addMeteredTableValue(tableNameWithType, ServerMeter.NUM_SEGMENTS_QUERIED, numSegmentsQueried);
     serverMetrics.addMeteredTableValue(tableNameWithType, ServerMeter.NUM_SEGMENTS_PROCESSED, numSegmentsProcessed);
     serverMetrics.addMeteredTableValue(tableNameWithType, ServerMeter.NUM_SEGMENTS_MATCHED, numSegmentsMatched);
+    long numSegmentsSkipped = Long.parseLong(dataTableMetadata.getOrDefault(DataTable.NUM_SEGMENTS_SKIPPED, "0"));
+    if (numSegmentsSkipped > 0) {
+      serverMetrics.addMeteredTableValue(tableNameWithType, ServerMeter.NUM_SEGMENTS_SKIPPED, numSegmentsSkipped);
+    }
 
     return responseData;
   }
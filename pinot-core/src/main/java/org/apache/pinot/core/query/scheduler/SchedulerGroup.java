@@ -18,6 +18,9 @@
  */
 package org.apache.pinot.core.query.scheduler;
 
+import org.apache.pinot.core.query.request.context.QueryMemoryTracker;
+
+
 /**
  * Scheduler group is a sub-queue in multi-level scheduling queues.
  * This class maintains context information for each of the scheduling
@@ -70,4 +73,25 @@ public interface SchedulerGroup extends SchedulerGroupAccountant {
    * Number of running queries
    */
   int numRunning();
+
+  /**
+   * Adds the estimated cost of a query that started running
+   * @see QueryCostEstimator
+   */
+  void addRunningCost(long cost);
+
+  /**
+   * Releases the estimated cost of a query that finished running
+   */
+  void releaseRunningCost(long cost);
+
+  /**
+   * Total estimated cost of the currently running queries for this group
+   */
+  long totalRunningCost();
+
+  /**
+   * Tracks the memory allocated by the running queries for this group
+   */
+  QueryMemoryTracker getMemoryTracker();
 }
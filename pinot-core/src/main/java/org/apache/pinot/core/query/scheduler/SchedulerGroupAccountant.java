@@ -26,7 +26,8 @@ package org.apache.pinot.core.query.scheduler;
  * We mainly account for wall clock time of each thread for a query. This captures
  * CPU and IO cost for each query but also penalizes for GC activity. We do not account
  * for memory utilization yet. Nevertheless, wall clock time is a good approximation for
- * resource utilization in an online system.
+ * resource utilization in an online system. Accountants can also be charged the CPU time
+ * measured for the tasks of a query, which excludes time spent waiting on IO or for a core.
  */
 public interface SchedulerGroupAccountant extends Comparable<SchedulerGroupAccountant> {
   /**
@@ -63,6 +64,18 @@ public interface SchedulerGroupAccountant extends Comparable<SchedulerGroupAccou
    */
   int totalReservedThreads();
 
+  /**
+   * Charge CPU time consumed by a thread working on a query of this group
+   * @param cpuTimeNs CPU time in nanoseconds
+   */
+  void addCpuTimeNs(long cpuTimeNs);
+
+  /**
+   * Total CPU time charged to this group
+   * @return CPU time in nanoseconds
+   */
+  long totalCpuTimeNs();
+
   /**
    * Mark start of a query if the implementor wants to perform additional accounting
    */
@@ -33,13 +33,19 @@ public class SchedulerQueryContext {
 
   private final ServerQueryRequest queryRequest;
   private final SettableFuture<byte[]> resultFuture;
+  private final long estimatedCost;
   private SchedulerGroup schedulerGroup;
 
   public SchedulerQueryContext(@Nonnull ServerQueryRequest queryRequest) {
+    this(queryRequest, 0L);
+  }
+
+  public SchedulerQueryContext(@Nonnull ServerQueryRequest queryRequest, long estimatedCost) {
     Preconditions.checkNotNull(queryRequest);
 
     this.queryRequest = queryRequest;
     this.resultFuture = SettableFuture.create();
+    this.estimatedCost = estimatedCost;
   }
 
   @Nonnull
@@ -65,6 +71,14 @@ public class SchedulerQueryContext {
     return schedulerGroup;
   }
 
+  /**
+   * Estimated cost of the query computed before execution
+   * @see QueryCostEstimator
+   */
+  public long getEstimatedCost() {
+    return estimatedCost;
+  }
+
   /**
    * Convenience method to get query arrival time
    * @return
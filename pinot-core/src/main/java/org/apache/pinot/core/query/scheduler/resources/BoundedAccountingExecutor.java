@@ -19,8 +19,12 @@
 package org.apache.pinot.core.query.scheduler.resources;
 
 import com.google.common.base.Preconditions;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
 import javax.annotation.Nonnull;
 import org.apache.pinot.core.query.scheduler.SchedulerGroupAccountant;
 import org.slf4j.Logger;
@@ -36,6 +40,9 @@ import org.slf4j.LoggerFactory;
  * This class also supports a resource accounting interface to accurately track resources
  * utilization based on submission time and end time of a task. This does not require
  * any changes to client code which continue to use ExecutorService interface.
+ * CPU time consumed by each task is measured with {@link ThreadCpuTimer} and charged to
+ * the accountant incrementally: the CPU time consumed so far by the running tasks is charged
+ * on each {@link #chargeRunningCpuTime()} call, and the remaining CPU time when the task completes.
  */
 public class BoundedAccountingExecutor extends QueryExecutorService {
   private static Logger LOGGER = LoggerFactory.getLogger(BoundedAccountingExecutor.class);
@@ -44,6 +51,12 @@ public class BoundedAccountingExecutor extends QueryExecutorService {
   private final int bounds;
   private Semaphore semaphore;
   private final SchedulerGroupAccountant accountant;
+  // CPU time consumed by all the tasks executed through this executor
+  private final AtomicLong cpuTimeNs = new AtomicLong(0);
+  private final Set<TaskCpuTimeTracker> runningTasks = ConcurrentHashMap.newKeySet();
+  private final LongConsumer cpuTimeConsumer = this::chargeCpuTime;
+  private volatile LongConsumer cpuTimeListener = taskCpuTimeNs -> {
+  };
 
   public BoundedAccountingExecutor(@Nonnull Executor s, int bounds, @Nonnull SchedulerGroupAccountant accountant) {
     Preconditions.checkNotNull(s);
@@ -65,6 +78,35 @@ public class BoundedAccountingExecutor extends QueryExecutorService {
     accountant.releasedReservedThreads(bounds);
   }
 
+  @Override
+  public long getCpuTimeNs() {
+    return cpuTimeNs.get();
+  }
+
+  @Override
+  public int getMaxConcurrency() {
+    return bounds;
+  }
+
+  @Override
+  public void chargeRunningCpuTime() {
+    for (TaskCpuTimeTracker runningTask : runningTasks) {
+      runningTask.charge();
+    }
+  }
+
+  @Override
+  public void setCpuTimeListener(@Nonnull LongConsumer cpuTimeListener) {
+    Preconditions.checkNotNull(cpuTimeListener);
+    this.cpuTimeListener = cpuTimeListener;
+  }
+
+  private void chargeCpuTime(long taskCpuTimeNs) {
+    cpuTimeNs.addAndGet(taskCpuTimeNs);
+    accountant.addCpuTimeNs(taskCpuTimeNs);
+    cpuTimeListener.accept(taskCpuTimeNs);
+  }
+
   private QueryAccountingRunnable toAccountingRunnable(Runnable runnable) {
     acquirePermits(1);
     return new QueryAccountingRunnable(runnable, semaphore, accountant);
@@ -92,12 +134,16 @@ public class BoundedAccountingExecutor extends QueryExecutorService {
 
     @Override
     public void run() {
+      TaskCpuTimeTracker cpuTimeTracker = new TaskCpuTimeTracker(cpuTimeConsumer);
+      runningTasks.add(cpuTimeTracker);
       try {
         if (accountant != null) {
           accountant.incrementThreads();
         }
         runnable.run();
       } finally {
+        runningTasks.remove(cpuTimeTracker);
+        cpuTimeTracker.finish();
         if (accountant != null) {
           accountant.decrementThreads();
         }
@@ -28,6 +28,7 @@ import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.function.LongConsumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -51,6 +52,36 @@ public abstract class QueryExecutorService implements ExecutorService {
 
   }
 
+  /**
+   * Returns the CPU time consumed by the tasks executed by this service, in nanoseconds,
+   * or 0 if this service does not measure CPU time
+   */
+  public long getCpuTimeNs() {
+    return 0L;
+  }
+
+  /**
+   * Charges the CPU time consumed so far by the running tasks, so that long running tasks are accounted for before they
+   * complete. No-op if this service does not measure CPU time.
+   */
+  public void chargeRunningCpuTime() {
+  }
+
+  /**
+   * Sets the listener notified with each CPU time delta (in nanoseconds) charged by this service, both while the tasks
+   * are running and when they complete. No-op if this service does not measure CPU time.
+   */
+  public void setCpuTimeListener(LongConsumer cpuTimeListener) {
+  }
+
+  /**
+   * Returns the maximum number of tasks this service runs concurrently. Submitting more tasks than that might block the
+   * submitting thread until one of the running tasks finishes.
+   */
+  public int getMaxConcurrency() {
+    return Integer.MAX_VALUE;
+  }
+
   @Override
   public <T> Future<T> submit(Runnable task, T result) {
     return submit(Executors.callable(task, result));
@@ -0,0 +1,83 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.scheduler.resources;
+
+import java.util.function.LongConsumer;
+
+
+/**
+ * Tracks the CPU time of a task running on a thread, and charges it to a consumer incrementally.
+ *
+ * The tracker is created on the thread running the task. While the task is running, other threads can charge the CPU
+ * time consumed so far by calling {@link #charge()}, so that long running tasks are accounted for before they finish.
+ * The remaining CPU time is charged once the task calls {@link #finish()}. Each nanosecond is charged exactly once.
+ */
+public class TaskCpuTimeTracker {
+  private final long threadId;
+  private final long startCpuTimeNs;
+  private final LongConsumer consumer;
+  private long chargedCpuTimeNs;
+  private boolean finished;
+
+  /**
+   * Starts tracking the CPU time of the current thread.
+   * @param consumer consumer of the CPU time deltas in nanoseconds
+   */
+  public TaskCpuTimeTracker(LongConsumer consumer) {
+    this.threadId = Thread.currentThread().getId();
+    this.startCpuTimeNs = ThreadCpuTimer.currentThreadCpuTimeNs();
+    this.consumer = consumer;
+  }
+
+  /**
+   * Charges the CPU time consumed by the running task since the last charge. Can be called from any thread, and is
+   * no-op once the task is finished.
+   */
+  public synchronized void charge() {
+    if (!finished) {
+      long threadCpuTimeNs = ThreadCpuTimer.threadCpuTimeNs(threadId);
+      if (threadCpuTimeNs >= 0) {
+        long cpuTimeNs = threadCpuTimeNs - startCpuTimeNs - chargedCpuTimeNs;
+        if (cpuTimeNs > 0) {
+          chargedCpuTimeNs += cpuTimeNs;
+          consumer.accept(cpuTimeNs);
+        }
+      }
+    }
+  }
+
+  /**
+   * Charges the remaining CPU time of the task. Must be called on the thread running the task once it finishes.
+   */
+  public synchronized void finish() {
+    if (!finished) {
+      finished = true;
+      long cpuTimeNs = Math.max(ThreadCpuTimer.currentThreadCpuTimeNs() - startCpuTimeNs - chargedCpuTimeNs, 0L);
+      chargedCpuTimeNs += cpuTimeNs;
+      consumer.accept(cpuTimeNs);
+    }
+  }
+
+  /**
+   * Returns the CPU time charged so far, in nanoseconds.
+   */
+  public synchronized long getChargedCpuTimeNs() {
+    return chargedCpuTimeNs;
+  }
+}
@@ -0,0 +1,83 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.scheduler.resources;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Reads the CPU time consumed by the current thread using {@link ThreadMXBean}.
+ *
+ * Unlike wall clock time, thread CPU time does not include the time a thread spends blocked on IO,
+ * waiting for locks or waiting for a core when the machine is oversubscribed. Scheduler accounting based
+ * on CPU time is therefore not distorted by those waits. If the JVM does not support thread CPU time
+ * measurement, {@link #currentThreadCpuTimeNs()} always returns 0.
+ */
+public class ThreadCpuTimer {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ThreadCpuTimer.class);
+
+  private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+  private static final boolean SUPPORTED = initialize();
+
+  private ThreadCpuTimer() {
+  }
+
+  private static boolean initialize() {
+    try {
+      if (!THREAD_MX_BEAN.isThreadCpuTimeSupported()) {
+        LOGGER.warn("Thread CPU time measurement is not supported by the JVM");
+        return false;
+      }
+      if (!THREAD_MX_BEAN.isThreadCpuTimeEnabled()) {
+        THREAD_MX_BEAN.setThreadCpuTimeEnabled(true);
+      }
+      return true;
+    } catch (Exception e) {
+      LOGGER.warn("Failed to enable thread CPU time measurement", e);
+      return false;
+    }
+  }
+
+  /**
+   * Returns true if thread CPU time can be measured in this JVM
+   */
+  public static boolean isSupported() {
+    return SUPPORTED;
+  }
+
+  /**
+   * Returns the CPU time (user and system) consumed by the current thread in nanoseconds, or 0 if thread CPU
+   * time measurement is not supported. Only the difference between two readings on the same thread is meaningful.
+   */
+  public static long currentThreadCpuTimeNs() {
+    return SUPPORTED ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : 0L;
+  }
+
+  /**
+   * Returns the CPU time (user and system) consumed by the thread with the given id in nanoseconds, 0 if thread CPU
+   * time measurement is not supported, or -1 if the thread is not alive. Reading the CPU time of another thread might
+   * be slower than {@link #currentThreadCpuTimeNs()}, so this should only be used for periodic sampling.
+   */
+  public static long threadCpuTimeNs(long threadId) {
+    return SUPPORTED ? THREAD_MX_BEAN.getThreadCpuTime(threadId) : 0L;
+  }
+}
@@ -30,6 +30,9 @@ import org.apache.pinot.core.query.scheduler.SchedulerGroupFactory;
 import org.apache.pinot.core.query.scheduler.TableBasedGroupMapper;
 import org.apache.pinot.core.query.scheduler.resources.PolicyBasedResourceManager;
 import org.apache.pinot.core.query.scheduler.resources.ResourceManager;
+import org.apache.pinot.core.query.scheduler.resources.ThreadCpuTimer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 
 /**
@@ -38,13 +41,24 @@ import org.apache.pinot.core.query.scheduler.resources.ResourceManager;
  * the right concrete classes. All the priority based scheduling logic is in {@link PriorityScheduler}
  */
 public class TokenPriorityScheduler extends PriorityScheduler {
+  private static final Logger LOGGER = LoggerFactory.getLogger(TokenPriorityScheduler.class);
+
   public static final String TOKENS_PER_MS_KEY = "tokens_per_ms";
   public static final String TOKEN_LIFETIME_MS_KEY = "token_lifetime_ms";
+  // deduct tokens by measured thread CPU time instead of thread wall clock time
+  public static final String CPU_TIME_ACCOUNTING_KEY = "cpu_time_accounting";
   private static final int DEFAULT_TOKEN_LIFETIME_MS = 100;
+  private static final boolean DEFAULT_CPU_TIME_ACCOUNTING = false;
 
   public static TokenPriorityScheduler create(@Nonnull Configuration config, @Nonnull QueryExecutor queryExecutor,
       @Nonnull ServerMetrics metrics, @Nonnull LongAccumulator latestQueryTime) {
     final ResourceManager rm = new PolicyBasedResourceManager(config);
+    boolean cpuTimeAccounting = config.getBoolean(CPU_TIME_ACCOUNTING_KEY, DEFAULT_CPU_TIME_ACCOUNTING);
+    if (cpuTimeAccounting && !ThreadCpuTimer.isSupported()) {
+      LOGGER.warn("Thread CPU time is not supported, falling back to wall clock time accounting");
+      cpuTimeAccounting = false;
+    }
+    final boolean useCpuTime = cpuTimeAccounting;
     final SchedulerGroupFactory groupFactory = new SchedulerGroupFactory() {
       @Override
       public SchedulerGroup create(Configuration config, String groupName) {
@@ -54,7 +68,7 @@ public class TokenPriorityScheduler extends PriorityScheduler {
         int tokensPerMs = config.getInt(TOKENS_PER_MS_KEY, maxTokensPerMs);
         int tokenLifetimeMs = config.getInt(TOKEN_LIFETIME_MS_KEY, DEFAULT_TOKEN_LIFETIME_MS);
 
-        return new TokenSchedulerGroup(groupName, tokensPerMs, tokenLifetimeMs);
+        return new TokenSchedulerGroup(groupName, tokensPerMs, tokenLifetimeMs, useCpuTime);
       }
     };
 
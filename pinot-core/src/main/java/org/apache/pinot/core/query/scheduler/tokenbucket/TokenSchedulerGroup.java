@@ -19,6 +19,7 @@
 package org.apache.pinot.core.query.scheduler.tokenbucket;
 
 import com.google.common.base.Preconditions;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import org.apache.pinot.core.query.scheduler.AbstractSchedulerGroup;
@@ -36,6 +37,10 @@ import org.apache.pinot.core.query.scheduler.fcfs.FCFSSchedulerGroup;
  * by applying linear decay. Linear decay memorizes resource utilization in the previous
  * time quantum penalizing heavy users. This is important to give fair chance to low qps
  * workloads.
+ *
+ * With CPU time accounting enabled, a token represents a unit of thread CPU time instead.
+ * Tokens are deducted by the CPU time measured for the tasks of each query, so threads that
+ * are blocked on IO or waiting for a core are not charged to the group.
  */
 public class TokenSchedulerGroup extends AbstractSchedulerGroup {
 
@@ -49,6 +54,11 @@ public class TokenSchedulerGroup extends AbstractSchedulerGroup {
   // those can be scheduled if there is no other work
   private final int numTokensPerMs;
 
+  // true to deduct tokens by measured thread CPU time instead of thread wall clock time
+  private final boolean cpuTimeAccounting;
+  // CPU time charged to this group that is not yet deducted because it is less than a token
+  private long pendingCpuTimeNs;
+
   // currently available tokens for this group
   private int availableTokens;
   // last time token values were updated for this group
@@ -65,11 +75,16 @@ public class TokenSchedulerGroup extends AbstractSchedulerGroup {
   private static final double ALPHA = 0.80;
 
   TokenSchedulerGroup(String schedGroupName, int numTokensPerMs, int tokenLifetimeMs) {
+    this(schedGroupName, numTokensPerMs, tokenLifetimeMs, false);
+  }
+
+  TokenSchedulerGroup(String schedGroupName, int numTokensPerMs, int tokenLifetimeMs, boolean cpuTimeAccounting) {
     super(schedGroupName);
     Preconditions.checkArgument(numTokensPerMs > 0);
     Preconditions.checkArgument(tokenLifetimeMs > 0);
     this.numTokensPerMs = numTokensPerMs;
     this.tokenLifetimeMs = tokenLifetimeMs;
+    this.cpuTimeAccounting = cpuTimeAccounting;
     lastUpdateTimeMs = currentTimeMillis();
     availableTokens = numTokensPerMs * tokenLifetimeMs;
     lastTokenTimeMs = lastUpdateTimeMs;
@@ -91,6 +106,22 @@ public class TokenSchedulerGroup extends AbstractSchedulerGroup {
     super.decrementThreads();
   }
 
+  @Override
+  public void addCpuTimeNs(long cpuTimeNs) {
+    super.addCpuTimeNs(cpuTimeNs);
+    if (!cpuTimeAccounting || cpuTimeNs <= 0) {
+      return;
+    }
+    try (TokenLockManager lm = new TokenLockManager(tokenLock)) {
+      // bring the tokens up to date first so that the CPU time is deducted from the current token cycle
+      consumeTokens();
+      pendingCpuTimeNs += cpuTimeNs;
+      long cpuTimeMs = TimeUnit.NANOSECONDS.toMillis(pendingCpuTimeNs);
+      pendingCpuTimeNs -= TimeUnit.MILLISECONDS.toNanos(cpuTimeMs);
+      availableTokens -= cpuTimeMs;
+    }
+  }
+
   @Override
   public void startQuery() {
     consumeTokens();
@@ -151,7 +182,8 @@ public class TokenSchedulerGroup extends AbstractSchedulerGroup {
       if (diffMs <= 0) {
         return availableTokens;
       }
-      int threads = threadsInUse.get();
+      // with CPU time accounting, tokens are deducted in addCpuTimeNs() instead of by threads in use
+      int threads = cpuTimeAccounting ? 0 : threadsInUse.get();
       long nextTokenTime = lastTokenTimeMs + tokenLifetimeMs;
       if (nextTokenTime > currentTimeMs) {
         availableTokens -= diffMs * threads;
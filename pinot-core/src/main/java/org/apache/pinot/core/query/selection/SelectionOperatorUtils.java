@@ -21,7 +21,9 @@ package org.apache.pinot.core.query.selection;
 import java.io.Serializable;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -30,8 +32,10 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.PriorityQueue;
+import java.util.RandomAccess;
 import java.util.Set;
 import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
 import org.apache.pinot.common.request.SelectionSort;
 import org.apache.pinot.common.request.transform.TransformExpressionTree;
 import org.apache.pinot.common.response.broker.SelectionResults;
@@ -413,6 +417,27 @@ public class SelectionOperatorUtils {
     return new SelectionResults(selectionColumns, rows);
   }
 
+  /**
+   * Reduces a collection of {@link DataTable}s to a formatted {@link SelectionResults} object for selection queries
+   * without <code>ORDER BY</code>, without materializing the selection rows. (Broker side)
+   * <p>The rows of the returned {@link SelectionResults} are a read-only view on the data tables, which extracts (and
+   * formats) each row when it is accessed. When the broker response is written, only the row being written is kept in
+   * memory instead of all the rows.
+   * <p>The rows are extracted again on each access, and must not be accessed concurrently because reading a data table
+   * is not thread-safe.
+   *
+   * @param dataTables Collection of data tables.
+   * @param selectionSize maximum number of rows.
+   * @param dataSchema data schema.
+   * @param selectionColumns selection columns.
+   * @return {@link SelectionResults} object results.
+   */
+  public static SelectionResults reduceToSelectionResultsWithoutOrdering(Collection<DataTable> dataTables,
+      int selectionSize, DataSchema dataSchema, List<String> selectionColumns, boolean preserveType) {
+    return new SelectionResults(selectionColumns,
+        new DataTableSelectionRows(dataTables, selectionSize, dataSchema, preserveType));
+  }
+
   /**
    * Helper method to compute column indices from selection columns and the data schema for selection queries
    * @param selectionColumns selection columns.
@@ -597,4 +622,64 @@ public class SelectionOperatorUtils {
       queue.offer(value);
     }
   }
+
+  /**
+   * Read-only view of the first selection rows of the data tables, where each row is extracted from its data table
+   * (and formatted if the type is not preserved) when it is accessed.
+   */
+  @NotThreadSafe
+  private static class DataTableSelectionRows extends AbstractList<Serializable[]> implements RandomAccess {
+    private final DataTable[] _dataTables;
+    // Index in the view of the first row of each data table
+    private final int[] _startIndices;
+    private final int _numDataTables;
+    private final int _numRows;
+    private final DataSchema _dataSchema;
+    private final boolean _preserveType;
+
+    DataTableSelectionRows(Collection<DataTable> dataTables, int selectionSize, DataSchema dataSchema,
+        boolean preserveType) {
+      _dataTables = new DataTable[dataTables.size()];
+      _startIndices = new int[dataTables.size()];
+      int numDataTables = 0;
+      int numRows = 0;
+      for (DataTable dataTable : dataTables) {
+        if (numRows >= selectionSize) {
+          break;
+        }
+        // Skip the empty data tables so that the start indices are strictly increasing
+        int numRowsInDataTable = dataTable.getNumberOfRows();
+        if (numRowsInDataTable > 0) {
+          _dataTables[numDataTables] = dataTable;
+          _startIndices[numDataTables] = numRows;
+          numDataTables++;
+          numRows += numRowsInDataTable;
+        }
+      }
+      _numDataTables = numDataTables;
+      _numRows = Math.min(numRows, selectionSize);
+      _dataSchema = dataSchema;
+      _preserveType = preserveType;
+    }
+
+    @Override
+    public Serializable[] get(int index) {
+      if (index < 0 || index >= _numRows) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", size: " + _numRows);
+      }
+      int dataTableIndex = Arrays.binarySearch(_startIndices, 0, _numDataTables, index);
+      if (dataTableIndex < 0) {
+        // Insertion point minus one is the data table containing the row
+        dataTableIndex = -dataTableIndex - 2;
+      }
+      Serializable[] row =
+          extractRowFromDataTable(_dataTables[dataTableIndex], index - _startIndices[dataTableIndex]);
+      return _preserveType ? row : formatRowWithoutOrdering(row, _dataSchema);
+    }
+
+    @Override
+    public int size() {
+      return _numRows;
+    }
+  }
 }
@@ -55,12 +55,14 @@ public class RealtimeSegmentConverter {
   private List<String> noDictionaryColumns;
   private StarTreeIndexSpec starTreeIndexSpec;
   private List<String> varLengthDictionaryColumns;
+  private List<String> zoneMapColumns;
   private final boolean _nullHandlingEnabled;
 
   public RealtimeSegmentConverter(MutableSegmentImpl realtimeSegment, String outputPath, Schema schema,
       String tableName, String timeColumnName, String segmentName, String sortedColumn,
       List<String> invertedIndexColumns, List<String> noDictionaryColumns,
-      List<String> varLengthDictionaryColumns, StarTreeIndexSpec starTreeIndexSpec, boolean nullHandlingEnabled) {
+      List<String> varLengthDictionaryColumns, List<String> zoneMapColumns, StarTreeIndexSpec starTreeIndexSpec,
+      boolean nullHandlingEnabled) {
     if (new File(outputPath).exists()) {
       throw new IllegalAccessError("path already exists:" + outputPath);
     }
@@ -77,6 +79,7 @@ public class RealtimeSegmentConverter {
     this.segmentName = segmentName;
     this.noDictionaryColumns = noDictionaryColumns;
     this.varLengthDictionaryColumns = varLengthDictionaryColumns;
+    this.zoneMapColumns = zoneMapColumns;
     this.starTreeIndexSpec = starTreeIndexSpec;
     this._nullHandlingEnabled = nullHandlingEnabled;
   }
@@ -84,7 +87,8 @@ public class RealtimeSegmentConverter {
   public RealtimeSegmentConverter(MutableSegmentImpl realtimeSegment, String outputPath, Schema schema,
       String tableName, String timeColumnName, String segmentName, String sortedColumn) {
     this(realtimeSegment, outputPath, schema, tableName, timeColumnName, segmentName, sortedColumn, new ArrayList<>(),
-        new ArrayList<>(), new ArrayList<>(), null/*StarTreeIndexSpec*/, false/*nullHandlingEnabled*/);
+        new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), null/*StarTreeIndexSpec*/,
+        false/*nullHandlingEnabled*/);
   }
 
   public void build(@Nullable SegmentVersion segmentVersion, ServerMetrics serverMetrics)
@@ -124,6 +128,10 @@ public class RealtimeSegmentConverter {
       genConfig.setVarLengthDictionaryColumns(varLengthDictionaryColumns);
     }
 
+    if (zoneMapColumns != null) {
+      genConfig.setZoneMapCreationColumns(zoneMapColumns);
+    }
+
     // Presence of the spec enables star tree generation.
     if (starTreeIndexSpec != null) {
       genConfig.enableStarTreeIndex(starTreeIndexSpec);
@@ -59,6 +59,7 @@ import org.apache.pinot.core.segment.creator.impl.fwd.SingleValueVarByteRawIndex
 import org.apache.pinot.core.segment.creator.impl.inv.OffHeapBitmapInvertedIndexCreator;
 import org.apache.pinot.core.segment.creator.impl.inv.OnHeapBitmapInvertedIndexCreator;
 import org.apache.pinot.core.segment.creator.impl.nullvalue.NullValueVectorCreator;
+import org.apache.pinot.core.segment.creator.impl.zonemap.ZoneMapCreator;
 import org.apache.pinot.startree.hll.HllConfig;
 import org.joda.time.DateTimeZone;
 import org.joda.time.Interval;
@@ -85,6 +86,7 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
   private Map<String, ForwardIndexCreator> _forwardIndexCreatorMap = new HashMap<>();
   private Map<String, InvertedIndexCreator> _invertedIndexCreatorMap = new HashMap<>();
   private Map<String, NullValueVectorCreator> _nullValueVectorCreatorMap = new HashMap<>();
+  private Map<String, ZoneMapCreator> _zoneMapCreatorMap = new HashMap<>();
   private String segmentName;
   private Schema schema;
   private File _indexDir;
@@ -120,6 +122,12 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
           "Cannot create inverted index for column: %s because it is not in schema", columnName);
       invertedIndexColumns.add(columnName);
     }
+    Set<String> zoneMapColumns = new HashSet<>();
+    for (String columnName : config.getZoneMapCreationColumns()) {
+      Preconditions.checkState(schema.hasColumn(columnName),
+          "Cannot create zone map for column: %s because it is not in schema", columnName);
+      zoneMapColumns.add(columnName);
+    }
 
     // Initialize creators for dictionary, forward index and inverted index
     for (FieldSpec fieldSpec : fieldSpecs) {
@@ -177,6 +185,12 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
                     indexCreationInfo.getTotalNumberOfEntries()));
           }
         }
+
+        // Initialize zone map creator; skip creating zone map if sorted because sorted column is not scanned
+        if (zoneMapColumns.contains(columnName) && !indexCreationInfo.isSorted()) {
+          _zoneMapCreatorMap.put(columnName,
+              new ZoneMapCreator(_indexDir, columnName, ZoneMapCreator.DEFAULT_NUM_DOCS_PER_BLOCK, totalDocs));
+        }
       } else {
         // Create raw index
 
@@ -185,6 +199,8 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
             columnName);
         Preconditions.checkState(!invertedIndexColumns.contains(columnName),
             "Cannot create inverted index for raw index column: %s", columnName);
+        Preconditions.checkState(!zoneMapColumns.contains(columnName),
+            "Cannot create zone map for raw index column: %s", columnName);
 
         ChunkCompressorFactory.CompressionType compressionType =
             getColumnCompressionType(segmentCreationSpec, fieldSpec);
@@ -280,6 +296,10 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
           if (_invertedIndexCreatorMap.containsKey(columnName)) {
             _invertedIndexCreatorMap.get(columnName).add(dictId);
           }
+          ZoneMapCreator zoneMapCreator = _zoneMapCreatorMap.get(columnName);
+          if (zoneMapCreator != null) {
+            zoneMapCreator.add(docIdCounter, dictId);
+          }
         } else {
           ((SingleValueRawIndexCreator) _forwardIndexCreatorMap.get(columnName))
               .index(docIdCounter, columnValueToIndex);
@@ -290,6 +310,10 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
         if (_invertedIndexCreatorMap.containsKey(columnName)) {
           _invertedIndexCreatorMap.get(columnName).add(dictIds, dictIds.length);
         }
+        ZoneMapCreator zoneMapCreator = _zoneMapCreatorMap.get(columnName);
+        if (zoneMapCreator != null) {
+          zoneMapCreator.add(docIdCounter, dictIds);
+        }
       }
 
       if (_nullHandlingEnabled) {
@@ -316,6 +340,9 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
     for (NullValueVectorCreator nullValueVectorCreator : _nullValueVectorCreatorMap.values()) {
       nullValueVectorCreator.seal();
     }
+    for (ZoneMapCreator zoneMapCreator : _zoneMapCreatorMap.values()) {
+      zoneMapCreator.seal();
+    }
     writeMetadata();
   }
 
@@ -578,6 +605,6 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
       throws IOException {
     FileUtils.close(Iterables
         .concat(_dictionaryCreatorMap.values(), _forwardIndexCreatorMap.values(), _invertedIndexCreatorMap.values(), _nullValueVectorCreatorMap
-            .values()));
+            .values(), _zoneMapCreatorMap.values()));
   }
 }
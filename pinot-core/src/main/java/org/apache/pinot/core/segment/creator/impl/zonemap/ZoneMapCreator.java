@@ -0,0 +1,100 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.creator.impl.zonemap;
+
+import com.google.common.base.Preconditions;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import org.apache.pinot.core.segment.creator.impl.V1Constants;
+
+
+/**
+ * Used to persist the per-block min/max dictionary ids (zone map) of a dictionary-encoded column on disk. This is used
+ * by SegmentCreator while indexing rows.
+ * <p>The documents are split into fixed size blocks of <code>numDocsPerBlock</code> documents, and for each block the
+ * minimum and maximum dictionary id of the values inside the block are recorded. Because dictionary ids are assigned
+ * in sorted value order, the dictionary id range of a block bounds the value range of the block.
+ * <p>File format:
+ * <ul>
+ *   <li>Version (int)</li>
+ *   <li>Number of documents per block (int)</li>
+ *   <li>Number of blocks (int)</li>
+ *   <li>For each block: min dictionary id (int), max dictionary id (int)</li>
+ * </ul>
+ * <p>A block without any value (only possible for multi-value columns with empty entries) is stored with min
+ * dictionary id greater than max dictionary id, so that it never matches.
+ */
+public class ZoneMapCreator implements Closeable {
+  public static final int VERSION = 1;
+  public static final int DEFAULT_NUM_DOCS_PER_BLOCK = 10_000;
+
+  private final File _zoneMapFile;
+  private final int _numDocsPerBlock;
+  private final int[] _minDictIds;
+  private final int[] _maxDictIds;
+
+  public ZoneMapCreator(File indexDir, String columnName, int numDocsPerBlock, int totalDocs) {
+    Preconditions.checkArgument(numDocsPerBlock > 0, "Number of documents per block must be positive");
+    _zoneMapFile = new File(indexDir, columnName + V1Constants.Indexes.ZONE_MAP_FILE_EXTENSION);
+    _numDocsPerBlock = numDocsPerBlock;
+    int numBlocks = (totalDocs + numDocsPerBlock - 1) / numDocsPerBlock;
+    _minDictIds = new int[numBlocks];
+    _maxDictIds = new int[numBlocks];
+    Arrays.fill(_minDictIds, Integer.MAX_VALUE);
+    Arrays.fill(_maxDictIds, Integer.MIN_VALUE);
+  }
+
+  public void add(int docId, int dictId) {
+    int blockId = docId / _numDocsPerBlock;
+    if (dictId < _minDictIds[blockId]) {
+      _minDictIds[blockId] = dictId;
+    }
+    if (dictId > _maxDictIds[blockId]) {
+      _maxDictIds[blockId] = dictId;
+    }
+  }
+
+  public void add(int docId, int[] dictIds) {
+    for (int dictId : dictIds) {
+      add(docId, dictId);
+    }
+  }
+
+  public void seal()
+      throws IOException {
+    try (DataOutputStream outputStream = new DataOutputStream(new FileOutputStream(_zoneMapFile))) {
+      outputStream.writeInt(VERSION);
+      outputStream.writeInt(_numDocsPerBlock);
+      int numBlocks = _minDictIds.length;
+      outputStream.writeInt(numBlocks);
+      for (int i = 0; i < numBlocks; i++) {
+        outputStream.writeInt(_minDictIds[i]);
+        outputStream.writeInt(_maxDictIds[i]);
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+  }
+}
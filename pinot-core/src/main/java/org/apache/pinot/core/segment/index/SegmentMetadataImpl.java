@@ -538,6 +538,11 @@ public class SegmentMetadataImpl implements SegmentMetadata {
     return column + V1Constants.Indexes.NULLVALUE_VECTOR_FILE_EXTENSION;
   }
 
+  @Override
+  public String getZoneMapFileName(String column) {
+    return column + V1Constants.Indexes.ZONE_MAP_FILE_EXTENSION;
+  }
+
   @Nullable
   @Override
   public String getCreatorName() {
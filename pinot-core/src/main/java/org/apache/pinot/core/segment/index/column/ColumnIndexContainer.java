@@ -23,6 +23,7 @@ import org.apache.pinot.core.segment.index.readers.BloomFilterReader;
 import org.apache.pinot.core.segment.index.readers.Dictionary;
 import org.apache.pinot.core.segment.index.readers.InvertedIndexReader;
 import org.apache.pinot.core.segment.index.readers.NullValueVectorReaderImpl;
+import org.apache.pinot.core.segment.index.readers.ZoneMapReader;
 
 
 /**
@@ -56,4 +57,9 @@ public interface ColumnIndexContainer {
    * @return Get the null value vector for the column, or {@code null} if it does not exist.
    */
   NullValueVectorReaderImpl getNullValueVector();
+
+  /**
+   * Returns the per-block min/max dictionary id zone map for the column, or {@code null} if it does not exist.
+   */
+  ZoneMapReader getZoneMap();
 }
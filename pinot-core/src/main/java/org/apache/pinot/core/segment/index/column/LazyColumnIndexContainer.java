@@ -0,0 +1,300 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.index.column;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.core.io.reader.DataFileReader;
+import org.apache.pinot.core.segment.index.ColumnMetadata;
+import org.apache.pinot.core.segment.index.loader.IndexLoadingConfig;
+import org.apache.pinot.core.segment.index.readers.BaseImmutableDictionary;
+import org.apache.pinot.core.segment.index.readers.BloomFilterReader;
+import org.apache.pinot.core.segment.index.readers.InvertedIndexReader;
+import org.apache.pinot.core.segment.index.readers.NullValueVectorReaderImpl;
+import org.apache.pinot.core.segment.index.readers.ZoneMapReader;
+import org.apache.pinot.core.segment.store.ColumnIndexType;
+import org.apache.pinot.core.segment.store.SegmentDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The {@code LazyColumnIndexContainer} loads the indexes for a column on the first access instead of when loading the
+ * segment, and can unload them after they are requested to be evicted by the {@link LazyColumnIndexManager}.
+ * <p>The segment directory must be created with lazy index loading enabled so that the indexes for each column can be
+ * mapped and released separately.
+ */
+@ThreadSafe
+public final class LazyColumnIndexContainer implements ColumnIndexContainer {
+  private static final Logger LOGGER = LoggerFactory.getLogger(LazyColumnIndexContainer.class);
+
+  private final String _segmentName;
+  private final SegmentDirectory.Reader _segmentReader;
+  private final ColumnMetadata _metadata;
+  private final IndexLoadingConfig _indexLoadingConfig;
+  private final LazyColumnIndexManager _lazyColumnIndexManager;
+
+  private final AtomicLong _numAccesses = new AtomicLong();
+  private volatile long _lastAccessTimeMs;
+  private volatile PhysicalColumnIndexContainer _indexContainer;
+  private volatile boolean _evictionRequested;
+  private volatile Runnable _evictionListener;
+
+  // Guarded by 'this'
+  private long _sizeInBytes;
+  private int _numLoads;
+
+  public LazyColumnIndexContainer(String segmentName, SegmentDirectory.Reader segmentReader, ColumnMetadata metadata,
+      IndexLoadingConfig indexLoadingConfig, LazyColumnIndexManager lazyColumnIndexManager) {
+    _segmentName = segmentName;
+    _segmentReader = segmentReader;
+    _metadata = metadata;
+    _indexLoadingConfig = indexLoadingConfig;
+    _lazyColumnIndexManager = lazyColumnIndexManager;
+  }
+
+  @Override
+  public DataFileReader getForwardIndex() {
+    return getIndexContainer().getForwardIndex();
+  }
+
+  @Override
+  public InvertedIndexReader getInvertedIndex() {
+    return getIndexContainer().getInvertedIndex();
+  }
+
+  @Override
+  public BaseImmutableDictionary getDictionary() {
+    return getIndexContainer().getDictionary();
+  }
+
+  @Override
+  public BloomFilterReader getBloomFilter() {
+    return getIndexContainer().getBloomFilter();
+  }
+
+  @Override
+  public NullValueVectorReaderImpl getNullValueVector() {
+    return getIndexContainer().getNullValueVector();
+  }
+
+  @Override
+  public ZoneMapReader getZoneMap() {
+    return getIndexContainer().getZoneMap();
+  }
+
+  public String getSegmentName() {
+    return _segmentName;
+  }
+
+  public String getColumnName() {
+    return _metadata.getColumnName();
+  }
+
+  /**
+   * Returns whether the indexes for the column are currently loaded.
+   */
+  public boolean isLoaded() {
+    return _indexContainer != null;
+  }
+
+  /**
+   * Returns the total size in bytes of the loaded indexes, or 0 if the indexes are not loaded.
+   */
+  public synchronized long getSizeInBytes() {
+    return _indexContainer != null ? _sizeInBytes : 0L;
+  }
+
+  /**
+   * Returns the number of times the indexes for the column have been accessed.
+   */
+  public long getNumAccesses() {
+    return _numAccesses.get();
+  }
+
+  /**
+   * Returns the number of times the indexes for the column have been loaded.
+   */
+  public synchronized int getNumLoads() {
+    return _numLoads;
+  }
+
+  /**
+   * Returns the last time (in milliseconds since epoch) the indexes for the column were accessed, or 0 if they have
+   * never been accessed.
+   */
+  public long getLastAccessTimeMs() {
+    return _lastAccessTimeMs;
+  }
+
+  public boolean isEvictionRequested() {
+    return _evictionRequested;
+  }
+
+  /**
+   * Sets the listener to be notified when the indexes for the column are requested to be evicted. The listener is
+   * responsible for calling {@link #evict()} once the indexes are no longer accessed.
+   */
+  public void setEvictionListener(@Nullable Runnable evictionListener) {
+    _evictionListener = evictionListener;
+  }
+
+  /**
+   * Requests the indexes for the column to be evicted. The request is cancelled if the indexes are accessed again
+   * before they get unloaded.
+   */
+  void requestEviction() {
+    _evictionRequested = true;
+    Runnable evictionListener = _evictionListener;
+    if (evictionListener != null) {
+      evictionListener.run();
+    }
+  }
+
+  /**
+   * Evicts the indexes for the column if they are loaded. The indexes will be loaded again on the next access.
+   * <p>NOTE: caller must ensure that the indexes are not being accessed, i.e. the segment is not acquired by any query.
+   */
+  public void evict() {
+    unload(true);
+  }
+
+  /**
+   * Unloads the indexes for the column if they are loaded, e.g. when the segment is destroyed. Unlike
+   * {@link #evict()}, this is not counted as an eviction.
+   * <p>NOTE: caller must ensure that the indexes are not being accessed, i.e. the segment is not acquired by any query.
+   */
+  public void unload() {
+    unload(false);
+  }
+
+  private void unload(boolean evicted) {
+    String columnName = _metadata.getColumnName();
+    synchronized (this) {
+      PhysicalColumnIndexContainer indexContainer = _indexContainer;
+      _evictionRequested = false;
+      if (indexContainer == null) {
+        return;
+      }
+      _indexContainer = null;
+      closeIndexes(indexContainer);
+      try {
+        _segmentReader.releaseIndexesFor(columnName);
+      } catch (Exception e) {
+        LOGGER.error("Caught exception while releasing indexes for column: {} of segment: {}", columnName,
+            _segmentName, e);
+      }
+    }
+    _lazyColumnIndexManager.onUnloaded(this, evicted);
+  }
+
+  private PhysicalColumnIndexContainer getIndexContainer() {
+    _numAccesses.getAndIncrement();
+    _lastAccessTimeMs = System.currentTimeMillis();
+    _evictionRequested = false;
+
+    PhysicalColumnIndexContainer indexContainer = _indexContainer;
+    if (indexContainer != null) {
+      return indexContainer;
+    }
+
+    long sizeInBytes;
+    synchronized (this) {
+      indexContainer = _indexContainer;
+      if (indexContainer != null) {
+        return indexContainer;
+      }
+      String columnName = _metadata.getColumnName();
+      try {
+        indexContainer = new PhysicalColumnIndexContainer(_segmentReader, _metadata, _indexLoadingConfig);
+        sizeInBytes = computeSizeInBytes(indexContainer);
+      } catch (IOException e) {
+        throw new RuntimeException(
+            "Caught exception while loading indexes for column: " + columnName + " of segment: " + _segmentName, e);
+      }
+      _sizeInBytes = sizeInBytes;
+      _numLoads++;
+      _indexContainer = indexContainer;
+    }
+
+    // NOTE: notify the manager without holding the lock because it might request other columns to be evicted
+    _lazyColumnIndexManager.onLoaded(this, sizeInBytes);
+    return indexContainer;
+  }
+
+  /**
+   * Computes the total size of the indexes loaded into the given index container. The buffers are already mapped at
+   * this point, so fetching them again from the segment reader is cheap.
+   */
+  private long computeSizeInBytes(PhysicalColumnIndexContainer indexContainer)
+      throws IOException {
+    String columnName = _metadata.getColumnName();
+    long sizeInBytes = _segmentReader.getIndexFor(columnName, ColumnIndexType.FORWARD_INDEX).size();
+    if (indexContainer.getDictionary() != null) {
+      sizeInBytes += _segmentReader.getIndexFor(columnName, ColumnIndexType.DICTIONARY).size();
+    }
+    // NOTE: for sorted column, the forward index is also used as the inverted index
+    InvertedIndexReader invertedIndex = indexContainer.getInvertedIndex();
+    if (invertedIndex != null && invertedIndex != indexContainer.getForwardIndex()) {
+      sizeInBytes += _segmentReader.getIndexFor(columnName, ColumnIndexType.INVERTED_INDEX).size();
+    }
+    if (indexContainer.getBloomFilter() != null) {
+      sizeInBytes += _segmentReader.getIndexFor(columnName, ColumnIndexType.BLOOM_FILTER).size();
+    }
+    if (indexContainer.getNullValueVector() != null) {
+      sizeInBytes += _segmentReader.getIndexFor(columnName, ColumnIndexType.NULLVALUE_VECTOR).size();
+    }
+    if (indexContainer.getZoneMap() != null) {
+      sizeInBytes += _segmentReader.getIndexFor(columnName, ColumnIndexType.ZONE_MAP).size();
+    }
+    return sizeInBytes;
+  }
+
+  private void closeIndexes(PhysicalColumnIndexContainer indexContainer) {
+    String columnName = _metadata.getColumnName();
+    try {
+      BaseImmutableDictionary dictionary = indexContainer.getDictionary();
+      if (dictionary != null) {
+        dictionary.close();
+      }
+    } catch (Exception e) {
+      LOGGER.error("Error when close dictionary index for column : " + columnName, e);
+    }
+    try {
+      indexContainer.getForwardIndex().close();
+    } catch (Exception e) {
+      LOGGER.error("Error when close forward index for column : " + columnName, e);
+    }
+    try {
+      InvertedIndexReader invertedIndex = indexContainer.getInvertedIndex();
+      if (invertedIndex != null) {
+        invertedIndex.close();
+      }
+    } catch (Exception e) {
+      LOGGER.error("Error when close inverted index for column : " + columnName, e);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "LazyColumnIndexContainer(" + _segmentName + "." + _metadata.getColumnName() + ")";
+  }
+}
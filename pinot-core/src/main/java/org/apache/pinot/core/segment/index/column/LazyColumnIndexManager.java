@@ -0,0 +1,145 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.index.column;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.concurrent.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The {@code LazyColumnIndexManager} keeps track of the column indexes loaded by {@link LazyColumnIndexContainer}s,
+ * and requests the least recently accessed ones to be evicted when the total size of the loaded indexes exceeds the
+ * memory budget.
+ * <p>Eviction is cooperative: the manager only marks the columns to be evicted, and the owner of the segment unloads
+ * them once the segment is not acquired by any query. A column accessed again before being unloaded is kept.
+ */
+@ThreadSafe
+public class LazyColumnIndexManager {
+  private static final Logger LOGGER = LoggerFactory.getLogger(LazyColumnIndexManager.class);
+  private static final LazyColumnIndexManager INSTANCE = new LazyColumnIndexManager();
+
+  // Guarded by 'this'
+  private final Map<LazyColumnIndexContainer, Long> _loadedContainers = new IdentityHashMap<>();
+  private long _loadedBytes;
+
+  private final AtomicLong _numLoads = new AtomicLong();
+  private final AtomicLong _numEvictions = new AtomicLong();
+  private volatile long _memoryBudgetBytes;
+
+  public static LazyColumnIndexManager getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Sets the memory budget (in bytes) for the loaded column indexes. Non-positive value means no limit.
+   */
+  public void setMemoryBudgetBytes(long memoryBudgetBytes) {
+    _memoryBudgetBytes = memoryBudgetBytes;
+    LOGGER.info("Set lazy column index memory budget to: {} bytes", memoryBudgetBytes);
+    evictIfNeeded();
+  }
+
+  public long getMemoryBudgetBytes() {
+    return _memoryBudgetBytes;
+  }
+
+  public synchronized long getLoadedBytes() {
+    return _loadedBytes;
+  }
+
+  public synchronized int getNumLoadedColumns() {
+    return _loadedContainers.size();
+  }
+
+  public long getNumLoads() {
+    return _numLoads.get();
+  }
+
+  public long getNumEvictions() {
+    return _numEvictions.get();
+  }
+
+  void onLoaded(LazyColumnIndexContainer container, long sizeInBytes) {
+    _numLoads.getAndIncrement();
+    synchronized (this) {
+      Long previousSize = _loadedContainers.put(container, sizeInBytes);
+      if (previousSize != null) {
+        _loadedBytes -= previousSize;
+      }
+      _loadedBytes += sizeInBytes;
+    }
+    evictIfNeeded();
+  }
+
+  void onUnloaded(LazyColumnIndexContainer container, boolean evicted) {
+    synchronized (this) {
+      Long size = _loadedContainers.remove(container);
+      if (size == null) {
+        return;
+      }
+      _loadedBytes -= size;
+    }
+    if (evicted) {
+      _numEvictions.getAndIncrement();
+    }
+  }
+
+  /**
+   * Requests the least recently accessed columns to be evicted until the loaded indexes fit into the memory budget.
+   * <p>NOTE: the containers are called without holding the lock because the eviction listener might unload the
+   * indexes synchronously, which calls back into the manager.
+   */
+  private void evictIfNeeded() {
+    long memoryBudgetBytes = _memoryBudgetBytes;
+    if (memoryBudgetBytes <= 0) {
+      return;
+    }
+    List<LazyColumnIndexContainer> containersToEvict;
+    synchronized (this) {
+      if (_loadedBytes <= memoryBudgetBytes) {
+        return;
+      }
+      List<Map.Entry<LazyColumnIndexContainer, Long>> entries = new ArrayList<>(_loadedContainers.entrySet());
+      entries.sort((e1, e2) -> Long.compare(e1.getKey().getLastAccessTimeMs(), e2.getKey().getLastAccessTimeMs()));
+      long bytesToFree = _loadedBytes - memoryBudgetBytes;
+      containersToEvict = new ArrayList<>();
+      for (Map.Entry<LazyColumnIndexContainer, Long> entry : entries) {
+        if (bytesToFree <= 0) {
+          break;
+        }
+        LazyColumnIndexContainer container = entry.getKey();
+        // Columns already requested to be evicted will free their bytes once the segment is released
+        if (!container.isEvictionRequested()) {
+          containersToEvict.add(container);
+        }
+        bytesToFree -= entry.getValue();
+      }
+    }
+    for (LazyColumnIndexContainer container : containersToEvict) {
+      LOGGER.debug("Requesting eviction of column indexes: {}", container);
+      container.requestEviction();
+    }
+  }
+}
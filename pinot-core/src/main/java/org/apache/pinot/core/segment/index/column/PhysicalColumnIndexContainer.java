@@ -46,6 +46,7 @@ import org.apache.pinot.core.segment.index.readers.OnHeapLongDictionary;
 import org.apache.pinot.core.segment.index.readers.OnHeapStringDictionary;
 import org.apache.pinot.core.segment.index.readers.NullValueVectorReaderImpl;
 import org.apache.pinot.core.segment.index.readers.StringDictionary;
+import org.apache.pinot.core.segment.index.readers.ZoneMapReader;
 import org.apache.pinot.core.segment.memory.PinotDataBuffer;
 import org.apache.pinot.core.segment.store.ColumnIndexType;
 import org.apache.pinot.core.segment.store.SegmentDirectory;
@@ -61,6 +62,7 @@ public final class PhysicalColumnIndexContainer implements ColumnIndexContainer
   private final BaseImmutableDictionary _dictionary;
   private final BloomFilterReader _bloomFilterReader;
   private final NullValueVectorReaderImpl _nullValueVectorReader;
+  private final ZoneMapReader _zoneMapReader;
 
   public PhysicalColumnIndexContainer(SegmentDirectory.Reader segmentReader, ColumnMetadata metadata,
       IndexLoadingConfig indexLoadingConfig)
@@ -82,6 +84,13 @@ public final class PhysicalColumnIndexContainer implements ColumnIndexContainer
       _nullValueVectorReader = null;
     }
 
+    // Zone map is based on dictionary ids, so it is only loaded for dictionary-encoded columns
+    if (metadata.hasDictionary() && segmentReader.hasIndexFor(columnName, ColumnIndexType.ZONE_MAP)) {
+      _zoneMapReader = new ZoneMapReader(segmentReader.getIndexFor(columnName, ColumnIndexType.ZONE_MAP));
+    } else {
+      _zoneMapReader = null;
+    }
+
     PinotDataBuffer fwdIndexBuffer = segmentReader.getIndexFor(columnName, ColumnIndexType.FORWARD_INDEX);
 
     if (metadata.hasDictionary()) {
@@ -155,6 +164,11 @@ public final class PhysicalColumnIndexContainer implements ColumnIndexContainer
     return _nullValueVectorReader;
   }
 
+  @Override
+  public ZoneMapReader getZoneMap() {
+    return _zoneMapReader;
+  }
+
   private static BaseImmutableDictionary loadDictionary(PinotDataBuffer dictionaryBuffer, ColumnMetadata metadata,
       boolean loadOnHeap) {
     FieldSpec.DataType dataType = metadata.getDataType();
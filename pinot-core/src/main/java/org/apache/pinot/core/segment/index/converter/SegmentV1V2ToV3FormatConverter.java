@@ -146,6 +146,9 @@ public class SegmentV1V2ToV3FormatConverter implements SegmentFormatConverter {
           if (v2DataReader.hasIndexFor(column, ColumnIndexType.NULLVALUE_VECTOR)) {
             copyNullValueVector(v2DataReader, v3DataWriter, column);
           }
+          if (v2DataReader.hasIndexFor(column, ColumnIndexType.ZONE_MAP)) {
+            copyZoneMap(v2DataReader, v3DataWriter, column);
+          }
         }
 
         // inverted indexes are intentionally stored at the end of the single file
@@ -197,6 +200,11 @@ public class SegmentV1V2ToV3FormatConverter implements SegmentFormatConverter {
     readCopyBuffers(reader, writer, column, ColumnIndexType.NULLVALUE_VECTOR);
   }
 
+  private void copyZoneMap(SegmentDirectory.Reader reader, SegmentDirectory.Writer writer, String column)
+      throws IOException {
+    readCopyBuffers(reader, writer, column, ColumnIndexType.ZONE_MAP);
+  }
+
   private void copyExistingInvertedIndex(SegmentDirectory.Reader reader, SegmentDirectory.Writer writer, String column)
       throws IOException {
     if (reader.hasIndexFor(column, ColumnIndexType.INVERTED_INDEX)) {
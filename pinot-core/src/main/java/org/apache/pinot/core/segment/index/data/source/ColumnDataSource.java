@@ -37,6 +37,7 @@ import org.apache.pinot.core.segment.index.readers.BloomFilterReader;
 import org.apache.pinot.core.segment.index.readers.Dictionary;
 import org.apache.pinot.core.segment.index.readers.InvertedIndexReader;
 import org.apache.pinot.core.segment.index.readers.NullValueVectorReader;
+import org.apache.pinot.core.segment.index.readers.ZoneMapReader;
 
 
 public final class ColumnDataSource extends DataSource {
@@ -51,6 +52,7 @@ public final class ColumnDataSource extends DataSource {
   private final Dictionary _dictionary;
   private final BloomFilterReader _bloomFilter;
   private final NullValueVectorReader _nullValueVector;
+  private final ZoneMapReader _zoneMap;
   private final int _cardinality;
   private final DataSourceMetadata _metadata;
 
@@ -61,7 +63,7 @@ public final class ColumnDataSource extends DataSource {
     this(metadata.getColumnName(), metadata.getDataType(), metadata.isSingleValue(), metadata.isSorted(),
         metadata.getTotalDocs(), metadata.getMaxNumberOfMultiValues(), indexContainer.getForwardIndex(),
         indexContainer.getInvertedIndex(), indexContainer.getDictionary(), indexContainer.getBloomFilter(),
-        indexContainer.getNullValueVector(), metadata.getCardinality());
+        indexContainer.getNullValueVector(), indexContainer.getZoneMap(), metadata.getCardinality());
   }
 
   /**
@@ -71,14 +73,14 @@ public final class ColumnDataSource extends DataSource {
       InvertedIndexReader invertedIndex, BaseMutableDictionary dictionary, BloomFilterReader bloomFilter,
       NullValueVectorReader nullValueVectorReader) {
     this(fieldSpec.getName(), fieldSpec.getDataType(), fieldSpec.isSingleValueField(), false, numDocs,
-        maxNumMultiValues, forwardIndex, invertedIndex, dictionary, bloomFilter, nullValueVectorReader,
+        maxNumMultiValues, forwardIndex, invertedIndex, dictionary, bloomFilter, nullValueVectorReader, null,
         Constants.UNKNOWN_CARDINALITY);
   }
 
   private ColumnDataSource(String columnName, FieldSpec.DataType dataType, boolean isSingleValue, boolean isSorted,
       int numDocs, int maxNumMultiValues, DataFileReader forwardIndex, InvertedIndexReader invertedIndex,
       Dictionary dictionary, BloomFilterReader bloomFilterReader, NullValueVectorReader nullValueVectorReader,
-      int cardinality) {
+      ZoneMapReader zoneMapReader, int cardinality) {
     // Sanity check
     if (isSingleValue) {
       Preconditions.checkState(forwardIndex instanceof SingleColumnSingleValueReader);
@@ -106,6 +108,7 @@ public final class ColumnDataSource extends DataSource {
     _dictionary = dictionary;
     _bloomFilter = bloomFilterReader;
     _nullValueVector = nullValueVectorReader;
+    _zoneMap = zoneMapReader;
     _cardinality = cardinality;
 
     _metadata = new DataSourceMetadata() {
@@ -176,6 +179,11 @@ public final class ColumnDataSource extends DataSource {
     return _nullValueVector;
   }
 
+  @Override
+  public ZoneMapReader getZoneMap() {
+    return _zoneMap;
+  }
+
   @Override
   protected Block getNextBlock() {
     if (_isSingleValue) {
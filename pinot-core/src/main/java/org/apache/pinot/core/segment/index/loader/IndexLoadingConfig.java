@@ -57,6 +57,8 @@ public class IndexLoadingConfig {
   private boolean _isRealtimeOffheapAllocation;
   private boolean _isDirectRealtimeOffheapAllocation;
   private boolean _enableSplitCommitEndWithMetadata;
+  private boolean _isLazyColumnIndexLoading;
+  private boolean _skipPreProcessIfIndexConfigUnchanged;
 
   public IndexLoadingConfig(@Nonnull InstanceDataManagerConfig instanceDataManagerConfig,
       @Nonnull TableConfig tableConfig) {
@@ -139,6 +141,8 @@ public class IndexLoadingConfig {
       _realtimeAvgMultiValueCount = Integer.valueOf(avgMultiValueCount);
     }
     _enableSplitCommitEndWithMetadata = instanceDataManagerConfig.isEnableSplitCommitEndWithMetadata();
+    _isLazyColumnIndexLoading = instanceDataManagerConfig.isLazyColumnIndexLoading();
+    _skipPreProcessIfIndexConfigUnchanged = instanceDataManagerConfig.isSkipPreProcessIfIndexConfigUnchanged();
   }
 
   /**
@@ -239,6 +243,28 @@ public class IndexLoadingConfig {
     return _isDirectRealtimeOffheapAllocation;
   }
 
+  public boolean isLazyColumnIndexLoading() {
+    return _isLazyColumnIndexLoading;
+  }
+
+  /**
+   * For tests only.
+   */
+  public void setLazyColumnIndexLoading(boolean lazyColumnIndexLoading) {
+    _isLazyColumnIndexLoading = lazyColumnIndexLoading;
+  }
+
+  public boolean isSkipPreProcessIfIndexConfigUnchanged() {
+    return _skipPreProcessIfIndexConfigUnchanged;
+  }
+
+  /**
+   * For tests only.
+   */
+  public void setSkipPreProcessIfIndexConfigUnchanged(boolean skipPreProcessIfIndexConfigUnchanged) {
+    _skipPreProcessIfIndexConfigUnchanged = skipPreProcessIfIndexConfigUnchanged;
+  }
+
   @Nonnull
   public ColumnMinMaxValueGeneratorMode getColumnMinMaxValueGeneratorMode() {
     return _columnMinMaxValueGeneratorMode;
@@ -19,6 +19,11 @@
 package org.apache.pinot.core.segment.index.loader;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.zip.CRC32;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.apache.commons.io.FileUtils;
@@ -45,6 +50,9 @@ import org.apache.pinot.core.segment.store.SegmentDirectory;
  * </ul>
  */
 public class SegmentPreProcessor implements AutoCloseable {
+  // File to track the checksum of the index config used in the last successful pre-processing
+  public static final String INDEX_CONFIG_CHECKSUM_FILE_NAME = "index_config.checksum";
+
   private final File _indexDir;
   private final IndexLoadingConfig _indexLoadingConfig;
   private final Schema _schema;
@@ -117,6 +125,58 @@ public class SegmentPreProcessor implements AutoCloseable {
     }
   }
 
+  /**
+   * Returns whether the segment needs to be pre-processed, i.e. it has not been pre-processed with the same index
+   * config and schema as tracked by the checksum file written in {@link #markProcessed(File, String)}.
+   */
+  public static boolean needProcess(File indexDir, String indexConfigChecksum) {
+    File checksumFile = new File(indexDir, INDEX_CONFIG_CHECKSUM_FILE_NAME);
+    if (!checksumFile.exists()) {
+      return true;
+    }
+    try {
+      return !indexConfigChecksum.equals(FileUtils.readFileToString(checksumFile, StandardCharsets.UTF_8).trim());
+    } catch (IOException e) {
+      return true;
+    }
+  }
+
+  /**
+   * Writes the checksum file after the segment is successfully pre-processed, or removes it (when the given checksum
+   * is {@code null}) before pre-processing the segment.
+   */
+  public static void markProcessed(File indexDir, @Nullable String indexConfigChecksum)
+      throws IOException {
+    File checksumFile = new File(indexDir, INDEX_CONFIG_CHECKSUM_FILE_NAME);
+    if (indexConfigChecksum != null) {
+      FileUtils.writeStringToFile(checksumFile, indexConfigChecksum, StandardCharsets.UTF_8);
+    } else {
+      FileUtils.deleteQuietly(checksumFile);
+    }
+  }
+
+  /**
+   * Computes the checksum of everything that can affect the pre-processing of the segment: the segment CRC, the index
+   * config used by the pre-processing steps and the schema.
+   */
+  public static String computeIndexConfigChecksum(SegmentMetadataImpl segmentMetadata,
+      IndexLoadingConfig indexLoadingConfig, @Nullable Schema schema) {
+    StringBuilder stringBuilder = new StringBuilder();
+    stringBuilder.append("crc=").append(segmentMetadata.getCrc());
+    stringBuilder.append(";invertedIndexColumns=").append(sorted(indexLoadingConfig.getInvertedIndexColumns()));
+    stringBuilder.append(";bloomFilterColumns=").append(sorted(indexLoadingConfig.getBloomFilterColumns()));
+    stringBuilder.append(";columnMinMaxValueGeneratorMode=")
+        .append(indexLoadingConfig.getColumnMinMaxValueGeneratorMode());
+    stringBuilder.append(";schema=").append(schema != null ? schema.toSingleLineJsonString() : null);
+    CRC32 crc32 = new CRC32();
+    crc32.update(stringBuilder.toString().getBytes(StandardCharsets.UTF_8));
+    return Long.toString(crc32.getValue());
+  }
+
+  private static Set<String> sorted(Set<String> columns) {
+    return new TreeSet<>(columns);
+  }
+
   @Override
   public void close()
       throws Exception {
@@ -0,0 +1,60 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.index.readers;
+
+import com.google.common.base.Preconditions;
+import org.apache.pinot.core.segment.creator.impl.zonemap.ZoneMapCreator;
+import org.apache.pinot.core.segment.memory.PinotDataBuffer;
+
+
+/**
+ * Reader for the per-block min/max dictionary ids (zone map) written by {@link ZoneMapCreator}.
+ */
+public class ZoneMapReader {
+  private static final int HEADER_SIZE = 3 * Integer.BYTES;
+  private static final int ENTRY_SIZE = 2 * Integer.BYTES;
+
+  private final PinotDataBuffer _dataBuffer;
+  private final int _numDocsPerBlock;
+  private final int _numBlocks;
+
+  public ZoneMapReader(PinotDataBuffer dataBuffer) {
+    int version = dataBuffer.getInt(0);
+    Preconditions.checkState(version == ZoneMapCreator.VERSION, "Unsupported zone map version: %s", version);
+    _dataBuffer = dataBuffer;
+    _numDocsPerBlock = dataBuffer.getInt(Integer.BYTES);
+    _numBlocks = dataBuffer.getInt(2 * Integer.BYTES);
+  }
+
+  public int getNumDocsPerBlock() {
+    return _numDocsPerBlock;
+  }
+
+  public int getNumBlocks() {
+    return _numBlocks;
+  }
+
+  public int getMinDictId(int blockId) {
+    return _dataBuffer.getInt(HEADER_SIZE + (long) blockId * ENTRY_SIZE);
+  }
+
+  public int getMaxDictId(int blockId) {
+    return _dataBuffer.getInt(HEADER_SIZE + (long) blockId * ENTRY_SIZE + Integer.BYTES);
+  }
+}
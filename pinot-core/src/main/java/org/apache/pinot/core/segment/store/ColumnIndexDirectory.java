@@ -117,6 +117,15 @@ abstract class ColumnIndexDirectory implements Closeable {
   public abstract PinotDataBuffer getNullValueVectorBufferFor(String column)
       throws IOException;
 
+  /**
+   * Get zone map buffer for a column
+   * @param column column name
+   * @return in-memory ByteBuffer like buffer for data
+   * @throws IOException
+   */
+  public abstract PinotDataBuffer getZoneMapBufferFor(String column)
+      throws IOException;
+
   /**
    * Allocate a new data buffer of specified sizeBytes in the columnar index directory
    * @param column column name
@@ -167,6 +176,16 @@ abstract class ColumnIndexDirectory implements Closeable {
   public abstract PinotDataBuffer newNullValueVectorBuffer(String column, long sizeBytes)
       throws IOException;
 
+  /**
+   * Allocate a new data buffer of specified sizeBytes in the columnar index directory
+   * @param column column name
+   * @param sizeBytes sizeBytes for the buffer allocation
+   * @return in-memory ByteBuffer like buffer for data
+   * @throws IOException
+   */
+  public abstract PinotDataBuffer newZoneMapBuffer(String column, long sizeBytes)
+      throws IOException;
+
   /**
    * Check if an index exists for a column
    * @param column column name
@@ -182,6 +201,17 @@ abstract class ColumnIndexDirectory implements Closeable {
    */
   public abstract void removeIndex(String columnName, ColumnIndexType indexType);
 
+  /**
+   * Release the data buffers of all the indexes for a column. The buffers will be mapped again on the next access if
+   * the implementation supports mapping the indexes of a column separately, otherwise this is a no-op.
+   * NOTE: caller must ensure that the released buffers are no longer accessed.
+   * @param column column name
+   * @return true if the buffers are released; false otherwise
+   * @throws IOException
+   */
+  public abstract boolean releaseIndexesFor(String column)
+      throws IOException;
+
   /**
    * Check if the implementation supports removing existing index
    * @return true if the index removal is supported
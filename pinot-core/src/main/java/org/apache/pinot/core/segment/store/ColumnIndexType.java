@@ -23,7 +23,8 @@ public enum ColumnIndexType {
   FORWARD_INDEX("forward_index"),
   INVERTED_INDEX("inverted_index"),
   BLOOM_FILTER("bloom_filter"),
-  NULLVALUE_VECTOR("nullvalue_vector");
+  NULLVALUE_VECTOR("nullvalue_vector"),
+  ZONE_MAP("zone_map");
 
   private final String indexName;
 
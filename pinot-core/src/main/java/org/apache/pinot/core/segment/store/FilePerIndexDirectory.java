@@ -24,6 +24,7 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.ByteOrder;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 import org.apache.pinot.common.segment.ReadMode;
 import org.apache.pinot.core.segment.index.SegmentMetadataImpl;
@@ -111,6 +112,20 @@ class FilePerIndexDirectory extends ColumnIndexDirectory {
     return getWriteBufferFor(key, sizeBytes);
   }
 
+  @Override
+  public PinotDataBuffer getZoneMapBufferFor(String column)
+      throws IOException {
+    IndexKey key = new IndexKey(column, ColumnIndexType.ZONE_MAP);
+    return getReadBufferFor(key);
+  }
+
+  @Override
+  public PinotDataBuffer newZoneMapBuffer(String column, long sizeBytes)
+      throws IOException {
+    IndexKey key = new IndexKey(column, ColumnIndexType.ZONE_MAP);
+    return getWriteBufferFor(key, sizeBytes);
+  }
+
   @Override
   public boolean hasIndexFor(String column, ColumnIndexType type) {
     File indexFile = getFileFor(column, type);
@@ -136,7 +151,22 @@ class FilePerIndexDirectory extends ColumnIndexDirectory {
     return true;
   }
 
-  private PinotDataBuffer getReadBufferFor(IndexKey key)
+  @Override
+  public synchronized boolean releaseIndexesFor(String column)
+      throws IOException {
+    // Each index is stored in a separate file, and mapped separately on the first access
+    Iterator<Map.Entry<IndexKey, PinotDataBuffer>> iterator = indexBuffers.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<IndexKey, PinotDataBuffer> entry = iterator.next();
+      if (entry.getKey().name.equals(column)) {
+        entry.getValue().close();
+        iterator.remove();
+      }
+    }
+    return true;
+  }
+
+  private synchronized PinotDataBuffer getReadBufferFor(IndexKey key)
       throws IOException {
     if (indexBuffers.containsKey(key)) {
       return indexBuffers.get(key);
@@ -179,6 +209,9 @@ class FilePerIndexDirectory extends ColumnIndexDirectory {
       case NULLVALUE_VECTOR:
         filename = metadata.getNullValueVectorFileName(column);
         break;
+      case ZONE_MAP:
+        filename = metadata.getZoneMapFileName(column);
+        break;
       default:
         throw new UnsupportedOperationException("Unknown index type: " + indexType.toString());
     }
@@ -110,6 +110,20 @@ public abstract class SegmentDirectory implements Closeable {
     return new SegmentLocalFSDirectory(directory, metadata, readMode);
   }
 
+  /**
+   * Create segment directory from local file system
+   * @param directory File object representing segment directory on disk
+   * @param metadata segment metadata
+   * @param readMode mmap vs heap ReadMode for data
+   * @param lazyLoadIndexes whether to map the indexes of each column separately on the first access, which allows
+   *                        releasing the indexes for a column through {@link Reader#releaseIndexesFor(String)}
+   * @return segmentDirectory
+   */
+  public static SegmentDirectory createFromLocalFS(File directory, SegmentMetadataImpl metadata, ReadMode readMode,
+      boolean lazyLoadIndexes) {
+    return new SegmentLocalFSDirectory(directory, metadata, readMode, lazyLoadIndexes);
+  }
+
   public static SegmentDirectory createFromLocalFS(File directory, ReadMode readMode)
       throws IOException, ConfigurationException {
     return new SegmentLocalFSDirectory(directory, readMode);
@@ -163,6 +177,16 @@ public abstract class SegmentDirectory implements Closeable {
 
     public abstract boolean hasIndexFor(String column, ColumnIndexType type);
 
+    /**
+     * Release the data buffers of all the indexes for a column, which will be mapped again on the next access.
+     * NOTE: caller must ensure that the released buffers are no longer accessed.
+     * @param column column name
+     * @return true if the buffers are released; false if the indexes for the column cannot be released separately
+     * @throws IOException
+     */
+    public abstract boolean releaseIndexesFor(String column)
+        throws IOException;
+
     public abstract String toString();
   }
 
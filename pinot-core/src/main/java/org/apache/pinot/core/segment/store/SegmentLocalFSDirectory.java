@@ -53,6 +53,7 @@ class SegmentLocalFSDirectory extends SegmentDirectory {
   SegmentLock segmentLock;
   private SegmentMetadataImpl segmentMetadata;
   private ReadMode readMode;
+  private boolean lazyLoadIndexes;
 
   private ColumnIndexDirectory columnIndexDirectory;
 
@@ -66,6 +67,11 @@ class SegmentLocalFSDirectory extends SegmentDirectory {
   }
 
   SegmentLocalFSDirectory(File directoryFile, SegmentMetadataImpl metadata, ReadMode readMode) {
+    this(directoryFile, metadata, readMode, false);
+  }
+
+  SegmentLocalFSDirectory(File directoryFile, SegmentMetadataImpl metadata, ReadMode readMode,
+      boolean lazyLoadIndexes) {
 
     Preconditions.checkNotNull(directoryFile);
     Preconditions.checkNotNull(metadata);
@@ -76,6 +82,7 @@ class SegmentLocalFSDirectory extends SegmentDirectory {
     segmentLock = new SegmentLock();
     this.segmentMetadata = metadata;
     this.readMode = readMode;
+    this.lazyLoadIndexes = lazyLoadIndexes;
     try {
       load();
     } catch (IOException | ConfigurationException e) {
@@ -200,7 +207,8 @@ class SegmentLocalFSDirectory extends SegmentDirectory {
         break;
       case v3:
         try {
-          columnIndexDirectory = new SingleFileIndexDirectory(segmentDirectory, segmentMetadata, readMode);
+          columnIndexDirectory =
+              new SingleFileIndexDirectory(segmentDirectory, segmentMetadata, readMode, lazyLoadIndexes);
         } catch (ConfigurationException e) {
           LOGGER.error("Failed to create columnar index directory", e);
           throw new RuntimeException(e);
@@ -245,10 +253,14 @@ class SegmentLocalFSDirectory extends SegmentDirectory {
       case NULLVALUE_VECTOR:
         buffer = columnIndexDirectory.getNullValueVectorBufferFor(column);
         break;
+      case ZONE_MAP:
+        buffer = columnIndexDirectory.getZoneMapBufferFor(column);
+        break;
       default:
         throw new RuntimeException("Unknown index type: " + type.name());
     }
-    if (readMode == ReadMode.mmap) {
+    // NOTE: lazily loaded indexes are only mapped when accessed, so do not prefetch them
+    if (readMode == ReadMode.mmap && !lazyLoadIndexes) {
       prefetchMmapData(buffer);
     }
     return buffer;
@@ -346,6 +358,12 @@ class SegmentLocalFSDirectory extends SegmentDirectory {
       return columnIndexDirectory.hasIndexFor(column, type);
     }
 
+    @Override
+    public boolean releaseIndexesFor(String column)
+        throws IOException {
+      return columnIndexDirectory.releaseIndexesFor(column);
+    }
+
     @Override
     public void close() {
       // do nothing here
@@ -428,6 +446,8 @@ class SegmentLocalFSDirectory extends SegmentDirectory {
           return columnIndexDirectory.newBloomFilterBuffer(key.name, sizeBytes);
         case NULLVALUE_VECTOR:
           return columnIndexDirectory.newNullValueVectorBuffer(key.name, sizeBytes);
+        case ZONE_MAP:
+          return columnIndexDirectory.newZoneMapBuffer(key.name, sizeBytes);
         default:
           throw new RuntimeException("Unknown index type: " + indexType.name() + " for directory: " + segmentDirectory);
       }
@@ -474,6 +494,12 @@ class SegmentLocalFSDirectory extends SegmentDirectory {
     public boolean hasIndexFor(String column, ColumnIndexType type) {
       return columnIndexDirectory.hasIndexFor(column, type);
     }
+
+    @Override
+    public boolean releaseIndexesFor(String column)
+        throws IOException {
+      return columnIndexDirectory.releaseIndexesFor(column);
+    }
   }
 
   /*
@@ -76,9 +76,19 @@ class SingleFileIndexDirectory extends ColumnIndexDirectory {
   private File indexFile;
   private Map<IndexKey, IndexEntry> columnEntries;
   private List<PinotDataBuffer> allocBuffers;
+  // When lazy loading is enabled, each index is mapped separately on its first access instead of mapping the whole
+  // index file when loading the segment, so that the indexes for a column can be released separately
+  private final boolean lazyLoad;
+  private Map<IndexKey, PinotDataBuffer> lazyAllocBuffers;
 
   public SingleFileIndexDirectory(File segmentDirectory, SegmentMetadataImpl metadata, ReadMode readMode)
       throws IOException, ConfigurationException {
+    this(segmentDirectory, metadata, readMode, false);
+  }
+
+  public SingleFileIndexDirectory(File segmentDirectory, SegmentMetadataImpl metadata, ReadMode readMode,
+      boolean lazyLoad)
+      throws IOException, ConfigurationException {
     super(segmentDirectory, metadata, readMode);
     indexFile = new File(segmentDirectory, DEFAULT_INDEX_FILE_NAME);
     if (!indexFile.exists()) {
@@ -86,6 +96,8 @@ class SingleFileIndexDirectory extends ColumnIndexDirectory {
     }
     columnEntries = new HashMap<>(metadata.getAllColumns().size());
     allocBuffers = new ArrayList<>();
+    this.lazyLoad = lazyLoad;
+    lazyAllocBuffers = new HashMap<>();
     load();
   }
 
@@ -119,6 +131,12 @@ class SingleFileIndexDirectory extends ColumnIndexDirectory {
     return checkAndGetIndexBuffer(column, ColumnIndexType.NULLVALUE_VECTOR);
   }
 
+  @Override
+  public PinotDataBuffer getZoneMapBufferFor(String column)
+      throws IOException {
+    return checkAndGetIndexBuffer(column, ColumnIndexType.ZONE_MAP);
+  }
+
   @Override
   public boolean hasIndexFor(String column, ColumnIndexType type) {
     IndexKey key = new IndexKey(column, type);
@@ -155,9 +173,19 @@ class SingleFileIndexDirectory extends ColumnIndexDirectory {
     return allocNewBufferInternal(column, ColumnIndexType.NULLVALUE_VECTOR, sizeBytes, "nullvalue_vector.create");
   }
 
-  private PinotDataBuffer checkAndGetIndexBuffer(String column, ColumnIndexType type) {
+  @Override
+  public PinotDataBuffer newZoneMapBuffer(String column, long sizeBytes)
+      throws IOException {
+    return allocNewBufferInternal(column, ColumnIndexType.ZONE_MAP, sizeBytes, "zone_map.create");
+  }
+
+  private synchronized PinotDataBuffer checkAndGetIndexBuffer(String column, ColumnIndexType type)
+      throws IOException {
     IndexKey key = new IndexKey(column, type);
     IndexEntry entry = columnEntries.get(key);
+    if (lazyLoad && entry != null && entry.buffer == null) {
+      mapIndexEntry(entry);
+    }
     if (entry == null || entry.buffer == null) {
       throw new RuntimeException(
           "Could not find index for column: " + column + ", type: " + type + ", segment: " + segmentDirectory
@@ -214,7 +242,9 @@ class SingleFileIndexDirectory extends ColumnIndexDirectory {
   private void load()
       throws IOException, ConfigurationException {
     loadMap();
-    mapBufferEntries();
+    if (!lazyLoad) {
+      mapBufferEntries();
+    }
   }
 
   private void loadMap()
@@ -326,6 +356,24 @@ class SingleFileIndexDirectory extends ColumnIndexDirectory {
     }
   }
 
+  private void mapIndexEntry(IndexEntry entry)
+      throws IOException {
+    String context = allocationContext(indexFile,
+        "single_file_index.lazy." + entry.key + "." + String.valueOf(entry.startOffset) + "." + String
+            .valueOf(entry.size));
+
+    // Backward-compatible: index file is always big-endian
+    PinotDataBuffer buffer;
+    if (readMode == ReadMode.heap) {
+      buffer = PinotDataBuffer.loadFile(indexFile, entry.startOffset, entry.size, ByteOrder.BIG_ENDIAN, context);
+    } else {
+      buffer = PinotDataBuffer.mapFile(indexFile, true, entry.startOffset, entry.size, ByteOrder.BIG_ENDIAN, context);
+    }
+    validateMagicMarker(buffer, 0);
+    lazyAllocBuffers.put(entry.key, buffer);
+    entry.buffer = buffer.view(MAGIC_MARKER_SIZE_BYTES, entry.size);
+  }
+
   private void persistIndexMap(IndexEntry entry)
       throws IOException {
     File mapFile = new File(segmentDirectory, INDEX_MAP_FILE);
@@ -352,13 +400,35 @@ class SingleFileIndexDirectory extends ColumnIndexDirectory {
   }
 
   @Override
-  public void close()
+  public synchronized void close()
       throws IOException {
     for (PinotDataBuffer buf : allocBuffers) {
       buf.close();
     }
+    for (PinotDataBuffer buf : lazyAllocBuffers.values()) {
+      buf.close();
+    }
     columnEntries.clear();
     allocBuffers.clear();
+    lazyAllocBuffers.clear();
+  }
+
+  @Override
+  public synchronized boolean releaseIndexesFor(String column)
+      throws IOException {
+    // Without lazy loading, indexes for multiple columns share the same mapped buffer which cannot be released
+    if (!lazyLoad) {
+      return false;
+    }
+    for (ColumnIndexType indexType : ColumnIndexType.values()) {
+      IndexKey key = new IndexKey(column, indexType);
+      PinotDataBuffer buffer = lazyAllocBuffers.remove(key);
+      if (buffer != null) {
+        columnEntries.get(key).buffer = null;
+        buffer.close();
+      }
+    }
+    return true;
   }
 
   @Override
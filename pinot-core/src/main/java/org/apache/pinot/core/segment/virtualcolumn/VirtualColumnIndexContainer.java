@@ -24,6 +24,7 @@ import org.apache.pinot.core.segment.index.readers.BloomFilterReader;
 import org.apache.pinot.core.segment.index.readers.Dictionary;
 import org.apache.pinot.core.segment.index.readers.InvertedIndexReader;
 import org.apache.pinot.core.segment.index.readers.NullValueVectorReaderImpl;
+import org.apache.pinot.core.segment.index.readers.ZoneMapReader;
 
 
 /**
@@ -65,4 +66,9 @@ public class VirtualColumnIndexContainer implements ColumnIndexContainer {
   public NullValueVectorReaderImpl getNullValueVector() {
     return null;
   }
+
+  @Override
+  public ZoneMapReader getZoneMap() {
+    return null;
+  }
 }
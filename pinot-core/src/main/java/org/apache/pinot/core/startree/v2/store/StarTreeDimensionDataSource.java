@@ -28,6 +28,7 @@ import org.apache.pinot.core.segment.index.readers.BloomFilterReader;
 import org.apache.pinot.core.segment.index.readers.Dictionary;
 import org.apache.pinot.core.segment.index.readers.InvertedIndexReader;
 import org.apache.pinot.core.segment.index.readers.NullValueVectorReader;
+import org.apache.pinot.core.segment.index.readers.ZoneMapReader;
 import org.apache.pinot.core.segment.memory.PinotDataBuffer;
 
 
@@ -119,6 +120,11 @@ public class StarTreeDimensionDataSource extends DataSource {
     return null;
   }
 
+  @Override
+  public ZoneMapReader getZoneMap() {
+    return null;
+  }
+
   @Override
   protected Block getNextBlock() {
     return new SingleValueBlock(_forwardIndex, _numDocs, _dataType, _dictionary);
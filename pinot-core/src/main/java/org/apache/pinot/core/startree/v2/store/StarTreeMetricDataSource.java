@@ -31,6 +31,7 @@ import org.apache.pinot.core.segment.index.readers.BloomFilterReader;
 import org.apache.pinot.core.segment.index.readers.Dictionary;
 import org.apache.pinot.core.segment.index.readers.InvertedIndexReader;
 import org.apache.pinot.core.segment.index.readers.NullValueVectorReader;
+import org.apache.pinot.core.segment.index.readers.ZoneMapReader;
 import org.apache.pinot.core.segment.memory.PinotDataBuffer;
 
 
@@ -124,6 +125,11 @@ public class StarTreeMetricDataSource extends DataSource {
     return null;
   }
 
+  @Override
+  public ZoneMapReader getZoneMap() {
+    return null;
+  }
+
   @Override
   protected Block getNextBlock() {
     return new SingleValueBlock(_forwardIndex, _numDocs, _dataType, null);
@@ -18,18 +18,24 @@
  */
 package org.apache.pinot.core.transport;
 
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.common.utils.CommonConstants.Helix.TableType;
 import org.apache.pinot.common.utils.DataTable;
 
 
 /**
  * The {@code AsyncQueryResponse} class represents an asynchronous query response.
  * <p>Call {@link #getResponse()} to get the query response asynchronously.
+ * <p>A server not responded in time can be hedged by re-issuing its segments to other servers (alternates). The
+ * server is done when either itself responds, or all the alternates respond without exception, whichever comes first.
  */
 @ThreadSafe
 public class AsyncQueryResponse {
@@ -38,9 +44,34 @@ public class AsyncQueryResponse {
   private final ConcurrentHashMap<ServerRoutingInstance, ServerResponse> _responseMap;
   private final CountDownLatch _countDownLatch;
   private final long _maxEndTimeMs;
+  // Latency recorded for the failed requests in the server stats
+  private final long _timeoutMs;
+  private final HedgingPolicy _offlineHedgingPolicy;
+  private final HedgingPolicy _realtimeHedgingPolicy;
+  // Servers with the request submitted but the stats not recorded yet
+  private final Set<ServerRoutingInstance> _serversPendingStats = ConcurrentHashMap.newKeySet();
+  // Servers (excluding the alternates) that are done, either responded or hedged
+  private final Set<ServerRoutingInstance> _serversDone = ConcurrentHashMap.newKeySet();
+  // Map from server to its hedged request
+  private final ConcurrentHashMap<ServerRoutingInstance, HedgedRequest> _hedgedRequestMap = new ConcurrentHashMap<>();
+  // Map from alternate to its response
+  private final ConcurrentHashMap<ServerRoutingInstance, ServerResponse> _alternateResponseMap =
+      new ConcurrentHashMap<>();
+  // Map from alternate to the server hedged by the alternate
+  private final ConcurrentHashMap<ServerRoutingInstance, ServerRoutingInstance> _alternateToServerMap =
+      new ConcurrentHashMap<>();
+  private final AtomicInteger _numHedgedRequestWins = new AtomicInteger();
+  // Whether the query is failed before all the servers respond (e.g. a server went down)
+  private volatile boolean _queryFailed;
 
   public AsyncQueryResponse(QueryRouter queryRouter, long requestId, Set<ServerRoutingInstance> serversQueried,
       long startTimeMs, long timeoutMs) {
+    this(queryRouter, requestId, serversQueried, startTimeMs, timeoutMs, null, null);
+  }
+
+  public AsyncQueryResponse(QueryRouter queryRouter, long requestId, Set<ServerRoutingInstance> serversQueried,
+      long startTimeMs, long timeoutMs, @Nullable HedgingPolicy offlineHedgingPolicy,
+      @Nullable HedgingPolicy realtimeHedgingPolicy) {
     _queryRouter = queryRouter;
     _requestId = requestId;
     int numServersQueried = serversQueried.size();
@@ -50,18 +81,46 @@ public class AsyncQueryResponse {
     }
     _countDownLatch = new CountDownLatch(numServersQueried);
     _maxEndTimeMs = startTimeMs + timeoutMs;
+    _timeoutMs = timeoutMs;
+    _offlineHedgingPolicy = offlineHedgingPolicy;
+    _realtimeHedgingPolicy = realtimeHedgingPolicy;
   }
 
   /**
    * Waits until the query is done and returns a map from the server to the response.
+   * <p>For the servers hedged by the alternates, the responses of the alternates are returned instead.
    */
   public Map<ServerRoutingInstance, ServerResponse> getResponse()
       throws InterruptedException {
     try {
       _countDownLatch.await(_maxEndTimeMs - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
-      return _responseMap;
+      if (_hedgedRequestMap.isEmpty()) {
+        return _responseMap;
+      }
+      Map<ServerRoutingInstance, ServerResponse> responseMap = new HashMap<>(_responseMap);
+      for (Map.Entry<ServerRoutingInstance, HedgedRequest> entry : _hedgedRequestMap.entrySet()) {
+        HedgedRequest hedgedRequest = entry.getValue();
+        if (hedgedRequest._won) {
+          responseMap.remove(entry.getKey());
+          for (ServerRoutingInstance alternate : hedgedRequest._alternates) {
+            responseMap.put(alternate, _alternateResponseMap.get(alternate));
+          }
+        }
+      }
+      return responseMap;
     } finally {
       _queryRouter.markQueryDone(_requestId);
+      // Record the servers not responded in time as failed, but not the ones whose response is no longer needed
+      ServerStatsTracker serverStatsTracker = _queryRouter.getServerStatsTracker();
+      for (ServerRoutingInstance serverRoutingInstance : _serversPendingStats) {
+        if (_serversPendingStats.remove(serverRoutingInstance)) {
+          if (isResponseNeeded(serverRoutingInstance)) {
+            serverStatsTracker.recordFailure(serverRoutingInstance, _timeoutMs);
+          } else {
+            serverStatsTracker.recordRequestCancelled(serverRoutingInstance);
+          }
+        }
+      }
     }
   }
 
@@ -75,20 +134,153 @@ public class AsyncQueryResponse {
     for (Map.Entry<ServerRoutingInstance, ServerResponse> entry : _responseMap.entrySet()) {
       stringBuilder.append(';').append(entry.getKey().getShortName()).append('=').append(entry.getValue().toString());
     }
+    for (Map.Entry<ServerRoutingInstance, ServerResponse> entry : _alternateResponseMap.entrySet()) {
+      stringBuilder.append(";(hedged)").append(entry.getKey().getShortName()).append('=')
+          .append(entry.getValue().toString());
+    }
     return stringBuilder.toString();
   }
 
+  /**
+   * Returns the number of servers hedged by the alternates that responded first.
+   * <p>Should be called after calling {@link #getResponse()}.
+   */
+  public int getNumHedgedRequestWins() {
+    return _numHedgedRequestWins.get();
+  }
+
   void markRequestSubmitted(ServerRoutingInstance serverRoutingInstance) {
-    _responseMap.get(serverRoutingInstance).markRequestSubmitted();
+    getServerResponse(serverRoutingInstance).markRequestSubmitted();
+    _queryRouter.getServerStatsTracker().recordRequestSubmitted(serverRoutingInstance);
+    _serversPendingStats.add(serverRoutingInstance);
+  }
+
+  /**
+   * Returns whether the response of a server not responded is still needed when the query is done. The response is not
+   * needed if the query failed because of another server, if the server lost the race against its hedged request, or
+   * if the server is an alternate of a server already done (the original request won, or the hedge was not needed).
+   */
+  private boolean isResponseNeeded(ServerRoutingInstance serverRoutingInstance) {
+    if (_queryFailed) {
+      return false;
+    }
+    ServerRoutingInstance hedgedServer = _alternateToServerMap.get(serverRoutingInstance);
+    return !isServerDone(hedgedServer != null ? hedgedServer : serverRoutingInstance);
+  }
+
+  /**
+   * Returns whether the server is done, either responded or hedged by the alternates.
+   */
+  boolean isServerDone(ServerRoutingInstance serverRoutingInstance) {
+    return _serversDone.contains(serverRoutingInstance);
+  }
+
+  /**
+   * Returns whether the query is already sent (or going to be sent) to the server, either as the original request or
+   * the hedged request.
+   */
+  boolean isServerQueried(ServerRoutingInstance serverRoutingInstance) {
+    return _responseMap.containsKey(serverRoutingInstance) || _alternateResponseMap.containsKey(serverRoutingInstance);
+  }
+
+  /**
+   * Registers a hedged request for the given server to the given alternates, returns {@code false} if the server is
+   * already done or already hedged, or any of the alternates is already queried.
+   * <p>Should be called before sending the hedged request to the alternates.
+   */
+  synchronized boolean addHedgedRequest(ServerRoutingInstance serverRoutingInstance,
+      Set<ServerRoutingInstance> alternates) {
+    if (isServerDone(serverRoutingInstance) || _hedgedRequestMap.containsKey(serverRoutingInstance)) {
+      return false;
+    }
+    for (ServerRoutingInstance alternate : alternates) {
+      if (isServerQueried(alternate)) {
+        return false;
+      }
+    }
+    long startTimeMs = System.currentTimeMillis();
+    for (ServerRoutingInstance alternate : alternates) {
+      _alternateResponseMap.put(alternate, new ServerResponse(startTimeMs));
+      _alternateToServerMap.put(alternate, serverRoutingInstance);
+    }
+    _hedgedRequestMap.put(serverRoutingInstance, new HedgedRequest(alternates));
+    return true;
   }
 
   void receiveDataTable(ServerRoutingInstance serverRoutingInstance, DataTable dataTable, int responseSize,
       int deserializationTimeMs) {
-    _responseMap.get(serverRoutingInstance).receiveDataTable(dataTable, responseSize, deserializationTimeMs);
-    _countDownLatch.countDown();
+    ServerResponse serverResponse = _responseMap.get(serverRoutingInstance);
+    if (serverResponse != null) {
+      serverResponse.receiveDataTable(dataTable, responseSize, deserializationTimeMs);
+      recordStats(serverRoutingInstance, serverResponse, dataTable);
+      HedgingPolicy hedgingPolicy = getHedgingPolicy(serverRoutingInstance.getTableType());
+      if (hedgingPolicy != null) {
+        hedgingPolicy.recordLatency(serverResponse.getResponseDelayMs());
+      }
+      if (_serversDone.add(serverRoutingInstance)) {
+        _countDownLatch.countDown();
+      }
+    } else {
+      // Response from an alternate
+      serverResponse = _alternateResponseMap.get(serverRoutingInstance);
+      if (serverResponse == null) {
+        return;
+      }
+      serverResponse.receiveDataTable(dataTable, responseSize, deserializationTimeMs);
+      recordStats(serverRoutingInstance, serverResponse, dataTable);
+      if (hasException(dataTable)) {
+        // Wait for the original server if the alternate responded with exception
+        return;
+      }
+      ServerRoutingInstance hedgedServer = _alternateToServerMap.get(serverRoutingInstance);
+      HedgedRequest hedgedRequest = _hedgedRequestMap.get(hedgedServer);
+      if (hedgedRequest._numAlternatesPending.decrementAndGet() == 0 && _serversDone.add(hedgedServer)) {
+        hedgedRequest._won = true;
+        _numHedgedRequestWins.getAndIncrement();
+        _countDownLatch.countDown();
+      }
+    }
+  }
+
+  private ServerResponse getServerResponse(ServerRoutingInstance serverRoutingInstance) {
+    ServerResponse serverResponse = _responseMap.get(serverRoutingInstance);
+    return serverResponse != null ? serverResponse : _alternateResponseMap.get(serverRoutingInstance);
+  }
+
+  @Nullable
+  private HedgingPolicy getHedgingPolicy(TableType tableType) {
+    return tableType == TableType.OFFLINE ? _offlineHedgingPolicy : _realtimeHedgingPolicy;
+  }
+
+  private void recordStats(ServerRoutingInstance serverRoutingInstance, ServerResponse serverResponse,
+      DataTable dataTable) {
+    if (_serversPendingStats.remove(serverRoutingInstance)) {
+      ServerStatsTracker serverStatsTracker = _queryRouter.getServerStatsTracker();
+      if (hasException(dataTable)) {
+        serverStatsTracker.recordFailure(serverRoutingInstance, _timeoutMs);
+      } else {
+        serverStatsTracker
+            .recordResponse(serverRoutingInstance, serverResponse.getResponseDelayMs(), getServiceTimeMs(dataTable));
+      }
+    }
+  }
+
+  private static long getServiceTimeMs(DataTable dataTable) {
+    String timeUsedMs = dataTable.getMetadata().get(DataTable.TIME_USED_MS_METADATA_KEY);
+    return timeUsedMs != null ? Long.parseLong(timeUsedMs) : -1L;
+  }
+
+  private static boolean hasException(DataTable dataTable) {
+    for (String key : dataTable.getMetadata().keySet()) {
+      if (key.startsWith(DataTable.EXCEPTION_METADATA_KEY)) {
+        return true;
+      }
+    }
+    return false;
   }
 
   void markQueryFailed() {
+    _queryFailed = true;
     int count = (int) _countDownLatch.getCount();
     for (int i = 0; i < count; i++) {
       _countDownLatch.countDown();
@@ -97,12 +289,36 @@ public class AsyncQueryResponse {
 
   /**
    * NOTE: the server might not be hit by the query. Only fail the query if the query was sent to the server and the
-   * server hasn't responded yet.
+   * server hasn't responded yet. An alternate going down does not fail the query because the hedged server might still
+   * respond.
    */
   void markServerDown(ServerRoutingInstance serverRoutingInstance) {
+    markRequestFailed(serverRoutingInstance);
+  }
+
+  /**
+   * Marks the request to the server failed. Fails the query if the server is queried and hasn't responded yet, but not
+   * if the server is an alternate because the hedged server might still respond.
+   */
+  void markRequestFailed(ServerRoutingInstance serverRoutingInstance) {
+    // The request failure is recorded even if its response is no longer needed
+    if (_serversPendingStats.remove(serverRoutingInstance)) {
+      _queryRouter.getServerStatsTracker().recordFailure(serverRoutingInstance, _timeoutMs);
+    }
     ServerResponse serverResponse = _responseMap.get(serverRoutingInstance);
-    if (serverResponse != null && serverResponse.getDataTable() == null) {
+    if (serverResponse != null && serverResponse.getDataTable() == null && !isServerDone(serverRoutingInstance)) {
       markQueryFailed();
     }
   }
+
+  private static class HedgedRequest {
+    final Set<ServerRoutingInstance> _alternates;
+    final AtomicInteger _numAlternatesPending;
+    volatile boolean _won;
+
+    HedgedRequest(Set<ServerRoutingInstance> alternates) {
+      _alternates = alternates;
+      _numAlternatesPending = new AtomicInteger(alternates.size());
+    }
+  }
 }
@@ -0,0 +1,136 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.transport;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+
+/**
+ * The {@code HedgingPolicy} class contains the per table settings and states for the hedged requests.
+ * <p>When a server has not responded after the configured percentile of the recent response latencies of the table,
+ * the broker re-issues the segments of the server to other replicas, and uses whichever response arrives first. To
+ * bound the extra load, each request deposits {@code budgetPercent / 100} token into the hedging budget, and each
+ * hedged request takes one token from it.
+ */
+@ThreadSafe
+public class HedgingPolicy {
+  // Number of recent response latencies kept to compute the hedging delay
+  private static final int NUM_LATENCY_SAMPLES = 1000;
+  // Do not hedge before collecting enough latency samples
+  private static final int MIN_NUM_LATENCY_SAMPLES = 100;
+  // Recompute the hedging delay every this number of latency samples instead of for each query
+  private static final int HEDGING_DELAY_UPDATE_INTERVAL = 100;
+  // Maximum number of tokens that can be accumulated in the hedging budget
+  private static final double MAX_BUDGET = 10.0;
+
+  private final double _latencyPercentile;
+  private final double _budgetPercent;
+  private final long _minDelayMs;
+
+  // Racy writes are acceptable for the latency samples
+  private final int[] _latencySamples = new int[NUM_LATENCY_SAMPLES];
+  private final AtomicLong _numLatencySamples = new AtomicLong();
+  private volatile long _hedgingDelayMs = -1L;
+  // Guarded by this
+  private double _budget;
+
+  private volatile Map<String, List<ServerInstance>> _segmentToServersMap;
+
+  /**
+   * @param latencyPercentile Percentile of the recent response latencies used as the hedging delay
+   * @param budgetPercent Maximum percentage of the requests that can be hedged
+   * @param minDelayMs Minimum hedging delay in milliseconds
+   */
+  public HedgingPolicy(double latencyPercentile, double budgetPercent, long minDelayMs) {
+    _latencyPercentile = latencyPercentile;
+    _budgetPercent = budgetPercent;
+    _minDelayMs = minDelayMs;
+  }
+
+  /**
+   * Sets the mapping from segment to all the servers hosting the segment, used to pick the replicas to hedge to.
+   * <p>Should be called whenever the routing changes.
+   */
+  public void setSegmentToServersMap(Map<String, List<ServerInstance>> segmentToServersMap) {
+    _segmentToServersMap = segmentToServersMap;
+  }
+
+  @Nullable
+  public Map<String, List<ServerInstance>> getSegmentToServersMap() {
+    return _segmentToServersMap;
+  }
+
+  /**
+   * Records the response latency of a server. The hedging delay is recomputed by the thread recording every
+   * {@code HEDGING_DELAY_UPDATE_INTERVAL}th sample.
+   */
+  public void recordLatency(long latencyMs) {
+    long numSamples = _numLatencySamples.getAndIncrement() + 1;
+    _latencySamples[(int) ((numSamples - 1) % NUM_LATENCY_SAMPLES)] = (int) Math.min(latencyMs, Integer.MAX_VALUE);
+    if (numSamples >= MIN_NUM_LATENCY_SAMPLES && numSamples % HEDGING_DELAY_UPDATE_INTERVAL == 0) {
+      _hedgingDelayMs = computeHedgingDelayMs((int) Math.min(numSamples, NUM_LATENCY_SAMPLES));
+    }
+  }
+
+  /**
+   * Returns the delay in milliseconds after which the requests not responded should be hedged, or -1 if there are not
+   * enough latency samples yet.
+   */
+  public long getHedgingDelayMs() {
+    return _hedgingDelayMs;
+  }
+
+  private long computeHedgingDelayMs(int numSamples) {
+    int[] samples = Arrays.copyOf(_latencySamples, numSamples);
+    Arrays.sort(samples);
+    int index = Math.min((int) Math.ceil(numSamples * _latencyPercentile / 100) - 1, numSamples - 1);
+    return Math.max(samples[Math.max(index, 0)], _minDelayMs);
+  }
+
+  /**
+   * Records a query request, which deposits into the hedging budget.
+   */
+  public synchronized void recordRequest() {
+    _budget = Math.min(_budget + _budgetPercent / 100, MAX_BUDGET);
+  }
+
+  /**
+   * Tries to take one token from the hedging budget, returns {@code true} if the request can be hedged.
+   */
+  public synchronized boolean tryAcquireHedge() {
+    if (_budget >= 1.0) {
+      _budget -= 1.0;
+      return true;
+    } else {
+      return false;
+    }
+  }
+
+  /**
+   * Returns a token to the hedging budget when the hedged request is not sent.
+   */
+  public synchronized void releaseHedge() {
+    _budget = Math.min(_budget + 1.0, MAX_BUDGET);
+  }
+}
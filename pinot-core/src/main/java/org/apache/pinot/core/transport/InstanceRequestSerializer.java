@@ -0,0 +1,116 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.transport;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.request.InstanceRequest;
+import org.apache.thrift.TException;
+import org.apache.thrift.protocol.TCompactProtocol;
+import org.apache.thrift.protocol.TField;
+import org.apache.thrift.protocol.TList;
+import org.apache.thrift.protocol.TProtocol;
+import org.apache.thrift.protocol.TStruct;
+import org.apache.thrift.protocol.TType;
+import org.apache.thrift.transport.TIOStreamTransport;
+
+
+/**
+ * The {@code InstanceRequestSerializer} class serializes the {@link InstanceRequest}s of a query, which only differ in
+ * the segments to query, without serializing the {@link BrokerRequest} for each server.
+ * <p>The broker request is serialized once with {@link #serializeQuery(BrokerRequest)}, and its bytes are copied into
+ * each instance request. The compact protocol encodes a nested struct independently of its enclosing struct, so the
+ * result is identical to serializing the {@link InstanceRequest} with {@link TCompactProtocol}. The fields are written
+ * in the same order as the generated {@link InstanceRequest} code, which must be kept in sync when adding fields.
+ * <p>The serializer is reused per thread through {@link #get()}.
+ */
+@NotThreadSafe
+class InstanceRequestSerializer {
+  private static final ThreadLocal<InstanceRequestSerializer> THREAD_LOCAL =
+      ThreadLocal.withInitial(InstanceRequestSerializer::new);
+
+  private static final TStruct STRUCT_DESC = new TStruct("InstanceRequest");
+  private static final TField REQUEST_ID_FIELD_DESC = new TField("requestId", TType.I64, (short) 1);
+  private static final TField QUERY_FIELD_DESC = new TField("query", TType.STRUCT, (short) 2);
+  private static final TField SEARCH_SEGMENTS_FIELD_DESC = new TField("searchSegments", TType.LIST, (short) 3);
+  private static final TField ENABLE_TRACE_FIELD_DESC = new TField("enableTrace", TType.BOOL, (short) 4);
+  private static final TField BROKER_ID_FIELD_DESC = new TField("brokerId", TType.STRING, (short) 5);
+
+  private final ByteArrayOutputStream _outputStream = new ByteArrayOutputStream();
+  private final TProtocol _protocol = new TCompactProtocol(new TIOStreamTransport(_outputStream));
+
+  private InstanceRequestSerializer() {
+  }
+
+  /**
+   * Returns the serializer for the current thread.
+   */
+  static InstanceRequestSerializer get() {
+    return THREAD_LOCAL.get();
+  }
+
+  /**
+   * Serializes the broker request shared by all the instance requests of the query.
+   */
+  byte[] serializeQuery(BrokerRequest brokerRequest)
+      throws TException {
+    _outputStream.reset();
+    _protocol.reset();
+    brokerRequest.write(_protocol);
+    return _outputStream.toByteArray();
+  }
+
+  /**
+   * Serializes the instance request with the serialized broker request and the segments to query.
+   */
+  byte[] serialize(long requestId, byte[] serializedQuery, List<String> segments, boolean enableTrace,
+      @Nullable String brokerId)
+      throws TException {
+    _outputStream.reset();
+    _protocol.reset();
+    _protocol.writeStructBegin(STRUCT_DESC);
+    _protocol.writeFieldBegin(REQUEST_ID_FIELD_DESC);
+    _protocol.writeI64(requestId);
+    _protocol.writeFieldEnd();
+    _protocol.writeFieldBegin(QUERY_FIELD_DESC);
+    _outputStream.write(serializedQuery, 0, serializedQuery.length);
+    _protocol.writeFieldEnd();
+    _protocol.writeFieldBegin(SEARCH_SEGMENTS_FIELD_DESC);
+    _protocol.writeListBegin(new TList(TType.STRING, segments.size()));
+    for (String segment : segments) {
+      _protocol.writeString(segment);
+    }
+    _protocol.writeListEnd();
+    _protocol.writeFieldEnd();
+    _protocol.writeFieldBegin(ENABLE_TRACE_FIELD_DESC);
+    _protocol.writeBool(enableTrace);
+    _protocol.writeFieldEnd();
+    if (brokerId != null) {
+      _protocol.writeFieldBegin(BROKER_ID_FIELD_DESC);
+      _protocol.writeString(brokerId);
+      _protocol.writeFieldEnd();
+    }
+    _protocol.writeFieldStop();
+    _protocol.writeStructEnd();
+    return _outputStream.toByteArray();
+  }
+}
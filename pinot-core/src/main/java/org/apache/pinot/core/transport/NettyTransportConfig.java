@@ -0,0 +1,156 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.transport;
+
+import io.netty.bootstrap.AbstractBootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.ServerSocketChannel;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import org.apache.commons.configuration.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The {@code NettyTransportConfig} class contains the Netty transport settings shared by the broker side
+ * {@link ServerChannels} and the server side {@link QueryServer}.
+ * <ul>
+ *   <li>Native transport: use the native epoll transport on Linux, and fall back to NIO when it is not available</li>
+ *   <li>Pooled direct buffers: allocate the buffers created by Netty (socket reads, frame decoder cumulation and length
+ *   prefixes) from the shared pooled direct buffer allocator. The serialized request and response payloads are heap
+ *   byte arrays wrapped without copying, so they are not pooled</li>
+ *   <li>Write buffer water marks: the outbound buffer size (in bytes) above which the channel becomes not writable,
+ *   and below which it becomes writable again</li>
+ * </ul>
+ */
+public class NettyTransportConfig {
+  private static final Logger LOGGER = LoggerFactory.getLogger(NettyTransportConfig.class);
+
+  public static final String NATIVE_TRANSPORT_ENABLED_KEY = "nativeTransportEnabled";
+  public static final boolean DEFAULT_NATIVE_TRANSPORT_ENABLED = false;
+  public static final String POOLED_DIRECT_BUFFERS_ENABLED_KEY = "pooledDirectBuffersEnabled";
+  public static final boolean DEFAULT_POOLED_DIRECT_BUFFERS_ENABLED = false;
+  public static final String WRITE_BUFFER_LOW_WATER_MARK_KEY = "writeBufferLowWaterMark";
+  public static final String WRITE_BUFFER_HIGH_WATER_MARK_KEY = "writeBufferHighWaterMark";
+
+  public static final NettyTransportConfig DEFAULT =
+      new NettyTransportConfig(DEFAULT_NATIVE_TRANSPORT_ENABLED, DEFAULT_POOLED_DIRECT_BUFFERS_ENABLED, null);
+
+  // Shared across all the channels to maximize the buffer reuse
+  private static final PooledByteBufAllocator POOLED_DIRECT_ALLOCATOR = new PooledByteBufAllocator(true);
+
+  private final boolean _useEpoll;
+  private final boolean _pooledDirectBuffersEnabled;
+  private final WriteBufferWaterMark _writeBufferWaterMark;
+
+  /**
+   * @param nativeTransportEnabled Whether to use the native epoll transport if available
+   * @param pooledDirectBuffersEnabled Whether to use the pooled direct buffer allocator
+   * @param writeBufferWaterMark Write buffer water marks, or {@code null} to use the Netty default
+   */
+  public NettyTransportConfig(boolean nativeTransportEnabled, boolean pooledDirectBuffersEnabled,
+      WriteBufferWaterMark writeBufferWaterMark) {
+    if (nativeTransportEnabled && !Epoll.isAvailable()) {
+      LOGGER.warn("Native epoll transport is not available, falling back to NIO transport",
+          Epoll.unavailabilityCause());
+      _useEpoll = false;
+    } else {
+      _useEpoll = nativeTransportEnabled;
+    }
+    _pooledDirectBuffersEnabled = pooledDirectBuffersEnabled;
+    _writeBufferWaterMark = writeBufferWaterMark;
+  }
+
+  /**
+   * Creates the config from the given Netty config subset.
+   */
+  public static NettyTransportConfig fromConfiguration(Configuration config) {
+    WriteBufferWaterMark writeBufferWaterMark = null;
+    if (config.containsKey(WRITE_BUFFER_LOW_WATER_MARK_KEY) || config.containsKey(WRITE_BUFFER_HIGH_WATER_MARK_KEY)) {
+      writeBufferWaterMark = new WriteBufferWaterMark(
+          config.getInt(WRITE_BUFFER_LOW_WATER_MARK_KEY, WriteBufferWaterMark.DEFAULT.low()),
+          config.getInt(WRITE_BUFFER_HIGH_WATER_MARK_KEY, WriteBufferWaterMark.DEFAULT.high()));
+    }
+    return new NettyTransportConfig(config.getBoolean(NATIVE_TRANSPORT_ENABLED_KEY, DEFAULT_NATIVE_TRANSPORT_ENABLED),
+        config.getBoolean(POOLED_DIRECT_BUFFERS_ENABLED_KEY, DEFAULT_POOLED_DIRECT_BUFFERS_ENABLED),
+        writeBufferWaterMark);
+  }
+
+  /**
+   * Returns whether the native epoll transport is used (enabled and available).
+   */
+  public boolean isNativeTransportUsed() {
+    return _useEpoll;
+  }
+
+  /**
+   * Creates an event loop group with the given number of threads (0 for the Netty default).
+   */
+  public EventLoopGroup createEventLoopGroup(int numThreads) {
+    return _useEpoll ? new EpollEventLoopGroup(numThreads) : new NioEventLoopGroup(numThreads);
+  }
+
+  public Class<? extends SocketChannel> getSocketChannelClass() {
+    return _useEpoll ? EpollSocketChannel.class : NioSocketChannel.class;
+  }
+
+  public Class<? extends ServerSocketChannel> getServerSocketChannelClass() {
+    return _useEpoll ? EpollServerSocketChannel.class : NioServerSocketChannel.class;
+  }
+
+  /**
+   * Applies the buffer allocator and the write buffer water marks to the channels created by the bootstrap (child
+   * channels for {@link ServerBootstrap}).
+   */
+  public void applyChannelOptions(AbstractBootstrap<?, ?> bootstrap) {
+    if (bootstrap instanceof ServerBootstrap) {
+      ServerBootstrap serverBootstrap = (ServerBootstrap) bootstrap;
+      if (_pooledDirectBuffersEnabled) {
+        serverBootstrap.childOption(ChannelOption.ALLOCATOR, POOLED_DIRECT_ALLOCATOR);
+      }
+      if (_writeBufferWaterMark != null) {
+        serverBootstrap.childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, _writeBufferWaterMark);
+      }
+    } else {
+      if (_pooledDirectBuffersEnabled) {
+        bootstrap.option(ChannelOption.ALLOCATOR, POOLED_DIRECT_ALLOCATOR);
+      }
+      if (_writeBufferWaterMark != null) {
+        bootstrap.option(ChannelOption.WRITE_BUFFER_WATER_MARK, _writeBufferWaterMark);
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "NettyTransportConfig{nativeTransport=" + (_useEpoll ? "epoll" : "nio") + ", pooledDirectBuffersEnabled="
+        + _pooledDirectBuffersEnabled + ", writeBufferWaterMark=" + _writeBufferWaterMark + '}';
+  }
+}
@@ -18,18 +18,24 @@
  */
 package org.apache.pinot.core.transport;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.pinot.common.metrics.BrokerMeter;
 import org.apache.pinot.common.metrics.BrokerMetrics;
 import org.apache.pinot.common.request.BrokerRequest;
-import org.apache.pinot.common.request.InstanceRequest;
 import org.apache.pinot.common.utils.CommonConstants.Helix.TableType;
 import org.apache.pinot.common.utils.DataTable;
+import org.apache.thrift.TException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,6 +44,11 @@ import org.slf4j.LoggerFactory;
  * The {@code QueryRouter} class provides methods to route the query based on the routing table, and returns a
  * {@link AsyncQueryResponse} so that caller can handle the query response asynchronously.
  * <p>It works on {@link ServerChannels} which maintains only a single connection between the broker and each server.
+ * <p>The instance requests are serialized on the thread submitting the query (or sending the hedged requests), so that
+ * the channels only write the serialized bytes. The broker request is serialized only once per query and shared by the
+ * instance requests, which only differ in the segments to query (see {@link InstanceRequestSerializer}).
+ * <p>If a {@link HedgingPolicy} is provided for the table, the servers not responded after the hedging delay are hedged
+ * by re-issuing their segments to the other replicas not queried yet.
  */
 @ThreadSafe
 public class QueryRouter {
@@ -46,61 +57,211 @@ public class QueryRouter {
   private final String _brokerId;
   private final BrokerMetrics _brokerMetrics;
   private final ServerChannels _serverChannels;
+  private final ServerStatsTracker _serverStatsTracker = new ServerStatsTracker();
   private final ConcurrentHashMap<Long, AsyncQueryResponse> _asyncQueryResponseMap = new ConcurrentHashMap<>();
+  private final ScheduledExecutorService _hedgingExecutor = Executors.newSingleThreadScheduledExecutor(
+      new ThreadFactoryBuilder().setNameFormat("hedged-request-sender").setDaemon(true).build());
 
   public QueryRouter(String brokerId, BrokerMetrics brokerMetrics) {
+    this(brokerId, brokerMetrics, ServerChannels.DEFAULT_NUM_CHANNELS_PER_SERVER, NettyTransportConfig.DEFAULT);
+  }
+
+  public QueryRouter(String brokerId, BrokerMetrics brokerMetrics, int numChannelsPerServer,
+      NettyTransportConfig transportConfig) {
     _brokerId = brokerId;
     _brokerMetrics = brokerMetrics;
-    _serverChannels = new ServerChannels(this, brokerMetrics);
+    _serverChannels = new ServerChannels(this, brokerMetrics, numChannelsPerServer, transportConfig);
   }
 
   public AsyncQueryResponse submitQuery(long requestId, String rawTableName,
       @Nullable BrokerRequest offlineBrokerRequest, @Nullable Map<ServerInstance, List<String>> offlineRoutingTable,
       @Nullable BrokerRequest realtimeBrokerRequest, @Nullable Map<ServerInstance, List<String>> realtimeRoutingTable,
       long timeoutMs) {
+    return submitQuery(requestId, rawTableName, offlineBrokerRequest, offlineRoutingTable, realtimeBrokerRequest,
+        realtimeRoutingTable, timeoutMs, null, null);
+  }
+
+  public AsyncQueryResponse submitQuery(long requestId, String rawTableName,
+      @Nullable BrokerRequest offlineBrokerRequest, @Nullable Map<ServerInstance, List<String>> offlineRoutingTable,
+      @Nullable BrokerRequest realtimeBrokerRequest, @Nullable Map<ServerInstance, List<String>> realtimeRoutingTable,
+      long timeoutMs, @Nullable HedgingPolicy offlineHedgingPolicy, @Nullable HedgingPolicy realtimeHedgingPolicy) {
     assert offlineBrokerRequest != null || realtimeBrokerRequest != null;
 
-    // Build map from server to request based on the routing table
-    Map<ServerRoutingInstance, InstanceRequest> requestMap = new HashMap<>();
+    // Build map from server to segments based on the routing table
+    Map<ServerRoutingInstance, List<String>> requestMap = new HashMap<>();
     if (offlineBrokerRequest != null) {
       assert offlineRoutingTable != null;
       for (Map.Entry<ServerInstance, List<String>> entry : offlineRoutingTable.entrySet()) {
-        ServerRoutingInstance serverRoutingInstance = entry.getKey().toServerRoutingInstance(TableType.OFFLINE);
-        InstanceRequest instanceRequest = getInstanceRequest(requestId, offlineBrokerRequest, entry.getValue());
-        requestMap.put(serverRoutingInstance, instanceRequest);
+        requestMap.put(entry.getKey().toServerRoutingInstance(TableType.OFFLINE), entry.getValue());
       }
     }
     if (realtimeBrokerRequest != null) {
       assert realtimeRoutingTable != null;
       for (Map.Entry<ServerInstance, List<String>> entry : realtimeRoutingTable.entrySet()) {
-        ServerRoutingInstance serverRoutingInstance = entry.getKey().toServerRoutingInstance(TableType.REALTIME);
-        InstanceRequest instanceRequest = getInstanceRequest(requestId, realtimeBrokerRequest, entry.getValue());
-        requestMap.put(serverRoutingInstance, instanceRequest);
+        requestMap.put(entry.getKey().toServerRoutingInstance(TableType.REALTIME), entry.getValue());
       }
     }
 
     // Create the asynchronous query response with the request map
     AsyncQueryResponse asyncQueryResponse =
-        new AsyncQueryResponse(this, requestId, requestMap.keySet(), System.currentTimeMillis(), timeoutMs);
+        new AsyncQueryResponse(this, requestId, requestMap.keySet(), System.currentTimeMillis(), timeoutMs,
+            offlineHedgingPolicy, realtimeHedgingPolicy);
     _asyncQueryResponseMap.put(requestId, asyncQueryResponse);
-    for (Map.Entry<ServerRoutingInstance, InstanceRequest> entry : requestMap.entrySet()) {
+    // The broker request of each table type is serialized only once, and shared by the instance requests
+    InstanceRequestSerializer serializer = InstanceRequestSerializer.get();
+    byte[] serializedOfflineQuery = null;
+    byte[] serializedRealtimeQuery = null;
+    for (Map.Entry<ServerRoutingInstance, List<String>> entry : requestMap.entrySet()) {
       ServerRoutingInstance serverRoutingInstance = entry.getKey();
       try {
-        _serverChannels.sendRequest(serverRoutingInstance, entry.getValue());
+        byte[] requestBytes;
+        if (serverRoutingInstance.getTableType() == TableType.OFFLINE) {
+          if (serializedOfflineQuery == null) {
+            serializedOfflineQuery = serializer.serializeQuery(offlineBrokerRequest);
+          }
+          requestBytes = serializeInstanceRequest(serializer, requestId, offlineBrokerRequest, serializedOfflineQuery,
+              entry.getValue());
+        } else {
+          if (serializedRealtimeQuery == null) {
+            serializedRealtimeQuery = serializer.serializeQuery(realtimeBrokerRequest);
+          }
+          requestBytes =
+              serializeInstanceRequest(serializer, requestId, realtimeBrokerRequest, serializedRealtimeQuery,
+                  entry.getValue());
+        }
+        _serverChannels.sendRequest(serverRoutingInstance, requestId, requestBytes);
         asyncQueryResponse.markRequestSubmitted(serverRoutingInstance);
       } catch (Exception e) {
+        _serverStatsTracker.recordRequestSubmitted(serverRoutingInstance);
+        _serverStatsTracker.recordFailure(serverRoutingInstance, timeoutMs);
         LOGGER.error("Caught exception while sending request {} to server: {}, marking query failed", requestId,
             serverRoutingInstance, e);
         _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.REQUEST_SEND_EXCEPTIONS, 1);
         asyncQueryResponse.markQueryFailed();
-        break;
+        return asyncQueryResponse;
       }
     }
 
+    // Schedule the hedged requests
+    if (offlineBrokerRequest != null && offlineHedgingPolicy != null) {
+      scheduleHedgedRequests(asyncQueryResponse, requestId, rawTableName, offlineBrokerRequest, offlineRoutingTable,
+          TableType.OFFLINE, offlineHedgingPolicy, timeoutMs);
+    }
+    if (realtimeBrokerRequest != null && realtimeHedgingPolicy != null) {
+      scheduleHedgedRequests(asyncQueryResponse, requestId, rawTableName, realtimeBrokerRequest, realtimeRoutingTable,
+          TableType.REALTIME, realtimeHedgingPolicy, timeoutMs);
+    }
+
     return asyncQueryResponse;
   }
 
+  private void scheduleHedgedRequests(AsyncQueryResponse asyncQueryResponse, long requestId, String rawTableName,
+      BrokerRequest brokerRequest, Map<ServerInstance, List<String>> routingTable, TableType tableType,
+      HedgingPolicy hedgingPolicy, long timeoutMs) {
+    hedgingPolicy.recordRequest();
+    long hedgingDelayMs = hedgingPolicy.getHedgingDelayMs();
+    if (hedgingDelayMs >= 0 && hedgingDelayMs < timeoutMs) {
+      _hedgingExecutor.schedule(
+          () -> sendHedgedRequests(asyncQueryResponse, requestId, rawTableName, brokerRequest, routingTable, tableType,
+              hedgingPolicy), hedgingDelayMs, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private void sendHedgedRequests(AsyncQueryResponse asyncQueryResponse, long requestId, String rawTableName,
+      BrokerRequest brokerRequest, Map<ServerInstance, List<String>> routingTable, TableType tableType,
+      HedgingPolicy hedgingPolicy) {
+    Map<String, List<ServerInstance>> segmentToServersMap = hedgingPolicy.getSegmentToServersMap();
+    if (segmentToServersMap == null) {
+      return;
+    }
+    InstanceRequestSerializer serializer = InstanceRequestSerializer.get();
+    byte[] serializedQuery = null;
+    for (Map.Entry<ServerInstance, List<String>> entry : routingTable.entrySet()) {
+      // Skip the hedged request if the query is already done
+      if (!_asyncQueryResponseMap.containsKey(requestId)) {
+        return;
+      }
+      ServerRoutingInstance serverRoutingInstance = entry.getKey().toServerRoutingInstance(tableType);
+      if (asyncQueryResponse.isServerDone(serverRoutingInstance)) {
+        continue;
+      }
+      if (!hedgingPolicy.tryAcquireHedge()) {
+        return;
+      }
+      Map<ServerRoutingInstance, List<String>> hedgedRoutingTable =
+          computeHedgedRoutingTable(asyncQueryResponse, entry.getValue(), segmentToServersMap, tableType);
+      if (hedgedRoutingTable == null
+          || !asyncQueryResponse.addHedgedRequest(serverRoutingInstance, hedgedRoutingTable.keySet())) {
+        hedgingPolicy.releaseHedge();
+        continue;
+      }
+      _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.HEDGED_REQUESTS, 1);
+      for (Map.Entry<ServerRoutingInstance, List<String>> hedgedEntry : hedgedRoutingTable.entrySet()) {
+        ServerRoutingInstance alternate = hedgedEntry.getKey();
+        try {
+          if (serializedQuery == null) {
+            serializedQuery = serializer.serializeQuery(brokerRequest);
+          }
+          _serverChannels.sendRequest(alternate, requestId,
+              serializeInstanceRequest(serializer, requestId, brokerRequest, serializedQuery, hedgedEntry.getValue()));
+          asyncQueryResponse.markRequestSubmitted(alternate);
+        } catch (Exception e) {
+          // The hedged request cannot win without all the alternates, but the hedged server might still respond
+          LOGGER.warn("Caught exception while sending hedged request {} to server: {}", requestId, alternate, e);
+          _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.REQUEST_SEND_EXCEPTIONS, 1);
+          break;
+        }
+      }
+    }
+  }
+
+  /**
+   * Computes the routing table to hedge the given segments to the replicas not queried yet, or returns {@code null}
+   * if any segment does not have such replica. The replicas already picked are preferred to limit the fan-out, then
+   * the replicas with the lower score in the {@link ServerStatsTracker}.
+   */
+  @Nullable
+  private Map<ServerRoutingInstance, List<String>> computeHedgedRoutingTable(AsyncQueryResponse asyncQueryResponse,
+      List<String> segments, Map<String, List<ServerInstance>> segmentToServersMap, TableType tableType) {
+    Map<ServerRoutingInstance, List<String>> hedgedRoutingTable = new HashMap<>();
+    for (String segment : segments) {
+      List<ServerInstance> servers = segmentToServersMap.get(segment);
+      if (servers == null) {
+        return null;
+      }
+      ServerRoutingInstance selectedServer = null;
+      double minScore = Double.MAX_VALUE;
+      for (ServerInstance server : servers) {
+        ServerRoutingInstance serverRoutingInstance = server.toServerRoutingInstance(tableType);
+        if (hedgedRoutingTable.containsKey(serverRoutingInstance)) {
+          selectedServer = serverRoutingInstance;
+          break;
+        }
+        if (!asyncQueryResponse.isServerQueried(serverRoutingInstance)) {
+          double score = _serverStatsTracker.getScore(server);
+          if (score < minScore) {
+            minScore = score;
+            selectedServer = serverRoutingInstance;
+          }
+        }
+      }
+      if (selectedServer == null) {
+        return null;
+      }
+      hedgedRoutingTable.computeIfAbsent(selectedServer, k -> new ArrayList<>()).add(segment);
+    }
+    return hedgedRoutingTable;
+  }
+
+  /**
+   * Returns the tracker of the server stats collected from the query responses.
+   */
+  public ServerStatsTracker getServerStatsTracker() {
+    return _serverStatsTracker;
+  }
+
   public void shutDown() {
+    _hedgingExecutor.shutdownNow();
     _serverChannels.shutDown();
   }
 
@@ -121,17 +282,28 @@ public class QueryRouter {
     }
   }
 
+  /**
+   * Marks the request of the given query to the given server failed, e.g. when it fails to be written to the channel.
+   */
+  void markRequestFailed(long requestId, ServerRoutingInstance serverRoutingInstance) {
+    AsyncQueryResponse asyncQueryResponse = _asyncQueryResponseMap.get(requestId);
+    if (asyncQueryResponse != null) {
+      asyncQueryResponse.markRequestFailed(serverRoutingInstance);
+    }
+  }
+
+  @VisibleForTesting
+  ServerChannels getServerChannels() {
+    return _serverChannels;
+  }
+
   void markQueryDone(long requestId) {
     _asyncQueryResponseMap.remove(requestId);
   }
 
-  private InstanceRequest getInstanceRequest(long requestId, BrokerRequest brokerRequest, List<String> segments) {
-    InstanceRequest instanceRequest = new InstanceRequest();
-    instanceRequest.setRequestId(requestId);
-    instanceRequest.setQuery(brokerRequest);
-    instanceRequest.setEnableTrace(brokerRequest.isEnableTrace());
-    instanceRequest.setSearchSegments(segments);
-    instanceRequest.setBrokerId(_brokerId);
-    return instanceRequest;
+  private byte[] serializeInstanceRequest(InstanceRequestSerializer serializer, long requestId,
+      BrokerRequest brokerRequest, byte[] serializedQuery, List<String> segments)
+      throws TException {
+    return serializer.serialize(requestId, serializedQuery, segments, brokerRequest.isEnableTrace(), _brokerId);
   }
 }
@@ -24,9 +24,7 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
 import io.netty.handler.codec.LengthFieldPrepender;
 import java.util.concurrent.TimeUnit;
@@ -42,22 +40,30 @@ public class QueryServer implements Runnable {
   private final int _port;
   private final QueryScheduler _queryScheduler;
   private final ServerMetrics _serverMetrics;
+  private final NettyTransportConfig _transportConfig;
 
   private volatile Channel _channel;
 
   public QueryServer(int port, QueryScheduler queryScheduler, ServerMetrics serverMetrics) {
+    this(port, queryScheduler, serverMetrics, NettyTransportConfig.DEFAULT);
+  }
+
+  public QueryServer(int port, QueryScheduler queryScheduler, ServerMetrics serverMetrics,
+      NettyTransportConfig transportConfig) {
     _port = port;
     _queryScheduler = queryScheduler;
     _serverMetrics = serverMetrics;
+    _transportConfig = transportConfig;
   }
 
   @Override
   public void run() {
-    EventLoopGroup bossGroup = new NioEventLoopGroup();
-    EventLoopGroup workerGroup = new NioEventLoopGroup();
+    EventLoopGroup bossGroup = _transportConfig.createEventLoopGroup(0);
+    EventLoopGroup workerGroup = _transportConfig.createEventLoopGroup(0);
     try {
       ServerBootstrap serverBootstrap = new ServerBootstrap();
-      _channel = serverBootstrap.group(bossGroup, workerGroup).channel(NioServerSocketChannel.class)
+      _transportConfig.applyChannelOptions(serverBootstrap);
+      _channel = serverBootstrap.group(bossGroup, workerGroup).channel(_transportConfig.getServerSocketChannelClass())
           .option(ChannelOption.SO_BACKLOG, 128).childOption(ChannelOption.SO_KEEPALIVE, true)
           .childHandler(new ChannelInitializer<SocketChannel>() {
             @Override
@@ -18,48 +18,70 @@
  */
 package org.apache.pinot.core.transport;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
 import io.netty.handler.codec.LengthFieldPrepender;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.pinot.common.metrics.BrokerGauge;
 import org.apache.pinot.common.metrics.BrokerMeter;
 import org.apache.pinot.common.metrics.BrokerMetrics;
-import org.apache.pinot.common.request.InstanceRequest;
-import org.apache.thrift.TSerializer;
-import org.apache.thrift.protocol.TCompactProtocol;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 
 /**
  * The {@code ServerChannels} class manages the channels between broker to all the connected servers.
- * <p>There is only one channel between the broker and each connected server (we count OFFLINE and REALTIME as different
- * servers)
+ * <p>There is a pool of channels between the broker and each connected server (we count OFFLINE and REALTIME as
+ * different servers). Each request is sent to the channel with the least pending requests (requests sent but not
+ * responded yet), so that a large response only blocks the requests on its own channel. The channels are connected
+ * lazily when first picked.
+ * <p>The requests are serialized by the {@link QueryRouter} before being sent. If a request fails to be written (e.g.
+ * the channel is closed), it is removed from the pending requests and the query is marked failed for the server.
  */
 @ThreadSafe
 public class ServerChannels {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ServerChannels.class);
+  public static final int DEFAULT_NUM_CHANNELS_PER_SERVER = 1;
+
   private final QueryRouter _queryRouter;
   private final BrokerMetrics _brokerMetrics;
+  private final int _numChannelsPerServer;
+  private final NettyTransportConfig _transportConfig;
   private final ConcurrentHashMap<ServerRoutingInstance, ServerChannel> _serverToChannelMap = new ConcurrentHashMap<>();
-  private final EventLoopGroup _eventLoopGroup = new NioEventLoopGroup();
+  private final EventLoopGroup _eventLoopGroup;
 
   public ServerChannels(QueryRouter queryRouter, BrokerMetrics brokerMetrics) {
+    this(queryRouter, brokerMetrics, DEFAULT_NUM_CHANNELS_PER_SERVER, NettyTransportConfig.DEFAULT);
+  }
+
+  public ServerChannels(QueryRouter queryRouter, BrokerMetrics brokerMetrics, int numChannelsPerServer,
+      NettyTransportConfig transportConfig) {
+    Preconditions.checkArgument(numChannelsPerServer > 0, "Number of channels per server must be positive");
     _queryRouter = queryRouter;
     _brokerMetrics = brokerMetrics;
+    _numChannelsPerServer = numChannelsPerServer;
+    _transportConfig = transportConfig;
+    _eventLoopGroup = transportConfig.createEventLoopGroup(0);
   }
 
-  public void sendRequest(ServerRoutingInstance serverRoutingInstance, InstanceRequest instanceRequest)
+  public void sendRequest(ServerRoutingInstance serverRoutingInstance, long requestId, byte[] requestBytes)
       throws Exception {
-    _serverToChannelMap.computeIfAbsent(serverRoutingInstance, ServerChannel::new).sendRequest(instanceRequest);
+    _serverToChannelMap.computeIfAbsent(serverRoutingInstance, ServerChannel::new).sendRequest(requestId, requestBytes);
   }
 
   public void shutDown() {
@@ -67,42 +89,173 @@ public class ServerChannels {
     _eventLoopGroup.shutdownGracefully(0, 0, TimeUnit.SECONDS);
   }
 
+  /**
+   * Returns the connected channels to the given server.
+   */
+  @VisibleForTesting
+  List<Channel> getConnectedChannels(ServerRoutingInstance serverRoutingInstance) {
+    List<Channel> connectedChannels = new ArrayList<>();
+    ServerChannel serverChannel = _serverToChannelMap.get(serverRoutingInstance);
+    if (serverChannel != null) {
+      for (PooledChannel pooledChannel : serverChannel._pooledChannels) {
+        Channel channel = pooledChannel._channel;
+        if (channel != null && channel.isActive()) {
+          connectedChannels.add(channel);
+        }
+      }
+    }
+    return connectedChannels;
+  }
+
+  /**
+   * Returns the number of pending requests (requests sent but not responded yet) on all the channels to the given
+   * server.
+   */
+  @VisibleForTesting
+  int getNumPendingRequests(ServerRoutingInstance serverRoutingInstance) {
+    ServerChannel serverChannel = _serverToChannelMap.get(serverRoutingInstance);
+    if (serverChannel == null) {
+      return 0;
+    }
+    int numPendingRequests = 0;
+    for (PooledChannel pooledChannel : serverChannel._pooledChannels) {
+      numPendingRequests += pooledChannel._numPendingRequests.get();
+    }
+    return numPendingRequests;
+  }
+
+  /**
+   * Pool of channels to a server.
+   */
   @ThreadSafe
   private class ServerChannel {
-    final TSerializer _serializer = new TSerializer(new TCompactProtocol.Factory());
     final ServerRoutingInstance _serverRoutingInstance;
-    final Bootstrap _bootstrap;
-    Channel _channel;
+    final PooledChannel[] _pooledChannels;
+    // Index to start looking for the least loaded channel, so that the ties are broken in a round-robin fashion
+    final AtomicInteger _nextIndex = new AtomicInteger();
 
     ServerChannel(ServerRoutingInstance serverRoutingInstance) {
       _serverRoutingInstance = serverRoutingInstance;
+      _pooledChannels = new PooledChannel[_numChannelsPerServer];
+      for (int i = 0; i < _numChannelsPerServer; i++) {
+        _pooledChannels[i] = new PooledChannel(serverRoutingInstance);
+      }
+    }
+
+    void sendRequest(long requestId, byte[] requestBytes)
+        throws Exception {
+      PooledChannel pooledChannel = getLeastLoadedChannel();
+      Channel channel = pooledChannel.getChannel();
+      pooledChannel._numPendingRequests.getAndIncrement();
+      _brokerMetrics.addValueToGlobalGauge(BrokerGauge.NETTY_CONNECTION_PENDING_REQUESTS, 1);
+      channel.writeAndFlush(Unpooled.wrappedBuffer(requestBytes)).addListener(future -> {
+        if (!future.isSuccess()) {
+          // The request will never be responded
+          LOGGER.error("Failed to send request {} to server: {}", requestId, _serverRoutingInstance, future.cause());
+          pooledChannel.decrementPendingRequests();
+          _queryRouter.markRequestFailed(requestId, _serverRoutingInstance);
+        }
+      });
+      _brokerMetrics.addMeteredGlobalValue(BrokerMeter.NETTY_CONNECTION_REQUESTS_SENT, 1);
+      _brokerMetrics.addMeteredGlobalValue(BrokerMeter.NETTY_CONNECTION_BYTES_SENT, requestBytes.length);
+    }
+
+    PooledChannel getLeastLoadedChannel() {
+      if (_numChannelsPerServer == 1) {
+        return _pooledChannels[0];
+      }
+      int startIndex = (_nextIndex.getAndIncrement() & Integer.MAX_VALUE) % _numChannelsPerServer;
+      PooledChannel leastLoadedChannel = null;
+      int minNumPendingRequests = Integer.MAX_VALUE;
+      for (int i = 0; i < _numChannelsPerServer; i++) {
+        PooledChannel pooledChannel = _pooledChannels[(startIndex + i) % _numChannelsPerServer];
+        int numPendingRequests = pooledChannel._numPendingRequests.get();
+        if (numPendingRequests == 0) {
+          return pooledChannel;
+        }
+        if (numPendingRequests < minNumPendingRequests) {
+          minNumPendingRequests = numPendingRequests;
+          leastLoadedChannel = pooledChannel;
+        }
+      }
+      return leastLoadedChannel;
+    }
+  }
+
+  /**
+   * A single channel within the pool of channels to a server.
+   * <p>NOTE: the pending requests count is only decremented when a response is received or the request fails to be
+   * written, so requests never responded keep counting until the channel is re-connected.
+   */
+  @ThreadSafe
+  private class PooledChannel {
+    final Bootstrap _bootstrap;
+    final AtomicInteger _numPendingRequests = new AtomicInteger();
+    volatile Channel _channel;
+
+    PooledChannel(ServerRoutingInstance serverRoutingInstance) {
       _bootstrap = new Bootstrap().remoteAddress(serverRoutingInstance.getHostname(), serverRoutingInstance.getPort())
-          .group(_eventLoopGroup).channel(NioSocketChannel.class).option(ChannelOption.SO_KEEPALIVE, true)
-          .handler(new ChannelInitializer<SocketChannel>() {
+          .group(_eventLoopGroup).channel(_transportConfig.getSocketChannelClass())
+          .option(ChannelOption.SO_KEEPALIVE, true).handler(new ChannelInitializer<SocketChannel>() {
             @Override
             protected void initChannel(SocketChannel ch) {
               ch.pipeline()
                   .addLast(new LengthFieldBasedFrameDecoder(Integer.MAX_VALUE, 0, Integer.BYTES, 0, Integer.BYTES),
-                      new LengthFieldPrepender(Integer.BYTES),
+                      new LengthFieldPrepender(Integer.BYTES), new PendingRequestsHandler(PooledChannel.this),
                       // NOTE: data table de-serialization happens inside this handler
                       // Revisit if this becomes a bottleneck
-                      new DataTableHandler(_queryRouter, _serverRoutingInstance, _brokerMetrics));
+                      new DataTableHandler(_queryRouter, serverRoutingInstance, _brokerMetrics));
             }
           });
+      _transportConfig.applyChannelOptions(_bootstrap);
     }
 
-    synchronized void sendRequest(InstanceRequest instanceRequest)
+    Channel getChannel()
         throws Exception {
-      if (_channel == null || !_channel.isActive()) {
-        long startTime = System.currentTimeMillis();
-        _channel = _bootstrap.connect().sync().channel();
-        _brokerMetrics.setValueOfGlobalGauge(BrokerGauge.NETTY_CONNECTION_CONNECT_TIME_MS,
-            System.currentTimeMillis() - startTime);
+      Channel channel = _channel;
+      if (channel != null && channel.isActive()) {
+        return channel;
       }
-      byte[] requestBytes = _serializer.serialize(instanceRequest);
-      _channel.writeAndFlush(Unpooled.wrappedBuffer(requestBytes), _channel.voidPromise());
-      _brokerMetrics.addMeteredGlobalValue(BrokerMeter.NETTY_CONNECTION_REQUESTS_SENT, 1);
-      _brokerMetrics.addMeteredGlobalValue(BrokerMeter.NETTY_CONNECTION_BYTES_SENT, requestBytes.length);
+      synchronized (this) {
+        channel = _channel;
+        if (channel == null || !channel.isActive()) {
+          // Requests pending on the previous channel will never be responded
+          int numPendingRequests = _numPendingRequests.getAndSet(0);
+          _brokerMetrics.addValueToGlobalGauge(BrokerGauge.NETTY_CONNECTION_PENDING_REQUESTS, -numPendingRequests);
+          long startTime = System.currentTimeMillis();
+          channel = _bootstrap.connect().sync().channel();
+          _brokerMetrics.setValueOfGlobalGauge(BrokerGauge.NETTY_CONNECTION_CONNECT_TIME_MS,
+              System.currentTimeMillis() - startTime);
+          _brokerMetrics.addValueToGlobalGauge(BrokerGauge.NETTY_CONNECTIONS, 1);
+          channel.closeFuture()
+              .addListener(f -> _brokerMetrics.addValueToGlobalGauge(BrokerGauge.NETTY_CONNECTIONS, -1));
+          _channel = channel;
+        }
+        return channel;
+      }
+    }
+
+    void decrementPendingRequests() {
+      if (_numPendingRequests.getAndUpdate(n -> n > 0 ? n - 1 : 0) > 0) {
+        _brokerMetrics.addValueToGlobalGauge(BrokerGauge.NETTY_CONNECTION_PENDING_REQUESTS, -1);
+      }
+    }
+  }
+
+  /**
+   * Inbound handler to decrement the pending requests count of the channel when a response is received.
+   */
+  private class PendingRequestsHandler extends ChannelInboundHandlerAdapter {
+    final PooledChannel _pooledChannel;
+
+    PendingRequestsHandler(PooledChannel pooledChannel) {
+      _pooledChannel = pooledChannel;
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+      _pooledChannel.decrementPendingRequests();
+      ctx.fireChannelRead(msg);
     }
   }
 }
@@ -0,0 +1,187 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.transport;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.concurrent.ThreadSafe;
+
+
+/**
+ * The {@code ServerStatsTracker} class tracks the live health of the servers from the broker side, and is used to
+ * adaptively select the replica to query for each segment.
+ * <p>For each server, it tracks the number of in-flight requests and the exponentially weighted moving average (EWMA)
+ * of the response latency, the server side processing time and the error rate. The servers are ranked with the C3
+ * scoring function: {@code score = R - S + q^3 * S}, where {@code R} is the EWMA response latency, {@code S} is the
+ * EWMA service time and {@code q} is the estimated queue size ({@code 1 + in-flight requests}). The cubic term
+ * penalizes servers with long queues faster than linearly, which avoids herding all the requests to the server that
+ * looked the fastest. The score is further scaled up by the EWMA error rate.
+ * <p>Failed requests and error responses are recorded at a penalty latency (the query timeout) instead of the time they
+ * took, so that a server failing fast is never ranked as a fast server.
+ */
+@ThreadSafe
+public class ServerStatsTracker {
+  // Weight of the latest sample for the EWMA
+  private static final double EWMA_ALPHA = 0.3;
+  // Score is multiplied by (1 + ERROR_RATE_PENALTY * errorRate)
+  private static final double ERROR_RATE_PENALTY = 4.0;
+  // Service time floor in milliseconds, so that in-flight requests are always penalized
+  private static final double MIN_SERVICE_TIME_MS = 1.0;
+  // Score floor, also used for the servers without any sample
+  private static final double MIN_SCORE = 1.0;
+
+  private final ConcurrentHashMap<String, ServerStats> _serverStatsMap = new ConcurrentHashMap<>();
+
+  /**
+   * Records that a request is sent to the server.
+   */
+  public void recordRequestSubmitted(ServerRoutingInstance serverRoutingInstance) {
+    getServerStats(serverRoutingInstance.getHostname(), serverRoutingInstance.getPort())._numInFlightRequests
+        .incrementAndGet();
+  }
+
+  /**
+   * Records a successful response from the server for a request previously recorded as submitted.
+   *
+   * @param latencyMs Response latency observed by the broker
+   * @param serviceTimeMs Processing time reported by the server, or negative if not available
+   */
+  public void recordResponse(ServerRoutingInstance serverRoutingInstance, long latencyMs, long serviceTimeMs) {
+    ServerStats serverStats = getServerStats(serverRoutingInstance.getHostname(), serverRoutingInstance.getPort());
+    serverStats._numInFlightRequests.decrementAndGet();
+    serverStats.update(latencyMs, serviceTimeMs, false);
+  }
+
+  /**
+   * Records a failed request (responded with an error, not responded before the query finished, or failed to be sent)
+   * for a request previously recorded as submitted.
+   * <p>The failure is recorded at the given penalty latency regardless of how fast the request failed.
+   *
+   * @param penaltyLatencyMs Latency to record for the failure, typically the query timeout
+   */
+  public void recordFailure(ServerRoutingInstance serverRoutingInstance, long penaltyLatencyMs) {
+    ServerStats serverStats = getServerStats(serverRoutingInstance.getHostname(), serverRoutingInstance.getPort());
+    serverStats._numInFlightRequests.decrementAndGet();
+    serverStats.update(penaltyLatencyMs, -1L, true);
+  }
+
+  /**
+   * Records a request whose response is no longer needed (e.g. a hedged request that lost the race) for a request
+   * previously recorded as submitted. No latency sample is recorded because the request neither succeeded nor failed.
+   */
+  public void recordRequestCancelled(ServerRoutingInstance serverRoutingInstance) {
+    getServerStats(serverRoutingInstance.getHostname(), serverRoutingInstance.getPort())._numInFlightRequests
+        .decrementAndGet();
+  }
+
+  /**
+   * Returns the score of the server, where lower is better.
+   */
+  public double getScore(ServerInstance serverInstance) {
+    ServerStats serverStats = _serverStatsMap.get(getKey(serverInstance.getHostname(), serverInstance.getPort()));
+    return serverStats != null ? serverStats.getScore() : MIN_SCORE;
+  }
+
+  /**
+   * Computes a routing table for the given segments by picking one server among the replicas of each segment.
+   * <p>The segments are spread across the servers in inverse proportion to their scores: each segment goes to the
+   * server with the lowest {@code score * (1 + number of segments already assigned)}. Servers with equal scores
+   * receive the same number of segments, and a degraded server only receives a small share of the segments, so that
+   * its stats keep being refreshed.
+   */
+  public Map<ServerInstance, List<String>> computeRoutingTable(Map<String, List<ServerInstance>> segmentToServersMap,
+      Set<String> segmentsToQuery) {
+    Map<ServerInstance, List<String>> routingTable = new HashMap<>();
+    Map<ServerInstance, Double> scoreMap = new HashMap<>();
+    for (String segmentName : segmentsToQuery) {
+      List<ServerInstance> servers = new ArrayList<>(segmentToServersMap.get(segmentName));
+      // Shuffle the servers to break the ties randomly
+      Collections.shuffle(servers);
+      ServerInstance selectedServer = null;
+      double minWeightedScore = Double.MAX_VALUE;
+      for (ServerInstance server : servers) {
+        double score = scoreMap.computeIfAbsent(server, this::getScore);
+        List<String> segments = routingTable.get(server);
+        int numSegmentsAssigned = segments != null ? segments.size() : 0;
+        double weightedScore = score * (1 + numSegmentsAssigned);
+        if (weightedScore < minWeightedScore) {
+          minWeightedScore = weightedScore;
+          selectedServer = server;
+        }
+      }
+      if (selectedServer != null) {
+        routingTable.computeIfAbsent(selectedServer, k -> new ArrayList<>()).add(segmentName);
+      }
+    }
+    return routingTable;
+  }
+
+  private ServerStats getServerStats(String hostname, int port) {
+    return _serverStatsMap.computeIfAbsent(getKey(hostname, port), k -> new ServerStats());
+  }
+
+  private static String getKey(String hostname, int port) {
+    return hostname + '_' + port;
+  }
+
+  private static class ServerStats {
+    final AtomicInteger _numInFlightRequests = new AtomicInteger();
+    // Guarded by this
+    boolean _hasSample;
+    double _latencyMs;
+    double _serviceTimeMs;
+    double _errorRate;
+
+    synchronized void update(long latencyMs, long serviceTimeMs, boolean error) {
+      double errorSample = error ? 1.0 : 0.0;
+      if (!_hasSample) {
+        _hasSample = true;
+        _latencyMs = latencyMs;
+        _serviceTimeMs = serviceTimeMs >= 0 ? serviceTimeMs : latencyMs;
+        _errorRate = errorSample;
+      } else {
+        _latencyMs = ewma(_latencyMs, latencyMs);
+        if (serviceTimeMs >= 0) {
+          _serviceTimeMs = ewma(_serviceTimeMs, serviceTimeMs);
+        }
+        _errorRate = ewma(_errorRate, errorSample);
+      }
+    }
+
+    synchronized double getScore() {
+      if (!_hasSample) {
+        return MIN_SCORE;
+      }
+      double serviceTimeMs = Math.max(_serviceTimeMs, MIN_SERVICE_TIME_MS);
+      double queueSize = 1 + Math.max(_numInFlightRequests.get(), 0);
+      double score = _latencyMs - serviceTimeMs + queueSize * queueSize * queueSize * serviceTimeMs;
+      return Math.max(score, MIN_SCORE) * (1 + ERROR_RATE_PENALTY * _errorRate);
+    }
+
+    static double ewma(double average, double sample) {
+      return EWMA_ALPHA * sample + (1 - EWMA_ALPHA) * average;
+    }
+  }
+}
@@ -19,6 +19,7 @@
 package org.apache.pinot.core.util.trace;
 
 import java.util.concurrent.Callable;
+import org.apache.pinot.core.query.request.context.QueryMemoryTracker;
 
 
 /**
@@ -26,12 +27,15 @@ import java.util.concurrent.Callable;
  */
 public abstract class TraceCallable<V> implements Callable<V> {
   private final TraceContext.TraceEntry _parentTraceEntry;
+  private final QueryMemoryTracker _parentMemoryTracker;
 
   /**
    * If trace is not enabled, parent trace entry will be null.
+   * If memory is not tracked for the request, parent memory tracker will be null.
    */
   public TraceCallable() {
     _parentTraceEntry = TraceContext.getTraceEntry();
+    _parentMemoryTracker = QueryMemoryTracker.get();
   }
 
   @Override
@@ -40,12 +44,18 @@ public abstract class TraceCallable<V> implements Callable<V> {
     if (_parentTraceEntry != null) {
       TraceContext.registerThreadToRequest(_parentTraceEntry);
     }
+    if (_parentMemoryTracker != null) {
+      QueryMemoryTracker.register(_parentMemoryTracker);
+    }
     try {
       return callJob();
     } finally {
       if (_parentTraceEntry != null) {
         TraceContext.unregisterThreadFromRequest();
       }
+      if (_parentMemoryTracker != null) {
+        QueryMemoryTracker.unregister();
+      }
     }
   }
 
@@ -18,17 +18,22 @@
  */
 package org.apache.pinot.core.util.trace;
 
+import org.apache.pinot.core.query.request.context.QueryMemoryTracker;
+
 /**
  * Wrapper class for {@link Runnable} to automatically register/un-register itself to/from a request.
  */
 public abstract class TraceRunnable implements Runnable {
   private final TraceContext.TraceEntry _parentTraceEntry;
+  private final QueryMemoryTracker _parentMemoryTracker;
 
   /**
    * If trace is not enabled, parent trace entry will be null.
+   * If memory is not tracked for the request, parent memory tracker will be null.
    */
   public TraceRunnable() {
     _parentTraceEntry = TraceContext.getTraceEntry();
+    _parentMemoryTracker = QueryMemoryTracker.get();
   }
 
   @Override
@@ -36,12 +41,18 @@ public abstract class TraceRunnable implements Runnable {
     if (_parentTraceEntry != null) {
       TraceContext.registerThreadToRequest(_parentTraceEntry);
     }
+    if (_parentMemoryTracker != null) {
+      QueryMemoryTracker.register(_parentMemoryTracker);
+    }
     try {
       runJob();
     } finally {
       if (_parentTraceEntry != null) {
         TraceContext.unregisterThreadFromRequest();
       }
+      if (_parentMemoryTracker != null) {
+        QueryMemoryTracker.unregister();
+      }
     }
   }
 
@@ -27,9 +27,14 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Random;
 import org.apache.commons.lang.RandomStringUtils;
+import org.apache.datasketches.theta.Intersection;
+import org.apache.datasketches.theta.SetOperation;
+import org.apache.datasketches.theta.Sketch;
+import org.apache.datasketches.theta.UpdateSketch;
 import org.apache.pinot.core.query.aggregation.function.PercentileEstAggregationFunction;
 import org.apache.pinot.core.query.aggregation.function.PercentileTDigestAggregationFunction;
 import org.apache.pinot.core.query.aggregation.function.customobject.AvgPair;
+import org.apache.pinot.core.query.aggregation.function.customobject.DDSketch;
 import org.apache.pinot.core.query.aggregation.function.customobject.MinMaxRangePair;
 import org.apache.pinot.core.query.aggregation.function.customobject.QuantileDigest;
 import org.testng.annotations.Test;
@@ -202,4 +207,67 @@ public class ObjectSerDeUtilsTest {
       }
     }
   }
+
+  @Test
+  public void testThetaSketch() {
+    for (int i = 0; i < NUM_ITERATIONS; i++) {
+      UpdateSketch expected = UpdateSketch.builder().setNominalEntries(1 << (RANDOM.nextInt(8) + 4)).build();
+      int size = RANDOM.nextInt(1000);
+      for (int j = 0; j < size; j++) {
+        expected.update(RANDOM.nextLong());
+      }
+
+      byte[] bytes = ObjectSerDeUtils.serialize(expected);
+      Sketch actual = ObjectSerDeUtils.deserialize(bytes, ObjectSerDeUtils.ObjectType.ThetaSketch);
+
+      assertEquals(actual.getTheta(), expected.getTheta(), ERROR_MESSAGE);
+      assertEquals(actual.getRetainedEntries(), expected.getRetainedEntries(), ERROR_MESSAGE);
+      assertEquals(actual.getEstimate(), expected.getEstimate(), ERROR_MESSAGE);
+    }
+  }
+
+  @Test
+  public void testThetaSketchIntersection() {
+    for (int i = 0; i < NUM_ITERATIONS; i++) {
+      Intersection expected = SetOperation.builder().buildIntersection();
+      // Intersection without any sketch applied (universe set)
+      if (RANDOM.nextBoolean()) {
+        for (int j = 0; j < 2; j++) {
+          UpdateSketch sketch = UpdateSketch.builder().build();
+          int size = RANDOM.nextInt(1000);
+          for (int k = 0; k < size; k++) {
+            sketch.update(RANDOM.nextInt(1000));
+          }
+          expected.update(sketch);
+        }
+      }
+
+      byte[] bytes = ObjectSerDeUtils.serialize(expected);
+      Intersection actual = ObjectSerDeUtils.deserialize(bytes, ObjectSerDeUtils.ObjectType.ThetaSketchIntersection);
+
+      assertEquals(actual.hasResult(), expected.hasResult(), ERROR_MESSAGE);
+      if (expected.hasResult()) {
+        assertEquals(actual.getResult().getEstimate(), expected.getResult().getEstimate(), ERROR_MESSAGE);
+      }
+    }
+  }
+
+  @Test
+  public void testDDSketch() {
+    for (int i = 0; i < NUM_ITERATIONS; i++) {
+      DDSketch expected = new DDSketch();
+      int size = RANDOM.nextInt(100) + 1;
+      for (int j = 0; j < size; j++) {
+        expected.add(RANDOM.nextGaussian());
+      }
+
+      byte[] bytes = ObjectSerDeUtils.serialize(expected);
+      DDSketch actual = ObjectSerDeUtils.deserialize(bytes, ObjectSerDeUtils.ObjectType.DDSketch);
+
+      assertEquals(actual.getCount(), expected.getCount(), ERROR_MESSAGE);
+      for (int j = 0; j <= 100; j++) {
+        assertEquals(actual.getQuantile(j / 100.0), expected.getQuantile(j / 100.0), 1e-5, ERROR_MESSAGE);
+      }
+    }
+  }
 }
@@ -0,0 +1,128 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
+import org.apache.pinot.core.query.aggregation.AggregationFunctionContext;
+import org.apache.pinot.core.query.aggregation.function.CountAggregationFunction;
+import org.apache.pinot.core.query.reduce.CombineService;
+import org.apache.pinot.pql.parsers.Pql2Compiler;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+
+/**
+ * Tests that the {@link CombineOperator} combines the aggregation only results exactly once per operator when the
+ * executor has more threads than the operators, so that some threads could find all the operators already taken.
+ */
+public class CombineOperatorAggregationTest {
+  private static final int MAX_NUM_OPERATORS = 4;
+  private static final int NUM_EXECUTOR_THREADS = 16;
+  private static final int NUM_ITERATIONS = 100;
+  private static final long TIMEOUT_MS = 10_000L;
+  private static final Pql2Compiler COMPILER = new Pql2Compiler();
+  private static final BrokerRequest BROKER_REQUEST = COMPILER.compileToBrokerRequest("SELECT COUNT(*) FROM table");
+
+  private ExecutorService _executorService;
+
+  @BeforeClass
+  public void setUp() {
+    _executorService = Executors.newFixedThreadPool(NUM_EXECUTOR_THREADS);
+  }
+
+  @Test
+  public void testMoreThreadsThanOperators()
+      throws Exception {
+    for (int numOperators = 1; numOperators <= MAX_NUM_OPERATORS; numOperators++) {
+      for (int i = 0; i < NUM_ITERATIONS; i++) {
+        IntermediateResultsBlock mergedBlock = new CombineOperator(getOperators(numOperators), _executorService,
+            TIMEOUT_MS, BROKER_REQUEST).nextBlock();
+        assertCount(mergedBlock, numOperators);
+
+        mergedBlock = new CombineOperator(getOperators(numOperators), _executorService, TIMEOUT_MS, BROKER_REQUEST)
+            .nextBlockAsync().get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        assertCount(mergedBlock, numOperators);
+      }
+    }
+  }
+
+  @Test
+  public void testMergeIntoEmptyBlock() {
+    // Merged block without aggregation result (e.g. from an operator that caught an exception)
+    IntermediateResultsBlock mergedBlock = new IntermediateResultsBlock();
+    CombineService.mergeTwoBlocks(BROKER_REQUEST, mergedBlock, new CountOperator().nextBlock());
+    assertCount(mergedBlock, 1);
+    CombineService.mergeTwoBlocks(BROKER_REQUEST, mergedBlock, new CountOperator().nextBlock());
+    assertCount(mergedBlock, 2);
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _executorService.shutdown();
+  }
+
+  private static void assertCount(IntermediateResultsBlock mergedBlock, int numOperators) {
+    assertNull(mergedBlock.getProcessingExceptions());
+    assertEquals(mergedBlock.getAggregationResult(),
+        Collections.singletonList((long) numOperators * CountOperator.COUNT));
+  }
+
+  private static List<Operator> getOperators(int numOperators) {
+    List<Operator> operators = new ArrayList<>(numOperators);
+    for (int i = 0; i < numOperators; i++) {
+      operators.add(new CountOperator());
+    }
+    return operators;
+  }
+
+  private static class CountOperator extends BaseOperator<IntermediateResultsBlock> {
+    static final long COUNT = 10L;
+
+    @Override
+    protected IntermediateResultsBlock getNextBlock() {
+      AggregationFunctionContext[] aggregationFunctionContexts =
+          {new AggregationFunctionContext(new CountAggregationFunction(), "*")};
+      List<Object> aggregationResult = new ArrayList<>(1);
+      aggregationResult.add(COUNT);
+      return new IntermediateResultsBlock(aggregationFunctionContexts, aggregationResult, false);
+    }
+
+    @Override
+    public String getOperatorName() {
+      return "CountOperator";
+    }
+
+    @Override
+    public ExecutionStatistics getExecutionStatistics() {
+      return new ExecutionStatistics(COUNT, 0L, 0L, COUNT);
+    }
+  }
+}
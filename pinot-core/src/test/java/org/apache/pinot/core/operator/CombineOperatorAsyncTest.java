@@ -0,0 +1,176 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.apache.pinot.common.exception.QueryException;
+import org.apache.pinot.common.response.ProcessingException;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
+import org.apache.pinot.core.query.request.context.QueryMemoryTracker;
+import org.apache.pinot.pql.parsers.Pql2Compiler;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+
+/**
+ * Tests for the asynchronous execution of the {@link CombineOperator}.
+ */
+public class CombineOperatorAsyncTest {
+  private static final int NUM_OPERATORS = 10;
+  private static final int NUM_EXECUTOR_THREADS = 4;
+  private static final long TIMEOUT_MS = 10_000L;
+  private static final Pql2Compiler COMPILER = new Pql2Compiler();
+  private static final DataSchema DATA_SCHEMA =
+      new DataSchema(new String[]{"column"}, new DataSchema.ColumnDataType[]{DataSchema.ColumnDataType.INT});
+
+  private ExecutorService _executorService;
+
+  @BeforeClass
+  public void setUp() {
+    _executorService = Executors.newFixedThreadPool(NUM_EXECUTOR_THREADS);
+  }
+
+  @Test
+  public void testAsyncExecution()
+      throws Exception {
+    List<Operator> operators = new ArrayList<>(NUM_OPERATORS);
+    for (int i = 0; i < NUM_OPERATORS; i++) {
+      operators.add(new SleepingOperator(10L));
+    }
+    // Use a limit larger than the total number of rows so that all the operators are executed
+    CombineOperator combineOperator = new CombineOperator(operators, _executorService, TIMEOUT_MS,
+        COMPILER.compileToBrokerRequest("SELECT * FROM table LIMIT 1000"));
+    CompletableFuture<IntermediateResultsBlock> future = combineOperator.nextBlockAsync();
+    IntermediateResultsBlock mergedBlock = future.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+
+    assertNull(mergedBlock.getProcessingExceptions());
+    assertEquals(mergedBlock.getSelectionResult().size(), NUM_OPERATORS);
+    assertEquals(mergedBlock.getNumSegmentsProcessed(), NUM_OPERATORS);
+    // All the operators are executed by the executor threads
+    String callerThread = Thread.currentThread().getName();
+    for (Operator operator : operators) {
+      String thread = ((SleepingOperator) operator)._thread;
+      assertNotNull(thread);
+      assertNotEquals(thread, callerThread);
+    }
+  }
+
+  @Test
+  public void testAsyncTimeout()
+      throws Exception {
+    List<Operator> operators = new ArrayList<>(NUM_OPERATORS);
+    for (int i = 0; i < NUM_OPERATORS; i++) {
+      operators.add(new SleepingOperator(TIMEOUT_MS));
+    }
+    CombineOperator combineOperator = new CombineOperator(operators, _executorService, 100L,
+        COMPILER.compileToBrokerRequest("SELECT * FROM table LIMIT 1000"));
+    IntermediateResultsBlock mergedBlock = combineOperator.nextBlockAsync().get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+
+    List<ProcessingException> processingExceptions = mergedBlock.getProcessingExceptions();
+    assertNotNull(processingExceptions);
+    assertEquals(processingExceptions.size(), 1);
+    assertEquals(processingExceptions.get(0).getErrorCode(), QueryException.EXECUTION_TIMEOUT_ERROR_CODE);
+    // The result must not be returned before the started operators are done, otherwise the segments might be released
+    // while still being queried
+    for (Operator operator : operators) {
+      SleepingOperator sleepingOperator = (SleepingOperator) operator;
+      assertTrue(sleepingOperator._thread == null || sleepingOperator._done);
+    }
+  }
+
+  @Test
+  public void testAsyncMemoryTrackerPropagation()
+      throws Exception {
+    List<Operator> operators = new ArrayList<>(NUM_OPERATORS);
+    for (int i = 0; i < NUM_OPERATORS; i++) {
+      operators.add(new SleepingOperator(100L));
+    }
+    CombineOperator combineOperator = new CombineOperator(operators, _executorService, TIMEOUT_MS,
+        COMPILER.compileToBrokerRequest("SELECT * FROM table LIMIT 1000"));
+    QueryMemoryTracker memoryTracker = new QueryMemoryTracker("testQuery", 0L, null);
+    QueryMemoryTracker.register(memoryTracker);
+    CompletableFuture<IntermediateResultsBlock> future;
+    try {
+      future = combineOperator.nextBlockAsync();
+    } finally {
+      QueryMemoryTracker.unregister();
+    }
+    // The stages chained on the result future run on the completion executor, which should carry the memory tracker
+    // of the query
+    CompletableFuture<QueryMemoryTracker> completionMemoryTrackerFuture =
+        future.thenApply(mergedBlock -> QueryMemoryTracker.get());
+    assertSame(completionMemoryTrackerFuture.get(TIMEOUT_MS, TimeUnit.MILLISECONDS), memoryTracker);
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _executorService.shutdown();
+  }
+
+  private static class SleepingOperator extends BaseOperator<IntermediateResultsBlock> {
+    final long _sleepMs;
+    volatile String _thread;
+    volatile boolean _done;
+
+    SleepingOperator(long sleepMs) {
+      _sleepMs = sleepMs;
+    }
+
+    @Override
+    protected IntermediateResultsBlock getNextBlock() {
+      _thread = Thread.currentThread().getName();
+      try {
+        Thread.sleep(_sleepMs);
+      } catch (InterruptedException e) {
+        throw new RuntimeException(e);
+      } finally {
+        _done = true;
+      }
+      List<Serializable[]> rows = Collections.singletonList(new Serializable[]{1});
+      return new IntermediateResultsBlock(DATA_SCHEMA, new ArrayList<>(rows));
+    }
+
+    @Override
+    public String getOperatorName() {
+      return "SleepingOperator";
+    }
+
+    @Override
+    public ExecutionStatistics getExecutionStatistics() {
+      return new ExecutionStatistics(1L, 0L, 1L, 1L);
+    }
+  }
+}
@@ -0,0 +1,120 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
+import org.apache.pinot.pql.parsers.Pql2Compiler;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+
+/**
+ * Tests that the {@link CombineOperator} skips the remaining operators for selection only queries once enough rows
+ * have been collected, and reports the skipped segments in the execution statistics.
+ */
+public class CombineOperatorEarlyTerminationTest {
+  private static final int NUM_OPERATORS = 100;
+  private static final int NUM_THREADS = 2;
+  private static final int NUM_ROWS_PER_OPERATOR = 10;
+  private static final long TIMEOUT_MS = 10_000L;
+  private static final long NUM_TOTAL_RAW_DOCS_PER_OPERATOR = 1000L;
+  private static final Pql2Compiler COMPILER = new Pql2Compiler();
+  private static final DataSchema DATA_SCHEMA =
+      new DataSchema(new String[]{"column"}, new DataSchema.ColumnDataType[]{DataSchema.ColumnDataType.INT});
+
+  private ExecutorService _executorService;
+
+  @BeforeClass
+  public void setUp() {
+    _executorService = Executors.newFixedThreadPool(NUM_THREADS);
+  }
+
+  @Test
+  public void testSelectionOnly() {
+    List<Operator> operators = getOperators();
+    CombineOperator combineOperator = new CombineOperator(operators, _executorService, TIMEOUT_MS,
+        COMPILER.compileToBrokerRequest("SELECT * FROM table LIMIT 10"));
+    IntermediateResultsBlock mergedBlock = combineOperator.nextBlock();
+
+    assertEquals(mergedBlock.getSelectionResult().size(), NUM_ROWS_PER_OPERATOR);
+    int numOperatorsExecuted = 0;
+    for (Operator operator : operators) {
+      if (((RowsOperator) operator)._executed) {
+        numOperatorsExecuted++;
+      }
+    }
+    // Each thread always executes its first operator, then stops once enough rows have been collected
+    assertTrue(numOperatorsExecuted >= NUM_THREADS && numOperatorsExecuted < NUM_OPERATORS);
+    assertEquals(mergedBlock.getNumSegmentsProcessed(), numOperatorsExecuted);
+    assertEquals(mergedBlock.getNumSegmentsSkipped(), NUM_OPERATORS - numOperatorsExecuted);
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _executorService.shutdown();
+  }
+
+  private List<Operator> getOperators() {
+    List<Operator> operators = new ArrayList<>(NUM_OPERATORS);
+    for (int i = 0; i < NUM_OPERATORS; i++) {
+      operators.add(new RowsOperator());
+    }
+    return operators;
+  }
+
+  private static class RowsOperator extends BaseOperator<IntermediateResultsBlock> {
+    volatile boolean _executed;
+
+    @Override
+    protected IntermediateResultsBlock getNextBlock() {
+      _executed = true;
+      List<Serializable[]> rows = new ArrayList<>(NUM_ROWS_PER_OPERATOR);
+      for (int i = 0; i < NUM_ROWS_PER_OPERATOR; i++) {
+        rows.add(new Serializable[]{i});
+      }
+      return new IntermediateResultsBlock(DATA_SCHEMA, rows);
+    }
+
+    @Override
+    public String getOperatorName() {
+      return "RowsOperator";
+    }
+
+    @Override
+    public ExecutionStatistics getExecutionStatistics() {
+      if (_executed) {
+        return new ExecutionStatistics(NUM_ROWS_PER_OPERATOR, 0L, NUM_ROWS_PER_OPERATOR,
+            NUM_TOTAL_RAW_DOCS_PER_OPERATOR);
+      } else {
+        return ExecutionStatistics.forSkippedSegment(NUM_TOTAL_RAW_DOCS_PER_OPERATOR);
+      }
+    }
+  }
+}
@@ -0,0 +1,123 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
+import org.apache.pinot.pql.parsers.Pql2Compiler;
+import org.testng.SkipException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNotNull;
+
+
+/**
+ * Tests that the {@link CombineOperator} does not pin operators to threads, so that a slow segment does not hold up the
+ * segments that would have been assigned to the same thread.
+ */
+public class CombineOperatorWorkStealingTest {
+  private static final int NUM_OPERATORS = 20;
+  private static final int NUM_THREADS = 2;
+  private static final int NUM_EXECUTOR_THREADS = 16;
+  private static final long SLOW_OPERATOR_SLEEP_MS = 500L;
+  private static final long TIMEOUT_MS = 10_000L;
+  private static final Pql2Compiler COMPILER = new Pql2Compiler();
+  private static final DataSchema DATA_SCHEMA =
+      new DataSchema(new String[]{"column"}, new DataSchema.ColumnDataType[]{DataSchema.ColumnDataType.INT});
+
+  private ExecutorService _executorService;
+
+  @BeforeClass
+  public void setUp() {
+    _executorService = Executors.newFixedThreadPool(NUM_EXECUTOR_THREADS);
+  }
+
+  @Test
+  public void testSlowOperatorDoesNotHoldUpOthers() {
+    // CombineOperator uses at most half of the processors for each query
+    if (Runtime.getRuntime().availableProcessors() < 2 * NUM_THREADS) {
+      throw new SkipException("Not enough processors to run the query with multiple threads");
+    }
+    List<Operator> operators = new ArrayList<>(NUM_OPERATORS);
+    for (int i = 0; i < NUM_OPERATORS; i++) {
+      operators.add(new ThreadRecordingOperator(i == 0 ? SLOW_OPERATOR_SLEEP_MS : 0L));
+    }
+    // Use a limit larger than the total number of rows so that all the operators are executed
+    CombineOperator combineOperator = new CombineOperator(operators, _executorService, TIMEOUT_MS,
+        COMPILER.compileToBrokerRequest("SELECT * FROM table LIMIT 1000"));
+    IntermediateResultsBlock mergedBlock = combineOperator.nextBlock();
+    assertEquals(mergedBlock.getNumSegmentsProcessed(), NUM_OPERATORS);
+
+    // While the slow operator is running, the other thread should have drained all the remaining operators
+    String slowThread = ((ThreadRecordingOperator) operators.get(0))._thread;
+    assertNotNull(slowThread);
+    for (int i = 1; i < NUM_OPERATORS; i++) {
+      assertNotEquals(((ThreadRecordingOperator) operators.get(i))._thread, slowThread);
+    }
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _executorService.shutdown();
+  }
+
+  private static class ThreadRecordingOperator extends BaseOperator<IntermediateResultsBlock> {
+    final long _sleepMs;
+    volatile String _thread;
+
+    ThreadRecordingOperator(long sleepMs) {
+      _sleepMs = sleepMs;
+    }
+
+    @Override
+    protected IntermediateResultsBlock getNextBlock() {
+      _thread = Thread.currentThread().getName();
+      if (_sleepMs > 0) {
+        try {
+          Thread.sleep(_sleepMs);
+        } catch (InterruptedException e) {
+          throw new RuntimeException(e);
+        }
+      }
+      List<Serializable[]> rows = Collections.singletonList(new Serializable[]{1});
+      return new IntermediateResultsBlock(DATA_SCHEMA, new ArrayList<>(rows));
+    }
+
+    @Override
+    public String getOperatorName() {
+      return "ThreadRecordingOperator";
+    }
+
+    @Override
+    public ExecutionStatistics getExecutionStatistics() {
+      return new ExecutionStatistics(1L, 0L, 1L, 1L);
+    }
+  }
+}
@@ -0,0 +1,344 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.dociditerators;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.apache.pinot.common.data.FieldSpec.DataType;
+import org.apache.pinot.core.common.BlockMetadata;
+import org.apache.pinot.core.common.BlockMultiValIterator;
+import org.apache.pinot.core.common.BlockValSet;
+import org.apache.pinot.core.common.Constants;
+import org.apache.pinot.core.common.Predicate;
+import org.apache.pinot.core.common.predicate.EqPredicate;
+import org.apache.pinot.core.common.predicate.InPredicate;
+import org.apache.pinot.core.common.predicate.NEqPredicate;
+import org.apache.pinot.core.common.predicate.NotInPredicate;
+import org.apache.pinot.core.common.predicate.RangePredicate;
+import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluatorProvider;
+import org.apache.pinot.core.segment.index.readers.BaseImmutableDictionary;
+import org.apache.pinot.core.segment.index.readers.ZoneMapReader;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+public class MVScanDocIdIteratorTest {
+  private static final String COLUMN_NAME = "column";
+  private static final long RANDOM_SEED = System.currentTimeMillis();
+  private static final Random RANDOM = new Random(RANDOM_SEED);
+  private static final String ERROR_MESSAGE = "Random seed: " + RANDOM_SEED;
+  private static final int CARDINALITY = 20;
+  private static final int NUM_DOCS = 100;
+  // With 1024 max values per document, each batch contains 8 documents (8192 values per batch)
+  private static final int MAX_NUM_MULTI_VALUES = 1024;
+  private static final int NUM_DOCS_PER_BATCH = 8;
+  private static final int MAX_NUM_VALUES_PER_DOC = 4;
+
+  private BaseImmutableDictionary _dictionary;
+
+  @BeforeClass
+  public void setUp() {
+    // Dictionary with values "0" to "19" where the dictionary id equals the value
+    _dictionary = mock(BaseImmutableDictionary.class);
+    when(_dictionary.length()).thenReturn(CARDINALITY);
+    when(_dictionary.insertionIndexOf(anyString())).thenAnswer(invocation -> {
+      int value = Integer.parseInt(invocation.getArgument(0));
+      return value < CARDINALITY ? value : -(CARDINALITY + 1);
+    });
+    when(_dictionary.indexOf(anyString())).thenAnswer(invocation -> {
+      int value = Integer.parseInt(invocation.getArgument(0));
+      return value < CARDINALITY ? value : -1;
+    });
+  }
+
+  @Test
+  public void testBatchBoundaries() {
+    // Single value per document
+    int[][] values = new int[NUM_DOCS][];
+    for (int i = 0; i < NUM_DOCS; i++) {
+      values[i] = new int[]{i % CARDINALITY};
+    }
+
+    // Values on both sides of the batch boundaries
+    Predicate predicate = new InPredicate(COLUMN_NAME, Arrays.asList("7", "8", "15", "16"));
+    RecordingValueIterator valueIterator = new RecordingValueIterator(values, true);
+    MVScanDocIdIterator docIdIterator = getDocIdIterator(predicate, valueIterator, null);
+    List<Integer> expectedDocIds = new ArrayList<>();
+    for (int i = 0; i < NUM_DOCS; i++) {
+      int value = i % CARDINALITY;
+      if (value == 7 || value == 8 || value == 15 || value == 16) {
+        expectedDocIds.add(i);
+      }
+    }
+    Assert.assertEquals(getMatchingDocIds(docIdIterator), expectedDocIds);
+    Assert.assertEquals(docIdIterator.getNumEntriesScanned(), NUM_DOCS);
+
+    // Every document should be read exactly once, in batches aligned to the batch size and the last batch truncated
+    Assert.assertEquals(valueIterator._numDocsReadPerDoc, 0);
+    Assert.assertEquals(valueIterator._scannedDocIds.size(), NUM_DOCS);
+    List<int[]> batches = valueIterator._batches;
+    Assert.assertEquals(batches.size(), (NUM_DOCS + NUM_DOCS_PER_BATCH - 1) / NUM_DOCS_PER_BATCH);
+    for (int i = 0; i < batches.size(); i++) {
+      Assert.assertEquals(batches.get(i)[0], i * NUM_DOCS_PER_BATCH);
+      Assert.assertEquals(batches.get(i)[1], Math.min(NUM_DOCS_PER_BATCH, NUM_DOCS - i * NUM_DOCS_PER_BATCH));
+    }
+
+    // Advance to the last document of a batch, the first document of the next batch, and inside the same batch
+    valueIterator = new RecordingValueIterator(values, true);
+    docIdIterator = getDocIdIterator(predicate, valueIterator, null);
+    Assert.assertEquals(docIdIterator.advance(7), 7);
+    Assert.assertEquals(docIdIterator.advance(8), 8);
+    Assert.assertEquals(docIdIterator.advance(9), 15);
+    Assert.assertEquals(docIdIterator.next(), 16);
+    Assert.assertEquals(docIdIterator.advance(NUM_DOCS - 2), Constants.EOF);
+    Assert.assertEquals(docIdIterator.advance(NUM_DOCS), Constants.EOF);
+  }
+
+  @Test
+  public void testEmptyBatches() {
+    // Documents 16 to 39 have no value, which covers 3 whole batches
+    int[][] values = new int[NUM_DOCS][];
+    for (int i = 0; i < NUM_DOCS; i++) {
+      values[i] = i >= 16 && i < 40 ? new int[0] : new int[]{i % CARDINALITY};
+    }
+
+    // Inclusive predicate never matches documents without value
+    Predicate predicate = new RangePredicate(COLUMN_NAME, Collections.singletonList("[*\t\t9]"));
+    MVScanDocIdIterator docIdIterator = getDocIdIterator(predicate, new RecordingValueIterator(values, true), null);
+    for (int docId : getMatchingDocIds(docIdIterator)) {
+      Assert.assertTrue(docId < 16 || docId >= 40);
+    }
+    docIdIterator = getDocIdIterator(predicate, new RecordingValueIterator(values, true), null);
+    Assert.assertEquals(docIdIterator.advance(16), 40);
+
+    // Exclusive predicate always matches documents without value
+    predicate = new NEqPredicate(COLUMN_NAME, Collections.singletonList("0"));
+    docIdIterator = getDocIdIterator(predicate, new RecordingValueIterator(values, true), null);
+    Assert.assertTrue(getMatchingDocIds(docIdIterator).containsAll(getRange(16, 40)));
+
+    // All documents without value
+    int[][] emptyValues = new int[NUM_DOCS][0];
+    docIdIterator = getDocIdIterator(new EqPredicate(COLUMN_NAME, Collections.singletonList("0")),
+        new RecordingValueIterator(emptyValues, true), null);
+    Assert.assertEquals(docIdIterator.next(), Constants.EOF);
+    Assert.assertEquals(docIdIterator.getNumEntriesScanned(), 0);
+    docIdIterator = getDocIdIterator(predicate, new RecordingValueIterator(emptyValues, true), null);
+    Assert.assertEquals(getMatchingDocIds(docIdIterator), getRange(0, NUM_DOCS));
+    Assert.assertEquals(docIdIterator.getNumEntriesScanned(), 0);
+  }
+
+  @Test
+  public void testMatchesPerDocScan() {
+    // NOTE: documents without value are covered in testEmptyBatches(), and never exist in real segments where the
+    // default null value is stored instead
+    int[][] values = new int[NUM_DOCS][];
+    for (int i = 0; i < NUM_DOCS; i++) {
+      int numValues = 1 + RANDOM.nextInt(MAX_NUM_VALUES_PER_DOC);
+      values[i] = new int[numValues];
+      for (int j = 0; j < numValues; j++) {
+        values[i][j] = RANDOM.nextInt(CARDINALITY);
+      }
+    }
+    // Zone map with the block size not aligned with the batch size
+    ZoneMapReader zoneMap = getZoneMap(values, 10);
+
+    for (Predicate predicate : getPredicates()) {
+      String errorMessage = ERROR_MESSAGE + ", " + predicate;
+
+      // next()
+      MVScanDocIdIterator batchedIterator = getDocIdIterator(predicate, new RecordingValueIterator(values, true), null);
+      MVScanDocIdIterator perDocIterator = getDocIdIterator(predicate, new RecordingValueIterator(values, false), null);
+      Assert.assertEquals(getMatchingDocIds(batchedIterator), getMatchingDocIds(perDocIterator), errorMessage);
+      Assert.assertEquals(batchedIterator.getNumEntriesScanned(), perDocIterator.getNumEntriesScanned(), errorMessage);
+
+      // advance()
+      batchedIterator = getDocIdIterator(predicate, new RecordingValueIterator(values, true), null);
+      perDocIterator = getDocIdIterator(predicate, new RecordingValueIterator(values, false), null);
+      int targetDocId = 0;
+      while (true) {
+        int docId = perDocIterator.advance(targetDocId);
+        Assert.assertEquals(batchedIterator.advance(targetDocId), docId, errorMessage);
+        if (docId == Constants.EOF) {
+          break;
+        }
+        targetDocId = docId + 1 + RANDOM.nextInt(2 * NUM_DOCS_PER_BATCH);
+      }
+
+      // With zone map, the skipped blocks should never be read
+      RecordingValueIterator valueIterator = new RecordingValueIterator(values, true);
+      batchedIterator = getDocIdIterator(predicate, valueIterator, zoneMap);
+      perDocIterator = getDocIdIterator(predicate, new RecordingValueIterator(values, false), null);
+      Assert.assertEquals(getMatchingDocIds(batchedIterator), getMatchingDocIds(perDocIterator), errorMessage);
+      boolean[] matchingBlocks = ZoneMapUtils.computeMatchingBlocks(zoneMap, getPredicateEvaluator(predicate));
+      if (matchingBlocks != null) {
+        for (int docId : valueIterator._scannedDocIds) {
+          Assert.assertTrue(matchingBlocks[docId / 10], errorMessage);
+        }
+      }
+    }
+  }
+
+  private List<Predicate> getPredicates() {
+    List<Predicate> predicates = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      String value = Integer.toString(RANDOM.nextInt(CARDINALITY));
+      String value2 = Integer.toString(RANDOM.nextInt(CARDINALITY));
+      predicates.add(new EqPredicate(COLUMN_NAME, Collections.singletonList(value)));
+      predicates.add(new NEqPredicate(COLUMN_NAME, Collections.singletonList(value)));
+      predicates.add(new InPredicate(COLUMN_NAME, Arrays.asList(value, value2)));
+      predicates.add(new NotInPredicate(COLUMN_NAME, Arrays.asList(value, value2)));
+      int lower = RANDOM.nextInt(CARDINALITY / 2);
+      int upper = lower + RANDOM.nextInt(CARDINALITY / 2);
+      predicates.add(new RangePredicate(COLUMN_NAME, Collections.singletonList("[" + lower + "\t\t" + upper + ")")));
+    }
+    return predicates;
+  }
+
+  private PredicateEvaluator getPredicateEvaluator(Predicate predicate) {
+    return PredicateEvaluatorProvider.getPredicateEvaluator(predicate, _dictionary, DataType.INT);
+  }
+
+  private MVScanDocIdIterator getDocIdIterator(Predicate predicate, BlockMultiValIterator valueIterator,
+      ZoneMapReader zoneMap) {
+    BlockValSet blockValSet = mock(BlockValSet.class);
+    when(blockValSet.iterator()).thenReturn(valueIterator);
+    BlockMetadata blockMetadata = mock(BlockMetadata.class);
+    when(blockMetadata.getStartDocId()).thenReturn(0);
+    when(blockMetadata.getEndDocId()).thenReturn(NUM_DOCS - 1);
+    when(blockMetadata.getLength()).thenReturn(NUM_DOCS);
+    when(blockMetadata.getMaxNumberOfMultiValues()).thenReturn(MAX_NUM_MULTI_VALUES);
+    when(blockMetadata.getDictionary()).thenReturn(_dictionary);
+    when(blockMetadata.getDataType()).thenReturn(DataType.INT);
+    return new MVScanDocIdIterator(COLUMN_NAME, blockValSet, blockMetadata, getPredicateEvaluator(predicate), zoneMap);
+  }
+
+  private static ZoneMapReader getZoneMap(int[][] values, int numDocsPerBlock) {
+    int numBlocks = (values.length + numDocsPerBlock - 1) / numDocsPerBlock;
+    int[] minDictIds = new int[numBlocks];
+    int[] maxDictIds = new int[numBlocks];
+    Arrays.fill(minDictIds, Integer.MAX_VALUE);
+    Arrays.fill(maxDictIds, -1);
+    for (int i = 0; i < values.length; i++) {
+      int blockId = i / numDocsPerBlock;
+      for (int value : values[i]) {
+        minDictIds[blockId] = Math.min(minDictIds[blockId], value);
+        maxDictIds[blockId] = Math.max(maxDictIds[blockId], value);
+      }
+    }
+    ZoneMapReader zoneMap = mock(ZoneMapReader.class);
+    when(zoneMap.getNumDocsPerBlock()).thenReturn(numDocsPerBlock);
+    when(zoneMap.getNumBlocks()).thenReturn(numBlocks);
+    when(zoneMap.getMinDictId(anyInt())).thenAnswer(invocation -> minDictIds[(int) invocation.getArgument(0)]);
+    when(zoneMap.getMaxDictId(anyInt())).thenAnswer(invocation -> maxDictIds[(int) invocation.getArgument(0)]);
+    return zoneMap;
+  }
+
+  private static List<Integer> getMatchingDocIds(MVScanDocIdIterator docIdIterator) {
+    List<Integer> docIds = new ArrayList<>();
+    int docId;
+    while ((docId = docIdIterator.next()) != Constants.EOF) {
+      docIds.add(docId);
+    }
+    return docIds;
+  }
+
+  private static List<Integer> getRange(int startDocId, int endDocId) {
+    List<Integer> docIds = new ArrayList<>();
+    for (int i = startDocId; i < endDocId; i++) {
+      docIds.add(i);
+    }
+    return docIds;
+  }
+
+  /**
+   * Value iterator over the dictionary ids that records the documents whose values are read, and optionally supports
+   * reading the values in batch.
+   */
+  private static class RecordingValueIterator extends BlockMultiValIterator {
+    final int[][] _values;
+    final boolean _batchReadSupported;
+    final Set<Integer> _scannedDocIds = new HashSet<>();
+    // Start document id and number of documents for each batch read
+    final List<int[]> _batches = new ArrayList<>();
+    int _numDocsReadPerDoc;
+    int _nextDocId;
+
+    RecordingValueIterator(int[][] values, boolean batchReadSupported) {
+      _values = values;
+      _batchReadSupported = batchReadSupported;
+    }
+
+    @Override
+    public int nextIntVal(int[] intArray) {
+      _scannedDocIds.add(_nextDocId);
+      _numDocsReadPerDoc++;
+      int[] values = _values[_nextDocId++];
+      System.arraycopy(values, 0, intArray, 0, values.length);
+      return values.length;
+    }
+
+    @Override
+    public boolean isBatchReadSupported() {
+      return _batchReadSupported;
+    }
+
+    @Override
+    public int nextIntVals(int numDocs, int[] intArray, int[] valueEndOffsets) {
+      Assert.assertTrue(_batchReadSupported);
+      Assert.assertTrue(numDocs > 0 && _nextDocId + numDocs <= _values.length);
+      _batches.add(new int[]{_nextDocId, numDocs});
+      int numValues = 0;
+      for (int i = 0; i < numDocs; i++) {
+        _scannedDocIds.add(_nextDocId);
+        int[] values = _values[_nextDocId++];
+        System.arraycopy(values, 0, intArray, numValues, values.length);
+        numValues += values.length;
+        valueEndOffsets[i] = numValues;
+      }
+      return numValues;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return _nextDocId < _values.length;
+    }
+
+    @Override
+    public void skipTo(int docId) {
+      _nextDocId = docId;
+    }
+
+    @Override
+    public void reset() {
+      _nextDocId = 0;
+    }
+  }
+}
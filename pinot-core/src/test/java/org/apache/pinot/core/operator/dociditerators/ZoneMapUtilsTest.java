@@ -0,0 +1,304 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.dociditerators;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.pinot.common.data.FieldSpec.DataType;
+import org.apache.pinot.core.common.BlockMetadata;
+import org.apache.pinot.core.common.BlockSingleValIterator;
+import org.apache.pinot.core.common.BlockValSet;
+import org.apache.pinot.core.common.Constants;
+import org.apache.pinot.core.common.Predicate;
+import org.apache.pinot.core.common.predicate.EqPredicate;
+import org.apache.pinot.core.common.predicate.InPredicate;
+import org.apache.pinot.core.common.predicate.NEqPredicate;
+import org.apache.pinot.core.common.predicate.NotInPredicate;
+import org.apache.pinot.core.common.predicate.RangePredicate;
+import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluatorProvider;
+import org.apache.pinot.core.segment.index.readers.BaseImmutableDictionary;
+import org.apache.pinot.core.segment.index.readers.ZoneMapReader;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+public class ZoneMapUtilsTest {
+  private static final String COLUMN_NAME = "column";
+  private static final int CARDINALITY = 100;
+  private static final int NUM_DOCS_PER_BLOCK = 10;
+  // Min/max dictionary id for each block
+  private static final int[][] BLOCK_MIN_MAX_DICT_IDS = {{0, 9}, {10, 19}, {20, 29}, {5, 5}, {30, 39}};
+  private static final int NUM_DOCS = BLOCK_MIN_MAX_DICT_IDS.length * NUM_DOCS_PER_BLOCK;
+
+  private BaseImmutableDictionary _dictionary;
+  private ZoneMapReader _zoneMap;
+  // Dictionary ids for each document, where the values within each block cover the min/max of the zone map
+  private int[] _dictIds;
+
+  @BeforeClass
+  public void setUp() {
+    // Dictionary with values "0" to "99" where the dictionary id equals the value
+    _dictionary = mock(BaseImmutableDictionary.class);
+    when(_dictionary.length()).thenReturn(CARDINALITY);
+    when(_dictionary.insertionIndexOf(anyString())).thenAnswer(invocation -> {
+      int value = Integer.parseInt(invocation.getArgument(0));
+      if (value < 0) {
+        return -1;
+      }
+      return value < CARDINALITY ? value : -(CARDINALITY + 1);
+    });
+    when(_dictionary.indexOf(anyString())).thenAnswer(invocation -> {
+      int value = Integer.parseInt(invocation.getArgument(0));
+      return value >= 0 && value < CARDINALITY ? value : -1;
+    });
+
+    _zoneMap = mock(ZoneMapReader.class);
+    when(_zoneMap.getNumDocsPerBlock()).thenReturn(NUM_DOCS_PER_BLOCK);
+    when(_zoneMap.getNumBlocks()).thenReturn(BLOCK_MIN_MAX_DICT_IDS.length);
+    when(_zoneMap.getMinDictId(anyInt()))
+        .thenAnswer(invocation -> BLOCK_MIN_MAX_DICT_IDS[(int) invocation.getArgument(0)][0]);
+    when(_zoneMap.getMaxDictId(anyInt()))
+        .thenAnswer(invocation -> BLOCK_MIN_MAX_DICT_IDS[(int) invocation.getArgument(0)][1]);
+
+    _dictIds = new int[NUM_DOCS];
+    for (int i = 0; i < NUM_DOCS; i++) {
+      int[] minMaxDictIds = BLOCK_MIN_MAX_DICT_IDS[i / NUM_DOCS_PER_BLOCK];
+      _dictIds[i] = minMaxDictIds[0] + i % (minMaxDictIds[1] - minMaxDictIds[0] + 1);
+    }
+  }
+
+  @Test
+  public void testEqPredicate() {
+    assertMatchingBlocks(new EqPredicate(COLUMN_NAME, Collections.singletonList("15")),
+        new boolean[]{false, true, false, false, false});
+    assertMatchingBlocks(new EqPredicate(COLUMN_NAME, Collections.singletonList("5")),
+        new boolean[]{true, false, false, true, false});
+    // Value within the dictionary but not in any block
+    assertMatchingBlocks(new EqPredicate(COLUMN_NAME, Collections.singletonList("50")),
+        new boolean[]{false, false, false, false, false});
+  }
+
+  @Test
+  public void testInPredicate() {
+    // Values are not sorted
+    assertMatchingBlocks(new InPredicate(COLUMN_NAME, Arrays.asList("35", "5", "60")),
+        new boolean[]{true, false, false, true, true});
+    assertMatchingBlocks(new InPredicate(COLUMN_NAME, Arrays.asList("40", "50")),
+        new boolean[]{false, false, false, false, false});
+  }
+
+  @Test
+  public void testRangePredicate() {
+    assertMatchingBlocks(new RangePredicate(COLUMN_NAME, Collections.singletonList("[12\t\t22]")),
+        new boolean[]{false, true, true, false, false});
+    // Exclusive boundaries
+    assertMatchingBlocks(new RangePredicate(COLUMN_NAME, Collections.singletonList("(19\t\t30)")),
+        new boolean[]{false, false, true, false, false});
+    // Unbounded
+    assertMatchingBlocks(new RangePredicate(COLUMN_NAME, Collections.singletonList("(*\t\t6)")),
+        new boolean[]{true, false, false, true, false});
+    assertMatchingBlocks(new RangePredicate(COLUMN_NAME, Collections.singletonList("[39\t\t*)")),
+        new boolean[]{false, false, false, false, true});
+  }
+
+  @Test
+  public void testNEqPredicate() {
+    // Only the block with a single value can be pruned
+    assertMatchingBlocks(new NEqPredicate(COLUMN_NAME, Collections.singletonList("5")),
+        new boolean[]{true, true, true, false, true});
+    assertMatchingBlocks(new NEqPredicate(COLUMN_NAME, Collections.singletonList("15")),
+        new boolean[]{true, true, true, true, true});
+  }
+
+  @Test
+  public void testNotInPredicate() {
+    List<String> values = Arrays.asList("19", "18", "17", "16", "15", "14", "13", "12", "11", "10", "5");
+    assertMatchingBlocks(new NotInPredicate(COLUMN_NAME, values), new boolean[]{true, false, true, false, true});
+    // All but one value of the block excluded
+    assertMatchingBlocks(new NotInPredicate(COLUMN_NAME, values.subList(1, values.size() - 1)),
+        new boolean[]{true, true, true, true, true});
+  }
+
+  @Test
+  public void testNotApplicable() {
+    PredicateEvaluator evaluator =
+        getPredicateEvaluator(new EqPredicate(COLUMN_NAME, Collections.singletonList("15")));
+    Assert.assertNull(ZoneMapUtils.computeMatchingBlocks(null, evaluator));
+
+    // Always true and always false predicates
+    Assert.assertNull(ZoneMapUtils.computeMatchingBlocks(_zoneMap,
+        getPredicateEvaluator(new RangePredicate(COLUMN_NAME, Collections.singletonList("[*\t\t*]")))));
+    Assert.assertNull(ZoneMapUtils.computeMatchingBlocks(_zoneMap,
+        getPredicateEvaluator(new EqPredicate(COLUMN_NAME, Collections.singletonList("200")))));
+
+    // Raw value based predicate
+    Assert.assertNull(ZoneMapUtils.computeMatchingBlocks(_zoneMap, PredicateEvaluatorProvider
+        .getPredicateEvaluator(new EqPredicate(COLUMN_NAME, Collections.singletonList("15")), null, DataType.INT)));
+  }
+
+  @Test
+  public void testScanSkipsNonMatchingBlocks() {
+    // EQ: only the second block should be scanned
+    Predicate predicate = new EqPredicate(COLUMN_NAME, Collections.singletonList("15"));
+    RecordingValueIterator valueIterator = new RecordingValueIterator(_dictIds);
+    SVScanDocIdIterator docIdIterator = getDocIdIterator(predicate, valueIterator, _zoneMap);
+    Assert.assertEquals(docIdIterator.next(), 15);
+    Assert.assertEquals(docIdIterator.next(), Constants.EOF);
+    assertScannedBlocks(valueIterator, docIdIterator, Collections.singleton(1));
+
+    // NEQ: the block with the single non-matching value should not be scanned
+    predicate = new NEqPredicate(COLUMN_NAME, Collections.singletonList("5"));
+    valueIterator = new RecordingValueIterator(_dictIds);
+    docIdIterator = getDocIdIterator(predicate, valueIterator, _zoneMap);
+    int numMatchingDocs = 0;
+    while (docIdIterator.next() != Constants.EOF) {
+      Assert.assertNotEquals(_dictIds[docIdIterator.currentDocId()], 5);
+      numMatchingDocs++;
+    }
+    Assert.assertEquals(numMatchingDocs, NUM_DOCS - NUM_DOCS_PER_BLOCK - 1);
+    assertScannedBlocks(valueIterator, docIdIterator, new HashSet<>(Arrays.asList(0, 1, 2, 4)));
+
+    // Advance into a non-matching block should move to the next matching block
+    predicate = new InPredicate(COLUMN_NAME, Arrays.asList("5", "35"));
+    valueIterator = new RecordingValueIterator(_dictIds);
+    docIdIterator = getDocIdIterator(predicate, valueIterator, _zoneMap);
+    Assert.assertEquals(docIdIterator.advance(12), 30);
+    Assert.assertEquals(docIdIterator.next(), 31);
+    Assert.assertEquals(docIdIterator.advance(40), 45);
+    Assert.assertEquals(docIdIterator.next(), Constants.EOF);
+    assertScannedBlocks(valueIterator, docIdIterator, new HashSet<>(Arrays.asList(3, 4)));
+
+    // isMatch() on documents in non-matching blocks should not scan the value
+    valueIterator = new RecordingValueIterator(_dictIds);
+    docIdIterator = getDocIdIterator(predicate, valueIterator, _zoneMap);
+    Assert.assertFalse(docIdIterator.isMatch(15));
+    Assert.assertTrue(docIdIterator.isMatch(31));
+    Assert.assertEquals(docIdIterator.getNumEntriesScanned(), 1);
+    Assert.assertEquals(valueIterator._scannedDocIds, Collections.singleton(31));
+  }
+
+  @Test
+  public void testScanMatchesScanWithoutZoneMap() {
+    Predicate[] predicates = {
+        new EqPredicate(COLUMN_NAME, Collections.singletonList("15")),
+        new InPredicate(COLUMN_NAME, Arrays.asList("35", "5", "60")),
+        new RangePredicate(COLUMN_NAME, Collections.singletonList("(19\t\t30)")),
+        new NEqPredicate(COLUMN_NAME, Collections.singletonList("5")),
+        new NotInPredicate(COLUMN_NAME, Arrays.asList("10", "11", "12", "13", "14", "15", "16", "17", "18", "19"))
+    };
+    MutableRoaringBitmap allDocs = new MutableRoaringBitmap();
+    allDocs.add(0L, NUM_DOCS);
+    for (Predicate predicate : predicates) {
+      // Iterate over the documents
+      SVScanDocIdIterator docIdIteratorWithZoneMap =
+          getDocIdIterator(predicate, new RecordingValueIterator(_dictIds), _zoneMap);
+      SVScanDocIdIterator docIdIteratorWithoutZoneMap =
+          getDocIdIterator(predicate, new RecordingValueIterator(_dictIds), null);
+      int docId;
+      while ((docId = docIdIteratorWithoutZoneMap.next()) != Constants.EOF) {
+        Assert.assertEquals(docIdIteratorWithZoneMap.next(), docId);
+      }
+      Assert.assertEquals(docIdIteratorWithZoneMap.next(), Constants.EOF);
+      Assert.assertEquals(docIdIteratorWithoutZoneMap.getNumEntriesScanned(), NUM_DOCS);
+      Assert.assertTrue(docIdIteratorWithZoneMap.getNumEntriesScanned() < NUM_DOCS);
+
+      // Apply on a bitmap
+      Assert.assertEquals(getDocIdIterator(predicate, new RecordingValueIterator(_dictIds), _zoneMap).applyAnd(allDocs),
+          getDocIdIterator(predicate, new RecordingValueIterator(_dictIds), null).applyAnd(allDocs));
+    }
+  }
+
+  private PredicateEvaluator getPredicateEvaluator(Predicate predicate) {
+    return PredicateEvaluatorProvider.getPredicateEvaluator(predicate, _dictionary, DataType.INT);
+  }
+
+  private void assertMatchingBlocks(Predicate predicate, boolean[] expectedMatchingBlocks) {
+    Assert.assertEquals(ZoneMapUtils.computeMatchingBlocks(_zoneMap, getPredicateEvaluator(predicate)),
+        expectedMatchingBlocks, predicate.toString());
+  }
+
+  private SVScanDocIdIterator getDocIdIterator(Predicate predicate, BlockSingleValIterator valueIterator,
+      ZoneMapReader zoneMap) {
+    BlockValSet blockValSet = mock(BlockValSet.class);
+    when(blockValSet.iterator()).thenReturn(valueIterator);
+    BlockMetadata blockMetadata = mock(BlockMetadata.class);
+    when(blockMetadata.getStartDocId()).thenReturn(0);
+    when(blockMetadata.getEndDocId()).thenReturn(NUM_DOCS - 1);
+    when(blockMetadata.getDataType()).thenReturn(DataType.INT);
+    return new SVScanDocIdIterator(COLUMN_NAME, blockValSet, blockMetadata, getPredicateEvaluator(predicate), zoneMap);
+  }
+
+  /**
+   * Asserts that only the values inside the given blocks are scanned, and each of them is scanned at most once.
+   */
+  private static void assertScannedBlocks(RecordingValueIterator valueIterator, SVScanDocIdIterator docIdIterator,
+      Set<Integer> expectedScannedBlocks) {
+    Set<Integer> scannedBlocks = new HashSet<>();
+    for (int docId : valueIterator._scannedDocIds) {
+      scannedBlocks.add(docId / NUM_DOCS_PER_BLOCK);
+    }
+    Assert.assertEquals(scannedBlocks, expectedScannedBlocks);
+    Assert.assertEquals(docIdIterator.getNumEntriesScanned(), valueIterator._scannedDocIds.size());
+  }
+
+  /**
+   * Value iterator over the dictionary ids that records the documents whose values are read.
+   */
+  private static class RecordingValueIterator extends BlockSingleValIterator {
+    final int[] _values;
+    final Set<Integer> _scannedDocIds = new HashSet<>();
+    int _nextDocId;
+
+    RecordingValueIterator(int[] values) {
+      _values = values;
+    }
+
+    @Override
+    public int nextIntVal() {
+      Assert.assertTrue(_scannedDocIds.add(_nextDocId), "Document scanned twice: " + _nextDocId);
+      return _values[_nextDocId++];
+    }
+
+    @Override
+    public boolean hasNext() {
+      return _nextDocId < _values.length;
+    }
+
+    @Override
+    public void skipTo(int docId) {
+      _nextDocId = docId;
+    }
+
+    @Override
+    public void reset() {
+      _nextDocId = 0;
+    }
+  }
+}
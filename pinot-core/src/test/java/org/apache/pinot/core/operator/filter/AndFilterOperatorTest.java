@@ -107,4 +107,23 @@ public class AndFilterOperatorTest {
     Assert.assertEquals(iterator.next(), 28);
     Assert.assertEquals(iterator.next(), Constants.EOF);
   }
+
+  @Test
+  public void testNumMatchingDocsEstimate() {
+    int[] docIds1 = new int[]{2, 3, 6, 10, 15, 16, 28};
+    int[] docIds2 = new int[]{3, 6, 8, 20, 28};
+    int[] docIds3 = new int[]{1, 2, 3, 6, 30, 31};
+
+    List<BaseFilterOperator> childOperators = new ArrayList<>();
+    childOperators.add(new TestFilterOperator(docIds1));
+    childOperators.add(new TestFilterOperator(docIds2));
+    OrFilterOperator childOrOperator = new OrFilterOperator(childOperators);
+    Assert.assertEquals(childOrOperator.getNumMatchingDocsEstimate(), 12);
+
+    List<BaseFilterOperator> operators = new ArrayList<>();
+    operators.add(childOrOperator);
+    operators.add(new TestFilterOperator(docIds3));
+    AndFilterOperator andOperator = new AndFilterOperator(operators);
+    Assert.assertEquals(andOperator.getNumMatchingDocsEstimate(), 6);
+  }
 }
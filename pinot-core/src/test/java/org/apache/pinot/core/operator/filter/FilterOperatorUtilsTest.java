@@ -20,8 +20,18 @@ package org.apache.pinot.core.operator.filter;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import org.apache.pinot.core.common.DataSource;
+import org.apache.pinot.core.common.DataSourceMetadata;
+import org.apache.pinot.core.common.Predicate;
+import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
 import org.testng.annotations.Test;
 
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 
 
@@ -92,4 +102,57 @@ public class FilterOperatorUtilsTest {
         .getOrFilterOperator(Arrays.asList(MATCH_ALL_FILTER_OPERATOR, REGULAR_FILTER_OPERATOR), NUM_DOCS, null);
     assertTrue(filterOperator instanceof MatchAllFilterOperator);
   }
+
+  @Test
+  public void testCostBasedReorder() {
+    int numDocs = 10000;
+    // Bitmap based filter matching 90% of the documents
+    BaseFilterOperator nonSelectiveBitmapOperator = getBitmapBasedFilterOperator(numDocs, 9000);
+    // Bitmap based filter matching 50% of the documents
+    BaseFilterOperator bitmapOperator = getBitmapBasedFilterOperator(numDocs, 5000);
+    // Scan based filter matching 1% of the documents
+    BaseFilterOperator selectiveScanOperator = getScanBasedFilterOperator(numDocs, 1, 100, true);
+    // Multi-value scan based filter matching 1% of the documents
+    BaseFilterOperator selectiveMVScanOperator = getScanBasedFilterOperator(numDocs, 1, 100, false);
+    // Scan based filter matching 70% of the documents
+    BaseFilterOperator scanOperator = getScanBasedFilterOperator(numDocs, 70, 100, true);
+    List<BaseFilterOperator> filterOperators =
+        Arrays.asList(scanOperator, nonSelectiveBitmapOperator, selectiveMVScanOperator, bitmapOperator,
+            selectiveScanOperator);
+
+    // Without cost based reordering, bitmap based filters are always applied before scan based filters
+    BaseFilterOperator filterOperator = FilterOperatorUtils.getAndFilterOperator(filterOperators, numDocs, null);
+    assertTrue(filterOperator instanceof AndFilterOperator);
+    assertEquals(((AndFilterOperator) filterOperator).getChildFilterOperators(),
+        Arrays.asList(nonSelectiveBitmapOperator, bitmapOperator, scanOperator, selectiveScanOperator,
+            selectiveMVScanOperator));
+
+    // With cost based reordering, the selective scan based filters are applied before the non-selective bitmap based
+    // filter
+    filterOperator = FilterOperatorUtils.getAndFilterOperator(filterOperators, numDocs, null, true);
+    assertTrue(filterOperator instanceof AndFilterOperator);
+    assertEquals(((AndFilterOperator) filterOperator).getChildFilterOperators(),
+        Arrays.asList(bitmapOperator, selectiveScanOperator, selectiveMVScanOperator, nonSelectiveBitmapOperator,
+            scanOperator));
+  }
+
+  private static BaseFilterOperator getBitmapBasedFilterOperator(int numDocs, int numMatchingDocs) {
+    MutableRoaringBitmap bitmap = new MutableRoaringBitmap();
+    bitmap.add(0, numMatchingDocs);
+    return new BitmapBasedFilterOperator(new ImmutableRoaringBitmap[]{bitmap}, 0, numDocs - 1, false);
+  }
+
+  private static BaseFilterOperator getScanBasedFilterOperator(int numDocs, int numMatchingDictIds, int cardinality,
+      boolean isSingleValue) {
+    PredicateEvaluator predicateEvaluator = mock(PredicateEvaluator.class);
+    when(predicateEvaluator.isDictionaryBased()).thenReturn(true);
+    when(predicateEvaluator.getPredicateType()).thenReturn(Predicate.Type.IN);
+    when(predicateEvaluator.getNumMatchingDictIds()).thenReturn(numMatchingDictIds);
+    DataSourceMetadata dataSourceMetadata = mock(DataSourceMetadata.class);
+    when(dataSourceMetadata.getCardinality()).thenReturn(cardinality);
+    when(dataSourceMetadata.isSingleValue()).thenReturn(isSingleValue);
+    DataSource dataSource = mock(DataSource.class);
+    when(dataSource.getDataSourceMetadata()).thenReturn(dataSourceMetadata);
+    return new ScanBasedFilterOperator(predicateEvaluator, dataSource, 0, numDocs - 1);
+  }
 }
@@ -74,6 +74,11 @@ public class TestFilterOperator extends BaseFilterOperator {
     });
   }
 
+  @Override
+  public int getNumMatchingDocsEstimate() {
+    return _docIds.length;
+  }
+
   @Override
   public String getOperatorName() {
     return "TestFilterOperator";
@@ -0,0 +1,226 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.query;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.data.DimensionFieldSpec;
+import org.apache.pinot.common.data.FieldSpec.DataType;
+import org.apache.pinot.common.data.MetricFieldSpec;
+import org.apache.pinot.common.data.Schema;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.segment.ReadMode;
+import org.apache.pinot.core.data.GenericRow;
+import org.apache.pinot.core.data.readers.GenericRowRecordReader;
+import org.apache.pinot.core.indexsegment.IndexSegment;
+import org.apache.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import org.apache.pinot.core.indexsegment.immutable.ImmutableSegmentLoader;
+import org.apache.pinot.core.operator.transform.TransformOperator;
+import org.apache.pinot.core.plan.TransformPlanNode;
+import org.apache.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import org.apache.pinot.pql.parsers.Pql2Compiler;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+
+/**
+ * Tests that the late materialization of {@link SelectionOrderByOperator} (single order-by expression on dictionary ids
+ * or primitive values) gives the same results as the default path.
+ * <p>The values have low cardinality so that there are ties at the boundary of the top-K rows, where the documents
+ * selected by the two paths may differ.
+ */
+public class SelectionOrderByOperatorTest {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "SelectionOrderByOperatorTest");
+  private static final String SEGMENT_NAME = "testSegment";
+  private static final long RANDOM_SEED = System.currentTimeMillis();
+  private static final Random RANDOM = new Random(RANDOM_SEED);
+  private static final String ERROR_MESSAGE = "Random seed: " + RANDOM_SEED;
+  private static final Pql2Compiler COMPILER = new Pql2Compiler();
+
+  // More than one block of documents
+  private static final int NUM_ROWS = 25000;
+  private static final int CARDINALITY = 500;
+  private static final String ID_COLUMN = "id";
+  // Sorted column (sorted index and sorted dictionary)
+  private static final String SORTED_COLUMN = "sortedInt";
+  private static final String[] DICT_COLUMNS = {"dictInt", "dictLong", "dictFloat", "dictDouble"};
+  private static final String[] RAW_COLUMNS = {"rawInt", "rawLong", "rawFloat", "rawDouble"};
+  private static final DataType[] DATA_TYPES = {DataType.INT, DataType.LONG, DataType.FLOAT, DataType.DOUBLE};
+  private static final String FILTER_COLUMN = "dictInt";
+  private static final int FILTER_UPPER_BOUND = 100;
+  // Pairs of (offset, limit)
+  private static final int[][] OFFSET_LIMITS = {{0, 1}, {0, 10}, {7, 20}, {100, 500}, {0, NUM_ROWS + 1}};
+
+  private final Map<String, Comparable[]> _values = new HashMap<>();
+  private IndexSegment _indexSegment;
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(INDEX_DIR);
+
+    Schema schema = new Schema();
+    schema.addField(new DimensionFieldSpec(ID_COLUMN, DataType.INT, true));
+    schema.addField(new DimensionFieldSpec(SORTED_COLUMN, DataType.INT, true));
+    for (int i = 0; i < DATA_TYPES.length; i++) {
+      schema.addField(new MetricFieldSpec(DICT_COLUMNS[i], DATA_TYPES[i]));
+      schema.addField(new MetricFieldSpec(RAW_COLUMNS[i], DATA_TYPES[i]));
+    }
+
+    Comparable[] ids = new Comparable[NUM_ROWS];
+    Comparable[] sortedValues = new Comparable[NUM_ROWS];
+    Comparable[][] values = new Comparable[DATA_TYPES.length][NUM_ROWS];
+    List<GenericRow> rows = new ArrayList<>(NUM_ROWS);
+    for (int docId = 0; docId < NUM_ROWS; docId++) {
+      ids[docId] = docId;
+      sortedValues[docId] = docId / 10;
+      // Include negative values to verify the order of the encoded sort keys
+      int value = RANDOM.nextInt(CARDINALITY) - CARDINALITY / 2;
+      values[0][docId] = value;
+      values[1][docId] = (long) value * Integer.MAX_VALUE;
+      values[2][docId] = value / 4f;
+      values[3][docId] = value / 8d;
+
+      GenericRow row = new GenericRow();
+      row.putField(ID_COLUMN, ids[docId]);
+      row.putField(SORTED_COLUMN, sortedValues[docId]);
+      for (int i = 0; i < DATA_TYPES.length; i++) {
+        row.putField(DICT_COLUMNS[i], values[i][docId]);
+        row.putField(RAW_COLUMNS[i], values[i][docId]);
+      }
+      rows.add(row);
+    }
+    _values.put(ID_COLUMN, ids);
+    _values.put(SORTED_COLUMN, sortedValues);
+    for (int i = 0; i < DATA_TYPES.length; i++) {
+      _values.put(DICT_COLUMNS[i], values[i]);
+      _values.put(RAW_COLUMNS[i], values[i]);
+    }
+
+    SegmentGeneratorConfig config = new SegmentGeneratorConfig(schema);
+    config.setOutDir(INDEX_DIR.getAbsolutePath());
+    config.setSegmentName(SEGMENT_NAME);
+    config.setRawIndexCreationColumns(Arrays.asList(RAW_COLUMNS));
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(config, new GenericRowRecordReader(rows, schema));
+    driver.build();
+    _indexSegment = ImmutableSegmentLoader.load(new File(INDEX_DIR, SEGMENT_NAME), ReadMode.heap);
+  }
+
+  @Test
+  public void testSortedColumn() {
+    testColumn(SORTED_COLUMN);
+  }
+
+  @Test
+  public void testDictionaryColumns() {
+    for (String column : DICT_COLUMNS) {
+      testColumn(column);
+    }
+  }
+
+  @Test
+  public void testRawColumns() {
+    for (String column : RAW_COLUMNS) {
+      testColumn(column);
+    }
+  }
+
+  private void testColumn(String column) {
+    for (int[] offsetLimit : OFFSET_LIMITS) {
+      String limit = " LIMIT " + offsetLimit[0] + ", " + offsetLimit[1];
+      for (String order : new String[]{"ASC", "DESC"}) {
+        String select = "SELECT " + ID_COLUMN + ", " + column + " FROM testTable";
+        String orderBy = " ORDER BY " + column + " " + order;
+        testQuery(select + orderBy + limit, column, order.equals("ASC"), false);
+        // Filter out some documents so that the document ids are not contiguous
+        testQuery(select + " WHERE " + FILTER_COLUMN + " < " + FILTER_UPPER_BOUND + orderBy + limit, column,
+            order.equals("ASC"), true);
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void testQuery(String query, String column, boolean ascending, boolean filtered) {
+    String errorMessage = ERROR_MESSAGE + ", query: " + query;
+    BrokerRequest brokerRequest = COMPILER.compileToBrokerRequest(query);
+    List<Serializable[]> lateMaterializedRows = getRows(brokerRequest, true);
+    List<Serializable[]> expectedRows = getRows(brokerRequest, false);
+    int numRows = expectedRows.size();
+    assertEquals(lateMaterializedRows.size(), numRows, errorMessage);
+    if (numRows == 0) {
+      return;
+    }
+
+    // Order-by expression is the first column, the id column is the second column
+    int order = ascending ? 1 : -1;
+    lateMaterializedRows.sort((o1, o2) -> ((Comparable) o1[0]).compareTo(o2[0]) * order);
+    expectedRows.sort((o1, o2) -> ((Comparable) o1[0]).compareTo(o2[0]) * order);
+    for (int i = 0; i < numRows; i++) {
+      assertEquals(lateMaterializedRows.get(i)[0], expectedRows.get(i)[0], errorMessage);
+    }
+
+    // The rows not tied with the last row should be the same, the tied rows can be any document with the same value
+    Comparable[] values = _values.get(column);
+    Serializable lastValue = expectedRows.get(numRows - 1)[0];
+    Set<Serializable> lateMaterializedIds = new HashSet<>();
+    Set<Serializable> expectedIds = new HashSet<>();
+    for (int i = 0; i < numRows; i++) {
+      Serializable[] lateMaterializedRow = lateMaterializedRows.get(i);
+      int id = (Integer) lateMaterializedRow[1];
+      assertTrue(!filtered || (Integer) _values.get(FILTER_COLUMN)[id] < FILTER_UPPER_BOUND, errorMessage);
+      assertEquals(values[id], lateMaterializedRow[0], errorMessage);
+      if (!lateMaterializedRow[0].equals(lastValue)) {
+        lateMaterializedIds.add(lateMaterializedRow[1]);
+      }
+      Serializable[] expectedRow = expectedRows.get(i);
+      if (!expectedRow[0].equals(lastValue)) {
+        expectedIds.add(expectedRow[1]);
+      }
+    }
+    assertEquals(lateMaterializedIds, expectedIds, errorMessage);
+  }
+
+  private List<Serializable[]> getRows(BrokerRequest brokerRequest, boolean enableLateMaterialization) {
+    TransformOperator transformOperator = new TransformPlanNode(_indexSegment, brokerRequest).run();
+    SelectionOrderByOperator selectionOrderByOperator =
+        new SelectionOrderByOperator(_indexSegment, brokerRequest.getSelections(), transformOperator,
+            enableLateMaterialization);
+    return new ArrayList<>(selectionOrderByOperator.nextBlock().getSelectionResult());
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _indexSegment.destroy();
+    FileUtils.deleteQuietly(INDEX_DIR);
+  }
+}
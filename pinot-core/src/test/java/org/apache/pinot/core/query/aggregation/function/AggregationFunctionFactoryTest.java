@@ -105,6 +105,27 @@ public class AggregationFunctionFactoryTest {
     Assert.assertEquals(aggregationFunction.getType(), AggregationFunctionType.FASTHLL);
     Assert.assertEquals(aggregationFunction.getColumnName(COLUMN), "fastHLL_column");
 
+    aggregationInfo = new AggregationInfo();
+    aggregationInfo.setAggregationType("DiStInCtCoUnTtHeTaSkEtCh");
+    aggregationFunction = AggregationFunctionFactory.getAggregationFunction(aggregationInfo, brokerRequest);
+    Assert.assertTrue(aggregationFunction instanceof DistinctCountThetaSketchAggregationFunction);
+    Assert.assertEquals(aggregationFunction.getType(), AggregationFunctionType.DISTINCTCOUNTTHETASKETCH);
+    Assert.assertEquals(aggregationFunction.getColumnName(COLUMN), "distinctCountThetaSketch_column");
+
+    aggregationInfo = new AggregationInfo();
+    aggregationInfo.setAggregationType("DiStInCtCoUnTrAwThEtAsKeTcH");
+    aggregationFunction = AggregationFunctionFactory.getAggregationFunction(aggregationInfo, brokerRequest);
+    Assert.assertTrue(aggregationFunction instanceof DistinctCountRawThetaSketchAggregationFunction);
+    Assert.assertEquals(aggregationFunction.getType(), AggregationFunctionType.DISTINCTCOUNTRAWTHETASKETCH);
+    Assert.assertEquals(aggregationFunction.getColumnName(COLUMN), "distinctCountRawThetaSketch_column");
+
+    aggregationInfo = new AggregationInfo();
+    aggregationInfo.setAggregationType("DiStInCtCoUnTtHeTaSkEtChInTeRsEcT");
+    aggregationFunction = AggregationFunctionFactory.getAggregationFunction(aggregationInfo, brokerRequest);
+    Assert.assertTrue(aggregationFunction instanceof DistinctCountThetaSketchIntersectAggregationFunction);
+    Assert.assertEquals(aggregationFunction.getType(), AggregationFunctionType.DISTINCTCOUNTTHETASKETCHINTERSECT);
+    Assert.assertEquals(aggregationFunction.getColumnName(COLUMN), "distinctCountThetaSketchIntersect_column");
+
     aggregationInfo = new AggregationInfo();
     aggregationInfo.setAggregationType("PeRcEnTiLe5");
     aggregationFunction = AggregationFunctionFactory.getAggregationFunction(aggregationInfo, brokerRequest);
@@ -126,6 +147,13 @@ public class AggregationFunctionFactoryTest {
     Assert.assertEquals(aggregationFunction.getType(), AggregationFunctionType.PERCENTILETDIGEST);
     Assert.assertEquals(aggregationFunction.getColumnName(COLUMN), "percentileTDigest99_column");
 
+    aggregationInfo = new AggregationInfo();
+    aggregationInfo.setAggregationType("PeRcEnTiLeDdSkEtCh99");
+    aggregationFunction = AggregationFunctionFactory.getAggregationFunction(aggregationInfo, brokerRequest);
+    Assert.assertTrue(aggregationFunction instanceof PercentileDDSketchAggregationFunction);
+    Assert.assertEquals(aggregationFunction.getType(), AggregationFunctionType.PERCENTILEDDSKETCH);
+    Assert.assertEquals(aggregationFunction.getColumnName(COLUMN), "percentileDDSketch99_column");
+
     aggregationInfo = new AggregationInfo();
     aggregationInfo.setAggregationType("CoUnTmV");
     aggregationFunction = AggregationFunctionFactory.getAggregationFunction(aggregationInfo, brokerRequest);
@@ -209,5 +237,12 @@ public class AggregationFunctionFactoryTest {
     Assert.assertTrue(aggregationFunction instanceof PercentileTDigestMVAggregationFunction);
     Assert.assertEquals(aggregationFunction.getType(), AggregationFunctionType.PERCENTILETDIGESTMV);
     Assert.assertEquals(aggregationFunction.getColumnName(COLUMN), "percentileTDigest95MV_column");
+
+    aggregationInfo = new AggregationInfo();
+    aggregationInfo.setAggregationType("PeRcEnTiLeDdSkEtCh95mV");
+    aggregationFunction = AggregationFunctionFactory.getAggregationFunction(aggregationInfo, brokerRequest);
+    Assert.assertTrue(aggregationFunction instanceof PercentileDDSketchMVAggregationFunction);
+    Assert.assertEquals(aggregationFunction.getType(), AggregationFunctionType.PERCENTILEDDSKETCHMV);
+    Assert.assertEquals(aggregationFunction.getColumnName(COLUMN), "percentileDDSketch95MV_column");
   }
 }
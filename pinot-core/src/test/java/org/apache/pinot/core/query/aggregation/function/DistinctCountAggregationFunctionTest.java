@@ -0,0 +1,312 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.aggregation.function;
+
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import java.util.Random;
+import org.apache.pinot.common.data.FieldSpec.DataType;
+import org.apache.pinot.core.common.BlockValSet;
+import org.apache.pinot.core.query.aggregation.AggregationResultHolder;
+import org.apache.pinot.core.query.aggregation.groupby.GroupByResultHolder;
+import org.apache.pinot.core.segment.index.readers.Dictionary;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+/**
+ * Tests that DISTINCTCOUNT and DISTINCTCOUNTMV on dictionary-encoded expressions (collecting the dictionary ids into a
+ * bitmap) give the same results as on the raw values.
+ */
+public class DistinctCountAggregationFunctionTest {
+  private static final long RANDOM_SEED = System.currentTimeMillis();
+  private static final Random RANDOM = new Random(RANDOM_SEED);
+  private static final String ERROR_MESSAGE = "Random seed: " + RANDOM_SEED;
+  private static final DataType[] DATA_TYPES =
+      {DataType.INT, DataType.LONG, DataType.FLOAT, DataType.DOUBLE, DataType.STRING};
+  private static final int CARDINALITY = 100;
+  private static final int NUM_DOCS = 1000;
+  private static final int NUM_BLOCKS = 3;
+  private static final int NUM_GROUPS = 5;
+  private static final int MAX_NUM_MULTI_VALUES = 5;
+
+  @Test
+  public void testSingleValue() {
+    DistinctCountAggregationFunction function = new DistinctCountAggregationFunction();
+    for (DataType dataType : DATA_TYPES) {
+      String errorMessage = ERROR_MESSAGE + ", data type: " + dataType;
+      Dictionary dictionary = getDictionary(dataType);
+      BlockValSet[] dictBasedBlockValSets = new BlockValSet[NUM_BLOCKS];
+      BlockValSet[] valueBasedBlockValSets = new BlockValSet[NUM_BLOCKS];
+      for (int i = 0; i < NUM_BLOCKS; i++) {
+        int[] dictIds = new int[NUM_DOCS];
+        for (int j = 0; j < NUM_DOCS; j++) {
+          dictIds[j] = RANDOM.nextInt(CARDINALITY);
+        }
+        dictBasedBlockValSets[i] = getDictBasedBlockValSetSV(dataType, dictionary, dictIds);
+        valueBasedBlockValSets[i] = getValueBasedBlockValSetSV(dataType, dictIds);
+      }
+      assertSameResults(function, dictBasedBlockValSets, valueBasedBlockValSets, errorMessage);
+    }
+  }
+
+  @Test
+  public void testMultiValue() {
+    DistinctCountMVAggregationFunction function = new DistinctCountMVAggregationFunction();
+    for (DataType dataType : DATA_TYPES) {
+      String errorMessage = ERROR_MESSAGE + ", data type: " + dataType;
+      Dictionary dictionary = getDictionary(dataType);
+      BlockValSet[] dictBasedBlockValSets = new BlockValSet[NUM_BLOCKS];
+      BlockValSet[] valueBasedBlockValSets = new BlockValSet[NUM_BLOCKS];
+      for (int i = 0; i < NUM_BLOCKS; i++) {
+        int[][] dictIds = new int[NUM_DOCS][];
+        for (int j = 0; j < NUM_DOCS; j++) {
+          int numValues = 1 + RANDOM.nextInt(MAX_NUM_MULTI_VALUES);
+          dictIds[j] = new int[numValues];
+          for (int k = 0; k < numValues; k++) {
+            dictIds[j][k] = RANDOM.nextInt(CARDINALITY);
+          }
+        }
+        dictBasedBlockValSets[i] = getDictBasedBlockValSetMV(dataType, dictionary, dictIds);
+        valueBasedBlockValSets[i] = getValueBasedBlockValSetMV(dataType, dictIds);
+      }
+      assertSameResults(function, dictBasedBlockValSets, valueBasedBlockValSets, errorMessage);
+    }
+  }
+
+  /**
+   * Aggregates the blocks with the aggregation, group-by SV and group-by MV paths, and asserts that the dictionary id
+   * based results are the same as the value based ones.
+   */
+  private void assertSameResults(DistinctCountAggregationFunction function, BlockValSet[] dictBasedBlockValSets,
+      BlockValSet[] valueBasedBlockValSets, String errorMessage) {
+    // Aggregation
+    AggregationResultHolder dictBasedResultHolder = function.createAggregationResultHolder();
+    AggregationResultHolder valueBasedResultHolder = function.createAggregationResultHolder();
+    for (int i = 0; i < NUM_BLOCKS; i++) {
+      function.aggregate(NUM_DOCS, dictBasedResultHolder, dictBasedBlockValSets[i]);
+      function.aggregate(NUM_DOCS, valueBasedResultHolder, valueBasedBlockValSets[i]);
+    }
+    IntOpenHashSet dictBasedResult = function.extractAggregationResult(dictBasedResultHolder);
+    IntOpenHashSet valueBasedResult = function.extractAggregationResult(valueBasedResultHolder);
+    Assert.assertEquals(dictBasedResult, valueBasedResult, errorMessage);
+    Assert.assertEquals(function.extractFinalResult(dictBasedResult).intValue(), CARDINALITY, errorMessage);
+
+    // Group-by SV
+    GroupByResultHolder dictBasedGroupByResultHolder = function.createGroupByResultHolder(NUM_GROUPS, NUM_GROUPS);
+    GroupByResultHolder valueBasedGroupByResultHolder = function.createGroupByResultHolder(NUM_GROUPS, NUM_GROUPS);
+    for (int i = 0; i < NUM_BLOCKS; i++) {
+      int[] groupKeys = new int[NUM_DOCS];
+      for (int j = 0; j < NUM_DOCS; j++) {
+        groupKeys[j] = RANDOM.nextInt(NUM_GROUPS);
+      }
+      function.aggregateGroupBySV(NUM_DOCS, groupKeys, dictBasedGroupByResultHolder, dictBasedBlockValSets[i]);
+      function.aggregateGroupBySV(NUM_DOCS, groupKeys, valueBasedGroupByResultHolder, valueBasedBlockValSets[i]);
+    }
+    assertSameGroupByResults(function, dictBasedGroupByResultHolder, valueBasedGroupByResultHolder, errorMessage);
+
+    // Group-by MV
+    dictBasedGroupByResultHolder = function.createGroupByResultHolder(NUM_GROUPS, NUM_GROUPS);
+    valueBasedGroupByResultHolder = function.createGroupByResultHolder(NUM_GROUPS, NUM_GROUPS);
+    for (int i = 0; i < NUM_BLOCKS; i++) {
+      int[][] groupKeysArray = new int[NUM_DOCS][];
+      for (int j = 0; j < NUM_DOCS; j++) {
+        // Each document belongs to 1 or 2 groups
+        int groupKey = RANDOM.nextInt(NUM_GROUPS);
+        groupKeysArray[j] =
+            RANDOM.nextBoolean() ? new int[]{groupKey} : new int[]{groupKey, (groupKey + 1) % NUM_GROUPS};
+      }
+      function.aggregateGroupByMV(NUM_DOCS, groupKeysArray, dictBasedGroupByResultHolder, dictBasedBlockValSets[i]);
+      function
+          .aggregateGroupByMV(NUM_DOCS, groupKeysArray, valueBasedGroupByResultHolder, valueBasedBlockValSets[i]);
+    }
+    assertSameGroupByResults(function, dictBasedGroupByResultHolder, valueBasedGroupByResultHolder, errorMessage);
+  }
+
+  private void assertSameGroupByResults(DistinctCountAggregationFunction function,
+      GroupByResultHolder dictBasedGroupByResultHolder, GroupByResultHolder valueBasedGroupByResultHolder,
+      String errorMessage) {
+    for (int groupKey = 0; groupKey < NUM_GROUPS; groupKey++) {
+      IntOpenHashSet dictBasedResult = function.extractGroupByResult(dictBasedGroupByResultHolder, groupKey);
+      IntOpenHashSet valueBasedResult = function.extractGroupByResult(valueBasedGroupByResultHolder, groupKey);
+      Assert.assertFalse(dictBasedResult.isEmpty(), errorMessage);
+      Assert.assertEquals(dictBasedResult, valueBasedResult, errorMessage);
+    }
+  }
+
+  /**
+   * Returns a sorted dictionary with {@link #CARDINALITY} values of the given data type.
+   */
+  private static Dictionary getDictionary(DataType dataType) {
+    Dictionary dictionary = mock(Dictionary.class);
+    when(dictionary.length()).thenReturn(CARDINALITY);
+    when(dictionary.getIntValue(anyInt())).thenAnswer(invocation -> getIntValue(invocation.getArgument(0)));
+    when(dictionary.getLongValue(anyInt())).thenAnswer(invocation -> getLongValue(invocation.getArgument(0)));
+    when(dictionary.getFloatValue(anyInt())).thenAnswer(invocation -> getFloatValue(invocation.getArgument(0)));
+    when(dictionary.getDoubleValue(anyInt())).thenAnswer(invocation -> getDoubleValue(invocation.getArgument(0)));
+    when(dictionary.getStringValue(anyInt())).thenAnswer(invocation -> getStringValue(invocation.getArgument(0)));
+    return dictionary;
+  }
+
+  private static int getIntValue(int dictId) {
+    return dictId * 7 - 100;
+  }
+
+  private static long getLongValue(int dictId) {
+    return dictId * 1_000_000_007L - 100;
+  }
+
+  private static float getFloatValue(int dictId) {
+    return dictId * 0.5f - 10;
+  }
+
+  private static double getDoubleValue(int dictId) {
+    return dictId * 0.25 - 10;
+  }
+
+  private static String getStringValue(int dictId) {
+    return String.format("value_%03d", dictId);
+  }
+
+  private static BlockValSet getDictBasedBlockValSetSV(DataType dataType, Dictionary dictionary, int[] dictIds) {
+    BlockValSet blockValSet = mock(BlockValSet.class);
+    when(blockValSet.getValueType()).thenReturn(dataType);
+    when(blockValSet.getDictionary()).thenReturn(dictionary);
+    when(blockValSet.getDictionaryIdsSV()).thenReturn(dictIds);
+    return blockValSet;
+  }
+
+  private static BlockValSet getDictBasedBlockValSetMV(DataType dataType, Dictionary dictionary, int[][] dictIds) {
+    BlockValSet blockValSet = mock(BlockValSet.class);
+    when(blockValSet.getValueType()).thenReturn(dataType);
+    when(blockValSet.getDictionary()).thenReturn(dictionary);
+    when(blockValSet.getDictionaryIdsMV()).thenReturn(dictIds);
+    return blockValSet;
+  }
+
+  private static BlockValSet getValueBasedBlockValSetSV(DataType dataType, int[] dictIds) {
+    BlockValSet blockValSet = mock(BlockValSet.class);
+    when(blockValSet.getValueType()).thenReturn(dataType);
+    int length = dictIds.length;
+    switch (dataType) {
+      case INT:
+        int[] intValues = new int[length];
+        for (int i = 0; i < length; i++) {
+          intValues[i] = getIntValue(dictIds[i]);
+        }
+        when(blockValSet.getIntValuesSV()).thenReturn(intValues);
+        break;
+      case LONG:
+        long[] longValues = new long[length];
+        for (int i = 0; i < length; i++) {
+          longValues[i] = getLongValue(dictIds[i]);
+        }
+        when(blockValSet.getLongValuesSV()).thenReturn(longValues);
+        break;
+      case FLOAT:
+        float[] floatValues = new float[length];
+        for (int i = 0; i < length; i++) {
+          floatValues[i] = getFloatValue(dictIds[i]);
+        }
+        when(blockValSet.getFloatValuesSV()).thenReturn(floatValues);
+        break;
+      case DOUBLE:
+        double[] doubleValues = new double[length];
+        for (int i = 0; i < length; i++) {
+          doubleValues[i] = getDoubleValue(dictIds[i]);
+        }
+        when(blockValSet.getDoubleValuesSV()).thenReturn(doubleValues);
+        break;
+      case STRING:
+        String[] stringValues = new String[length];
+        for (int i = 0; i < length; i++) {
+          stringValues[i] = getStringValue(dictIds[i]);
+        }
+        when(blockValSet.getStringValuesSV()).thenReturn(stringValues);
+        break;
+      default:
+        throw new IllegalStateException();
+    }
+    return blockValSet;
+  }
+
+  private static BlockValSet getValueBasedBlockValSetMV(DataType dataType, int[][] dictIds) {
+    BlockValSet blockValSet = mock(BlockValSet.class);
+    when(blockValSet.getValueType()).thenReturn(dataType);
+    int length = dictIds.length;
+    switch (dataType) {
+      case INT:
+        int[][] intValues = new int[length][];
+        for (int i = 0; i < length; i++) {
+          intValues[i] = new int[dictIds[i].length];
+          for (int j = 0; j < dictIds[i].length; j++) {
+            intValues[i][j] = getIntValue(dictIds[i][j]);
+          }
+        }
+        when(blockValSet.getIntValuesMV()).thenReturn(intValues);
+        break;
+      case LONG:
+        long[][] longValues = new long[length][];
+        for (int i = 0; i < length; i++) {
+          longValues[i] = new long[dictIds[i].length];
+          for (int j = 0; j < dictIds[i].length; j++) {
+            longValues[i][j] = getLongValue(dictIds[i][j]);
+          }
+        }
+        when(blockValSet.getLongValuesMV()).thenReturn(longValues);
+        break;
+      case FLOAT:
+        float[][] floatValues = new float[length][];
+        for (int i = 0; i < length; i++) {
+          floatValues[i] = new float[dictIds[i].length];
+          for (int j = 0; j < dictIds[i].length; j++) {
+            floatValues[i][j] = getFloatValue(dictIds[i][j]);
+          }
+        }
+        when(blockValSet.getFloatValuesMV()).thenReturn(floatValues);
+        break;
+      case DOUBLE:
+        double[][] doubleValues = new double[length][];
+        for (int i = 0; i < length; i++) {
+          doubleValues[i] = new double[dictIds[i].length];
+          for (int j = 0; j < dictIds[i].length; j++) {
+            doubleValues[i][j] = getDoubleValue(dictIds[i][j]);
+          }
+        }
+        when(blockValSet.getDoubleValuesMV()).thenReturn(doubleValues);
+        break;
+      case STRING:
+        String[][] stringValues = new String[length][];
+        for (int i = 0; i < length; i++) {
+          stringValues[i] = new String[dictIds[i].length];
+          for (int j = 0; j < dictIds[i].length; j++) {
+            stringValues[i][j] = getStringValue(dictIds[i][j]);
+          }
+        }
+        when(blockValSet.getStringValuesMV()).thenReturn(stringValues);
+        break;
+      default:
+        throw new IllegalStateException();
+    }
+    return blockValSet;
+  }
+}
@@ -0,0 +1,162 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.aggregation.function;
+
+import org.apache.datasketches.theta.Intersection;
+import org.apache.datasketches.theta.Sketch;
+import org.apache.datasketches.theta.UpdateSketch;
+import org.apache.pinot.common.data.FieldSpec.DataType;
+import org.apache.pinot.common.utils.BytesUtils;
+import org.apache.pinot.core.common.BlockValSet;
+import org.apache.pinot.core.common.ObjectSerDeUtils;
+import org.apache.pinot.core.query.aggregation.AggregationResultHolder;
+import org.apache.pinot.core.query.aggregation.groupby.GroupByResultHolder;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+
+/**
+ * Tests the theta sketch set operations. All the sketches stay in exact mode (less values than the nominal entries) so
+ * that the results can be compared with the exact values.
+ */
+public class DistinctCountThetaSketchAggregationFunctionTest {
+  private static final int NUM_VALUES = 1000;
+
+  @Test
+  public void testRawValues() {
+    DistinctCountThetaSketchAggregationFunction function = new DistinctCountThetaSketchAggregationFunction();
+
+    // Each value appears twice, once as INT and once as LONG, which should be hashed the same way
+    int[] intValues = new int[NUM_VALUES];
+    long[] longValues = new long[NUM_VALUES];
+    for (int i = 0; i < NUM_VALUES; i++) {
+      intValues[i] = i;
+      longValues[i] = i;
+    }
+    BlockValSet intBlockValSet = mock(BlockValSet.class);
+    when(intBlockValSet.getValueType()).thenReturn(DataType.INT);
+    when(intBlockValSet.getIntValuesSV()).thenReturn(intValues);
+    BlockValSet longBlockValSet = mock(BlockValSet.class);
+    when(longBlockValSet.getValueType()).thenReturn(DataType.LONG);
+    when(longBlockValSet.getLongValuesSV()).thenReturn(longValues);
+
+    AggregationResultHolder aggregationResultHolder = function.createAggregationResultHolder();
+    function.aggregate(NUM_VALUES, aggregationResultHolder, intBlockValSet);
+    function.aggregate(NUM_VALUES, aggregationResultHolder, longBlockValSet);
+    assertEquals(function.extractFinalResult(function.extractAggregationResult(aggregationResultHolder)),
+        Long.valueOf(NUM_VALUES));
+
+    // Group by value % 10
+    int[] groupKeys = new int[NUM_VALUES];
+    for (int i = 0; i < NUM_VALUES; i++) {
+      groupKeys[i] = i % 10;
+    }
+    GroupByResultHolder groupByResultHolder = function.createGroupByResultHolder(10, 10);
+    function.aggregateGroupBySV(NUM_VALUES, groupKeys, groupByResultHolder, intBlockValSet);
+    for (int groupKey = 0; groupKey < 10; groupKey++) {
+      assertEquals(function.extractFinalResult(function.extractGroupByResult(groupByResultHolder, groupKey)),
+          Long.valueOf(NUM_VALUES / 10));
+    }
+  }
+
+  @Test
+  public void testUnion() {
+    DistinctCountThetaSketchAggregationFunction function = new DistinctCountThetaSketchAggregationFunction();
+
+    // Segment 1: [0, 600), [400, 800); segment 2: [700, 1000); segment 3: no matching document
+    AggregationResultHolder segment1 = function.createAggregationResultHolder();
+    function.aggregate(2, segment1, getBytesBlockValSet(getSketch(0, 600), getSketch(400, 800)));
+    AggregationResultHolder segment2 = function.createAggregationResultHolder();
+    function.aggregate(1, segment2, getBytesBlockValSet(getSketch(700, 1000)));
+    AggregationResultHolder segment3 = function.createAggregationResultHolder();
+
+    Sketch merged = function.merge(serDe(function.extractAggregationResult(segment3)),
+        serDe(function.extractAggregationResult(segment1)));
+    merged = function.merge(merged, serDe(function.extractAggregationResult(segment2)));
+    assertEquals(function.extractFinalResult(merged), Long.valueOf(1000));
+    assertEquals(function.extractFinalResult(function.extractAggregationResult(segment3)), Long.valueOf(0));
+
+    // Raw variant returns the serialized merged sketch
+    DistinctCountRawThetaSketchAggregationFunction rawFunction = new DistinctCountRawThetaSketchAggregationFunction();
+    Sketch deserialized = ObjectSerDeUtils.THETA_SKETCH_SER_DE
+        .deserialize(BytesUtils.toBytes(rawFunction.extractFinalResult(merged).toString()));
+    assertEquals(deserialized.getEstimate(), 1000.0);
+  }
+
+  @Test
+  public void testIntersection() {
+    DistinctCountThetaSketchIntersectAggregationFunction function =
+        new DistinctCountThetaSketchIntersectAggregationFunction();
+
+    // Segment 1: [0, 600), [400, 1000); segment 2: [500, 900); segment 3: no matching document
+    // Intersection: [500, 600)
+    AggregationResultHolder segment1 = function.createAggregationResultHolder();
+    function.aggregate(2, segment1, getBytesBlockValSet(getSketch(0, 600), getSketch(400, 1000)));
+    AggregationResultHolder segment2 = function.createAggregationResultHolder();
+    function.aggregate(1, segment2, getBytesBlockValSet(getSketch(500, 900)));
+    AggregationResultHolder segment3 = function.createAggregationResultHolder();
+
+    // The empty segment should not empty the intersection regardless of the merge order
+    Intersection merged = function.merge(serDe(function.extractAggregationResult(segment3)),
+        serDe(function.extractAggregationResult(segment1)));
+    merged = function.merge(merged, serDe(function.extractAggregationResult(segment2)));
+    assertEquals(function.extractFinalResult(merged), Long.valueOf(100));
+    assertEquals(function.extractFinalResult(function.extractAggregationResult(segment3)), Long.valueOf(0));
+
+    // Group 0: [0, 600), [300, 700) -> 300; group 1: [0, 100), [200, 300) -> 0
+    GroupByResultHolder groupByResultHolder = function.createGroupByResultHolder(2, 2);
+    function.aggregateGroupBySV(4, new int[]{0, 1, 0, 1}, groupByResultHolder,
+        getBytesBlockValSet(getSketch(0, 600), getSketch(0, 100), getSketch(300, 700), getSketch(200, 300)));
+    assertEquals(function.extractFinalResult(function.extractGroupByResult(groupByResultHolder, 0)),
+        Long.valueOf(300));
+    assertEquals(function.extractFinalResult(function.extractGroupByResult(groupByResultHolder, 1)),
+        Long.valueOf(0));
+  }
+
+  private static Sketch getSketch(int startValue, int endValue) {
+    UpdateSketch sketch = UpdateSketch.builder().build();
+    for (int i = startValue; i < endValue; i++) {
+      sketch.update(i);
+    }
+    return sketch;
+  }
+
+  private static BlockValSet getBytesBlockValSet(Sketch... sketches) {
+    byte[][] bytesValues = new byte[sketches.length][];
+    for (int i = 0; i < sketches.length; i++) {
+      bytesValues[i] = ObjectSerDeUtils.THETA_SKETCH_SER_DE.serialize(sketches[i]);
+    }
+    BlockValSet blockValSet = mock(BlockValSet.class);
+    when(blockValSet.getValueType()).thenReturn(DataType.BYTES);
+    when(blockValSet.getBytesValuesSV()).thenReturn(bytesValues);
+    return blockValSet;
+  }
+
+  /**
+   * Serializes and de-serializes the intermediate result as the server does when sending it to the broker.
+   */
+  @SuppressWarnings("unchecked")
+  private static <T> T serDe(T intermediateResult) {
+    return (T) ObjectSerDeUtils.deserialize(ObjectSerDeUtils.serialize(intermediateResult),
+        ObjectSerDeUtils.ObjectType.getObjectType(intermediateResult));
+  }
+}
@@ -0,0 +1,87 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.aggregation.function.customobject;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+
+public class DDSketchTest {
+  private static final long RANDOM_SEED = System.currentTimeMillis();
+  private static final Random RANDOM = new Random(RANDOM_SEED);
+  private static final String ERROR_MESSAGE = "Random seed: " + RANDOM_SEED;
+
+  private static final int NUM_VALUES = 100_000;
+
+  @Test
+  public void testRelativeAccuracy() {
+    double[] values = new double[NUM_VALUES];
+    DDSketch sketch1 = new DDSketch();
+    DDSketch sketch2 = new DDSketch();
+    for (int i = 0; i < NUM_VALUES; i++) {
+      // Heavy-tailed values with both signs
+      double value = Math.exp(RANDOM.nextGaussian() * 3);
+      if (RANDOM.nextInt(10) == 0) {
+        value = -value;
+      }
+      values[i] = value;
+      if (i % 2 == 0) {
+        sketch1.add(value);
+      } else {
+        sketch2.add(value);
+      }
+    }
+    sketch1.merge(sketch2);
+    assertEquals(sketch1.getCount(), NUM_VALUES);
+    Arrays.sort(values);
+
+    for (int percentile = 0; percentile <= 100; percentile++) {
+      double expected = values[(int) ((long) percentile * (NUM_VALUES - 1) / 100)];
+      double actual = sketch1.getQuantile(percentile / 100.0);
+      assertEquals(actual, expected, Math.abs(expected) * DDSketch.DEFAULT_RELATIVE_ACCURACY + 1e-9,
+          ERROR_MESSAGE + ", percentile: " + percentile);
+    }
+  }
+
+  @Test
+  public void testBoundedNumBuckets() {
+    int maxNumBuckets = 64;
+    DDSketch ddSketch = new DDSketch(DDSketch.DEFAULT_RELATIVE_ACCURACY, maxNumBuckets);
+    for (int i = 0; i < NUM_VALUES; i++) {
+      ddSketch.add(Math.exp(RANDOM.nextGaussian() * 10));
+    }
+    assertEquals(ddSketch.getCount(), NUM_VALUES, ERROR_MESSAGE);
+    // Header + one store of at most maxNumBuckets buckets + empty negative store
+    assertTrue(ddSketch.getSerializedSizeInBytes() <= 36 + 2 * Integer.BYTES + maxNumBuckets * Long.BYTES + 4,
+        ERROR_MESSAGE);
+    // Max value is exact
+    assertEquals(DDSketch.fromBytes(ddSketch.toBytes()).getQuantile(1), ddSketch.getQuantile(1), ERROR_MESSAGE);
+  }
+
+  @Test
+  public void testEmpty() {
+    DDSketch ddSketch = new DDSketch();
+    assertEquals(ddSketch.getQuantile(0.5), Double.NEGATIVE_INFINITY);
+    assertEquals(DDSketch.fromBytes(ddSketch.toBytes()).getCount(), 0L);
+  }
+}
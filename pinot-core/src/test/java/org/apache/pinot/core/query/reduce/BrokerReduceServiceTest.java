@@ -0,0 +1,197 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.reduce;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.common.utils.CommonConstants.Broker.Request;
+import org.apache.pinot.common.utils.CommonConstants.Broker.Request.QueryOptionKey;
+import org.apache.pinot.common.utils.CommonConstants.Helix.TableType;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.common.utils.DataTable;
+import org.apache.pinot.core.common.datatable.DataTableBuilder;
+import org.apache.pinot.core.query.aggregation.function.AggregationFunctionUtils;
+import org.apache.pinot.core.transport.ServerRoutingInstance;
+import org.apache.pinot.pql.parsers.Pql2Compiler;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+
+
+public class BrokerReduceServiceTest {
+  private static final Pql2Compiler COMPILER = new Pql2Compiler();
+  private static final int NUM_SERVERS = 10;
+  private static final int NUM_GROUPS = 5;
+  private static final int NUM_SERVER_ONLY_GROUPS = 2000;
+
+  private final BrokerReduceService _brokerReduceService = new BrokerReduceService();
+  private final BrokerReduceService _treeBrokerReduceService = new BrokerReduceService(3, 2);
+
+  @Test
+  public void testAggregation()
+      throws Exception {
+    BrokerRequest brokerRequest = COMPILER.compileToBrokerRequest("SELECT COUNT(*), SUM(m), MAX(m) FROM testTable");
+    DataSchema dataSchema = new DataSchema(new String[]{"count_star", "sum_m", "max_m"},
+        new ColumnDataType[]{ColumnDataType.LONG, ColumnDataType.DOUBLE, ColumnDataType.DOUBLE});
+    Map<ServerRoutingInstance, DataTable> dataTableMap = new HashMap<>();
+    for (int i = 0; i < NUM_SERVERS; i++) {
+      DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema);
+      dataTableBuilder.startRow();
+      dataTableBuilder.setColumn(0, 10L);
+      dataTableBuilder.setColumn(1, (double) i);
+      dataTableBuilder.setColumn(2, (double) i);
+      dataTableBuilder.finishRow();
+      DataTable dataTable = dataTableBuilder.build();
+      dataTable.getMetadata().put(DataTable.NUM_SEGMENTS_SKIPPED, Integer.toString(i));
+      dataTableMap.put(getServerRoutingInstance(i), dataTable);
+    }
+
+    BrokerResponseNative brokerResponse = reduceAndCompare(brokerRequest, dataTableMap);
+    assertEquals(brokerResponse.getAggregationResults().get(0).getValue(), "100");
+    assertEquals(brokerResponse.getAggregationResults().get(1).getValue(), "45.00000");
+    assertEquals(brokerResponse.getAggregationResults().get(2).getValue(), "9.00000");
+    assertEquals(brokerResponse.getNumSegmentsSkipped(), 45L);
+  }
+
+  @Test
+  public void testGroupBy()
+      throws Exception {
+    BrokerRequest brokerRequest = COMPILER.compileToBrokerRequest("SELECT SUM(m) FROM testTable GROUP BY d TOP 10");
+    DataSchema dataSchema = new DataSchema(new String[]{"functionName", "GroupByResultMap"},
+        new ColumnDataType[]{ColumnDataType.STRING, ColumnDataType.OBJECT});
+    Map<ServerRoutingInstance, DataTable> dataTableMap = new HashMap<>();
+    for (int i = 0; i < NUM_SERVERS; i++) {
+      Map<String, Object> groupByResultMap = new HashMap<>();
+      for (int j = 0; j < NUM_GROUPS; j++) {
+        groupByResultMap.put("d" + j, (double) i * j);
+      }
+      DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema);
+      dataTableBuilder.startRow();
+      dataTableBuilder.setColumn(0, "sum_m");
+      dataTableBuilder.setColumn(1, groupByResultMap);
+      dataTableBuilder.finishRow();
+      dataTableMap.put(getServerRoutingInstance(i), dataTableBuilder.build());
+    }
+
+    BrokerResponseNative brokerResponse = reduceAndCompare(brokerRequest, dataTableMap);
+    assertEquals(brokerResponse.getAggregationResults().get(0).getGroupByResult().size(), NUM_GROUPS);
+    assertEquals(brokerResponse.getAggregationResults().get(0).getGroupByResult().get(0).getValue(), "180.00000");
+  }
+
+  @Test
+  public void testGroupByOrderBySQL()
+      throws Exception {
+    BrokerRequest brokerRequest =
+        COMPILER.compileToBrokerRequest("SELECT SUM(m) FROM testTable GROUP BY d ORDER BY d DESC TOP 10");
+    Map<String, String> queryOptions = new HashMap<>();
+    queryOptions.put(QueryOptionKey.GROUP_BY_MODE, Request.SQL);
+    queryOptions.put(QueryOptionKey.RESPONSE_FORMAT, Request.SQL);
+    brokerRequest.setQueryOptions(queryOptions);
+    String aggregationColumnName =
+        AggregationFunctionUtils.getAggregationColumnName(brokerRequest.getAggregationsInfo().get(0));
+    DataSchema dataSchema = new DataSchema(new String[]{"d", aggregationColumnName},
+        new ColumnDataType[]{ColumnDataType.STRING, ColumnDataType.DOUBLE});
+    Map<ServerRoutingInstance, DataTable> dataTableMap = new HashMap<>();
+    for (int i = 0; i < NUM_SERVERS; i++) {
+      DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema);
+      for (int j = 0; j < NUM_GROUPS; j++) {
+        dataTableBuilder.startRow();
+        dataTableBuilder.setColumn(0, "d" + j);
+        dataTableBuilder.setColumn(1, (double) i * j);
+        dataTableBuilder.finishRow();
+      }
+      dataTableMap.put(getServerRoutingInstance(i), dataTableBuilder.build());
+    }
+
+    BrokerResponseNative brokerResponse = reduceAndCompare(brokerRequest, dataTableMap);
+    List<Object[]> rows = brokerResponse.getResultTable().getRows();
+    assertEquals(rows.size(), NUM_GROUPS);
+    assertEquals(rows.get(0)[0], "d4");
+    assertEquals(rows.get(0)[1], 180.0);
+  }
+
+  @Test
+  public void testGroupByOrderBySQLMoreGroupsThanCapacity()
+      throws Exception {
+    BrokerRequest brokerRequest =
+        COMPILER.compileToBrokerRequest("SELECT SUM(m) FROM testTable GROUP BY d ORDER BY SUM(m) DESC TOP 10");
+    Map<String, String> queryOptions = new HashMap<>();
+    queryOptions.put(QueryOptionKey.GROUP_BY_MODE, Request.SQL);
+    queryOptions.put(QueryOptionKey.RESPONSE_FORMAT, Request.SQL);
+    brokerRequest.setQueryOptions(queryOptions);
+    String aggregationColumnName =
+        AggregationFunctionUtils.getAggregationColumnName(brokerRequest.getAggregationsInfo().get(0));
+    DataSchema dataSchema = new DataSchema(new String[]{"d", aggregationColumnName},
+        new ColumnDataType[]{ColumnDataType.STRING, ColumnDataType.DOUBLE});
+
+    // Each group of 3 servers in the tree reduce has more groups than the table capacity (5000), and the group with the
+    // highest overall sum has the lowest value on each server
+    Map<ServerRoutingInstance, DataTable> dataTableMap = new HashMap<>();
+    for (int i = 0; i < NUM_SERVERS; i++) {
+      DataTableBuilder dataTableBuilder = new DataTableBuilder(dataSchema);
+      dataTableBuilder.startRow();
+      dataTableBuilder.setColumn(0, "top");
+      dataTableBuilder.setColumn(1, 1.0);
+      dataTableBuilder.finishRow();
+      for (int j = 0; j < NUM_SERVER_ONLY_GROUPS; j++) {
+        dataTableBuilder.startRow();
+        dataTableBuilder.setColumn(0, "d" + i + "_" + j);
+        dataTableBuilder.setColumn(1, 5.0);
+        dataTableBuilder.finishRow();
+      }
+      dataTableMap.put(getServerRoutingInstance(i), dataTableBuilder.build());
+    }
+
+    BrokerResponseNative brokerResponse = reduceAndCompare(brokerRequest, dataTableMap);
+    List<Object[]> rows = brokerResponse.getResultTable().getRows();
+    assertEquals(rows.size(), 10);
+    assertEquals(rows.get(0)[0], "top");
+    assertEquals(rows.get(0)[1], 10.0);
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _brokerReduceService.shutDown();
+    _treeBrokerReduceService.shutDown();
+  }
+
+  /**
+   * Reduces the data tables with and without tree reduce, asserts the broker responses are identical and returns the
+   * broker response from the tree reduce.
+   */
+  private BrokerResponseNative reduceAndCompare(BrokerRequest brokerRequest,
+      Map<ServerRoutingInstance, DataTable> dataTableMap)
+      throws Exception {
+    BrokerResponseNative expectedBrokerResponse =
+        _brokerReduceService.reduceOnDataTable(brokerRequest, new HashMap<>(dataTableMap), null);
+    BrokerResponseNative brokerResponse =
+        _treeBrokerReduceService.reduceOnDataTable(brokerRequest, new HashMap<>(dataTableMap), null);
+    assertEquals(brokerResponse.toJsonString(), expectedBrokerResponse.toJsonString());
+    return brokerResponse;
+  }
+
+  private static ServerRoutingInstance getServerRoutingInstance(int serverId) {
+    return new ServerRoutingInstance("localhost", 1234 + serverId, TableType.OFFLINE);
+  }
+}
@@ -0,0 +1,144 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.request.context;
+
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.pinot.core.query.aggregation.groupby.ObjectGroupByResultHolder;
+import org.apache.pinot.core.query.exception.QueryMemoryLimitExceededException;
+import org.apache.pinot.core.util.trace.TraceCallable;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+
+public class QueryMemoryTrackerTest {
+
+  @Test
+  public void testBudget() {
+    QueryMemoryTracker groupTracker = new QueryMemoryTracker("group", 0, null);
+    QueryMemoryTracker queryTracker = new QueryMemoryTracker("query", 100, groupTracker);
+
+    queryTracker.allocateBytes(60);
+    queryTracker.releaseBytes(20);
+    queryTracker.allocateBytes(50);
+    assertEquals(queryTracker.getAllocatedBytes(), 90);
+    assertEquals(queryTracker.getPeakBytes(), 90);
+    assertEquals(groupTracker.getAllocatedBytes(), 90);
+    assertFalse(queryTracker.isLimitExceeded());
+
+    try {
+      queryTracker.allocateBytes(20);
+      fail();
+    } catch (QueryMemoryLimitExceededException e) {
+      // Expected
+    }
+    assertTrue(queryTracker.isLimitExceeded());
+    assertEquals(queryTracker.getPeakBytes(), 110);
+
+    // All the following allocations should fail
+    try {
+      queryTracker.allocateBytes(1);
+      fail();
+    } catch (QueryMemoryLimitExceededException e) {
+      // Expected
+    }
+
+    // Closing the query tracker should release its memory from the group tracker
+    queryTracker.close();
+    assertEquals(groupTracker.getAllocatedBytes(), 0);
+    assertEquals(groupTracker.getPeakBytes(), 110);
+    assertFalse(groupTracker.isLimitExceeded());
+  }
+
+  @Test
+  public void testGroupByResultHolder() {
+    // Result holder should not track anything without registered tracker
+    ObjectGroupByResultHolder resultHolder = new ObjectGroupByResultHolder(10, 100);
+    resultHolder.setValueForKey(0, new IntOpenHashSet());
+
+    QueryMemoryTracker queryTracker = new QueryMemoryTracker("query", 0, null);
+    QueryMemoryTracker.register(queryTracker);
+    try {
+      resultHolder = new ObjectGroupByResultHolder(10, 100);
+      long arraySize = queryTracker.getAllocatedBytes();
+      assertEquals(arraySize, 10 * (QueryMemoryTracker.REFERENCE_SIZE + Long.BYTES));
+
+      IntOpenHashSet valueSet = new IntOpenHashSet();
+      resultHolder.setValueForKey(3, valueSet);
+      long emptySetSize = queryTracker.getAllocatedBytes() - arraySize;
+      assertTrue(emptySetSize > 0);
+
+      // Growth of the value set should be tracked after the block is aggregated
+      for (int i = 0; i < 1000; i++) {
+        valueSet.add(i);
+      }
+      resultHolder.trackResultSizes(new int[]{3, 3, 3}, 3);
+      assertEquals(queryTracker.getAllocatedBytes() - arraySize,
+          QueryMemoryTracker.OBJECT_HEADER_SIZE + QueryMemoryTracker.estimateOpenHashTableSizeInBytes(1000,
+              Integer.BYTES));
+      assertTrue(queryTracker.getAllocatedBytes() - arraySize >= 1000 * Integer.BYTES);
+
+      // Capacity expansion from 10 to 50
+      resultHolder.ensureCapacity(50);
+      assertEquals(queryTracker.getAllocatedBytes() - arraySize,
+          QueryMemoryTracker.OBJECT_HEADER_SIZE + QueryMemoryTracker.estimateOpenHashTableSizeInBytes(1000,
+              Integer.BYTES) + 40 * (QueryMemoryTracker.REFERENCE_SIZE + Long.BYTES));
+    } finally {
+      QueryMemoryTracker.unregister();
+    }
+  }
+
+  @Test
+  public void testThreadPropagation()
+      throws Exception {
+    QueryMemoryTracker queryTracker = new QueryMemoryTracker("query", 0, null);
+    ExecutorService executorService = Executors.newSingleThreadExecutor();
+    try {
+      // No-op without registered tracker
+      QueryMemoryTracker.allocate(10);
+      assertNull(QueryMemoryTracker.get());
+
+      QueryMemoryTracker.register(queryTracker);
+      QueryMemoryTracker.allocate(10);
+      Future<QueryMemoryTracker> future = executorService.submit(new TraceCallable<QueryMemoryTracker>() {
+        @Override
+        public QueryMemoryTracker callJob() {
+          QueryMemoryTracker.allocate(20);
+          return QueryMemoryTracker.get();
+        }
+      });
+      assertEquals(future.get(), queryTracker);
+      assertEquals(queryTracker.getAllocatedBytes(), 30);
+
+      // Worker thread should be unregistered after the job
+      QueryMemoryTracker.unregister();
+      assertNull(executorService.submit(QueryMemoryTracker::get).get());
+    } finally {
+      QueryMemoryTracker.unregister();
+      executorService.shutdown();
+    }
+  }
+}
@@ -38,6 +38,7 @@ import org.testng.annotations.Test;
 import static org.apache.pinot.core.query.scheduler.TestHelper.createQueryRequest;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 
 public class MultiLevelPriorityQueueTest {
@@ -97,6 +98,43 @@ public class MultiLevelPriorityQueueTest {
     assertTrue(false);
   }
 
+  @Test
+  public void testCostBasedAdmission()
+      throws OutOfCapacityException {
+    long cost = 1000L;
+    SchedulerQueryContext query = createQueryRequest(groupOne, metrics, cost);
+    PropertiesConfiguration conf = new PropertiesConfiguration();
+    conf.setProperty(MultiLevelPriorityQueue.MAX_RUNNING_COST_PER_GROUP_KEY, 3 * cost / 2);
+    conf.setProperty(MultiLevelPriorityQueue.MAX_QUERY_COST_KEY, 2 * cost);
+    MultiLevelPriorityQueue queue = createQueue(conf, new UnboundedResourceManager(conf));
+
+    // Query with estimated cost above the max query cost should be rejected
+    try {
+      queue.put(createQueryRequest(groupOne, metrics, 2 * cost + 1));
+      fail();
+    } catch (OutOfCapacityException e) {
+      // Expected
+    }
+
+    queue.put(query);
+    queue.put(createQueryRequest(groupOne, metrics, cost));
+    queue.put(createQueryRequest(groupTwo, metrics, cost));
+
+    // The first query of a group is always admitted
+    SchedulerQueryContext r = queue.take();
+    assertEquals(r.getSchedulerGroup().name(), groupOne);
+    r.getSchedulerGroup().addRunningCost(r.getEstimatedCost());
+
+    // Group one is out of cost budget, so the query from group two should be scheduled even with lower priority
+    r = queue.take();
+    assertEquals(r.getSchedulerGroup().name(), groupTwo);
+
+    // Once the running query finishes, group one can schedule again
+    groupFactory.groupMap.get(groupOne).releaseRunningCost(cost);
+    r = queue.take();
+    assertEquals(r.getSchedulerGroup().name(), groupOne);
+  }
+
   @Test
   public void testPutForBlockedReader()
       throws Exception {
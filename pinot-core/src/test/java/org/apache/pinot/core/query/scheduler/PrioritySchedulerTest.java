@@ -25,12 +25,15 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.LongAccumulator;
@@ -48,6 +51,7 @@ import org.apache.pinot.core.query.request.ServerQueryRequest;
 import org.apache.pinot.core.query.scheduler.resources.PolicyBasedResourceManager;
 import org.apache.pinot.core.query.scheduler.resources.ResourceLimitPolicy;
 import org.apache.pinot.core.query.scheduler.resources.ResourceManager;
+import org.apache.pinot.util.TestUtils;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.Test;
 
@@ -55,6 +59,7 @@ import static org.apache.pinot.core.query.scheduler.TestHelper.createQueryReques
 import static org.apache.pinot.core.query.scheduler.TestHelper.createServerQueryRequest;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertTrue;
 
 
@@ -64,6 +69,8 @@ public class PrioritySchedulerTest {
   private static CyclicBarrier startupBarrier;
   private static CyclicBarrier validationBarrier;
   private static CountDownLatch numQueries = new CountDownLatch(1);
+  private static boolean supportsAsyncExecution = false;
+  private static BlockingQueue<CompletableFuture<DataTable>> asyncQueries = new LinkedBlockingQueue<>();
 
   @AfterMethod
   public void afterMethod() {
@@ -71,6 +78,8 @@ public class PrioritySchedulerTest {
     startupBarrier = null;
     validationBarrier = null;
     numQueries = new CountDownLatch(1);
+    supportsAsyncExecution = false;
+    asyncQueries = new LinkedBlockingQueue<>();
   }
 
   // Tests that there is no "hang" on stop
@@ -191,6 +200,78 @@ public class PrioritySchedulerTest {
     scheduler.stop();
   }
 
+  @Test
+  public void testAsyncExecutionReleasesRunnerThreads()
+      throws Exception {
+    PropertiesConfiguration conf = new PropertiesConfiguration();
+    conf.setProperty(ResourceManager.QUERY_RUNNER_CONFIG_KEY, 1);
+    conf.setProperty(PriorityScheduler.ASYNC_EXECUTION_KEY, true);
+    conf.setProperty(PriorityScheduler.ASYNC_MAX_RUNNING_QUERIES_KEY, 3);
+    supportsAsyncExecution = true;
+
+    TestPriorityScheduler scheduler = TestPriorityScheduler.create(conf);
+    scheduler.start();
+    List<ListenableFuture<byte[]>> results = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      results.add(scheduler.submit(createServerQueryRequest(Integer.toString(i), metrics)));
+    }
+    // All the queries are executing concurrently with a single runner thread because the runner thread is released as
+    // soon as the query execution is started
+    List<CompletableFuture<DataTable>> runningQueries = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      CompletableFuture<DataTable> runningQuery = asyncQueries.poll(10, TimeUnit.SECONDS);
+      assertNotNull(runningQuery);
+      runningQueries.add(runningQuery);
+    }
+    for (ListenableFuture<byte[]> result : results) {
+      assertFalse(result.isDone());
+    }
+    for (CompletableFuture<DataTable> runningQuery : runningQueries) {
+      DataTableImplV2 dataTable = new DataTableImplV2();
+      dataTable.getMetadata().put("table", "async");
+      runningQuery.complete(dataTable);
+    }
+    for (ListenableFuture<byte[]> result : results) {
+      assertEquals(DataTableFactory.getDataTable(result.get()).getMetadata().get("table"), "async");
+    }
+    // -1 because we expect that 1 permit is blocked by the scheduler main thread
+    TestUtils.waitForCondition(aVoid -> scheduler.getRunningQueriesSemaphore().availablePermits() == 2, 10_000L,
+        "Failed to release the running queries semaphore");
+    scheduler.stop();
+  }
+
+  @Test
+  public void testAsyncExecutionLimitsBlockingQueries()
+      throws Exception {
+    PropertiesConfiguration conf = new PropertiesConfiguration();
+    conf.setProperty(ResourceManager.QUERY_RUNNER_CONFIG_KEY, 1);
+    conf.setProperty(PriorityScheduler.ASYNC_EXECUTION_KEY, true);
+    conf.setProperty(PriorityScheduler.ASYNC_MAX_RUNNING_QUERIES_KEY, 3);
+    useBarrier = true;
+    startupBarrier = new CyclicBarrier(2);
+    validationBarrier = new CyclicBarrier(2);
+    numQueries = new CountDownLatch(2);
+
+    TestPriorityScheduler scheduler = TestPriorityScheduler.create(conf);
+    scheduler.start();
+    // Queries not supporting asynchronous execution block the runner thread, so only one of them is running even
+    // though more queries can be running for asynchronous execution
+    ListenableFuture<byte[]> result1 = scheduler.submit(createServerQueryRequest("1", metrics));
+    startupBarrier.await();
+    ListenableFuture<byte[]> result2 = scheduler.submit(createServerQueryRequest("2", metrics));
+    Thread.sleep(100);
+    assertEquals(TestPriorityScheduler.groupFactory.groupMap.get("1").numRunning(), 1);
+    assertEquals(TestPriorityScheduler.groupFactory.groupMap.get("2").numRunning(), 0);
+    validationBarrier.await();
+    assertEquals(DataTableFactory.getDataTable(result1.get()).getMetadata().get("table"), "1");
+
+    startupBarrier.await();
+    validationBarrier.await();
+    assertEquals(DataTableFactory.getDataTable(result2.get()).getMetadata().get("table"), "2");
+    numQueries.await();
+    scheduler.stop();
+  }
+
   /*
    * Disabled because of race condition
    */
@@ -316,6 +397,22 @@ public class PrioritySchedulerTest {
       return result;
     }
 
+    @Override
+    public CompletableFuture<DataTable> processQueryAsync(ServerQueryRequest queryRequest,
+        ExecutorService executorService) {
+      if (!supportsAsyncExecution) {
+        return QueryExecutor.super.processQueryAsync(queryRequest, executorService);
+      }
+      CompletableFuture<DataTable> future = new CompletableFuture<>();
+      asyncQueries.add(future);
+      return future;
+    }
+
+    @Override
+    public boolean supportsAsyncExecution(ServerQueryRequest queryRequest) {
+      return supportsAsyncExecution;
+    }
+
     @Override
     public void setTableTimeoutMs(@Nonnull String tableNameWithType, long timeOutMs) {
     }
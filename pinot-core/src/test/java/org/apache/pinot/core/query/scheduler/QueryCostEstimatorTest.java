@@ -0,0 +1,145 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.scheduler;
+
+import com.yammer.metrics.core.MetricsRegistry;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.common.request.InstanceRequest;
+import org.apache.pinot.common.segment.SegmentMetadata;
+import org.apache.pinot.core.common.DataSource;
+import org.apache.pinot.core.common.DataSourceMetadata;
+import org.apache.pinot.core.data.manager.InstanceDataManager;
+import org.apache.pinot.core.data.manager.SegmentDataManager;
+import org.apache.pinot.core.data.manager.TableDataManager;
+import org.apache.pinot.core.indexsegment.IndexSegment;
+import org.apache.pinot.core.query.request.ServerQueryRequest;
+import org.apache.pinot.pql.parsers.Pql2Compiler;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+
+public class QueryCostEstimatorTest {
+  private static final Pql2Compiler COMPILER = new Pql2Compiler();
+  private static final ServerMetrics SERVER_METRICS = new ServerMetrics(new MetricsRegistry());
+  private static final int NUM_DOCS = 1_000_000;
+
+  // Column 'a' has inverted index, column 'b' has no index, column 'c' is sorted
+  private static final IndexSegment INDEX_SEGMENT = mockSegment();
+
+  @Test
+  public void testEstimateSegmentCost() {
+    // Point lookup on indexed column: no entry scanned in filter, selection stops after 10 documents (3 columns each)
+    assertEquals(estimateCost("SELECT * FROM table WHERE a = 1 LIMIT 10"), 10 + 10 * 3);
+    assertEquals(estimateCost("SELECT * FROM table WHERE c = 1 LIMIT 5, 10"), 15 + 15 * 3);
+    assertEquals(estimateCost("SELECT COUNT(*) FROM table WHERE a = 1"), 1000);
+    assertEquals(estimateCost("SELECT COUNT(*) FROM table WHERE a IN (1, 2, 3)"), 3000);
+    assertEquals(estimateCost("SELECT COUNT(*) FROM table WHERE a NOT IN (1, 2, 3)"), NUM_DOCS - 3000);
+
+    // Predicate on column without index scans the whole segment
+    assertEquals(estimateCost("SELECT COUNT(*) FROM table WHERE b = 1"), NUM_DOCS + 10_000);
+    assertEquals(estimateCost("SELECT COUNT(*) FROM table WHERE b <> 1"), NUM_DOCS + NUM_DOCS - 10_000);
+
+    // Range predicate is not served by inverted index
+    assertEquals(estimateCost("SELECT COUNT(*) FROM table WHERE a > 5"), 2 * NUM_DOCS);
+
+    // Unknown column is always scanned
+    assertEquals(estimateCost("SELECT COUNT(*) FROM table WHERE d = 1"), 2 * NUM_DOCS);
+
+    // AND: scan based predicate only scans the documents matched by the index based predicates
+    assertEquals(estimateCost("SELECT SUM(b) FROM table WHERE a = 1 AND b > 5"), 1000 + 1000 + 1000);
+    assertEquals(estimateCost("SELECT SUM(b) FROM table WHERE a = 1 AND c = 1 AND b > 5"), 100 + 100 + 100);
+
+    // OR: adds up the children
+    assertEquals(estimateCost("SELECT COUNT(*) FROM table WHERE a = 1 OR b = 1"), NUM_DOCS + 1000 + 10_000);
+
+    // Full scan reads every value of every projected column
+    assertEquals(estimateCost("SELECT SUM(b) FROM table"), NUM_DOCS + NUM_DOCS);
+    assertEquals(estimateCost("SELECT SUM(b) FROM table GROUP BY a, c"), NUM_DOCS + 3 * NUM_DOCS);
+    assertEquals(estimateCost("SELECT a, b FROM table ORDER BY c"), NUM_DOCS + 3 * NUM_DOCS);
+  }
+
+  @Test
+  public void testEstimateCost() {
+    InstanceDataManager instanceDataManager = mock(InstanceDataManager.class);
+    TableDataManager tableDataManager = mock(TableDataManager.class);
+    when(instanceDataManager.getTableDataManager("table")).thenReturn(tableDataManager);
+    SegmentDataManager segmentDataManager = mock(SegmentDataManager.class);
+    when(segmentDataManager.getSegment()).thenReturn(INDEX_SEGMENT);
+    List<String> segmentsToQuery = Arrays.asList("segment1", "segment2", "segment3");
+    // Only 2 of the 3 segments are hosted on the server
+    when(tableDataManager.acquireSegments(segmentsToQuery))
+        .thenReturn(Arrays.asList(segmentDataManager, segmentDataManager));
+
+    QueryCostEstimator costEstimator = new QueryCostEstimator(instanceDataManager);
+    assertEquals(costEstimator.estimateCost(getQueryRequest("SELECT SUM(b) FROM table", segmentsToQuery)),
+        2 * (NUM_DOCS + NUM_DOCS));
+    verify(tableDataManager, times(2)).releaseSegment(segmentDataManager);
+
+    // Missing table or instance data manager
+    assertEquals(costEstimator.estimateCost(getQueryRequest("SELECT SUM(b) FROM missing", segmentsToQuery)), 0);
+    assertEquals(
+        new QueryCostEstimator(null).estimateCost(getQueryRequest("SELECT SUM(b) FROM table", segmentsToQuery)), 0);
+  }
+
+  private static long estimateCost(String query) {
+    return QueryCostEstimator.estimateCost(getQueryRequest(query, Arrays.asList("segment")), INDEX_SEGMENT);
+  }
+
+  private static ServerQueryRequest getQueryRequest(String query, List<String> segmentsToQuery) {
+    InstanceRequest instanceRequest = new InstanceRequest();
+    instanceRequest.setRequestId(1);
+    instanceRequest.setQuery(COMPILER.compileToBrokerRequest(query));
+    instanceRequest.setSearchSegments(segmentsToQuery);
+    return new ServerQueryRequest(instanceRequest, SERVER_METRICS, 0L);
+  }
+
+  private static IndexSegment mockSegment() {
+    IndexSegment indexSegment = mock(IndexSegment.class);
+    SegmentMetadata segmentMetadata = mock(SegmentMetadata.class);
+    when(segmentMetadata.getTotalDocs()).thenReturn(NUM_DOCS);
+    when(indexSegment.getSegmentMetadata()).thenReturn(segmentMetadata);
+    Set<String> columns = new HashSet<>(Arrays.asList("a", "b", "c"));
+    when(indexSegment.getColumnNames()).thenReturn(columns);
+    when(indexSegment.getPhysicalColumnNames()).thenReturn(columns);
+    mockColumn(indexSegment, "a", 1000, false, true);
+    mockColumn(indexSegment, "b", 100, false, false);
+    mockColumn(indexSegment, "c", 10_000, true, true);
+    return indexSegment;
+  }
+
+  private static void mockColumn(IndexSegment indexSegment, String column, int cardinality, boolean sorted,
+      boolean hasInvertedIndex) {
+    DataSourceMetadata dataSourceMetadata = mock(DataSourceMetadata.class);
+    when(dataSourceMetadata.getCardinality()).thenReturn(cardinality);
+    when(dataSourceMetadata.isSorted()).thenReturn(sorted);
+    when(dataSourceMetadata.hasInvertedIndex()).thenReturn(hasInvertedIndex);
+    DataSource dataSource = mock(DataSource.class);
+    when(dataSource.getDataSourceMetadata()).thenReturn(dataSourceMetadata);
+    when(indexSegment.getDataSource(column)).thenReturn(dataSource);
+  }
+}
@@ -51,6 +51,10 @@ public class TestHelper {
     return new SchedulerQueryContext(createServerQueryRequest(table, metrics, queryArrivalTimeMs));
   }
 
+  public static SchedulerQueryContext createQueryRequest(String table, ServerMetrics metrics, long estimatedCost) {
+    return new SchedulerQueryContext(createServerQueryRequest(table, metrics), estimatedCost);
+  }
+
   public static SchedulerQueryContext createQueryRequest(String table, ServerMetrics metrics) {
     return createQueryRequest(table, metrics, System.currentTimeMillis());
   }
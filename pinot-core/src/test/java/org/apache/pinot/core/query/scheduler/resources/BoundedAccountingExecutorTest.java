@@ -19,10 +19,15 @@
 package org.apache.pinot.core.query.scheduler.resources;
 
 import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import org.apache.pinot.core.query.scheduler.SchedulerGroupAccountant;
 import org.apache.pinot.util.TestUtils;
 import org.testng.annotations.Test;
@@ -114,5 +119,80 @@ public class BoundedAccountingExecutorTest {
     verify(accountant, times(pendingJobs)).incrementThreads();
     syncer.validationBarrier.await();
   }
-}
 
+  @Test
+  public void testCpuTimeAccounting()
+      throws Exception {
+    SchedulerGroupAccountant accountant = mock(SchedulerGroupAccountant.class);
+    ExecutorService es = Executors.newFixedThreadPool(2);
+    try {
+      BoundedAccountingExecutor bes = new BoundedAccountingExecutor(es, 2, accountant);
+      Future<?> future = bes.submit(new Runnable() {
+        @Override
+        public void run() {
+          long sum = 0;
+          for (int i = 0; i < 1_000_000; i++) {
+            sum += i;
+          }
+          assertTrue(sum > 0);
+        }
+      });
+      future.get();
+      // the accountant is charged after the task completes, before the thread is released
+      verify(accountant, timeout(10_000)).decrementThreads();
+      verify(accountant, times(1)).addCpuTimeNs(anyLong());
+      assertTrue(bes.getCpuTimeNs() >= 0);
+      if (ThreadCpuTimer.isSupported()) {
+        verify(accountant).addCpuTimeNs(bes.getCpuTimeNs());
+      }
+    } finally {
+      es.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testChargeRunningCpuTime()
+      throws Exception {
+    SchedulerGroupAccountant accountant = mock(SchedulerGroupAccountant.class);
+    ExecutorService es = Executors.newFixedThreadPool(2);
+    try {
+      BoundedAccountingExecutor bes = new BoundedAccountingExecutor(es, 2, accountant);
+      AtomicLong listenerCpuTimeNs = new AtomicLong();
+      bes.setCpuTimeListener(listenerCpuTimeNs::addAndGet);
+      CountDownLatch started = new CountDownLatch(1);
+      AtomicBoolean stop = new AtomicBoolean();
+      Future<?> future = bes.submit(new Runnable() {
+        @Override
+        public void run() {
+          started.countDown();
+          long sum = 0;
+          while (!stop.get()) {
+            sum++;
+          }
+          assertTrue(sum >= 0);
+        }
+      });
+      started.await();
+      if (ThreadCpuTimer.isSupported()) {
+        // the running task is charged before it completes
+        TestUtils.waitForCondition(aVoid -> {
+          bes.chargeRunningCpuTime();
+          return bes.getCpuTimeNs() > 0;
+        }, 10_000, "Running task is not charged");
+        assertFalse(future.isDone());
+        verify(accountant, atLeastOnce()).addCpuTimeNs(longThat(cpuTimeNs -> cpuTimeNs > 0));
+        verify(accountant, never()).decrementThreads();
+      }
+      stop.set(true);
+      future.get();
+      verify(accountant, timeout(10_000)).decrementThreads();
+      // every charge is reported once to both the accountant and the listener
+      long chargedCpuTimeNs = bes.getCpuTimeNs();
+      assertEquals(listenerCpuTimeNs.get(), chargedCpuTimeNs);
+      bes.chargeRunningCpuTime();
+      assertEquals(bes.getCpuTimeNs(), chargedCpuTimeNs);
+    } finally {
+      es.shutdownNow();
+    }
+  }
+}
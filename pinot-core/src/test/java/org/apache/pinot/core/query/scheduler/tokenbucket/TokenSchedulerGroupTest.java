@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.core.query.scheduler.tokenbucket;
 
+import java.util.concurrent.TimeUnit;
 import org.testng.annotations.Test;
 
 import static org.testng.Assert.assertEquals;
@@ -33,7 +34,11 @@ public class TokenSchedulerGroupTest {
     static final int tokenLifetimeMs = 100;
 
     TestTokenSchedulerGroup() {
-      super("testGroup", numTokensPerMs, tokenLifetimeMs);
+      this(false);
+    }
+
+    TestTokenSchedulerGroup(boolean cpuTimeAccounting) {
+      super("testGroup", numTokensPerMs, tokenLifetimeMs, cpuTimeAccounting);
     }
 
     @Override
@@ -112,6 +117,38 @@ public class TokenSchedulerGroupTest {
     assertTrue(group.getAvailableTokens() < expectedTokens);
   }
 
+  @Test
+  public void testCpuTimeAccounting() {
+    timeMillis = 100;
+    TestTokenSchedulerGroup group = new TestTokenSchedulerGroup(true);
+    int availableTokens = group.getAvailableTokens();
+    assertEquals(availableTokens, TestTokenSchedulerGroup.numTokensPerMs * TestTokenSchedulerGroup.tokenLifetimeMs);
+
+    // threads in use are not charged by wall clock time
+    int nThreads = 5;
+    incrementThreads(group, nThreads);
+    timeMillis += 20;
+    assertEquals(group.getAvailableTokens(), availableTokens);
+
+    // CPU time is charged in milliseconds, sub-millisecond remainders are carried over
+    group.addCpuTimeNs(TimeUnit.MILLISECONDS.toNanos(30));
+    assertEquals(group.getAvailableTokens(), availableTokens - 30);
+    group.addCpuTimeNs(TimeUnit.MICROSECONDS.toNanos(600));
+    assertEquals(group.getAvailableTokens(), availableTokens - 30);
+    group.addCpuTimeNs(TimeUnit.MICROSECONDS.toNanos(600));
+    assertEquals(group.getAvailableTokens(), availableTokens - 31);
+    assertEquals(group.totalCpuTimeNs(), TimeUnit.MICROSECONDS.toNanos(31200));
+    decrementThreads(group, nThreads);
+
+    // wall clock accounting ignores CPU time but still tracks the total
+    timeMillis = 100;
+    TestTokenSchedulerGroup wallClockGroup = new TestTokenSchedulerGroup();
+    availableTokens = wallClockGroup.getAvailableTokens();
+    wallClockGroup.addCpuTimeNs(TimeUnit.MILLISECONDS.toNanos(30));
+    assertEquals(wallClockGroup.getAvailableTokens(), availableTokens);
+    assertEquals(wallClockGroup.totalCpuTimeNs(), TimeUnit.MILLISECONDS.toNanos(30));
+  }
+
   @Test
   public void testStartStopQuery() {
     timeMillis = 100;
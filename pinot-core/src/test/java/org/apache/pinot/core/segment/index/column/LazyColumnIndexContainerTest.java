@@ -0,0 +1,197 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.index.column;
+
+import java.io.File;
+import java.net.URL;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.segment.ReadMode;
+import org.apache.pinot.core.data.manager.offline.ImmutableSegmentDataManager;
+import org.apache.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import org.apache.pinot.core.indexsegment.generator.SegmentVersion;
+import org.apache.pinot.core.indexsegment.immutable.ImmutableSegment;
+import org.apache.pinot.core.indexsegment.immutable.ImmutableSegmentLoader;
+import org.apache.pinot.core.segment.creator.SegmentIndexCreationDriver;
+import org.apache.pinot.core.segment.creator.impl.SegmentCreationDriverFactory;
+import org.apache.pinot.core.segment.index.loader.IndexLoadingConfig;
+import org.apache.pinot.segments.v1.creator.SegmentTestUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+
+public class LazyColumnIndexContainerTest {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "LazyColumnIndexContainerTest");
+  private static final String AVRO_DATA = "data/test_data-sv.avro";
+  private static final String COLUMN_1 = "column1";
+  private static final String COLUMN_3 = "column3";
+
+  private final LazyColumnIndexManager _lazyColumnIndexManager = LazyColumnIndexManager.getInstance();
+
+  private File _indexDir;
+  private IndexLoadingConfig _indexLoadingConfig;
+  private ImmutableSegment _segment;
+  private ImmutableSegmentDataManager _segmentDataManager;
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(INDEX_DIR);
+
+    URL resourceUrl = getClass().getClassLoader().getResource(AVRO_DATA);
+    Assert.assertNotNull(resourceUrl);
+    File avroFile = new File(resourceUrl.getFile());
+    SegmentGeneratorConfig segmentGeneratorConfig =
+        SegmentTestUtils.getSegmentGeneratorConfigWithoutTimeColumn(avroFile, INDEX_DIR, "testTable");
+    SegmentIndexCreationDriver driver = SegmentCreationDriverFactory.get(null);
+    driver.init(segmentGeneratorConfig);
+    driver.build();
+    _indexDir = new File(INDEX_DIR, driver.getSegmentName());
+
+    _indexLoadingConfig = new IndexLoadingConfig();
+    _indexLoadingConfig.setReadMode(ReadMode.mmap);
+    _indexLoadingConfig.setSegmentVersion(SegmentVersion.v3);
+    _indexLoadingConfig.setLazyColumnIndexLoading(true);
+  }
+
+  @BeforeMethod
+  public void loadSegment()
+      throws Exception {
+    _segment = ImmutableSegmentLoader.load(_indexDir, _indexLoadingConfig);
+    _segmentDataManager = new ImmutableSegmentDataManager(_segment);
+  }
+
+  @AfterMethod
+  public void destroySegment() {
+    _lazyColumnIndexManager.setMemoryBudgetBytes(0L);
+    if (_segment != null) {
+      _segment.destroy();
+      _segment = null;
+    }
+  }
+
+  @Test
+  public void testLoadOnAccessAndReloadAfterEviction() {
+    int numLoadedColumns = _lazyColumnIndexManager.getNumLoadedColumns();
+    long numLoads = _lazyColumnIndexManager.getNumLoads();
+    long numEvictions = _lazyColumnIndexManager.getNumEvictions();
+
+    // Indexes should not be loaded until accessed
+    Assert.assertEquals(_lazyColumnIndexManager.getNumLoadedColumns(), numLoadedColumns);
+    Object value = _segment.getDictionary(COLUMN_1).get(0);
+    Assert.assertEquals(_lazyColumnIndexManager.getNumLoadedColumns(), numLoadedColumns + 1);
+    Assert.assertEquals(_lazyColumnIndexManager.getNumLoads(), numLoads + 1);
+
+    // Accessing the loaded indexes again should not load them again
+    _segment.getForwardIndex(COLUMN_1);
+    Assert.assertEquals(_lazyColumnIndexManager.getNumLoads(), numLoads + 1);
+
+    // The segment is not acquired by any query, so the indexes should be evicted right away
+    _lazyColumnIndexManager.setMemoryBudgetBytes(1L);
+    Assert.assertEquals(_lazyColumnIndexManager.getNumLoadedColumns(), numLoadedColumns);
+    Assert.assertEquals(_lazyColumnIndexManager.getNumEvictions(), numEvictions + 1);
+
+    // The evicted indexes should be reloaded on the next access
+    _lazyColumnIndexManager.setMemoryBudgetBytes(0L);
+    Assert.assertEquals(_segment.getDictionary(COLUMN_1).get(0), value);
+    Assert.assertEquals(_lazyColumnIndexManager.getNumLoadedColumns(), numLoadedColumns + 1);
+    Assert.assertEquals(_lazyColumnIndexManager.getNumLoads(), numLoads + 2);
+  }
+
+  @Test
+  public void testEvictionDeferredUntilSegmentReleased() {
+    int numLoadedColumns = _lazyColumnIndexManager.getNumLoadedColumns();
+    long numEvictions = _lazyColumnIndexManager.getNumEvictions();
+
+    Assert.assertTrue(_segmentDataManager.increaseReferenceCount());
+    _segment.getForwardIndex(COLUMN_1);
+    _lazyColumnIndexManager.setMemoryBudgetBytes(1L);
+
+    // The indexes should be kept while the segment is acquired
+    Assert.assertEquals(_lazyColumnIndexManager.getNumLoadedColumns(), numLoadedColumns + 1);
+    Assert.assertEquals(_lazyColumnIndexManager.getNumEvictions(), numEvictions);
+
+    Assert.assertFalse(_segmentDataManager.decreaseReferenceCount());
+    Assert.assertEquals(_lazyColumnIndexManager.getNumLoadedColumns(), numLoadedColumns);
+    Assert.assertEquals(_lazyColumnIndexManager.getNumEvictions(), numEvictions + 1);
+  }
+
+  @Test
+  public void testAccessCancelsEviction() {
+    int numLoadedColumns = _lazyColumnIndexManager.getNumLoadedColumns();
+    long numEvictions = _lazyColumnIndexManager.getNumEvictions();
+
+    Assert.assertTrue(_segmentDataManager.increaseReferenceCount());
+    _segment.getForwardIndex(COLUMN_1);
+    _lazyColumnIndexManager.setMemoryBudgetBytes(1L);
+    _segment.getForwardIndex(COLUMN_1);
+
+    Assert.assertFalse(_segmentDataManager.decreaseReferenceCount());
+    Assert.assertEquals(_lazyColumnIndexManager.getNumLoadedColumns(), numLoadedColumns + 1);
+    Assert.assertEquals(_lazyColumnIndexManager.getNumEvictions(), numEvictions);
+  }
+
+  @Test
+  public void testLeastRecentlyAccessedColumnEvictedFirst()
+      throws Exception {
+    int numLoadedColumns = _lazyColumnIndexManager.getNumLoadedColumns();
+    long numEvictions = _lazyColumnIndexManager.getNumEvictions();
+
+    _segment.getForwardIndex(COLUMN_1);
+    // Make sure the columns have different access time
+    Thread.sleep(10L);
+    _segment.getForwardIndex(COLUMN_3);
+    long numLoads = _lazyColumnIndexManager.getNumLoads();
+
+    // Only need to evict one column to fit into the budget
+    _lazyColumnIndexManager.setMemoryBudgetBytes(_lazyColumnIndexManager.getLoadedBytes() - 1);
+    Assert.assertEquals(_lazyColumnIndexManager.getNumLoadedColumns(), numLoadedColumns + 1);
+    Assert.assertEquals(_lazyColumnIndexManager.getNumEvictions(), numEvictions + 1);
+
+    // Disable the budget so that reloading does not trigger more evictions
+    _lazyColumnIndexManager.setMemoryBudgetBytes(0L);
+    _segment.getForwardIndex(COLUMN_3);
+    Assert.assertEquals(_lazyColumnIndexManager.getNumLoads(), numLoads);
+    _segment.getForwardIndex(COLUMN_1);
+    Assert.assertEquals(_lazyColumnIndexManager.getNumLoads(), numLoads + 1);
+  }
+
+  @Test
+  public void testDestroyNotCountedAsEviction() {
+    int numLoadedColumns = _lazyColumnIndexManager.getNumLoadedColumns();
+    long numEvictions = _lazyColumnIndexManager.getNumEvictions();
+
+    _segment.getForwardIndex(COLUMN_1);
+    _segment.getForwardIndex(COLUMN_3);
+    Assert.assertEquals(_lazyColumnIndexManager.getNumLoadedColumns(), numLoadedColumns + 2);
+
+    _segment.destroy();
+    _segment = null;
+    Assert.assertEquals(_lazyColumnIndexManager.getNumLoadedColumns(), numLoadedColumns);
+    Assert.assertEquals(_lazyColumnIndexManager.getNumEvictions(), numEvictions);
+  }
+
+  @AfterClass
+  public void tearDown() {
+    FileUtils.deleteQuietly(INDEX_DIR);
+  }
+}
@@ -0,0 +1,93 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.segment.index.creator;
+
+import java.io.File;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.core.segment.creator.impl.V1Constants;
+import org.apache.pinot.core.segment.creator.impl.zonemap.ZoneMapCreator;
+import org.apache.pinot.core.segment.index.readers.ZoneMapReader;
+import org.apache.pinot.core.segment.memory.PinotDataBuffer;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+public class ZoneMapCreatorTest {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "ZoneMapCreatorTest");
+  private static final String COLUMN_NAME = "testColumn";
+  private static final int NUM_DOCS_PER_BLOCK = 10;
+  private static final int NUM_DOCS = 35;
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(TEMP_DIR);
+    Assert.assertTrue(TEMP_DIR.mkdirs());
+  }
+
+  @Test
+  public void testZoneMapCreator()
+      throws Exception {
+    try (ZoneMapCreator zoneMapCreator = new ZoneMapCreator(TEMP_DIR, COLUMN_NAME, NUM_DOCS_PER_BLOCK, NUM_DOCS)) {
+      // Block 0: dictionary ids [0, 9]
+      // Block 1: dictionary ids [20, 29]
+      // Block 2: dictionary ids [5, 5] for single-value docs, and [3, 7] with multi-values
+      // Block 3: dictionary ids [100, 104]
+      for (int docId = 0; docId < NUM_DOCS; docId++) {
+        if (docId < 10) {
+          zoneMapCreator.add(docId, docId);
+        } else if (docId < 20) {
+          zoneMapCreator.add(docId, docId + 10);
+        } else if (docId < 30) {
+          if (docId == 25) {
+            zoneMapCreator.add(docId, new int[]{7, 3});
+          } else {
+            zoneMapCreator.add(docId, 5);
+          }
+        } else {
+          zoneMapCreator.add(docId, docId + 70);
+        }
+      }
+      zoneMapCreator.seal();
+    }
+
+    File zoneMapFile = new File(TEMP_DIR, COLUMN_NAME + V1Constants.Indexes.ZONE_MAP_FILE_EXTENSION);
+    Assert.assertTrue(zoneMapFile.exists());
+    try (PinotDataBuffer dataBuffer = PinotDataBuffer.mapReadOnlyBigEndianFile(zoneMapFile)) {
+      ZoneMapReader zoneMapReader = new ZoneMapReader(dataBuffer);
+      Assert.assertEquals(zoneMapReader.getNumDocsPerBlock(), NUM_DOCS_PER_BLOCK);
+      Assert.assertEquals(zoneMapReader.getNumBlocks(), 4);
+      Assert.assertEquals(zoneMapReader.getMinDictId(0), 0);
+      Assert.assertEquals(zoneMapReader.getMaxDictId(0), 9);
+      Assert.assertEquals(zoneMapReader.getMinDictId(1), 20);
+      Assert.assertEquals(zoneMapReader.getMaxDictId(1), 29);
+      Assert.assertEquals(zoneMapReader.getMinDictId(2), 3);
+      Assert.assertEquals(zoneMapReader.getMaxDictId(2), 7);
+      Assert.assertEquals(zoneMapReader.getMinDictId(3), 100);
+      Assert.assertEquals(zoneMapReader.getMaxDictId(3), 104);
+    }
+  }
+
+  @AfterClass
+  public void tearDown() {
+    FileUtils.deleteQuietly(TEMP_DIR);
+  }
+}
@@ -31,6 +31,7 @@ import org.apache.pinot.common.data.Schema;
 import org.apache.pinot.common.segment.ReadMode;
 import org.apache.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
 import org.apache.pinot.core.indexsegment.generator.SegmentVersion;
+import org.apache.pinot.core.indexsegment.immutable.ImmutableSegmentLoader;
 import org.apache.pinot.core.segment.creator.SegmentIndexCreationDriver;
 import org.apache.pinot.core.segment.creator.impl.SegmentCreationDriverFactory;
 import org.apache.pinot.core.segment.index.ColumnMetadata;
@@ -451,6 +452,70 @@ public class SegmentPreProcessorTest {
     Assert.assertEquals(metricColumnMetadata.getMaxValue(), 890662862);
   }
 
+  @Test
+  public void testIndexConfigChecksum()
+      throws Exception {
+    constructV1Segment();
+
+    SegmentMetadataImpl segmentMetadata = new SegmentMetadataImpl(_indexDir);
+    String checksum = SegmentPreProcessor.computeIndexConfigChecksum(segmentMetadata, _indexLoadingConfig, _schema);
+    Assert.assertTrue(SegmentPreProcessor.needProcess(_indexDir, checksum));
+    SegmentPreProcessor.markProcessed(_indexDir, checksum);
+    Assert.assertFalse(SegmentPreProcessor.needProcess(_indexDir, checksum));
+
+    // Checksum should change with the index config or the schema
+    IndexLoadingConfig indexLoadingConfig = new IndexLoadingConfig();
+    indexLoadingConfig.setInvertedIndexColumns(new HashSet<>(Arrays.asList(COLUMN1_NAME, COLUMN7_NAME)));
+    Assert.assertTrue(SegmentPreProcessor.needProcess(_indexDir,
+        SegmentPreProcessor.computeIndexConfigChecksum(segmentMetadata, indexLoadingConfig, _schema)));
+    Assert.assertTrue(SegmentPreProcessor.needProcess(_indexDir,
+        SegmentPreProcessor.computeIndexConfigChecksum(segmentMetadata, _indexLoadingConfig, _newColumnsSchema1)));
+
+    SegmentPreProcessor.markProcessed(_indexDir, null);
+    Assert.assertTrue(SegmentPreProcessor.needProcess(_indexDir, checksum));
+  }
+
+  @Test
+  public void testSkipPreProcessIfIndexConfigUnchanged()
+      throws Exception {
+    constructV1Segment();
+
+    SegmentMetadataImpl segmentMetadata = new SegmentMetadataImpl(_indexDir);
+    File col1File = new File(_indexDir, segmentMetadata.getBitmapInvertedIndexFileName(COLUMN1_NAME));
+    File col13File = new File(_indexDir, segmentMetadata.getBitmapInvertedIndexFileName(COLUMN13_NAME));
+    File checksumFile = new File(_indexDir, SegmentPreProcessor.INDEX_CONFIG_CHECKSUM_FILE_NAME);
+    FileTime epoch = FileTime.fromMillis(0L);
+
+    IndexLoadingConfig indexLoadingConfig = new IndexLoadingConfig();
+    indexLoadingConfig.setReadMode(ReadMode.mmap);
+    indexLoadingConfig.setInvertedIndexColumns(new HashSet<>(Collections.singletonList(COLUMN7_NAME)));
+    indexLoadingConfig.setSkipPreProcessIfIndexConfigUnchanged(true);
+
+    // Pre-process the segment the first time
+    ImmutableSegmentLoader.load(_indexDir, indexLoadingConfig, _schema).destroy();
+    Assert.assertTrue(checksumFile.exists());
+
+    // The pre-processing should be skipped with the same index config, so the checksum file should not be rewritten
+    Files.setLastModifiedTime(checksumFile.toPath(), epoch);
+    ImmutableSegmentLoader.load(_indexDir, indexLoadingConfig, _schema).destroy();
+    Assert.assertEquals(Files.getLastModifiedTime(checksumFile.toPath()), epoch);
+    Assert.assertFalse(col1File.exists());
+    Assert.assertFalse(col13File.exists());
+
+    // The segment should be pre-processed again when the index config changes
+    indexLoadingConfig.setInvertedIndexColumns(new HashSet<>(Arrays.asList(COLUMN1_NAME, COLUMN7_NAME, COLUMN13_NAME)));
+    ImmutableSegmentLoader.load(_indexDir, indexLoadingConfig, _schema).destroy();
+    Assert.assertNotEquals(Files.getLastModifiedTime(checksumFile.toPath()), epoch);
+    Assert.assertTrue(col1File.exists());
+    Assert.assertTrue(col13File.exists());
+
+    // Without skipping, the segment should always be pre-processed
+    indexLoadingConfig.setSkipPreProcessIfIndexConfigUnchanged(false);
+    FileUtils.forceDelete(col13File);
+    ImmutableSegmentLoader.load(_indexDir, indexLoadingConfig, _schema).destroy();
+    Assert.assertTrue(col13File.exists());
+  }
+
   @AfterClass
   public void tearDown()
       throws Exception {
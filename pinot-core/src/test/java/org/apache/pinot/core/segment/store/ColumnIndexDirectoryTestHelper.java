@@ -60,6 +60,9 @@ public class ColumnIndexDirectoryTestHelper {
       case NULLVALUE_VECTOR:
         buf = columnDirectory.newNullValueVectorBuffer(columnName, size);
         break;
+      case ZONE_MAP:
+        buf = columnDirectory.newZoneMapBuffer(columnName, size);
+        break;
     }
     return buf;
   }
@@ -86,6 +89,9 @@ public class ColumnIndexDirectoryTestHelper {
       case NULLVALUE_VECTOR:
         buf = columnDirectory.getNullValueVectorBufferFor(columnName);
         break;
+      case ZONE_MAP:
+        buf = columnDirectory.getZoneMapBufferFor(columnName);
+        break;
     }
     return buf;
   }
@@ -156,6 +162,13 @@ public class ColumnIndexDirectoryTestHelper {
         return invocationOnMock.getArguments()[0] + ".nullvalue";
       }
     });
+    when(meta.getZoneMapFileName(anyString())).thenAnswer(new Answer<String>() {
+      @Override
+      public String answer(InvocationOnMock invocationOnMock)
+          throws Throwable {
+        return invocationOnMock.getArguments()[0] + ".zonemap";
+      }
+    });
     return meta;
   }
 }
@@ -157,6 +157,28 @@ public class SingleFileIndexDirectoryTest {
     }
   }
 
+  @Test
+  public void testLazyLoad()
+      throws Exception {
+    int numIter = 6;
+    try (SingleFileIndexDirectory columnDirectory = new SingleFileIndexDirectory(segmentDir, segmentMetadata,
+        ReadMode.mmap)) {
+      ColumnIndexDirectoryTestHelper.performMultipleWrites(columnDirectory, "foo", 2L * ONE_MB, numIter);
+      // Indexes cannot be released when not lazily loaded
+      Assert.assertFalse(columnDirectory.releaseIndexesFor("foo.0"));
+    }
+
+    try (SingleFileIndexDirectory columnDirectory = new SingleFileIndexDirectory(segmentDir, segmentMetadata,
+        ReadMode.mmap, true)) {
+      ColumnIndexDirectoryTestHelper.verifyMultipleReads(columnDirectory, "foo", numIter);
+      for (int i = 0; i < numIter; i++) {
+        Assert.assertTrue(columnDirectory.releaseIndexesFor("foo." + i));
+      }
+      // Indexes should be loaded again after being released
+      ColumnIndexDirectoryTestHelper.verifyMultipleReads(columnDirectory, "foo", numIter);
+    }
+  }
+
   @Test(expectedExceptions = RuntimeException.class)
   public void testWriteExisting()
       throws Exception {
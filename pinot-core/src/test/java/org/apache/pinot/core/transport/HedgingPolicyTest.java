@@ -0,0 +1,88 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.transport;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+
+public class HedgingPolicyTest {
+
+  @Test
+  public void testHedgingDelay() {
+    HedgingPolicy hedgingPolicy = new HedgingPolicy(90, 100, 5L);
+
+    // Not enough samples
+    for (int i = 0; i < 99; i++) {
+      hedgingPolicy.recordLatency(i);
+    }
+    assertEquals(hedgingPolicy.getHedgingDelayMs(), -1L);
+
+    // 90th percentile of [0, 99]
+    hedgingPolicy.recordLatency(99L);
+    assertEquals(hedgingPolicy.getHedgingDelayMs(), 89L);
+
+    // The hedging delay is only recomputed every 100 samples
+    for (int i = 0; i < 99; i++) {
+      hedgingPolicy.recordLatency(1000L);
+    }
+    assertEquals(hedgingPolicy.getHedgingDelayMs(), 89L);
+    hedgingPolicy.recordLatency(1000L);
+    assertEquals(hedgingPolicy.getHedgingDelayMs(), 1000L);
+
+    // Minimum hedging delay
+    hedgingPolicy = new HedgingPolicy(90, 100, 5L);
+    for (int i = 0; i < 100; i++) {
+      hedgingPolicy.recordLatency(1L);
+    }
+    assertEquals(hedgingPolicy.getHedgingDelayMs(), 5L);
+  }
+
+  @Test
+  public void testBudget() {
+    // Each request deposits 0.25 token
+    HedgingPolicy hedgingPolicy = new HedgingPolicy(90, 25, 0L);
+    assertFalse(hedgingPolicy.tryAcquireHedge());
+    for (int i = 0; i < 3; i++) {
+      hedgingPolicy.recordRequest();
+      assertFalse(hedgingPolicy.tryAcquireHedge());
+    }
+    hedgingPolicy.recordRequest();
+    assertTrue(hedgingPolicy.tryAcquireHedge());
+    // Budget exhausted
+    assertFalse(hedgingPolicy.tryAcquireHedge());
+
+    // Released token can be acquired again
+    hedgingPolicy.releaseHedge();
+    assertTrue(hedgingPolicy.tryAcquireHedge());
+    assertFalse(hedgingPolicy.tryAcquireHedge());
+
+    // Budget is capped
+    for (int i = 0; i < 1000; i++) {
+      hedgingPolicy.recordRequest();
+    }
+    for (int i = 0; i < 10; i++) {
+      assertTrue(hedgingPolicy.tryAcquireHedge());
+    }
+    assertFalse(hedgingPolicy.tryAcquireHedge());
+  }
+}
@@ -0,0 +1,66 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.transport;
+
+import java.util.Arrays;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.request.InstanceRequest;
+import org.apache.pinot.pql.parsers.Pql2Compiler;
+import org.apache.thrift.TDeserializer;
+import org.apache.thrift.TSerializer;
+import org.apache.thrift.protocol.TCompactProtocol;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+
+
+public class InstanceRequestSerializerTest {
+  private static final Pql2Compiler COMPILER = new Pql2Compiler();
+
+  @Test
+  public void testSerialize()
+      throws Exception {
+    BrokerRequest brokerRequest =
+        COMPILER.compileToBrokerRequest("SELECT COUNT(*) FROM testTable WHERE a = 1 AND b > 2 GROUP BY c TOP 10");
+    InstanceRequestSerializer serializer = InstanceRequestSerializer.get();
+    byte[] serializedQuery = serializer.serializeQuery(brokerRequest);
+
+    for (boolean enableTrace : new boolean[]{false, true}) {
+      for (String brokerId : new String[]{null, "Broker_localhost"}) {
+        for (int numSegments = 0; numSegments < 3; numSegments++) {
+          InstanceRequest instanceRequest = new InstanceRequest();
+          instanceRequest.setRequestId(123L);
+          instanceRequest.setQuery(brokerRequest);
+          instanceRequest.setSearchSegments(Arrays.asList("segment0", "segment1").subList(0, numSegments));
+          instanceRequest.setEnableTrace(enableTrace);
+          instanceRequest.setBrokerId(brokerId);
+
+          byte[] expected = new TSerializer(new TCompactProtocol.Factory()).serialize(instanceRequest);
+          byte[] actual =
+              serializer.serialize(123L, serializedQuery, instanceRequest.getSearchSegments(), enableTrace, brokerId);
+          assertEquals(actual, expected);
+
+          InstanceRequest deserialized = new InstanceRequest();
+          new TDeserializer(new TCompactProtocol.Factory()).deserialize(deserialized, actual);
+          assertEquals(deserialized, instanceRequest);
+        }
+      }
+    }
+  }
+}
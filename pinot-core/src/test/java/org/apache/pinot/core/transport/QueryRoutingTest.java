@@ -19,25 +19,41 @@
 package org.apache.pinot.core.transport;
 
 import com.google.common.util.concurrent.Futures;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.util.ReferenceCountUtil;
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.metrics.BrokerMetrics;
 import org.apache.pinot.common.metrics.ServerMetrics;
 import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.request.InstanceRequest;
 import org.apache.pinot.common.utils.CommonConstants.Helix.TableType;
 import org.apache.pinot.common.utils.DataTable;
 import org.apache.pinot.core.common.datatable.DataTableImplV2;
 import org.apache.pinot.core.query.scheduler.QueryScheduler;
 import org.apache.pinot.pql.parsers.Pql2Compiler;
+import org.apache.thrift.TSerializer;
+import org.apache.thrift.protocol.TCompactProtocol;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
@@ -54,6 +70,8 @@ public class QueryRoutingTest {
       new Pql2Compiler().compileToBrokerRequest("SELECT * FROM testTable");
   private static final Map<ServerInstance, List<String>> ROUTING_TABLE =
       Collections.singletonMap(SERVER_INSTANCE, Collections.emptyList());
+  private static final Map<ServerInstance, List<String>> HEDGED_ROUTING_TABLE =
+      Collections.singletonMap(SERVER_INSTANCE, Collections.singletonList("testSegment"));
 
   private QueryRouter _queryRouter;
 
@@ -249,6 +267,317 @@ public class QueryRoutingTest {
     assertTrue(System.currentTimeMillis() - startTimeMs < 1000);
   }
 
+  @Test
+  public void testNativeTransport()
+      throws Exception {
+    long requestId = 123;
+    DataTable dataTable = new DataTableImplV2();
+    dataTable.getMetadata().put(DataTable.REQUEST_ID_METADATA_KEY, Long.toString(requestId));
+    byte[] responseBytes = dataTable.toBytes();
+
+    // Native transport falls back to NIO if not available
+    NettyTransportConfig transportConfig = new NettyTransportConfig(true, true, null);
+    QueryServer queryServer = new QueryServer(TEST_PORT, mockQueryScheduler(0, responseBytes),
+        mock(ServerMetrics.class), transportConfig);
+    Thread thread = new Thread(queryServer);
+    thread.start();
+    while (queryServer.isNotReady()) {
+      Thread.sleep(100L);
+    }
+
+    QueryRouter queryRouter = new QueryRouter("testBroker", mock(BrokerMetrics.class), 2, transportConfig);
+    try {
+      AsyncQueryResponse asyncQueryResponse =
+          queryRouter.submitQuery(requestId, "testTable", BROKER_REQUEST, ROUTING_TABLE, null, null, 1_000L);
+      Map<ServerRoutingInstance, ServerResponse> response = asyncQueryResponse.getResponse();
+      assertEquals(response.size(), 1);
+      ServerResponse serverResponse = response.get(OFFLINE_SERVER_ROUTING_INSTANCE);
+      assertNotNull(serverResponse.getDataTable());
+      assertEquals(serverResponse.getResponseSize(), responseBytes.length);
+    } finally {
+      queryRouter.shutDown();
+    }
+
+    // Shut down the server
+    queryServer.shutDown();
+    thread.join();
+  }
+
+  @Test
+  public void testMultipleChannelsPerServer()
+      throws Exception {
+    long requestId = 123;
+    DataTable dataTable = new DataTableImplV2();
+    dataTable.getMetadata().put(DataTable.REQUEST_ID_METADATA_KEY, Long.toString(requestId));
+    byte[] responseBytes = dataTable.toBytes();
+
+    // Start the server
+    QueryServer queryServer = getQueryServer(0, responseBytes);
+    Thread thread = new Thread(queryServer);
+    thread.start();
+    while (queryServer.isNotReady()) {
+      Thread.sleep(100L);
+    }
+
+    QueryRouter queryRouter =
+        new QueryRouter("testBroker", mock(BrokerMetrics.class), 4, NettyTransportConfig.DEFAULT);
+    try {
+      // Queries should be spread over the channels and all get responded
+      for (int i = 0; i < 10; i++) {
+        AsyncQueryResponse asyncQueryResponse =
+            queryRouter.submitQuery(requestId, "testTable", BROKER_REQUEST, ROUTING_TABLE, null, null, 1_000L);
+        Map<ServerRoutingInstance, ServerResponse> response = asyncQueryResponse.getResponse();
+        assertEquals(response.size(), 1);
+        ServerResponse serverResponse = response.get(OFFLINE_SERVER_ROUTING_INSTANCE);
+        assertNotNull(serverResponse.getDataTable());
+        assertEquals(serverResponse.getResponseSize(), responseBytes.length);
+      }
+      // Without pending requests, the channels are picked in a round-robin fashion, so all of them get connected
+      ServerChannels serverChannels = queryRouter.getServerChannels();
+      assertEquals(serverChannels.getConnectedChannels(OFFLINE_SERVER_ROUTING_INSTANCE).size(), 4);
+      assertEquals(serverChannels.getNumPendingRequests(OFFLINE_SERVER_ROUTING_INSTANCE), 0);
+    } finally {
+      queryRouter.shutDown();
+    }
+
+    // Shut down the server
+    queryServer.shutDown();
+    thread.join();
+  }
+
+  @Test
+  public void testRequestWriteFailure()
+      throws Exception {
+    long requestId = 123;
+    DataTable dataTable = new DataTableImplV2();
+    dataTable.getMetadata().put(DataTable.REQUEST_ID_METADATA_KEY, Long.toString(requestId));
+    byte[] responseBytes = dataTable.toBytes();
+
+    // Start the server
+    QueryServer queryServer = getQueryServer(0, responseBytes);
+    Thread thread = new Thread(queryServer);
+    thread.start();
+    while (queryServer.isNotReady()) {
+      Thread.sleep(100L);
+    }
+
+    QueryRouter queryRouter = mock(QueryRouter.class);
+    ServerChannels serverChannels = new ServerChannels(queryRouter, mock(BrokerMetrics.class));
+    try {
+      InstanceRequest instanceRequest = new InstanceRequest();
+      instanceRequest.setRequestId(requestId);
+      instanceRequest.setQuery(BROKER_REQUEST);
+      byte[] requestBytes = new TSerializer(new TCompactProtocol.Factory()).serialize(instanceRequest);
+
+      // Connect the channel with a successful request
+      serverChannels.sendRequest(OFFLINE_SERVER_ROUTING_INSTANCE, requestId, requestBytes);
+      verify(queryRouter, timeout(5_000L))
+          .receiveDataTable(eq(OFFLINE_SERVER_ROUTING_INSTANCE), any(), anyInt(), anyInt());
+
+      // Fail all the writes on the channel
+      List<Channel> channels = serverChannels.getConnectedChannels(OFFLINE_SERVER_ROUTING_INSTANCE);
+      assertEquals(channels.size(), 1);
+      channels.get(0).pipeline().addFirst(new ChannelOutboundHandlerAdapter() {
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+          ReferenceCountUtil.release(msg);
+          promise.setFailure(new IOException("Failed to write"));
+        }
+      });
+      serverChannels.sendRequest(OFFLINE_SERVER_ROUTING_INSTANCE, requestId + 1, requestBytes);
+      verify(queryRouter, timeout(5_000L)).markRequestFailed(requestId + 1, OFFLINE_SERVER_ROUTING_INSTANCE);
+      assertEquals(serverChannels.getNumPendingRequests(OFFLINE_SERVER_ROUTING_INSTANCE), 0);
+    } finally {
+      serverChannels.shutDown();
+    }
+
+    // Shut down the server
+    queryServer.shutDown();
+    thread.join();
+  }
+
+  @Test
+  public void testHedgedRequest()
+      throws Exception {
+    long requestId = 123;
+    DataTable dataTable = new DataTableImplV2();
+    dataTable.getMetadata().put(DataTable.REQUEST_ID_METADATA_KEY, Long.toString(requestId));
+    byte[] responseBytes = dataTable.toBytes();
+
+    // Start a slow server and a fast server hosting the same segment
+    QueryServer slowQueryServer = getQueryServer(2_000, responseBytes);
+    Thread slowThread = new Thread(slowQueryServer);
+    slowThread.start();
+    ServerInstance fastServerInstance = new ServerInstance("localhost", TEST_PORT + 1);
+    QueryServer fastQueryServer =
+        new QueryServer(TEST_PORT + 1, mockQueryScheduler(0, responseBytes), mock(ServerMetrics.class));
+    Thread fastThread = new Thread(fastQueryServer);
+    fastThread.start();
+    while (slowQueryServer.isNotReady() || fastQueryServer.isNotReady()) {
+      Thread.sleep(100L);
+    }
+
+    // Hedge after 100ms with no budget limit
+    HedgingPolicy hedgingPolicy = new HedgingPolicy(95, 100, 0L);
+    for (int i = 0; i < 100; i++) {
+      hedgingPolicy.recordLatency(100L);
+    }
+    hedgingPolicy.setSegmentToServersMap(
+        Collections.singletonMap("testSegment", Arrays.asList(SERVER_INSTANCE, fastServerInstance)));
+    Map<ServerInstance, List<String>> routingTable =
+        Collections.singletonMap(SERVER_INSTANCE, Collections.singletonList("testSegment"));
+
+    long startTimeMs = System.currentTimeMillis();
+    AsyncQueryResponse asyncQueryResponse = _queryRouter
+        .submitQuery(requestId, "testTable", BROKER_REQUEST, routingTable, null, null, 5_000L, hedgingPolicy, null);
+    Map<ServerRoutingInstance, ServerResponse> response = asyncQueryResponse.getResponse();
+    assertEquals(response.size(), 1);
+    ServerRoutingInstance fastServerRoutingInstance = fastServerInstance.toServerRoutingInstance(TableType.OFFLINE);
+    assertTrue(response.containsKey(fastServerRoutingInstance));
+    assertNotNull(response.get(fastServerRoutingInstance).getDataTable());
+    assertEquals(asyncQueryResponse.getNumHedgedRequestWins(), 1);
+    // Query should not wait for the slow server
+    assertTrue(System.currentTimeMillis() - startTimeMs < 2_000);
+
+    // Shut down the servers
+    slowQueryServer.shutDown();
+    slowThread.join();
+    fastQueryServer.shutDown();
+    fastThread.join();
+  }
+
+  @Test
+  public void testHedgedRequestOriginalWins()
+      throws Exception {
+    long requestId = 123;
+    DataTable dataTable = new DataTableImplV2();
+    dataTable.getMetadata().put(DataTable.REQUEST_ID_METADATA_KEY, Long.toString(requestId));
+    byte[] responseBytes = dataTable.toBytes();
+
+    // The original server responds before the alternate
+    QueryServer queryServer = getQueryServer(500, responseBytes);
+    Thread thread = new Thread(queryServer);
+    thread.start();
+    ServerInstance alternateServerInstance = new ServerInstance("localhost", TEST_PORT + 2);
+    QueryServer alternateQueryServer =
+        new QueryServer(TEST_PORT + 2, mockQueryScheduler(2_000, responseBytes), mock(ServerMetrics.class));
+    Thread alternateThread = new Thread(alternateQueryServer);
+    alternateThread.start();
+    while (queryServer.isNotReady() || alternateQueryServer.isNotReady()) {
+      Thread.sleep(100L);
+    }
+
+    HedgingPolicy hedgingPolicy = getHedgingPolicy(100, alternateServerInstance);
+    AsyncQueryResponse asyncQueryResponse = _queryRouter
+        .submitQuery(requestId, "testTable", BROKER_REQUEST, HEDGED_ROUTING_TABLE, null, null, 5_000L, hedgingPolicy,
+            null);
+    Map<ServerRoutingInstance, ServerResponse> response = asyncQueryResponse.getResponse();
+    assertEquals(response.size(), 1);
+    assertNotNull(response.get(OFFLINE_SERVER_ROUTING_INSTANCE).getDataTable());
+    assertEquals(asyncQueryResponse.getNumHedgedRequestWins(), 0);
+    // The hedged request is sent, but the alternate losing the race should not be penalized
+    assertTrue(asyncQueryResponse.getStats().contains("(hedged)"));
+    ServerStatsTracker serverStatsTracker = _queryRouter.getServerStatsTracker();
+    assertEquals(serverStatsTracker.getScore(alternateServerInstance),
+        serverStatsTracker.getScore(new ServerInstance("localhost", TEST_PORT + 100)));
+
+    // Shut down the servers
+    queryServer.shutDown();
+    thread.join();
+    alternateQueryServer.shutDown();
+    alternateThread.join();
+  }
+
+  @Test
+  public void testHedgedRequestAlternateException()
+      throws Exception {
+    long requestId = 123;
+    DataTable dataTable = new DataTableImplV2();
+    dataTable.getMetadata().put(DataTable.REQUEST_ID_METADATA_KEY, Long.toString(requestId));
+    byte[] responseBytes = dataTable.toBytes();
+    DataTable exceptionDataTable = new DataTableImplV2();
+    exceptionDataTable.getMetadata().put(DataTable.REQUEST_ID_METADATA_KEY, Long.toString(requestId));
+    exceptionDataTable.addException(QueryException.getException(QueryException.QUERY_EXECUTION_ERROR, "test"));
+
+    // The alternate responds with exception right away
+    QueryServer queryServer = getQueryServer(500, responseBytes);
+    Thread thread = new Thread(queryServer);
+    thread.start();
+    ServerInstance alternateServerInstance = new ServerInstance("localhost", TEST_PORT + 3);
+    QueryServer alternateQueryServer =
+        new QueryServer(TEST_PORT + 3, mockQueryScheduler(0, exceptionDataTable.toBytes()), mock(ServerMetrics.class));
+    Thread alternateThread = new Thread(alternateQueryServer);
+    alternateThread.start();
+    while (queryServer.isNotReady() || alternateQueryServer.isNotReady()) {
+      Thread.sleep(100L);
+    }
+
+    HedgingPolicy hedgingPolicy = getHedgingPolicy(100, alternateServerInstance);
+    long startTimeMs = System.currentTimeMillis();
+    AsyncQueryResponse asyncQueryResponse = _queryRouter
+        .submitQuery(requestId, "testTable", BROKER_REQUEST, HEDGED_ROUTING_TABLE, null, null, 5_000L, hedgingPolicy,
+            null);
+    Map<ServerRoutingInstance, ServerResponse> response = asyncQueryResponse.getResponse();
+    // The query should wait for the original server instead of returning the exception from the alternate
+    assertEquals(response.size(), 1);
+    DataTable responseDataTable = response.get(OFFLINE_SERVER_ROUTING_INSTANCE).getDataTable();
+    assertNotNull(responseDataTable);
+    assertTrue(responseDataTable.getMetadata().keySet().stream()
+        .noneMatch(key -> key.startsWith(DataTable.EXCEPTION_METADATA_KEY)));
+    assertEquals(asyncQueryResponse.getNumHedgedRequestWins(), 0);
+    assertTrue(asyncQueryResponse.getStats().contains("(hedged)"));
+    assertTrue(System.currentTimeMillis() - startTimeMs >= 500);
+
+    // Shut down the servers
+    queryServer.shutDown();
+    thread.join();
+    alternateQueryServer.shutDown();
+    alternateThread.join();
+  }
+
+  @Test
+  public void testHedgedRequestBudgetExhausted()
+      throws Exception {
+    long requestId = 123;
+    DataTable dataTable = new DataTableImplV2();
+    dataTable.getMetadata().put(DataTable.REQUEST_ID_METADATA_KEY, Long.toString(requestId));
+    byte[] responseBytes = dataTable.toBytes();
+
+    QueryServer queryServer = getQueryServer(500, responseBytes);
+    Thread thread = new Thread(queryServer);
+    thread.start();
+    while (queryServer.isNotReady()) {
+      Thread.sleep(100L);
+    }
+
+    // Each query deposits half a token into the budget, so only every other query can be hedged. The alternate is not
+    // started, so a hedged request would fail to be sent but still show up in the stats.
+    ServerInstance alternateServerInstance = new ServerInstance("localhost", TEST_PORT + 4);
+    HedgingPolicy hedgingPolicy = getHedgingPolicy(50, alternateServerInstance);
+    AsyncQueryResponse asyncQueryResponse = _queryRouter
+        .submitQuery(requestId, "testTable", BROKER_REQUEST, HEDGED_ROUTING_TABLE, null, null, 5_000L, hedgingPolicy,
+            null);
+    Map<ServerRoutingInstance, ServerResponse> response = asyncQueryResponse.getResponse();
+    assertEquals(response.size(), 1);
+    assertNotNull(response.get(OFFLINE_SERVER_ROUTING_INSTANCE).getDataTable());
+    assertFalse(asyncQueryResponse.getStats().contains("(hedged)"));
+
+    // Shut down the server
+    queryServer.shutDown();
+    thread.join();
+  }
+
+  private static HedgingPolicy getHedgingPolicy(double budgetPercent, ServerInstance alternateServerInstance) {
+    // Hedge after 100ms
+    HedgingPolicy hedgingPolicy = new HedgingPolicy(95, budgetPercent, 0L);
+    for (int i = 0; i < 100; i++) {
+      hedgingPolicy.recordLatency(100L);
+    }
+    hedgingPolicy.setSegmentToServersMap(
+        Collections.singletonMap("testSegment", Arrays.asList(SERVER_INSTANCE, alternateServerInstance)));
+    return hedgingPolicy;
+  }
+
   @AfterClass
   public void tearDown() {
     _queryRouter.shutDown();
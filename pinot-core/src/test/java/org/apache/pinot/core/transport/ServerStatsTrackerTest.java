@@ -0,0 +1,140 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.transport;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.pinot.common.utils.CommonConstants.Helix.TableType;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+
+public class ServerStatsTrackerTest {
+  private static final ServerInstance SERVER_INSTANCE_1 = new ServerInstance("localhost", 12345);
+  private static final ServerInstance SERVER_INSTANCE_2 = new ServerInstance("localhost", 12346);
+  private static final ServerRoutingInstance SERVER_ROUTING_INSTANCE_1 =
+      SERVER_INSTANCE_1.toServerRoutingInstance(TableType.OFFLINE);
+  private static final ServerRoutingInstance SERVER_ROUTING_INSTANCE_2 =
+      SERVER_INSTANCE_2.toServerRoutingInstance(TableType.OFFLINE);
+  private static final int NUM_SEGMENTS = 100;
+  private static final long TIMEOUT_MS = 10_000L;
+
+  @Test
+  public void testScore() {
+    ServerStatsTracker serverStatsTracker = new ServerStatsTracker();
+
+    // Servers without any sample should have the same score
+    assertEquals(serverStatsTracker.getScore(SERVER_INSTANCE_1), serverStatsTracker.getScore(SERVER_INSTANCE_2));
+
+    // Slower server should have higher score
+    recordResponse(serverStatsTracker, SERVER_ROUTING_INSTANCE_1, 10L);
+    recordResponse(serverStatsTracker, SERVER_ROUTING_INSTANCE_2, 100L);
+    double score1 = serverStatsTracker.getScore(SERVER_INSTANCE_1);
+    double score2 = serverStatsTracker.getScore(SERVER_INSTANCE_2);
+    assertTrue(score1 < score2);
+
+    // In-flight requests should increase the score
+    serverStatsTracker.recordRequestSubmitted(SERVER_ROUTING_INSTANCE_1);
+    assertTrue(serverStatsTracker.getScore(SERVER_INSTANCE_1) > score1);
+    serverStatsTracker.recordResponse(SERVER_ROUTING_INSTANCE_1, 10L, 10L);
+    assertEquals(serverStatsTracker.getScore(SERVER_INSTANCE_1), score1);
+
+    // Errors should increase the score
+    serverStatsTracker.recordRequestSubmitted(SERVER_ROUTING_INSTANCE_1);
+    serverStatsTracker.recordFailure(SERVER_ROUTING_INSTANCE_1, TIMEOUT_MS);
+    assertTrue(serverStatsTracker.getScore(SERVER_INSTANCE_1) > score1);
+
+    // Server stats should be shared across table types
+    recordResponse(serverStatsTracker, SERVER_INSTANCE_2.toServerRoutingInstance(TableType.REALTIME), 100L);
+    assertEquals(serverStatsTracker.getScore(SERVER_INSTANCE_2), score2);
+  }
+
+  @Test
+  public void testFastFailingServer() {
+    ServerStatsTracker serverStatsTracker = new ServerStatsTracker();
+
+    // Server 1 fails right away on every request, server 2 is slower but healthy
+    for (int i = 0; i < 10; i++) {
+      serverStatsTracker.recordRequestSubmitted(SERVER_ROUTING_INSTANCE_1);
+      serverStatsTracker.recordFailure(SERVER_ROUTING_INSTANCE_1, TIMEOUT_MS);
+      recordResponse(serverStatsTracker, SERVER_ROUTING_INSTANCE_2, 100L);
+    }
+    assertTrue(serverStatsTracker.getScore(SERVER_INSTANCE_1) > serverStatsTracker.getScore(SERVER_INSTANCE_2));
+
+    // A failure after fast responses should rank the server behind the slower healthy server
+    serverStatsTracker = new ServerStatsTracker();
+    for (int i = 0; i < 10; i++) {
+      recordResponse(serverStatsTracker, SERVER_ROUTING_INSTANCE_1, 10L);
+      recordResponse(serverStatsTracker, SERVER_ROUTING_INSTANCE_2, 100L);
+    }
+    serverStatsTracker.recordRequestSubmitted(SERVER_ROUTING_INSTANCE_1);
+    serverStatsTracker.recordFailure(SERVER_ROUTING_INSTANCE_1, TIMEOUT_MS);
+    assertTrue(serverStatsTracker.getScore(SERVER_INSTANCE_1) > serverStatsTracker.getScore(SERVER_INSTANCE_2));
+
+    // Segments should be routed away from the failing server
+    Map<String, List<ServerInstance>> segmentToServersMap = new HashMap<>();
+    for (int i = 0; i < NUM_SEGMENTS; i++) {
+      segmentToServersMap.put("segment_" + i, Arrays.asList(SERVER_INSTANCE_1, SERVER_INSTANCE_2));
+    }
+    Map<ServerInstance, List<String>> routingTable =
+        serverStatsTracker.computeRoutingTable(segmentToServersMap, segmentToServersMap.keySet());
+    assertTrue(routingTable.get(SERVER_INSTANCE_2).size() > NUM_SEGMENTS / 2);
+  }
+
+  @Test
+  public void testComputeRoutingTable() {
+    ServerStatsTracker serverStatsTracker = new ServerStatsTracker();
+    Map<String, List<ServerInstance>> segmentToServersMap = new HashMap<>();
+    for (int i = 0; i < NUM_SEGMENTS; i++) {
+      segmentToServersMap.put("segment_" + i, Arrays.asList(SERVER_INSTANCE_1, SERVER_INSTANCE_2));
+    }
+
+    // Without any sample, segments should be evenly distributed
+    Map<ServerInstance, List<String>> routingTable =
+        serverStatsTracker.computeRoutingTable(segmentToServersMap, segmentToServersMap.keySet());
+    assertEquals(routingTable.get(SERVER_INSTANCE_1).size(), NUM_SEGMENTS / 2);
+    assertEquals(routingTable.get(SERVER_INSTANCE_2).size(), NUM_SEGMENTS / 2);
+
+    // Slower server should get fewer segments, but still get some segments to refresh its stats
+    recordResponse(serverStatsTracker, SERVER_ROUTING_INSTANCE_1, 10L);
+    recordResponse(serverStatsTracker, SERVER_ROUTING_INSTANCE_2, 100L);
+    routingTable = serverStatsTracker.computeRoutingTable(segmentToServersMap, segmentToServersMap.keySet());
+    int numSegments1 = routingTable.get(SERVER_INSTANCE_1).size();
+    int numSegments2 = routingTable.get(SERVER_INSTANCE_2).size();
+    assertEquals(numSegments1 + numSegments2, NUM_SEGMENTS);
+    assertTrue(numSegments1 > numSegments2);
+    assertTrue(numSegments2 > 0);
+
+    // Only the queried segments should be routed
+    routingTable = serverStatsTracker.computeRoutingTable(segmentToServersMap, Collections.singleton("segment_0"));
+    assertEquals(routingTable.size(), 1);
+    assertEquals(routingTable.get(SERVER_INSTANCE_1), Collections.singletonList("segment_0"));
+  }
+
+  private static void recordResponse(ServerStatsTracker serverStatsTracker,
+      ServerRoutingInstance serverRoutingInstance, long latencyMs) {
+    serverStatsTracker.recordRequestSubmitted(serverRoutingInstance);
+    serverStatsTracker.recordResponse(serverRoutingInstance, latencyMs, latencyMs);
+  }
+}
@@ -24,7 +24,9 @@ import java.lang.reflect.Constructor;
 import java.util.Random;
 import org.apache.pinot.core.io.reader.ReaderContext;
 import org.apache.pinot.core.io.reader.SingleColumnMultiValueReader;
+import org.apache.pinot.core.io.reader.impl.v1.FixedBitMultiValueReader;
 import org.apache.pinot.core.io.writer.SingleColumnMultiValueWriter;
+import org.apache.pinot.core.io.writer.impl.v1.FixedBitMultiValueWriter;
 import org.apache.pinot.core.segment.memory.PinotDataBuffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -198,4 +200,56 @@ public class FixedBitMultiValueTest {
     }
     LOGGER.info("DONE: Testing for writerClazz:{} readerClass:{}", writerClazz.getName(), readerClazz.getName());
   }
+
+  @Test
+  public void testBatchRead()
+      throws Exception {
+    File f = new File(getClass().getName() + "_test_batch_read_mv_fixed_bit.dat");
+    f.delete();
+    int numDocs = 5000;
+    int maxNumValues = 10;
+    int numBits = 10;
+    int[][] data = new int[numDocs][];
+    Random r = new Random();
+    int totalNumValues = 0;
+    for (int i = 0; i < numDocs; i++) {
+      int numValues = r.nextInt(maxNumValues) + 1;
+      data[i] = new int[numValues];
+      for (int j = 0; j < numValues; j++) {
+        data[i][j] = r.nextInt(1 << numBits);
+      }
+      totalNumValues += numValues;
+    }
+    try (FixedBitMultiValueWriter writer = new FixedBitMultiValueWriter(f, numDocs, totalNumValues, numBits)) {
+      for (int i = 0; i < numDocs; i++) {
+        writer.setIntArray(i, data[i]);
+      }
+    }
+
+    int numDocsPerBatch = 100;
+    int[] values = new int[numDocsPerBatch * maxNumValues];
+    int[] valueEndOffsets = new int[numDocsPerBatch];
+    try (FixedBitMultiValueReader reader = new FixedBitMultiValueReader(PinotDataBuffer.mapReadOnlyBigEndianFile(f),
+        numDocs, totalNumValues, numBits)) {
+      FixedBitMultiValueReader.Context context = reader.createContext();
+      // Read batches with random gaps in between to test both sequential and non-sequential access
+      int startDocId = 0;
+      while (startDocId < numDocs) {
+        int numDocsInBatch = Math.min(r.nextInt(numDocsPerBatch) + 1, numDocs - startDocId);
+        int numValuesRead = reader.getIntArrays(startDocId, numDocsInBatch, values, valueEndOffsets, context);
+        int valueStartOffset = 0;
+        for (int i = 0; i < numDocsInBatch; i++) {
+          int[] expected = data[startDocId + i];
+          Assert.assertEquals(valueEndOffsets[i] - valueStartOffset, expected.length);
+          for (int j = 0; j < expected.length; j++) {
+            Assert.assertEquals(values[valueStartOffset + j], expected[j]);
+          }
+          valueStartOffset = valueEndOffsets[i];
+        }
+        Assert.assertEquals(numValuesRead, valueStartOffset);
+        startDocId += numDocsInBatch + (r.nextBoolean() ? 0 : r.nextInt(numDocsPerBatch));
+      }
+    }
+    f.delete();
+  }
 }
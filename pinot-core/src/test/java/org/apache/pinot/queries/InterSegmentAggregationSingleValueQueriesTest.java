@@ -24,6 +24,7 @@ import org.apache.pinot.common.response.broker.BrokerResponseNative;
 import org.apache.pinot.common.response.broker.SelectionResults;
 import org.apache.pinot.common.utils.BytesUtils;
 import org.apache.pinot.core.plan.maker.InstancePlanMakerImplV2;
+import org.apache.pinot.core.plan.maker.PlanMaker;
 import org.apache.pinot.core.startree.hll.HllUtil;
 import org.apache.pinot.pql.parsers.Pql2Compiler;
 import org.testng.Assert;
@@ -450,4 +451,39 @@ public class InterSegmentAggregationSingleValueQueriesTest extends BaseSingleVal
     Assert.assertEquals(selectionResults.getColumns().get(1), "column3");
     Assert.assertEquals(selectionResults.getRows().size(), 21968);
   }
+
+  @Test
+  public void testCostBasedFilterReorder() {
+    String query = "SELECT COUNT(*), SUM(column1) FROM testTable";
+    // The scan based filter on column3 is much more selective than the bitmap based filter on column11, so it is
+    // applied first with cost based reordering
+    String filter = " WHERE column11 <> 'gFuH' AND column3 BETWEEN 20000000 AND 60000000";
+    String[] expectedResults = new String[]{"2032", "2114299197724.00000"};
+    BrokerResponseNative brokerResponse = getBrokerResponseForQuery(query + filter);
+    assertAggregationResults(brokerResponse, 2032L, expectedResults);
+    BrokerResponseNative brokerResponseWithQueryFilter = getBrokerResponseForQueryWithFilter(query);
+    assertAggregationResults(brokerResponseWithQueryFilter, 24516L, new String[]{"24516", "27503790384288.00000"});
+
+    PlanMaker costBasedPlanMaker =
+        new InstancePlanMakerImplV2(InstancePlanMakerImplV2.DEFAULT_MAX_INITIAL_RESULT_HOLDER_CAPACITY,
+            InstancePlanMakerImplV2.DEFAULT_NUM_GROUPS_LIMIT, true);
+    assertAggregationResults(getBrokerResponseForQuery(query + filter, costBasedPlanMaker), 2032L, expectedResults);
+
+    // The scan based filter on column3 is applied before the one on column1 because it is more selective
+    BrokerResponseNative costBasedBrokerResponse =
+        getBrokerResponseForQuery(query + getFilter(), costBasedPlanMaker);
+    assertAggregationResults(costBasedBrokerResponse, 24516L, new String[]{"24516", "27503790384288.00000"});
+    assertTrue(costBasedBrokerResponse.getNumEntriesScannedInFilter() < brokerResponseWithQueryFilter
+        .getNumEntriesScannedInFilter());
+  }
+
+  private static void assertAggregationResults(BrokerResponseNative brokerResponse, long expectedNumDocsScanned,
+      String[] expectedAggregationResults) {
+    Assert.assertEquals(brokerResponse.getNumDocsScanned(), expectedNumDocsScanned);
+    Assert.assertEquals(brokerResponse.getAggregationResults().size(), expectedAggregationResults.length);
+    for (int i = 0; i < expectedAggregationResults.length; i++) {
+      Assert.assertEquals(brokerResponse.getAggregationResults().get(i).getValue().toString(),
+          expectedAggregationResults[i]);
+    }
+  }
 }
@@ -0,0 +1,255 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.queries;
+
+import it.unimi.dsi.fastutil.doubles.DoubleList;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.data.DimensionFieldSpec;
+import org.apache.pinot.common.data.FieldSpec;
+import org.apache.pinot.common.data.MetricFieldSpec;
+import org.apache.pinot.common.data.Schema;
+import org.apache.pinot.common.response.broker.AggregationResult;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.common.response.broker.GroupByResult;
+import org.apache.pinot.common.segment.ReadMode;
+import org.apache.pinot.core.common.ObjectSerDeUtils;
+import org.apache.pinot.core.data.GenericRow;
+import org.apache.pinot.core.data.manager.SegmentDataManager;
+import org.apache.pinot.core.data.manager.offline.ImmutableSegmentDataManager;
+import org.apache.pinot.core.data.readers.GenericRowRecordReader;
+import org.apache.pinot.core.data.readers.RecordReader;
+import org.apache.pinot.core.indexsegment.IndexSegment;
+import org.apache.pinot.core.indexsegment.generator.SegmentGeneratorConfig;
+import org.apache.pinot.core.indexsegment.immutable.ImmutableSegment;
+import org.apache.pinot.core.indexsegment.immutable.ImmutableSegmentLoader;
+import org.apache.pinot.core.operator.blocks.IntermediateResultsBlock;
+import org.apache.pinot.core.operator.query.AggregationGroupByOperator;
+import org.apache.pinot.core.operator.query.AggregationOperator;
+import org.apache.pinot.core.query.aggregation.function.customobject.DDSketch;
+import org.apache.pinot.core.query.aggregation.groupby.AggregationGroupByResult;
+import org.apache.pinot.core.query.aggregation.groupby.GroupKeyGenerator;
+import org.apache.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+
+/**
+ * Tests for PERCENTILE_DDSKETCH aggregation function.
+ *
+ * <ul>
+ *   <li>Generates a segment with a double column, a DDSketch column and a group-by column</li>
+ *   <li>Runs aggregation and group-by queries on the generated segment</li>
+ *   <li>
+ *     Compares the results for PERCENTILE_DDSKETCH on double column and DDSketch column with results for PERCENTILE on
+ *     double column
+ *   </li>
+ * </ul>
+ */
+public class PercentileDDSketchQueriesTest extends BaseQueriesTest {
+  private static final File INDEX_DIR = new File(FileUtils.getTempDirectory(), "PercentileDDSketchQueriesTest");
+  private static final String TABLE_NAME = "testTable";
+  private static final String SEGMENT_NAME = "testSegment";
+  private static final int NUM_ROWS = 1000;
+  private static final double VALUE_RANGE = Integer.MAX_VALUE;
+  // DDSketch has 1% relative error on the value, also allow the rank of the exact percentile to be off by a few values
+  private static final double RELATIVE_DELTA = 2 * DDSketch.DEFAULT_RELATIVE_ACCURACY;
+  private static final double ABSOLUTE_DELTA = 0.005 * VALUE_RANGE;
+  private static final String DOUBLE_COLUMN = "doubleColumn";
+  private static final String DDSKETCH_COLUMN = "ddSketchColumn";
+  private static final String GROUP_BY_COLUMN = "groupByColumn";
+  private static final String[] GROUPS = new String[]{"G1", "G2", "G3"};
+  private static final long RANDOM_SEED = System.nanoTime();
+  private static final Random RANDOM = new Random(RANDOM_SEED);
+  private static final String ERROR_MESSAGE = "Random seed: " + RANDOM_SEED;
+
+  private ImmutableSegment _indexSegment;
+  private List<SegmentDataManager> _segmentDataManagers;
+
+  @Override
+  protected String getFilter() {
+    return ""; // No filtering required for this test.
+  }
+
+  @Override
+  protected IndexSegment getIndexSegment() {
+    return _indexSegment;
+  }
+
+  @Override
+  protected List<SegmentDataManager> getSegmentDataManagers() {
+    return _segmentDataManagers;
+  }
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(INDEX_DIR);
+
+    List<GenericRow> rows = new ArrayList<>(NUM_ROWS);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      HashMap<String, Object> valueMap = new HashMap<>();
+
+      double value = RANDOM.nextDouble() * VALUE_RANGE;
+      valueMap.put(DOUBLE_COLUMN, value);
+
+      DDSketch ddSketch = new DDSketch();
+      ddSketch.add(value);
+      valueMap.put(DDSKETCH_COLUMN, ObjectSerDeUtils.DDSKETCH_SER_DE.serialize(ddSketch));
+
+      String group = GROUPS[RANDOM.nextInt(GROUPS.length)];
+      valueMap.put(GROUP_BY_COLUMN, group);
+
+      GenericRow genericRow = new GenericRow();
+      genericRow.init(valueMap);
+      rows.add(genericRow);
+    }
+
+    Schema schema = new Schema();
+    schema.addField(new MetricFieldSpec(DOUBLE_COLUMN, FieldSpec.DataType.DOUBLE));
+    schema.addField(new MetricFieldSpec(DDSKETCH_COLUMN, FieldSpec.DataType.BYTES));
+    schema.addField(new DimensionFieldSpec(GROUP_BY_COLUMN, FieldSpec.DataType.STRING, true));
+
+    SegmentGeneratorConfig config = new SegmentGeneratorConfig(schema);
+    config.setOutDir(INDEX_DIR.getPath());
+    config.setTableName(TABLE_NAME);
+    config.setSegmentName(SEGMENT_NAME);
+    config.setRawIndexCreationColumns(Collections.singletonList(DDSKETCH_COLUMN));
+
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    try (RecordReader recordReader = new GenericRowRecordReader(rows, schema)) {
+      driver.init(config, recordReader);
+      driver.build();
+    }
+
+    _indexSegment = ImmutableSegmentLoader.load(new File(INDEX_DIR, SEGMENT_NAME), ReadMode.mmap);
+    _segmentDataManagers =
+        Arrays.asList(new ImmutableSegmentDataManager(_indexSegment), new ImmutableSegmentDataManager(_indexSegment));
+  }
+
+  @Test
+  public void testInnerSegmentAggregation() {
+    // For inner segment case, percentile does not affect the intermediate result
+    AggregationOperator aggregationOperator = getOperatorForQuery(getAggregationQuery(0));
+    IntermediateResultsBlock resultsBlock = aggregationOperator.nextBlock();
+    List<Object> aggregationResult = resultsBlock.getAggregationResult();
+    Assert.assertNotNull(aggregationResult);
+    Assert.assertEquals(aggregationResult.size(), 3);
+    DoubleList doubleList = (DoubleList) aggregationResult.get(0);
+    Collections.sort(doubleList);
+    assertDDSketch((DDSketch) aggregationResult.get(1), doubleList);
+    assertDDSketch((DDSketch) aggregationResult.get(2), doubleList);
+  }
+
+  @Test
+  public void testInterSegmentAggregation() {
+    for (int percentile = 0; percentile <= 100; percentile++) {
+      BrokerResponseNative brokerResponse = getBrokerResponseForQuery(getAggregationQuery(percentile));
+      List<AggregationResult> aggregationResults = brokerResponse.getAggregationResults();
+      Assert.assertNotNull(aggregationResults);
+      Assert.assertEquals(aggregationResults.size(), 3);
+      double expected = Double.parseDouble((String) aggregationResults.get(0).getValue());
+      double resultForDoubleColumn = Double.parseDouble((String) aggregationResults.get(1).getValue());
+      Assert.assertEquals(resultForDoubleColumn, expected, getDelta(expected), ERROR_MESSAGE);
+      double resultForDDSketchColumn = Double.parseDouble((String) aggregationResults.get(2).getValue());
+      Assert.assertEquals(resultForDDSketchColumn, expected, getDelta(expected), ERROR_MESSAGE);
+    }
+  }
+
+  @Test
+  public void testInnerSegmentGroupBy() {
+    // For inner segment case, percentile does not affect the intermediate result
+    AggregationGroupByOperator groupByOperator = getOperatorForQuery(getGroupByQuery(0));
+    IntermediateResultsBlock resultsBlock = groupByOperator.nextBlock();
+    AggregationGroupByResult groupByResult = resultsBlock.getAggregationGroupByResult();
+    Assert.assertNotNull(groupByResult);
+    Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator = groupByResult.getGroupKeyIterator();
+    while (groupKeyIterator.hasNext()) {
+      GroupKeyGenerator.GroupKey groupKey = groupKeyIterator.next();
+      DoubleList doubleList = (DoubleList) groupByResult.getResultForKey(groupKey, 0);
+      Collections.sort(doubleList);
+      assertDDSketch((DDSketch) groupByResult.getResultForKey(groupKey, 1), doubleList);
+      assertDDSketch((DDSketch) groupByResult.getResultForKey(groupKey, 2), doubleList);
+    }
+  }
+
+  @Test
+  public void testInterSegmentGroupBy() {
+    for (int percentile = 0; percentile <= 100; percentile++) {
+      BrokerResponseNative brokerResponse = getBrokerResponseForQuery(getGroupByQuery(percentile));
+      List<AggregationResult> aggregationResults = brokerResponse.getAggregationResults();
+      Assert.assertNotNull(aggregationResults);
+      Assert.assertEquals(aggregationResults.size(), 3);
+      Map<String, Double> expectedValues = new HashMap<>();
+      for (GroupByResult groupByResult : aggregationResults.get(0).getGroupByResult()) {
+        expectedValues.put(groupByResult.getGroup().get(0), Double.parseDouble((String) groupByResult.getValue()));
+      }
+      for (int i = 1; i < 3; i++) {
+        for (GroupByResult groupByResult : aggregationResults.get(i).getGroupByResult()) {
+          double expected = expectedValues.get(groupByResult.getGroup().get(0));
+          double result = Double.parseDouble((String) groupByResult.getValue());
+          Assert.assertEquals(result, expected, getDelta(expected), ERROR_MESSAGE);
+        }
+      }
+    }
+  }
+
+  private String getAggregationQuery(int percentile) {
+    return String
+        .format("SELECT PERCENTILE%d(%s), PERCENTILEDDSKETCH%d(%s), PERCENTILEDDSKETCH%d(%s) FROM %s", percentile,
+            DOUBLE_COLUMN, percentile, DOUBLE_COLUMN, percentile, DDSKETCH_COLUMN, TABLE_NAME);
+  }
+
+  private String getGroupByQuery(int percentile) {
+    return String.format("%s GROUP BY %s", getAggregationQuery(percentile), GROUP_BY_COLUMN);
+  }
+
+  private void assertDDSketch(DDSketch ddSketch, DoubleList doubleList) {
+    Assert.assertEquals(ddSketch.getCount(), doubleList.size(), ERROR_MESSAGE);
+    for (int percentile = 0; percentile <= 100; percentile++) {
+      double expected;
+      if (percentile == 100) {
+        expected = doubleList.getDouble(doubleList.size() - 1);
+      } else {
+        expected = doubleList.getDouble(doubleList.size() * percentile / 100);
+      }
+      Assert.assertEquals(ddSketch.getQuantile(percentile / 100.0), expected, getDelta(expected), ERROR_MESSAGE);
+    }
+  }
+
+  private static double getDelta(double expected) {
+    return RELATIVE_DELTA * Math.abs(expected) + ABSOLUTE_DELTA;
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _indexSegment.destroy();
+    FileUtils.deleteQuietly(INDEX_DIR);
+  }
+}
@@ -23,15 +23,19 @@ import java.io.File;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAccumulator;
 import org.apache.commons.configuration.PropertiesConfiguration;
 import org.apache.commons.io.FileUtils;
 import org.apache.helix.store.zk.ZkHelixPropertyStore;
+import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.metrics.ServerMetrics;
 import org.apache.pinot.common.request.InstanceRequest;
 import org.apache.pinot.common.segment.ReadMode;
 import org.apache.pinot.common.utils.DataTable;
+import org.apache.pinot.core.common.datatable.DataTableFactory;
 import org.apache.pinot.core.data.manager.InstanceDataManager;
 import org.apache.pinot.core.data.manager.TableDataManager;
 import org.apache.pinot.core.data.manager.config.TableDataManagerConfig;
@@ -43,6 +47,8 @@ import org.apache.pinot.core.indexsegment.immutable.ImmutableSegmentLoader;
 import org.apache.pinot.core.query.executor.QueryExecutor;
 import org.apache.pinot.core.query.executor.ServerQueryExecutorV1Impl;
 import org.apache.pinot.core.query.request.ServerQueryRequest;
+import org.apache.pinot.core.query.scheduler.QueryScheduler;
+import org.apache.pinot.core.query.scheduler.fcfs.FCFSQueryScheduler;
 import org.apache.pinot.core.segment.creator.SegmentIndexCreationDriver;
 import org.apache.pinot.core.segment.creator.impl.SegmentIndexCreationDriverImpl;
 import org.apache.pinot.pql.parsers.Pql2Compiler;
@@ -154,6 +160,37 @@ public class QueryExecutorTest {
     Assert.assertEquals(instanceResponse.getDouble(0, 0), 0.0);
   }
 
+  @Test
+  public void testQueryMemoryLimit()
+      throws Exception {
+    PropertiesConfiguration schedulerConfig = new PropertiesConfiguration();
+    schedulerConfig.setProperty(QueryScheduler.QUERY_MAX_MEMORY_BYTES_KEY, 1_000_000L);
+    QueryScheduler queryScheduler =
+        new FCFSQueryScheduler(schedulerConfig, _queryExecutor, _serverMetrics, new LongAccumulator(Long::max, 0L));
+    queryScheduler.start();
+    try {
+      // Query within the memory budget
+      String query = "SELECT COUNT(*) FROM " + TABLE_NAME;
+      InstanceRequest instanceRequest = new InstanceRequest(0L, COMPILER.compileToBrokerRequest(query));
+      instanceRequest.setSearchSegments(_segmentNames);
+      DataTable instanceResponse =
+          DataTableFactory.getDataTable(queryScheduler.submit(getQueryRequest(instanceRequest)).get());
+      Assert.assertEquals(instanceResponse.getLong(0, 0), 400002L);
+
+      // Group-by on a column with 200001 unique values keeps a value set for each group, which exceeds the budget
+      query = "SELECT DISTINCTCOUNT(met) FROM " + TABLE_NAME + " GROUP BY met TOP 1000000";
+      instanceRequest = new InstanceRequest(1L, COMPILER.compileToBrokerRequest(query));
+      instanceRequest.setSearchSegments(_segmentNames);
+      instanceResponse = DataTableFactory.getDataTable(queryScheduler.submit(getQueryRequest(instanceRequest)).get());
+      Map<String, String> metadata = instanceResponse.getMetadata();
+      Assert.assertTrue(metadata.containsKey(
+          DataTable.EXCEPTION_METADATA_KEY + QueryException.QUERY_MEMORY_LIMIT_EXCEEDED_ERROR_CODE));
+      Assert.assertEquals(instanceResponse.getNumberOfRows(), 0);
+    } finally {
+      queryScheduler.stop();
+    }
+  }
+
   @AfterClass
   public void tearDown() {
     for (IndexSegment segment : _indexSegments) {
@@ -234,6 +234,37 @@ public class SelectionOperatorServiceTest {
     assertTrue(Arrays.deepEquals(resultRows.get(1), expectedFormattedRow2));
   }
 
+  @Test
+  public void testCompatibleRowsReduceToSelectionResultsWithoutOrdering()
+      throws Exception {
+    DataTable dataTable = SelectionOperatorUtils.getDataTableFromRows(Arrays.asList(_row1, _row2), _dataSchema);
+    DataTable emptyDataTable = SelectionOperatorUtils.getDataTableFromRows(Collections.emptyList(), _dataSchema);
+    DataTable compatibleDataTable = SelectionOperatorUtils
+        .getDataTableFromRows(Arrays.asList(_compatibleRow1, _compatibleRow2), _compatibleDataSchema);
+    List<DataTable> dataTables = Arrays.asList(emptyDataTable, dataTable, emptyDataTable, compatibleDataTable);
+    List<String> selectionColumns = Arrays.asList(_columnNames);
+
+    // The rows read from the data tables should be the same as the reduced rows
+    for (boolean preserveType : new boolean[]{true, false}) {
+      List<Serializable[]> expectedRows = SelectionOperatorUtils
+          .renderSelectionResultsWithoutOrdering(SelectionOperatorUtils.reduceWithoutOrdering(dataTables, 3),
+              _upgradedDataSchema, selectionColumns, preserveType).getRows();
+      SelectionResults selectionResults = SelectionOperatorUtils
+          .reduceToSelectionResultsWithoutOrdering(dataTables, 3, _upgradedDataSchema, selectionColumns, preserveType);
+      assertEquals(selectionResults.getColumns(), selectionColumns);
+      List<Serializable[]> rows = selectionResults.getRows();
+      assertEquals(rows.size(), 3);
+      for (int i = 0; i < 3; i++) {
+        assertTrue(Arrays.deepEquals(rows.get(i), expectedRows.get(i)));
+      }
+    }
+
+    // Selection size larger than the number of rows
+    assertEquals(SelectionOperatorUtils
+        .reduceToSelectionResultsWithoutOrdering(dataTables, 10, _upgradedDataSchema, selectionColumns, true).getRows()
+        .size(), 4);
+  }
+
   @Test
   public void testCompatibleRowsRenderSelectionResultsWithOrdering() {
     // Replace byte[] with String because it is already converted to String at this stage
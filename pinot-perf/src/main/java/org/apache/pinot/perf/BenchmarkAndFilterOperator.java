@@ -0,0 +1,125 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.perf;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.pinot.core.common.BlockDocIdIterator;
+import org.apache.pinot.core.common.Constants;
+import org.apache.pinot.core.operator.dociditerators.RangelessBitmapDocIdIterator;
+import org.apache.pinot.core.operator.filter.BaseFilterOperator;
+import org.apache.pinot.core.operator.filter.BitmapBasedFilterOperator;
+import org.apache.pinot.core.operator.filter.FilterOperatorUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * Benchmark for the AND filter with a non-selective bitmap placed before a highly selective one in the query, which
+ * compares the cost based AND filter operator against intersecting the bitmaps in the query order.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkAndFilterOperator {
+  private static final int NUM_DOCS = 10_000_000;
+  private static final long RANDOM_SEED = 1234567890L;
+
+  @Param({"100", "10000", "1000000"})
+  private int _numSelectiveDocs;
+
+  private ImmutableRoaringBitmap[] _bitmaps;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(RANDOM_SEED);
+    MutableRoaringBitmap denseBitmap = new MutableRoaringBitmap();
+    MutableRoaringBitmap halfBitmap = new MutableRoaringBitmap();
+    MutableRoaringBitmap selectiveBitmap = new MutableRoaringBitmap();
+    for (int i = 0; i < NUM_DOCS; i++) {
+      if (random.nextInt(10) != 0) {
+        denseBitmap.add(i);
+      }
+      if (random.nextBoolean()) {
+        halfBitmap.add(i);
+      }
+    }
+    for (int i = 0; i < _numSelectiveDocs; i++) {
+      selectiveBitmap.add(random.nextInt(NUM_DOCS));
+    }
+    denseBitmap.runOptimize();
+    halfBitmap.runOptimize();
+    _bitmaps = new ImmutableRoaringBitmap[]{denseBitmap, halfBitmap, selectiveBitmap};
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public int costBasedAndFilterOperator() {
+    List<BaseFilterOperator> filterOperators = new ArrayList<>(_bitmaps.length);
+    for (ImmutableRoaringBitmap bitmap : _bitmaps) {
+      filterOperators.add(
+          new BitmapBasedFilterOperator(new ImmutableRoaringBitmap[]{bitmap}, 0, NUM_DOCS - 1, false));
+    }
+    BaseFilterOperator andFilterOperator =
+        FilterOperatorUtils.getAndFilterOperator(filterOperators, NUM_DOCS, null, true);
+    return sumDocIds(andFilterOperator.nextBlock().getBlockDocIdSet().iterator());
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public int intersectInQueryOrder() {
+    MutableRoaringBitmap answer = _bitmaps[0].toMutableRoaringBitmap();
+    for (int i = 1; i < _bitmaps.length; i++) {
+      answer.and(_bitmaps[i]);
+    }
+    return sumDocIds(new RangelessBitmapDocIdIterator(answer.getIntIterator()));
+  }
+
+  private static int sumDocIds(BlockDocIdIterator iterator) {
+    int ret = 0;
+    int docId;
+    while ((docId = iterator.next()) != Constants.EOF) {
+      ret += docId;
+    }
+    return ret;
+  }
+
+  public static void main(String[] args)
+      throws Exception {
+    Options opt =
+        new OptionsBuilder().include(BenchmarkAndFilterOperator.class.getSimpleName()).warmupTime(TimeValue.seconds(5))
+            .warmupIterations(2).measurementTime(TimeValue.seconds(5)).measurementIterations(3).forks(1).build();
+
+    new Runner(opt).run();
+  }
+}
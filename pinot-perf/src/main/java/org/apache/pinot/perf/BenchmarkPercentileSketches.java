@@ -0,0 +1,186 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.perf;
+
+import com.tdunning.math.stats.TDigest;
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.pinot.core.query.aggregation.function.PercentileAggregationFunction;
+import org.apache.pinot.core.query.aggregation.function.PercentileEstAggregationFunction;
+import org.apache.pinot.core.query.aggregation.function.PercentileTDigestAggregationFunction;
+import org.apache.pinot.core.query.aggregation.function.customobject.DDSketch;
+import org.apache.pinot.core.query.aggregation.function.customobject.QuantileDigest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+
+/**
+ * Compares the cost of building, merging and querying the sketches behind percentileEst, percentileTDigest and
+ * percentileDDSketch on a heavy-tailed (log-normal) value distribution, with the exact percentile (which keeps all the
+ * values) as the baseline.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkPercentileSketches {
+  private static final int NUM_VALUES = 1_000_000;
+  private static final int NUM_SKETCHES_TO_MERGE = 100;
+  private static final double QUANTILE = 0.99;
+  private static final PercentileAggregationFunction EXACT_PERCENTILE_FUNCTION =
+      new PercentileAggregationFunction((int) (QUANTILE * 100));
+
+  private double[] _values;
+  private DoubleArrayList[] _valueLists;
+  private TDigest[] _tDigests;
+  private QuantileDigest[] _quantileDigests;
+  private DDSketch[] _ddSketches;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(0);
+    _values = new double[NUM_VALUES];
+    for (int i = 0; i < NUM_VALUES; i++) {
+      _values[i] = Math.exp(random.nextGaussian() * 2);
+    }
+
+    int numValuesPerSketch = NUM_VALUES / NUM_SKETCHES_TO_MERGE;
+    _valueLists = new DoubleArrayList[NUM_SKETCHES_TO_MERGE];
+    _tDigests = new TDigest[NUM_SKETCHES_TO_MERGE];
+    _quantileDigests = new QuantileDigest[NUM_SKETCHES_TO_MERGE];
+    _ddSketches = new DDSketch[NUM_SKETCHES_TO_MERGE];
+    for (int i = 0; i < NUM_SKETCHES_TO_MERGE; i++) {
+      _valueLists[i] = new DoubleArrayList(numValuesPerSketch);
+      _tDigests[i] = TDigest.createMergingDigest(PercentileTDigestAggregationFunction.DEFAULT_TDIGEST_COMPRESSION);
+      _quantileDigests[i] = new QuantileDigest(PercentileEstAggregationFunction.DEFAULT_MAX_ERROR);
+      _ddSketches[i] = new DDSketch();
+      for (int j = i * numValuesPerSketch; j < (i + 1) * numValuesPerSketch; j++) {
+        _valueLists[i].add(_values[j]);
+        _tDigests[i].add(_values[j]);
+        _quantileDigests[i].add((long) _values[j]);
+        _ddSketches[i].add(_values[j]);
+      }
+    }
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public double exactAdd() {
+    DoubleArrayList valueList = new DoubleArrayList();
+    for (double value : _values) {
+      valueList.add(value);
+    }
+    return EXACT_PERCENTILE_FUNCTION.extractFinalResult(valueList);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public double tDigestAdd() {
+    TDigest tDigest = TDigest.createMergingDigest(PercentileTDigestAggregationFunction.DEFAULT_TDIGEST_COMPRESSION);
+    for (double value : _values) {
+      tDigest.add(value);
+    }
+    return tDigest.quantile(QUANTILE);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public long quantileDigestAdd() {
+    QuantileDigest quantileDigest = new QuantileDigest(PercentileEstAggregationFunction.DEFAULT_MAX_ERROR);
+    for (double value : _values) {
+      quantileDigest.add((long) value);
+    }
+    return quantileDigest.getQuantile(QUANTILE);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public double ddSketchAdd() {
+    DDSketch ddSketch = new DDSketch();
+    for (double value : _values) {
+      ddSketch.add(value);
+    }
+    return ddSketch.getQuantile(QUANTILE);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public double exactMerge() {
+    // Merge into a new list because extracting the final result sorts the merged list in place
+    DoubleArrayList merged = new DoubleArrayList();
+    for (DoubleArrayList valueList : _valueLists) {
+      merged = EXACT_PERCENTILE_FUNCTION.merge(merged, valueList);
+    }
+    return EXACT_PERCENTILE_FUNCTION.extractFinalResult(merged);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public double tDigestMerge() {
+    TDigest merged = TDigest.createMergingDigest(PercentileTDigestAggregationFunction.DEFAULT_TDIGEST_COMPRESSION);
+    for (TDigest tDigest : _tDigests) {
+      merged.add(tDigest);
+    }
+    return merged.quantile(QUANTILE);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public long quantileDigestMerge() {
+    QuantileDigest merged = new QuantileDigest(PercentileEstAggregationFunction.DEFAULT_MAX_ERROR);
+    for (QuantileDigest quantileDigest : _quantileDigests) {
+      merged.merge(quantileDigest);
+    }
+    return merged.getQuantile(QUANTILE);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public double ddSketchMerge() {
+    DDSketch merged = new DDSketch();
+    for (DDSketch ddSketch : _ddSketches) {
+      merged.merge(ddSketch);
+    }
+    return merged.getQuantile(QUANTILE);
+  }
+
+  public static void main(String[] args)
+      throws Exception {
+    ChainedOptionsBuilder opt = new OptionsBuilder().include(BenchmarkPercentileSketches.class.getSimpleName())
+        .warmupTime(TimeValue.seconds(10)).warmupIterations(3).measurementTime(TimeValue.seconds(10))
+        .measurementIterations(5).forks(1);
+
+    new Runner(opt.build()).run();
+  }
+}
@@ -0,0 +1,87 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.perf;
+
+import com.google.common.util.concurrent.RateLimiter;
+import java.util.concurrent.TimeUnit;
+import org.apache.pinot.broker.queryquota.HitCounter;
+import org.apache.pinot.broker.queryquota.TokenBucketRateLimiter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+
+/**
+ * Benchmark of the per-table query quota check (hit counter and rate limiter) under contention, comparing the lock-free
+ * {@link TokenBucketRateLimiter} with the Guava {@link RateLimiter}.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkQueryQuota {
+
+  @Param({"100", "20000", "1000000"})
+  public double rate;
+
+  private HitCounter _hitCounter;
+  private RateLimiter _guavaRateLimiter;
+  private TokenBucketRateLimiter _tokenBucketRateLimiter;
+
+  @Setup
+  public void setUp() {
+    _hitCounter = new HitCounter(1);
+    _guavaRateLimiter = RateLimiter.create(rate);
+    _tokenBucketRateLimiter = new TokenBucketRateLimiter(rate);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @Threads(16)
+  public boolean guavaRateLimiter() {
+    _hitCounter.hit();
+    return _guavaRateLimiter.tryAcquire();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @Threads(16)
+  public boolean tokenBucketRateLimiter() {
+    _hitCounter.hit();
+    return _tokenBucketRateLimiter.tryAcquire();
+  }
+
+  public static void main(String[] args)
+      throws Exception {
+    ChainedOptionsBuilder opt = new OptionsBuilder().include(BenchmarkQueryQuota.class.getSimpleName())
+        .warmupTime(TimeValue.seconds(5)).warmupIterations(2).measurementTime(TimeValue.seconds(10))
+        .measurementIterations(3).forks(1);
+
+    new Runner(opt.build()).run();
+  }
+}
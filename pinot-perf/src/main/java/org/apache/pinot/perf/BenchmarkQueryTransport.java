@@ -0,0 +1,155 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.perf;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.yammer.metrics.core.MetricsRegistry;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import javax.annotation.Nonnull;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.apache.pinot.common.metrics.BrokerMetrics;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.common.request.BrokerRequest;
+import org.apache.pinot.common.utils.DataTable;
+import org.apache.pinot.core.common.datatable.DataTableImplV2;
+import org.apache.pinot.core.query.executor.ServerQueryExecutorV1Impl;
+import org.apache.pinot.core.query.request.ServerQueryRequest;
+import org.apache.pinot.core.query.scheduler.QueryScheduler;
+import org.apache.pinot.core.query.scheduler.resources.UnboundedResourceManager;
+import org.apache.pinot.core.transport.AsyncQueryResponse;
+import org.apache.pinot.core.transport.NettyTransportConfig;
+import org.apache.pinot.core.transport.QueryRouter;
+import org.apache.pinot.core.transport.QueryServer;
+import org.apache.pinot.core.transport.ServerInstance;
+import org.apache.pinot.core.transport.ServerResponse;
+import org.apache.pinot.core.transport.ServerRoutingInstance;
+import org.apache.pinot.pql.parsers.Pql2Compiler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+
+/**
+ * Loopback benchmark of the broker-server query transport for small queries, comparing the NIO and the native epoll
+ * transports, with and without the pooled direct buffers. The server responds immediately with an empty data table,
+ * so the throughput is bounded by the transport.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkQueryTransport {
+  private static final int PORT = 18098;
+  private static final BrokerRequest BROKER_REQUEST =
+      new Pql2Compiler().compileToBrokerRequest("SELECT COUNT(*) FROM testTable");
+  private static final Map<ServerInstance, List<String>> ROUTING_TABLE =
+      Collections.singletonMap(new ServerInstance("localhost", PORT), Collections.singletonList("testSegment"));
+
+  @Param({"false", "true"})
+  public boolean nativeTransportEnabled;
+
+  @Param({"false", "true"})
+  public boolean pooledDirectBuffersEnabled;
+
+  private final AtomicLong _requestIdGenerator = new AtomicLong();
+  private QueryServer _queryServer;
+  private Thread _queryServerThread;
+  private QueryRouter _queryRouter;
+
+  @Setup
+  public void setUp()
+      throws Exception {
+    NettyTransportConfig transportConfig =
+        new NettyTransportConfig(nativeTransportEnabled, pooledDirectBuffersEnabled, null);
+    ServerMetrics serverMetrics = new ServerMetrics(new MetricsRegistry());
+    QueryScheduler queryScheduler =
+        new QueryScheduler(new PropertiesConfiguration(), new ServerQueryExecutorV1Impl(),
+            new UnboundedResourceManager(new PropertiesConfiguration()), serverMetrics,
+            new LongAccumulator(Long::max, 0)) {
+          @Nonnull
+          @Override
+          public ListenableFuture<byte[]> submit(@Nonnull ServerQueryRequest queryRequest) {
+            DataTable dataTable = new DataTableImplV2();
+            dataTable.getMetadata()
+                .put(DataTable.REQUEST_ID_METADATA_KEY, Long.toString(queryRequest.getRequestId()));
+            try {
+              return Futures.immediateFuture(dataTable.toBytes());
+            } catch (Exception e) {
+              return Futures.immediateFailedFuture(e);
+            }
+          }
+
+          @Override
+          public String name() {
+            return "BenchmarkQueryScheduler";
+          }
+        };
+    _queryServer = new QueryServer(PORT, queryScheduler, serverMetrics, transportConfig);
+    _queryServerThread = new Thread(_queryServer);
+    _queryServerThread.start();
+    // Wait for the server to start
+    Thread.sleep(1000L);
+
+    _queryRouter = new QueryRouter("benchmarkBroker", new BrokerMetrics(new MetricsRegistry()), 1, transportConfig);
+  }
+
+  @TearDown
+  public void tearDown()
+      throws Exception {
+    _queryRouter.shutDown();
+    _queryServer.shutDown();
+    _queryServerThread.join();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  @Threads(16)
+  public int sendQuery()
+      throws Exception {
+    AsyncQueryResponse asyncQueryResponse = _queryRouter
+        .submitQuery(_requestIdGenerator.getAndIncrement(), "testTable", BROKER_REQUEST, ROUTING_TABLE, null, null,
+            10_000L);
+    Map<ServerRoutingInstance, ServerResponse> response = asyncQueryResponse.getResponse();
+    return response.values().iterator().next().getResponseSize();
+  }
+
+  public static void main(String[] args)
+      throws Exception {
+    ChainedOptionsBuilder opt = new OptionsBuilder().include(BenchmarkQueryTransport.class.getSimpleName())
+        .warmupTime(TimeValue.seconds(10)).warmupIterations(1).measurementTime(TimeValue.seconds(30))
+        .measurementIterations(3).forks(1);
+
+    new Runner(opt.build()).run();
+  }
+}
@@ -20,6 +20,7 @@ package org.apache.pinot.server.conf;
 
 import org.apache.commons.configuration.Configuration;
 import org.apache.commons.configuration.ConfigurationException;
+import org.apache.pinot.core.transport.NettyTransportConfig;
 
 
 public class NettyServerConfig {
@@ -43,4 +44,11 @@ public class NettyServerConfig {
   public int getPort() {
     return _serverNettyConfig.getInt(NETTY_SERVER_PORT);
   }
+
+  /**
+   * @return Netty transport config (native transport, pooled direct buffers, write buffer water marks)
+   */
+  public NettyTransportConfig getTransportConfig() {
+    return NettyTransportConfig.fromConfiguration(_serverNettyConfig);
+  }
 }
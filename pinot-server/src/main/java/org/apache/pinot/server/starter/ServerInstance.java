@@ -26,6 +26,7 @@ import org.apache.pinot.core.data.manager.InstanceDataManager;
 import org.apache.pinot.core.query.executor.QueryExecutor;
 import org.apache.pinot.core.query.scheduler.QueryScheduler;
 import org.apache.pinot.core.transport.QueryServer;
+import org.apache.pinot.server.conf.NettyServerConfig;
 import org.apache.pinot.server.conf.ServerConf;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -57,7 +58,9 @@ public class ServerInstance {
     _queryExecutor = serverBuilder.buildQueryExecutor(_instanceDataManager);
     _latestQueryTime = new LongAccumulator(Long::max, 0);
     _queryScheduler = serverBuilder.buildQueryScheduler(_queryExecutor, _latestQueryTime);
-    _queryServer = new QueryServer(serverConf.getNettyConfig().getPort(), _queryScheduler, _serverMetrics);
+    NettyServerConfig nettyServerConfig = serverConf.getNettyConfig();
+    _queryServer = new QueryServer(nettyServerConfig.getPort(), _queryScheduler, _serverMetrics,
+        nettyServerConfig.getTransportConfig());
 
     LOGGER.info("Finish initializing server instance");
   }
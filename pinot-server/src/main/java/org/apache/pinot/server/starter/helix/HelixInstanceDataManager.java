@@ -48,6 +48,7 @@ import org.apache.pinot.core.data.manager.config.TableDataManagerConfig;
 import org.apache.pinot.core.data.manager.offline.TableDataManagerProvider;
 import org.apache.pinot.core.indexsegment.immutable.ImmutableSegment;
 import org.apache.pinot.core.indexsegment.immutable.ImmutableSegmentLoader;
+import org.apache.pinot.core.segment.index.column.LazyColumnIndexManager;
 import org.apache.pinot.core.segment.index.loader.IndexLoadingConfig;
 import org.apache.pinot.core.segment.index.loader.LoaderUtils;
 import org.slf4j.Logger;
@@ -94,6 +95,12 @@ public class HelixInstanceDataManager implements InstanceDataManager {
     // Initialize the table data manager provider
     TableDataManagerProvider.init(_instanceDataManagerConfig);
 
+    // Initialize the memory budget for the lazily loaded column indexes
+    if (_instanceDataManagerConfig.isLazyColumnIndexLoading()) {
+      LazyColumnIndexManager.getInstance()
+          .setMemoryBudgetBytes(_instanceDataManagerConfig.getLazyColumnIndexMemoryBudgetBytes());
+    }
+
     LOGGER.info("Initialized Helix instance data manager");
   }
 
@@ -89,6 +89,17 @@ public class HelixInstanceDataManagerConfig implements InstanceDataManagerConfig
   //
   private static final String MAX_PARALLEL_REFRESH_THREADS = "max.parallel.refresh.threads";
 
+  // Key of whether to load the column indexes of immutable segments lazily on the first access.
+  // Lazily loaded column indexes can be evicted when their total size exceeds the memory budget below.
+  private static final String LAZY_COLUMN_INDEX_LOADING = "lazy.column.index.loading";
+  // Key of the memory budget (in bytes) for the lazily loaded column indexes.
+  // A value of <= 0 indicates unlimited.
+  private static final String LAZY_COLUMN_INDEX_MEMORY_BUDGET_BYTES = "lazy.column.index.memory.budget.bytes";
+
+  // Key of whether to skip pre-processing the segment (creating inverted indexes, bloom filters, default columns etc.)
+  // when loading it if the segment has already been pre-processed with the same index config and schema.
+  private static final String SKIP_PRE_PROCESS_IF_INDEX_CONFIG_UNCHANGED = "skip.preprocess.if.index.config.unchanged";
+
   private final static String[] REQUIRED_KEYS = {INSTANCE_ID, INSTANCE_DATA_DIR, READ_MODE};
   private Configuration _instanceDataManagerConfiguration = null;
 
@@ -185,6 +196,20 @@ public class HelixInstanceDataManagerConfig implements InstanceDataManagerConfig
     return _instanceDataManagerConfiguration.getInt(MAX_PARALLEL_SEGMENT_BUILDS, 0);
   }
 
+  @Override
+  public boolean isLazyColumnIndexLoading() {
+    return _instanceDataManagerConfiguration.getBoolean(LAZY_COLUMN_INDEX_LOADING, false);
+  }
+
+  @Override
+  public boolean isSkipPreProcessIfIndexConfigUnchanged() {
+    return _instanceDataManagerConfiguration.getBoolean(SKIP_PRE_PROCESS_IF_INDEX_CONFIG_UNCHANGED, false);
+  }
+
+  public long getLazyColumnIndexMemoryBudgetBytes() {
+    return _instanceDataManagerConfiguration.getLong(LAZY_COLUMN_INDEX_MEMORY_BUDGET_BYTES, 0L);
+  }
+
   @Override
   public String toString() {
     String configString = "";
@@ -56,6 +56,7 @@ import org.apache.pinot.common.utils.CommonConstants;
 import org.apache.pinot.common.utils.NetUtil;
 import org.apache.pinot.common.utils.ServiceStatus;
 import org.apache.pinot.common.utils.ServiceStatus.Status;
+import org.apache.pinot.core.segment.index.column.LazyColumnIndexManager;
 import org.apache.pinot.core.segment.memory.PinotDataBuffer;
 import org.apache.pinot.filesystem.PinotFSFactory;
 import org.apache.pinot.server.conf.ServerConf;
@@ -76,6 +77,7 @@ import static org.apache.pinot.common.utils.CommonConstants.Server.*;
  *   <li>
  *     Optional start-up checks:
  *     <ul>
+ *       <li>Segment preloading from local disk (OFF by default)</li>
  *       <li>Service status check (ON by default)</li>
  *     </ul>
  *   </li>
@@ -175,6 +177,19 @@ public class HelixServerStarter {
     // Register state model factory
     SegmentFetcherAndLoader fetcherAndLoader =
         new SegmentFetcherAndLoader(_serverConf, _serverInstance.getInstanceDataManager(), propertyStore);
+
+    // Preload the segments from the local disk in parallel before receiving state transitions
+    int numSegmentPreloadThreads =
+        _serverConf.getInt(CONFIG_OF_STARTUP_SEGMENT_PRELOAD_THREADS, DEFAULT_STARTUP_SEGMENT_PRELOAD_THREADS);
+    if (numSegmentPreloadThreads > 0) {
+      SegmentPreloader segmentPreloader =
+          new SegmentPreloader(_helixAdmin, helixClusterName, _instanceId, fetcherAndLoader, numSegmentPreloadThreads);
+      // Report the preloading progress as the service status until the service status handler is registered
+      ServiceStatus.setServiceStatusCallback(segmentPreloader);
+      segmentPreloader
+          .preload(startTimeMs + _serverConf.getLong(CONFIG_OF_STARTUP_TIMEOUT_MS, DEFAULT_STARTUP_TIMEOUT_MS));
+    }
+
     StateModelFactory<?> stateModelFactory =
         new SegmentOnlineOfflineStateModelFactory(_instanceId, _serverInstance.getInstanceDataManager(),
             fetcherAndLoader, propertyStore);
@@ -217,6 +232,14 @@ public class HelixServerStarter {
     serverMetrics.addCallbackGauge("memory.mmapBufferCount", PinotDataBuffer::getMmapBufferCount);
     serverMetrics.addCallbackGauge("memory.mmapBufferUsage", PinotDataBuffer::getMmapBufferUsage);
     serverMetrics.addCallbackGauge("memory.allocationFailureCount", PinotDataBuffer::getAllocationFailureCount);
+
+    // Create metrics for lazily loaded column indexes
+    LazyColumnIndexManager lazyColumnIndexManager = LazyColumnIndexManager.getInstance();
+    serverMetrics.addCallbackGauge("memory.lazyColumnIndexUsage", lazyColumnIndexManager::getLoadedBytes);
+    serverMetrics.addCallbackGauge("memory.lazyColumnIndexCount",
+        () -> (long) lazyColumnIndexManager.getNumLoadedColumns());
+    serverMetrics.addCallbackGauge("memory.lazyColumnIndexLoads", lazyColumnIndexManager::getNumLoads);
+    serverMetrics.addCallbackGauge("memory.lazyColumnIndexEvictions", lazyColumnIndexManager::getNumEvictions);
   }
 
   /**
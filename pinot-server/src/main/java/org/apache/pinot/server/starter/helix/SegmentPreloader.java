@@ -0,0 +1,154 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.server.starter.helix;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.helix.HelixAdmin;
+import org.apache.helix.model.IdealState;
+import org.apache.pinot.common.config.TableNameBuilder;
+import org.apache.pinot.common.utils.CommonConstants.Helix.StateModel.SegmentOnlineOfflineStateModel;
+import org.apache.pinot.common.utils.ServiceStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The {@code SegmentPreloader} loads the offline segments assigned to this instance from the local disk in parallel
+ * before the server starts receiving Helix state transitions. The OFFLINE -> ONLINE state transitions for the
+ * preloaded segments become no-ops because the segments are already loaded with the same CRC.
+ * <p>While preloading, the loading progress is reported as the service status description.
+ */
+public class SegmentPreloader implements ServiceStatus.ServiceStatusCallback {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SegmentPreloader.class);
+  private static final long PROGRESS_LOG_INTERVAL_MS = 10_000L;
+
+  private final HelixAdmin _helixAdmin;
+  private final String _helixClusterName;
+  private final String _instanceId;
+  private final SegmentFetcherAndLoader _fetcherAndLoader;
+  private final int _numThreads;
+
+  private final AtomicInteger _numSegmentsLoaded = new AtomicInteger();
+  private final AtomicInteger _numSegmentsFailed = new AtomicInteger();
+  private volatile int _numSegmentsToLoad;
+  private volatile boolean _stopped;
+
+  public SegmentPreloader(HelixAdmin helixAdmin, String helixClusterName, String instanceId,
+      SegmentFetcherAndLoader fetcherAndLoader, int numThreads) {
+    _helixAdmin = helixAdmin;
+    _helixClusterName = helixClusterName;
+    _instanceId = instanceId;
+    _fetcherAndLoader = fetcherAndLoader;
+    _numThreads = numThreads;
+  }
+
+  /**
+   * Preloads the segments until all of them are loaded or the given end time is reached. Segments failed to be
+   * preloaded or not preloaded before the end time will be loaded through the regular state transitions.
+   * <p>NOTE: when the end time is reached, the segments being loaded are not interrupted (interrupting the loading
+   * might leave the segment directory in a bad state), only the segments not yet started are skipped.
+   */
+  public void preload(long endTimeMs)
+      throws InterruptedException {
+    long startTimeMs = System.currentTimeMillis();
+    List<String[]> segmentsToLoad = getSegmentsToLoad();
+    _numSegmentsToLoad = segmentsToLoad.size();
+    if (segmentsToLoad.isEmpty()) {
+      LOGGER.info("No segment to preload from local disk");
+      return;
+    }
+    LOGGER.info("Preloading {} segments from local disk with {} threads", segmentsToLoad.size(), _numThreads);
+
+    ExecutorService executorService = Executors.newFixedThreadPool(_numThreads);
+    for (String[] tableAndSegment : segmentsToLoad) {
+      String tableNameWithType = tableAndSegment[0];
+      String segmentName = tableAndSegment[1];
+      executorService.submit(() -> {
+        if (_stopped) {
+          return;
+        }
+        try {
+          _fetcherAndLoader.addOrReplaceOfflineSegment(tableNameWithType, segmentName);
+          _numSegmentsLoaded.getAndIncrement();
+        } catch (Exception e) {
+          LOGGER.warn("Caught exception while preloading segment: {} of table: {}, will be loaded through state "
+              + "transition", segmentName, tableNameWithType, e);
+          _numSegmentsFailed.getAndIncrement();
+        }
+      });
+    }
+    executorService.shutdown();
+
+    while (!executorService.awaitTermination(
+        Math.max(Math.min(PROGRESS_LOG_INTERVAL_MS, endTimeMs - System.currentTimeMillis()), 0L),
+        TimeUnit.MILLISECONDS)) {
+      if (System.currentTimeMillis() >= endTimeMs) {
+        LOGGER.warn("Timed out while preloading segments, stop preloading the remaining segments: {}",
+            getStatusDescription());
+        _stopped = true;
+        return;
+      }
+      LOGGER.info("Preloading segments: {}", getStatusDescription());
+    }
+    LOGGER.info("Finished preloading segments in {}ms: {}", System.currentTimeMillis() - startTimeMs,
+        getStatusDescription());
+  }
+
+  /**
+   * Returns the (table, segment) pairs for the offline segments assigned to this instance in the ideal state that
+   * exist on the local disk.
+   */
+  private List<String[]> getSegmentsToLoad() {
+    List<String[]> segmentsToLoad = new ArrayList<>();
+    for (String resourceName : _helixAdmin.getResourcesInCluster(_helixClusterName)) {
+      if (!TableNameBuilder.isOfflineTableResource(resourceName)) {
+        continue;
+      }
+      IdealState idealState = _helixAdmin.getResourceIdealState(_helixClusterName, resourceName);
+      if (idealState == null || !idealState.isEnabled()) {
+        continue;
+      }
+      for (String segmentName : idealState.getPartitionSet()) {
+        if (SegmentOnlineOfflineStateModel.ONLINE
+            .equals(idealState.getInstanceStateMap(segmentName).get(_instanceId)) && new File(
+            _fetcherAndLoader.getSegmentLocalDirectory(resourceName, segmentName)).isDirectory()) {
+          segmentsToLoad.add(new String[]{resourceName, segmentName});
+        }
+      }
+    }
+    return segmentsToLoad;
+  }
+
+  @Override
+  public ServiceStatus.Status getServiceStatus() {
+    return ServiceStatus.Status.STARTING;
+  }
+
+  @Override
+  public String getStatusDescription() {
+    return String.format("Preloaded %d/%d segments (%d failed)", _numSegmentsLoaded.get(), _numSegmentsToLoad,
+        _numSegmentsFailed.get());
+  }
+}
@@ -0,0 +1,183 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.server.starter.helix;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.commons.io.FileUtils;
+import org.apache.helix.HelixAdmin;
+import org.apache.helix.model.IdealState;
+import org.apache.pinot.common.utils.CommonConstants.Helix.StateModel.SegmentOnlineOfflineStateModel;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+public class SegmentPreloaderTest {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "SegmentPreloaderTest");
+  private static final String CLUSTER_NAME = "testCluster";
+  private static final String INSTANCE_ID = "Server_localhost_1234";
+  private static final String OTHER_INSTANCE_ID = "Server_localhost_5678";
+  private static final String OFFLINE_TABLE_NAME = "testTable_OFFLINE";
+  private static final String REALTIME_TABLE_NAME = "testTable_REALTIME";
+  private static final int NUM_SEGMENTS = 8;
+  private static final int NUM_THREADS = 4;
+
+  private HelixAdmin _helixAdmin;
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(TEMP_DIR);
+
+    IdealState offlineIdealState = new IdealState(OFFLINE_TABLE_NAME);
+    for (int i = 0; i < NUM_SEGMENTS; i++) {
+      String segmentName = getSegmentName(i);
+      offlineIdealState.setPartitionState(segmentName, INSTANCE_ID, SegmentOnlineOfflineStateModel.ONLINE);
+      FileUtils.forceMkdir(new File(TEMP_DIR, segmentName));
+    }
+    // Segment not on local disk should not be preloaded
+    offlineIdealState.setPartitionState("missingSegment", INSTANCE_ID, SegmentOnlineOfflineStateModel.ONLINE);
+    // Segment assigned to another instance should not be preloaded
+    offlineIdealState.setPartitionState("otherSegment", OTHER_INSTANCE_ID, SegmentOnlineOfflineStateModel.ONLINE);
+    FileUtils.forceMkdir(new File(TEMP_DIR, "otherSegment"));
+    // Realtime segment should not be preloaded
+    IdealState realtimeIdealState = new IdealState(REALTIME_TABLE_NAME);
+    realtimeIdealState.setPartitionState("realtimeSegment", INSTANCE_ID, SegmentOnlineOfflineStateModel.ONLINE);
+    FileUtils.forceMkdir(new File(TEMP_DIR, "realtimeSegment"));
+
+    _helixAdmin = mock(HelixAdmin.class);
+    when(_helixAdmin.getResourcesInCluster(CLUSTER_NAME))
+        .thenReturn(Arrays.asList(OFFLINE_TABLE_NAME, REALTIME_TABLE_NAME));
+    when(_helixAdmin.getResourceIdealState(CLUSTER_NAME, OFFLINE_TABLE_NAME)).thenReturn(offlineIdealState);
+    when(_helixAdmin.getResourceIdealState(CLUSTER_NAME, REALTIME_TABLE_NAME)).thenReturn(realtimeIdealState);
+  }
+
+  @Test
+  public void testPreloadInParallel()
+      throws Exception {
+    Set<String> loadedSegments = ConcurrentHashMap.newKeySet();
+    // The first segments can only be loaded if all the threads load segments at the same time
+    CountDownLatch allThreadsLoading = new CountDownLatch(NUM_THREADS);
+    SegmentFetcherAndLoader fetcherAndLoader = mockFetcherAndLoader();
+    doAnswer(invocation -> {
+      Assert.assertEquals(invocation.getArgument(0), OFFLINE_TABLE_NAME);
+      allThreadsLoading.countDown();
+      if (!allThreadsLoading.await(10L, TimeUnit.SECONDS)) {
+        throw new IllegalStateException("Segments are not loaded in parallel");
+      }
+      loadedSegments.add(invocation.getArgument(1));
+      return null;
+    }).when(fetcherAndLoader).addOrReplaceOfflineSegment(anyString(), anyString());
+
+    SegmentPreloader segmentPreloader =
+        new SegmentPreloader(_helixAdmin, CLUSTER_NAME, INSTANCE_ID, fetcherAndLoader, NUM_THREADS);
+    segmentPreloader.preload(System.currentTimeMillis() + 60_000L);
+
+    Set<String> expectedSegments = new HashSet<>();
+    for (int i = 0; i < NUM_SEGMENTS; i++) {
+      expectedSegments.add(getSegmentName(i));
+    }
+    Assert.assertEquals(loadedSegments, expectedSegments);
+    Assert.assertEquals(segmentPreloader.getStatusDescription(),
+        String.format("Preloaded %d/%d segments (0 failed)", NUM_SEGMENTS, NUM_SEGMENTS));
+  }
+
+  @Test
+  public void testPreloadFailure()
+      throws Exception {
+    SegmentFetcherAndLoader fetcherAndLoader = mockFetcherAndLoader();
+    doAnswer(invocation -> {
+      if (invocation.getArgument(1).equals(getSegmentName(0))) {
+        throw new RuntimeException("Failed to load segment");
+      }
+      return null;
+    }).when(fetcherAndLoader).addOrReplaceOfflineSegment(anyString(), anyString());
+
+    SegmentPreloader segmentPreloader =
+        new SegmentPreloader(_helixAdmin, CLUSTER_NAME, INSTANCE_ID, fetcherAndLoader, NUM_THREADS);
+    segmentPreloader.preload(System.currentTimeMillis() + 60_000L);
+    Assert.assertEquals(segmentPreloader.getStatusDescription(),
+        String.format("Preloaded %d/%d segments (1 failed)", NUM_SEGMENTS - 1, NUM_SEGMENTS));
+  }
+
+  @Test
+  public void testPreloadTimeout()
+      throws Exception {
+    Set<String> startedSegments = ConcurrentHashMap.newKeySet();
+    AtomicBoolean interrupted = new AtomicBoolean();
+    CountDownLatch releaseLoading = new CountDownLatch(1);
+    CountDownLatch loadingFinished = new CountDownLatch(NUM_THREADS);
+    SegmentFetcherAndLoader fetcherAndLoader = mockFetcherAndLoader();
+    doAnswer(invocation -> {
+      startedSegments.add(invocation.getArgument(1));
+      try {
+        releaseLoading.await();
+      } catch (InterruptedException e) {
+        interrupted.set(true);
+      }
+      loadingFinished.countDown();
+      return null;
+    }).when(fetcherAndLoader).addOrReplaceOfflineSegment(anyString(), anyString());
+
+    SegmentPreloader segmentPreloader =
+        new SegmentPreloader(_helixAdmin, CLUSTER_NAME, INSTANCE_ID, fetcherAndLoader, NUM_THREADS);
+    long startTimeMs = System.currentTimeMillis();
+    segmentPreloader.preload(startTimeMs + 500L);
+    Assert.assertTrue(System.currentTimeMillis() - startTimeMs >= 500L);
+    Assert.assertEquals(startedSegments.size(), NUM_THREADS);
+
+    // The segments being loaded should not be interrupted, and the remaining segments should not be loaded
+    releaseLoading.countDown();
+    Assert.assertTrue(loadingFinished.await(10L, TimeUnit.SECONDS));
+    Assert.assertFalse(interrupted.get());
+    Thread.sleep(100L);
+    Assert.assertEquals(startedSegments.size(), NUM_THREADS);
+    Assert.assertEquals(segmentPreloader.getStatusDescription(),
+        String.format("Preloaded %d/%d segments (0 failed)", NUM_THREADS, NUM_SEGMENTS));
+  }
+
+  private SegmentFetcherAndLoader mockFetcherAndLoader() {
+    SegmentFetcherAndLoader fetcherAndLoader = mock(SegmentFetcherAndLoader.class);
+    when(fetcherAndLoader.getSegmentLocalDirectory(anyString(), anyString()))
+        .thenAnswer(invocation -> new File(TEMP_DIR, invocation.getArgument(1)).getAbsolutePath());
+    return fetcherAndLoader;
+  }
+
+  private static String getSegmentName(int index) {
+    return "testSegment_" + index;
+  }
+
+  @AfterClass
+  public void tearDown() {
+    FileUtils.deleteQuietly(TEMP_DIR);
+  }
+}